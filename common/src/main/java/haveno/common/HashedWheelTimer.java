@@ -0,0 +1,100 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Timer backed by a global hierarchical timing wheel. Unlike FrameRateTimer it does not check all timers on each
+ * frame, scheduling and stopping is O(1) and a tick only touches the timers which expire.
+ * Expired timers are run in one batch on the user thread, using the same 100 ms resolution as the MasterTimer.
+ */
+public class HashedWheelTimer implements Timer {
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+    public static final long TICK_MS = MasterTimer.FRAME_INTERVAL_MS;
+
+    private static final TimingWheel WHEEL = new TimingWheel(TICK_MS, () -> System.nanoTime() / 1_000_000);
+
+    static {
+        Thread thread = new Thread(HashedWheelTimer::runWheel, "HashedWheelTimer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private volatile TimingWheel.Timeout timeout;
+
+    public HashedWheelTimer() {
+    }
+
+    @Override
+    public Timer runLater(Duration delay, Runnable runnable) {
+        timeout = WHEEL.schedule(runnable, delay.toMillis(), 0);
+        return this;
+    }
+
+    @Override
+    public Timer runPeriodically(Duration interval, Runnable runnable) {
+        timeout = WHEEL.schedule(runnable, interval.toMillis(), interval.toMillis());
+        return this;
+    }
+
+    @Override
+    public void stop() {
+        TimingWheel.Timeout timeout = this.timeout;
+        if (timeout != null) WHEEL.cancel(timeout);
+    }
+
+    public static int getNumScheduledTimers() {
+        return WHEEL.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void runWheel() {
+        while (true) {
+            try {
+                Thread.sleep(Math.max(1, WHEEL.getMillisUntilNextTick()));
+                List<TimingWheel.Timeout> expired = WHEEL.expire();
+                if (!expired.isEmpty()) UserThread.execute(() -> expired.forEach(HashedWheelTimer::run));
+            } catch (InterruptedException e) {
+                log.warn("HashedWheelTimer thread interrupted");
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                log.error("Error advancing HashedWheelTimer", t);
+            }
+        }
+    }
+
+    private static void run(TimingWheel.Timeout timeout) {
+        try {
+            timeout.run();
+        } catch (Throwable t) {
+            // Like FrameRateTimer, a failing timer is stopped. The other timers of the batch still run.
+            log.error("exception in HashedWheelTimer", t);
+            WHEEL.cancel(timeout);
+        }
+    }
+}
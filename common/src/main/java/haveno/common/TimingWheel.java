@@ -0,0 +1,244 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical hashed timing wheel as described by Varghese and Lauck.
+ * <p>
+ * The first level has a slot per tick, each higher level has slots covering a whole revolution of the level below.
+ * Timeouts are added to the slot of their deadline in the lowest level which covers it, so scheduling and cancelling
+ * is O(1). When the first level completes a revolution, the next slot of the level above is cascaded down. Only the
+ * timeouts in the current slot are touched per tick. Deadlines beyond the highest level (about 77 days with 100 ms
+ * ticks) are kept in its last slot and cascaded again until they are in range.
+ * <p>
+ * The wheel is advanced by calling expire, the caller runs the returned timeouts. Thread safe.
+ */
+class TimingWheel {
+    private static final int FIRST_LEVEL_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int NUM_LEVELS = 4;
+    private static final long MAX_TICKS = (1L << (FIRST_LEVEL_BITS + LEVEL_BITS * (NUM_LEVELS - 1))) - 1;
+
+    static class Timeout {
+        private final Runnable task;
+        private final long periodTicks;
+        private long deadlineTick;
+        private volatile boolean cancelled;
+
+        // Guarded by the wheel
+        private Slot slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineTick, long periodTicks) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+            this.periodTicks = periodTicks;
+        }
+
+        boolean isPeriodic() {
+            return periodTicks > 0;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Runs the task unless the timeout was cancelled after it expired.
+         */
+        void run() {
+            if (!cancelled) task.run();
+        }
+    }
+
+    // Doubly linked list of timeouts for O(1) removal
+    private static class Slot {
+        private Timeout head;
+
+        private void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) head.prev = timeout;
+            head = timeout;
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev != null) timeout.prev.next = timeout.next;
+            else head = timeout.next;
+            if (timeout.next != null) timeout.next.prev = timeout.prev;
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        private Timeout removeAll() {
+            Timeout timeouts = head;
+            head = null;
+            return timeouts;
+        }
+    }
+
+    private final long tickMs;
+    private final LongSupplier clock;
+    private final long startMs;
+    private final Slot[][] levels = new Slot[NUM_LEVELS][];
+    // Next tick to process
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMs duration of a tick in ms
+     * @param clock  monotonic clock in ms
+     */
+    TimingWheel(long tickMs, LongSupplier clock) {
+        this.tickMs = tickMs;
+        this.clock = clock;
+        this.startMs = clock.getAsLong();
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            levels[level] = new Slot[1 << getLevelBits(level)];
+            for (int i = 0; i < levels[level].length; i++) levels[level][i] = new Slot();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Schedules the task to expire after the delay and then every period if the period is positive. The deadline is
+     * rounded up to the next tick.
+     */
+    synchronized Timeout schedule(Runnable task, long delayMs, long periodMs) {
+        long deadlineTick = Math.ceilDiv(clock.getAsLong() + Math.max(0, delayMs) - startMs, tickMs);
+        long periodTicks = periodMs > 0 ? Math.max(1, Math.ceilDiv(periodMs, tickMs)) : 0;
+        Timeout timeout = new Timeout(task, deadlineTick, periodTicks);
+        add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels the timeout. Returns false if it was not scheduled anymore.
+     */
+    synchronized boolean cancel(Timeout timeout) {
+        timeout.cancelled = true;
+        if (timeout.slot == null) return false;
+        timeout.slot.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the current time and returns the expired timeouts in the order of their deadlines.
+     * Periodic timeouts are scheduled again. If ticks were missed, they fire once and then continue one period
+     * after the current tick.
+     */
+    synchronized List<Timeout> expire() {
+        long nowTick = Math.floorDiv(clock.getAsLong() - startMs, tickMs);
+        List<Timeout> expired = new ArrayList<>();
+        while (currentTick <= nowTick) {
+            int index = (int) (currentTick & (levels[0].length - 1));
+            if (index == 0) {
+                for (int level = 1; level < NUM_LEVELS; level++) {
+                    int levelIndex = getSlotIndex(level, currentTick);
+                    cascade(levels[level][levelIndex]);
+                    if (levelIndex != 0) break;
+                }
+            }
+            currentTick++;
+
+            Timeout timeout = levels[0][index].removeAll();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.slot = null;
+                timeout.prev = null;
+                timeout.next = null;
+                size--;
+                expired.add(timeout);
+                if (timeout.isPeriodic()) {
+                    timeout.deadlineTick = Math.max(timeout.deadlineTick, nowTick) + timeout.periodTicks;
+                    add(timeout);
+                    size++;
+                }
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the ms until the next tick is due, 0 if it is due already.
+     */
+    synchronized long getMillisUntilNextTick() {
+        return Math.max(0, startMs + currentTick * tickMs - clock.getAsLong());
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void add(Timeout timeout) {
+        long deadlineTick = timeout.deadlineTick;
+        long ticks = deadlineTick - currentTick;
+        if (ticks < 0) {
+            // Missed deadlines expire with the next tick
+            levels[0][(int) (currentTick & (levels[0].length - 1))].add(timeout);
+            return;
+        }
+        if (ticks > MAX_TICKS) deadlineTick = currentTick + MAX_TICKS;
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            if (level == NUM_LEVELS - 1 || ticks < 1L << getShift(level + 1)) {
+                levels[level][getSlotIndex(level, deadlineTick)].add(timeout);
+                return;
+            }
+        }
+    }
+
+    private void cascade(Slot slot) {
+        Timeout timeout = slot.removeAll();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            add(timeout);
+            timeout = next;
+        }
+    }
+
+    private int getSlotIndex(int level, long tick) {
+        return (int) ((tick >> getShift(level)) & (levels[level].length - 1));
+    }
+
+    private static int getShift(int level) {
+        return level == 0 ? 0 : FIRST_LEVEL_BITS + LEVEL_BITS * (level - 1);
+    }
+
+    private static int getLevelBits(int level) {
+        return level == 0 ? FIRST_LEVEL_BITS : LEVEL_BITS;
+    }
+}
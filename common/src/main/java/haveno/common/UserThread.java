@@ -35,7 +35,7 @@ import java.util.concurrent.TimeUnit;
  * For JavaFX it is usually the Platform::RunLater executor, for a headless application it is any single threaded
  * executor.
  * Additionally sets a timer class so JavaFX and headless applications can set different timers (UITimer for JavaFX
- * otherwise we use the default FrameRateTimer).
+ * otherwise we use the default HashedWheelTimer, FrameRateTimer is still available).
  * <p>
  * Provides also methods for delayed and periodic executions.
  */
@@ -54,7 +54,7 @@ public class UserThread {
     static {
         // If not defined we use same thread as caller thread
         executor = MoreExecutors.directExecutor();
-        timerClass = FrameRateTimer.class;
+        timerClass = HashedWheelTimer.class;
     }
 
     public static void execute(Runnable command) {
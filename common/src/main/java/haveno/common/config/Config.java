@@ -120,6 +120,8 @@ public class Config {
     public static final String UPDATE_XMR_BINARIES = "updateXmrBinaries";
     public static final String XMR_BLOCKCHAIN_PATH = "xmrBlockchainPath";
     public static final String DISABLE_RATE_LIMITS = "disableRateLimits";
+    public static final String USE_MAPPED_HISTORICAL_STORES = "useMappedHistoricalStores";
+    public static final String USE_PERSISTENCE_JOURNAL = "usePersistenceJournal";
 
     // Default values for certain options
     public static final int UNSPECIFIED_PORT = -1;
@@ -210,6 +212,8 @@ public class Config {
     public final boolean updateXmrBinaries;
     public final String xmrBlockchainPath;
     public final boolean disableRateLimits;
+    public final boolean useMappedHistoricalStores;
+    public final boolean usePersistenceJournal;
 
     // Properties derived from options but not exposed as options themselves
     public final File torDir;
@@ -648,6 +652,22 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Boolean> useMappedHistoricalStoresOpt =
+                parser.accepts(USE_MAPPED_HISTORICAL_STORES,
+                        "Keep historical trade statistics and account age witness data in memory-mapped " +
+                                "log files instead of the heap (recommended for seed nodes)")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Boolean> usePersistenceJournalOpt =
+                parser.accepts(USE_PERSISTENCE_JOURNAL,
+                        "Append changes of frequently updated data stores to a journal file instead of rewriting " +
+                                "the whole file on each change")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         try {
             CompositeOptionSet options = new CompositeOptionSet();
 
@@ -763,6 +783,8 @@ public class Config {
             this.updateXmrBinaries = options.valueOf(updateXmrBinariesOpt);
             this.xmrBlockchainPath = options.valueOf(xmrBlockchainPathOpt);
             this.disableRateLimits = options.valueOf(disableRateLimits);
+            this.useMappedHistoricalStores = options.valueOf(useMappedHistoricalStoresOpt);
+            this.usePersistenceJournal = options.valueOf(usePersistenceJournalOpt);
         } catch (OptionException ex) {
             throw new ConfigException("problem parsing option '%s': %s",
                     ex.options().get(0),
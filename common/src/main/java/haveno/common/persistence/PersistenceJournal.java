@@ -0,0 +1,156 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.Encryption;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.crypto.SecretKey;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only change log of a persisted store. Each record is written as its length followed by the record bytes,
+ * which are encrypted with the symmetric key if one is given.
+ * A record which was only partly written, e.g. at a crash, and all following records are discarded at reading.
+ * Not thread safe, the PersistenceManager accesses the journal only from its write tasks, except at reading
+ * at startup.
+ */
+@Slf4j
+class PersistenceJournal {
+    // Protects against allocating huge buffers if the length of a record is corrupted
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private final File file;
+    @Nullable
+    private final PersistenceMetrics metrics;
+    @Getter
+    private int numRecords;
+
+    PersistenceJournal(File file) {
+        this(file, null);
+    }
+
+    PersistenceJournal(File file, @Nullable PersistenceMetrics metrics) {
+        this.file = file;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Appends the records and forces them to disk.
+     *
+     * @return The number of bytes written.
+     */
+    int append(List<byte[]> records, @Nullable SecretKey secretKey) throws IOException, CryptoException {
+        long ts = System.nanoTime();
+        List<byte[]> payloads = new ArrayList<>(records.size());
+        int size = 0;
+        for (byte[] record : records) {
+            byte[] payload = secretKey != null ? Encryption.encryptPayloadWithHmac(record, secretKey) : record;
+            payloads.add(payload);
+            size += Integer.BYTES + payload.length;
+        }
+        if (metrics != null && secretKey != null) {
+            metrics.onEncrypted(System.nanoTime() - ts);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] payload : payloads) {
+            buffer.putInt(payload.length);
+            buffer.put(payload);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        numRecords += records.size();
+        return size;
+    }
+
+    /**
+     * Reads all complete records. If the journal ends with an incomplete or invalid record, the journal is truncated
+     * to the valid records.
+     */
+    List<byte[]> read(@Nullable SecretKey secretKey) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        if (!file.exists()) {
+            numRecords = 0;
+            return records;
+        }
+
+        long validLength = 0;
+        try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                int length = inputStream.readInt();
+                if (length < 0 || length > MAX_RECORD_SIZE) {
+                    throw new IOException("Invalid record length " + length);
+                }
+                byte[] payload = new byte[length];
+                inputStream.readFully(payload);
+                records.add(secretKey != null ? Encryption.decryptPayloadWithHmac(payload, secretKey) : payload);
+                validLength += Integer.BYTES + length;
+            }
+        } catch (EOFException ignore) {
+            // Regular end of the journal or an incomplete last record
+        } catch (Exception e) {
+            log.warn("Reading journal {} stopped at an invalid record: {}", file.getName(), e.getMessage());
+        }
+
+        if (validLength < file.length()) {
+            log.warn("Discarding {} bytes at the end of journal {}", file.length() - validLength, file.getName());
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+                channel.force(false);
+            }
+        }
+        numRecords = records.size();
+        return records;
+    }
+
+    /**
+     * Removes all records. Called after the records got compacted into the snapshot.
+     */
+    void clear() throws IOException {
+        if (file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(0);
+                channel.force(false);
+            }
+        }
+        numRecords = 0;
+    }
+
+    long getSize() {
+        return file.length();
+    }
+}
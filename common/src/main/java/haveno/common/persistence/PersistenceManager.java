@@ -30,11 +30,11 @@ import haveno.common.crypto.KeyRing;
 import haveno.common.file.CorruptedStorageFileHandler;
 import haveno.common.file.FileUtil;
 import haveno.common.handlers.ResultHandler;
+import haveno.common.proto.persistable.JournaledPersistableEnvelope;
 import haveno.common.proto.persistable.PersistableEnvelope;
 import haveno.common.proto.persistable.PersistenceProtoResolver;
 import haveno.common.util.GcUtil;
 import static haveno.common.util.Preconditions.checkDir;
-import haveno.common.util.SingleThreadExecutorUtils;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -42,14 +42,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import javax.annotation.Nullable;
+import javax.crypto.SecretKey;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -66,6 +68,13 @@ import lombok.extern.slf4j.Slf4j;
  * previously we wasted a lot of resources as way too many threads have been created without doing actual work as well
  * the write operations got triggered way too often specially for the very frequent changes at SequenceNumberMap
  *
+ * Stores implementing {@link JournaledPersistableEnvelope} can enable the journaled mode. Changes passed to
+ * appendToJournal are then appended to an encrypted journal file next to the snapshot, so a small change costs only
+ * a small write. Changes are collected for the delay of the {@link Source} and appended with a single write. If the journal gets too large, the full envelope is written as new snapshot and the journal is
+ * cleared. At reading the journal is replayed on top of the snapshot.
+ *
+ * Delayed persistence requests and writes of all instances are coordinated by the {@link PersistenceScheduler}, which
+ * coalesces requests, bounds the number of concurrent writes and serves stores by the priority of their {@link Source}.
  *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
@@ -77,6 +86,12 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
+    private static final String JOURNAL_FILE_POSTFIX = ".journal";
+    // If the journal exceeds one of these limits we write a new snapshot
+    private static final int MAX_JOURNAL_RECORDS = 1000;
+    private static final long MAX_JOURNAL_SIZE = 1024 * 1024;
+    private static final int MAX_CONCURRENT_WRITES = 2;
+    private static final PersistenceScheduler SCHEDULER = new PersistenceScheduler(MAX_CONCURRENT_WRITES);
     private static boolean flushAtShutdownCalled;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
 
@@ -104,6 +119,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
      * Resets the static members of PersistenceManager to restart the application.
      */
     public static void reset() {
+        SCHEDULER.reset();
         ALL_PERSISTENCE_MANAGERS.clear();
         flushAtShutdownCalled = false;
         allServicesInitialized.set(false);
@@ -146,8 +162,11 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 // We also check if we have called read already to avoid a very early write attempt before we have ever
                 // read the data, which would lead to a write of empty data
                 // (fixes https://github.com/bisq-network/bisq/issues/4844).
+                // Changes still waiting for the journal are written with the snapshot.
                 if (persistenceManager.readCalled.get() &&
-                        (persistenceManager.source.flushAtShutDown || persistenceManager.persistenceRequested)) {
+                        (persistenceManager.source.flushAtShutDown ||
+                                persistenceManager.persistenceRequested ||
+                                persistenceManager.hasPendingJournalRecords())) {
 
                     // We always get our completeHandler called even if exceptions happen. In case a file write fails
                     // we still call our shutdown and count down routine as the completeHandler is triggered in any case.
@@ -167,6 +186,16 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         });
     }
 
+    public static List<PersistenceMetrics> getAllMetrics() {
+        List<PersistenceMetrics> allMetrics = new ArrayList<>();
+        ALL_PERSISTENCE_MANAGERS.values().forEach(persistenceManager -> {
+            if (persistenceManager.metrics != null) {
+                allMetrics.add(persistenceManager.metrics);
+            }
+        });
+        return allMetrics;
+    }
+
     // We get called always from user thread here.
     private static void onWriteCompleted(ResultHandler completeHandler,
                                          AtomicInteger openInstances,
@@ -188,13 +217,13 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
     public enum Source {
         // For data stores we received from the network and which could be rebuilt. We store only for avoiding too much network traffic.
-        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false),
+        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false, 2),
 
         // For data stores which are created from private local data. This data could only be rebuilt from backup files.
-        PRIVATE(10, 200, true),
+        PRIVATE(10, 200, true, 0),
 
         // For data stores which are created from private local data. Loss of that data would not have critical consequences.
-        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false);
+        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false, 1);
 
         @Getter
         private final int numMaxBackupFiles;
@@ -202,11 +231,15 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         private final long delay;
         @Getter
         private final boolean flushAtShutDown;
+        // Writes of stores with a lower value are executed first
+        @Getter
+        private final int writePriority;
 
-        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown) {
+        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown, int writePriority) {
             this.numMaxBackupFiles = numMaxBackupFiles;
             this.delay = delay;
             this.flushAtShutDown = flushAtShutDown;
+            this.writePriority = writePriority;
         }
     }
 
@@ -227,8 +260,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     private Path usedTempFilePath;
     private volatile boolean persistenceRequested;
     @Nullable
-    private Timer timer;
-    private ExecutorService writeToDiskExecutor;
+    private PersistenceJournal journal;
+    // Serialized changes waiting for the delay of our source before they get appended to the journal
+    private final List<byte[]> pendingJournalRecords = new ArrayList<>();
+    @Nullable
+    private Timer journalFlushTimer;
+    @Getter
+    @Nullable
+    private PersistenceMetrics metrics;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
 
@@ -283,18 +322,35 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         this.fileName = fileName;
         this.source = source;
         storageFile = new File(dir, fileName);
+        metrics = new PersistenceMetrics(fileName);
         ALL_PERSISTENCE_MANAGERS.put(fileName, this);
     }
 
-    public void shutdown() {
-        ALL_PERSISTENCE_MANAGERS.remove(fileName);
-
-        if (timer != null) {
-            timer.stop();
+    /**
+     * Enables the journaled mode. Must be called after initialize and before reading the persisted data.
+     */
+    public void enableJournal() {
+        if (!initCalled.get()) {
+            log.warn("We have not been initialized. We ignore that enableJournal call.");
+            return;
+        }
+        if (!(persistable instanceof JournaledPersistableEnvelope)) {
+            throw new IllegalStateException(persistable.getClass().getSimpleName() +
+                    " does not implement JournaledPersistableEnvelope");
         }
+        journal = new PersistenceJournal(new File(dir, fileName + JOURNAL_FILE_POSTFIX), metrics);
+    }
+
+    public boolean isJournalEnabled() {
+        return journal != null;
+    }
 
-        if (writeToDiskExecutor != null) {
-            writeToDiskExecutor.shutdown();
+    public void shutdown() {
+        ALL_PERSISTENCE_MANAGERS.remove(fileName);
+        SCHEDULER.cancelPersistence(this);
+        stopJournalFlushTimer();
+        if (metrics != null && metrics.getBytesWritten() > 0) {
+            log.info("Persistence metrics of {}", metrics);
         }
     }
 
@@ -360,9 +416,11 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
         readCalled.set(true);
 
+        // The journal only belongs to our own storage file
+        boolean replayJournal = journal != null && fileName.equals(this.fileName);
         File storageFile = new File(dir, fileName);
         if (!storageFile.exists()) {
-            return null;
+            return replayJournal ? replayJournal(null) : null;
         }
 
         long ts = System.currentTimeMillis();
@@ -385,7 +443,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             //noinspection unchecked
             T persistableEnvelope = (T) persistenceProtoResolver.fromProto(proto);
             log.info("Reading {} completed in {} ms", fileName, System.currentTimeMillis() - ts);
-            return persistableEnvelope;
+            return replayJournal ? replayJournal(persistableEnvelope) : persistableEnvelope;
         } catch (Throwable t) {
             log.error("Reading {} failed with {}.", fileName, t.getMessage());
             try {
@@ -404,10 +462,115 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         return null;
     }
 
+    @Nullable
+    private T replayJournal(@Nullable T persisted) {
+        long ts = System.currentTimeMillis();
+        int numApplied = 0;
+        try {
+            List<byte[]> records = checkNotNull(journal).read(getSymmetricKey());
+            for (byte[] record : records) {
+                PersistableEnvelope change = persistenceProtoResolver.fromProto(protobuf.PersistableEnvelope.parseFrom(record));
+                if (persisted == null) {
+                    // Without snapshot the first change is our base
+                    //noinspection unchecked
+                    persisted = (T) change;
+                } else {
+                    ((JournaledPersistableEnvelope) persisted).applyJournalEntry(change);
+                }
+                numApplied++;
+            }
+        } catch (Throwable t) {
+            log.error("Replaying journal of {} failed after {} records with {}", fileName, numApplied, t.getMessage());
+        }
+
+        if (numApplied > 0) {
+            log.info("Replaying {} journal records of {} completed in {} ms", numApplied, fileName,
+                    System.currentTimeMillis() - ts);
+            // We compact the replayed records into a new snapshot
+            requestPersistence();
+        }
+        return persisted;
+    }
+
+    @Nullable
+    private SecretKey getSymmetricKey() {
+        return keyRing != null ? keyRing.getSymmetricKey() : null;
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Write file to disk
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Appends a change to the journal. The change is an envelope of the same type containing only the changed data.
+     * If the journal is not enabled we fall back to requestPersistence.
+     */
+    public synchronized void appendToJournal(T change) {
+        if (journal == null) {
+            requestPersistence();
+            return;
+        }
+        if (flushAtShutdownCalled) {
+            log.warn("We have started the shut down routine already. We ignore that appendToJournal call.");
+            return;
+        }
+
+        // Serialisation and buffering is synchronized with persistNow, so a change serialized before the snapshot is
+        // either contained in the snapshot or appended before the snapshot write.
+        long ts = System.nanoTime();
+        protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) change.toPersistableMessage();
+        metrics.onSerialized(System.nanoTime() - ts);
+        pendingJournalRecords.add(serialized.toByteArray());
+        if (journalFlushTimer == null) {
+            journalFlushTimer = UserThread.runAfter(this::flushJournal, source.delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void flushJournal() {
+        journalFlushTimer = null;
+        if (pendingJournalRecords.isEmpty() || flushAtShutdownCalled) {
+            return;
+        }
+        JournalAppend journalAppend = new JournalAppend(pendingJournalRecords);
+        pendingJournalRecords.clear();
+        submitWriteTask(journalAppend);
+    }
+
+    private synchronized boolean hasPendingJournalRecords() {
+        return !pendingJournalRecords.isEmpty();
+    }
+
+    private synchronized void stopJournalFlushTimer() {
+        if (journalFlushTimer != null) {
+            journalFlushTimer.stop();
+            journalFlushTimer = null;
+        }
+    }
+
+    private void writeToJournal(List<byte[]> records) {
+        PersistenceJournal journal = checkNotNull(this.journal);
+        if (keyRing != null && !keyRing.isUnlocked()) {
+            log.warn("Account is not open, we persist the change with the next snapshot.");
+            requestPersistence();
+            return;
+        }
+
+        try {
+            long ts = System.nanoTime();
+            int numBytes = journal.append(records, getSymmetricKey());
+            metrics.onJournalAppended(numBytes, System.nanoTime() - ts);
+        } catch (Throwable t) {
+            log.error("Appending to journal of {} failed, we persist the change with the next snapshot.", fileName, t);
+            requestPersistence();
+            return;
+        }
+
+        if (journal.getNumRecords() >= MAX_JOURNAL_RECORDS || journal.getSize() >= MAX_JOURNAL_SIZE) {
+            requestPersistence();
+        }
+    }
+
     public void requestPersistence() {
         if (flushAtShutdownCalled) {
             log.warn("We have started the shut down routine already. We ignore that requestPersistence call.");
@@ -432,15 +595,8 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
     private void maybeStartTimerForPersistence() {
         // We write to disk with a delay to avoid frequent write operations. Depending on the priority those delays
-        // can be rather long.
-        UserThread.execute(() -> {
-            if (timer == null) {
-                timer = UserThread.runAfter(() -> {
-                    persistNow(null);
-                    UserThread.execute(() -> timer = null);
-                }, source.delay, TimeUnit.MILLISECONDS);
-            }
-        });
+        // can be rather long. The scheduler ignores the request if we have a pending request already.
+        UserThread.execute(() -> SCHEDULER.schedulePersistence(this, source.delay, () -> persistNow(null)));
     }
 
     public void forcePersistNow() {
@@ -453,20 +609,23 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     }
 
     private synchronized void persistNow(@Nullable Runnable completeHandler, boolean force) {
-        long ts = System.currentTimeMillis();
+        long ts = System.nanoTime();
         try {
             // The serialisation is done on the user thread to avoid threading issue with potential mutations of the
             // persistable object. Keeping it on the user thread we are in a synchronize model.
             protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
+            long duration = System.nanoTime() - ts;
+            metrics.onSerialized(duration);
+            // The snapshot contains all changes which are still waiting for the journal
+            pendingJournalRecords.clear();
 
             // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
             // gets mutated while the thread is running as we have serialized it already and do not operate on the
             // reference to the persistable object.
-            getWriteToDiskExecutor().execute(() -> writeToDisk(serialized, completeHandler, force));
+            submitWriteTask(new SnapshotWrite(serialized, completeHandler, force));
 
-            long duration = System.currentTimeMillis() - ts;
-            if (duration > 100) {
-                log.info("Serializing {} took {} msec", fileName, duration);
+            if (TimeUnit.NANOSECONDS.toMillis(duration) > 100) {
+                log.info("Serializing {} took {} msec", fileName, TimeUnit.NANOSECONDS.toMillis(duration));
             }
         } catch (Throwable e) {
             log.error("Error in saveToFile toProtoMessage: {}, {}", persistable.getClass().getSimpleName(), fileName);
@@ -492,6 +651,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
 
         long ts = System.currentTimeMillis();
+        long numBytes = 0;
         File tempFile = null;
         FileOutputStream fileOutputStream = null;
 
@@ -511,10 +671,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             fileOutputStream = new FileOutputStream(tempFile);
 
             if (keyRing != null) {
+                long encryptionTs = System.nanoTime();
                 byte[] encryptedBytes = Encryption.encryptPayloadWithHmac(serialized.toByteArray(), keyRing.getSymmetricKey());
+                metrics.onEncrypted(System.nanoTime() - encryptionTs);
                 fileOutputStream.write(encryptedBytes);
+                numBytes = encryptedBytes.length;
             } else {
                 serialized.writeDelimitedTo(fileOutputStream);
+                numBytes = fileOutputStream.getChannel().position();
             }
 
             // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
@@ -528,6 +692,12 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             FileUtil.renameFile(tempFile, storageFile);
             usedTempFilePath = tempFile.toPath();
+            metrics.onSnapshotWritten(numBytes, TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - ts));
+
+            // All journaled changes which got queued before this write are contained in the snapshot
+            if (journal != null) {
+                journal.clear();
+            }
         } catch (Throwable t) {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
@@ -560,12 +730,62 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
-    private ExecutorService getWriteToDiskExecutor() {
-        if (writeToDiskExecutor == null) {
-            String name = "Write-" + fileName + "_to-disk";
-            writeToDiskExecutor = SingleThreadExecutorUtils.getSingleThreadExecutor(name);
+    private void submitWriteTask(PersistenceScheduler.WriteTask task) {
+        SCHEDULER.submit(this, source.getWritePriority(), checkNotNull(metrics), task);
+    }
+
+    // Writes the snapshot. A snapshot write which has not started yet gets replaced by a later one.
+    private class SnapshotWrite extends PersistenceScheduler.WriteTask {
+        private protobuf.PersistableEnvelope serialized;
+        private final List<Runnable> completeHandlers = new ArrayList<>();
+        private boolean force;
+
+        SnapshotWrite(protobuf.PersistableEnvelope serialized, @Nullable Runnable completeHandler, boolean force) {
+            this.serialized = serialized;
+            this.force = force;
+            if (completeHandler != null) {
+                completeHandlers.add(completeHandler);
+            }
+        }
+
+        @Override
+        boolean merge(PersistenceScheduler.WriteTask later) {
+            if (!(later instanceof PersistenceManager<?>.SnapshotWrite laterWrite)) {
+                return false;
+            }
+            serialized = laterWrite.serialized;
+            force |= laterWrite.force;
+            completeHandlers.addAll(laterWrite.completeHandlers);
+            return true;
+        }
+
+        @Override
+        void run() {
+            writeToDisk(serialized, completeHandlers.isEmpty() ? null : () -> completeHandlers.forEach(Runnable::run), force);
+        }
+    }
+
+    // Appends changes to the journal. Consecutive changes are appended with a single write.
+    private class JournalAppend extends PersistenceScheduler.WriteTask {
+        private final List<byte[]> records = new ArrayList<>();
+
+        JournalAppend(List<byte[]> records) {
+            this.records.addAll(records);
+        }
+
+        @Override
+        boolean merge(PersistenceScheduler.WriteTask later) {
+            if (!(later instanceof PersistenceManager<?>.JournalAppend laterAppend)) {
+                return false;
+            }
+            records.addAll(laterAppend.records);
+            return true;
+        }
+
+        @Override
+        void run() {
+            writeToJournal(records);
         }
-        return writeToDiskExecutor;
     }
 
     @Override
@@ -0,0 +1,123 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import lombok.Getter;
+
+/**
+ * Write statistics of a persisted store. Times are accumulated over all writes.
+ */
+public class PersistenceMetrics {
+    @Getter
+    private final String fileName;
+    private final AtomicLong numSnapshotWrites = new AtomicLong();
+    private final AtomicLong numJournalAppends = new AtomicLong();
+    private final AtomicLong numCoalescedRequests = new AtomicLong();
+    private final AtomicLong serializeTimeNanos = new AtomicLong();
+    private final AtomicLong encryptTimeNanos = new AtomicLong();
+    private final AtomicLong writeTimeNanos = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong queueWaitNanos = new AtomicLong();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Long::max, 0);
+
+    PersistenceMetrics(String fileName) {
+        this.fileName = fileName;
+    }
+
+    void onSerialized(long nanos) {
+        serializeTimeNanos.addAndGet(nanos);
+    }
+
+    void onEncrypted(long nanos) {
+        encryptTimeNanos.addAndGet(nanos);
+    }
+
+    void onCoalesced() {
+        numCoalescedRequests.incrementAndGet();
+    }
+
+    void onDequeued(long queueWait) {
+        queueWaitNanos.addAndGet(queueWait);
+        maxQueueWaitNanos.accumulate(queueWait);
+    }
+
+    void onSnapshotWritten(long numBytes, long nanos) {
+        numSnapshotWrites.incrementAndGet();
+        bytesWritten.addAndGet(numBytes);
+        writeTimeNanos.addAndGet(nanos);
+    }
+
+    void onJournalAppended(long numBytes, long nanos) {
+        numJournalAppends.incrementAndGet();
+        bytesWritten.addAndGet(numBytes);
+        writeTimeNanos.addAndGet(nanos);
+    }
+
+    public long getNumSnapshotWrites() {
+        return numSnapshotWrites.get();
+    }
+
+    public long getNumJournalAppends() {
+        return numJournalAppends.get();
+    }
+
+    public long getNumCoalescedRequests() {
+        return numCoalescedRequests.get();
+    }
+
+    public long getSerializeTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(serializeTimeNanos.get());
+    }
+
+    public long getEncryptTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(encryptTimeNanos.get());
+    }
+
+    public long getWriteTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(writeTimeNanos.get());
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public long getQueueWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.get());
+    }
+
+    public long getMaxQueueWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return fileName +
+                ": snapshots=" + getNumSnapshotWrites() +
+                ", journalAppends=" + getNumJournalAppends() +
+                ", coalesced=" + getNumCoalescedRequests() +
+                ", bytesWritten=" + getBytesWritten() +
+                ", serialize=" + getSerializeTimeMillis() + " ms" +
+                ", encrypt=" + getEncryptTimeMillis() + " ms" +
+                ", write=" + getWriteTimeMillis() + " ms" +
+                ", queueWait=" + getQueueWaitMillis() + " ms" +
+                ", maxQueueWait=" + getMaxQueueWaitMillis() + " ms";
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import haveno.common.Timer;
+import haveno.common.UserThread;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Schedules the writes of all PersistenceManager instances.
+ * <p>
+ * Delayed persistence requests are kept in one list with a single timer on the user thread. When the timer fires,
+ * all requests which are due within COALESCE_WINDOW_MS are executed together.
+ * <p>
+ * Write tasks are queued per store and executed in order by a small shared thread pool, which bounds the number of
+ * concurrent fsyncs. Stores with a lower priority value are served first. A task is merged into the last queued task
+ * of its store if possible, e.g. a snapshot write replaces a queued snapshot write which has not started yet.
+ */
+@Slf4j
+class PersistenceScheduler {
+    private static final long COALESCE_WINDOW_MS = 1000;
+
+    /**
+     * A write to disk of a single store.
+     */
+    abstract static class WriteTask {
+        private final long enqueueTime = System.nanoTime();
+
+        /**
+         * Returns true if the later task was merged into this task, so it does not need to be queued.
+         */
+        boolean merge(WriteTask later) {
+            return false;
+        }
+
+        abstract void run();
+    }
+
+    private static class StoreQueue {
+        private final int priority;
+        private final PersistenceMetrics metrics;
+        private final Deque<WriteTask> tasks = new ArrayDeque<>();
+        // True while a runner of this queue is queued at or running in the executor
+        private boolean scheduled;
+
+        StoreQueue(int priority, PersistenceMetrics metrics) {
+            this.priority = priority;
+            this.metrics = metrics;
+        }
+    }
+
+    private record PendingPersistence(long dueTime, Runnable persistHandler) {
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    // Guarded by storeQueues
+    private final Map<Object, StoreQueue> storeQueues = new HashMap<>();
+
+    // Only accessed from the user thread
+    private final Map<Object, PendingPersistence> pendingPersistences = new LinkedHashMap<>();
+    @Nullable
+    private Timer timer;
+    private long timerDueTime;
+
+    PersistenceScheduler(int maxConcurrentWrites) {
+        executor = new ThreadPoolExecutor(maxConcurrentWrites, maxConcurrentWrites,
+                0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("PersistenceWriter-%d")
+                        .setDaemon(true)
+                        .build());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Delayed persistence requests, called on the user thread
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Calls the persistHandler after the delay. If the store has a pending request already, we keep that request.
+     */
+    void schedulePersistence(Object store, long delay, Runnable persistHandler) {
+        if (pendingPersistences.containsKey(store)) {
+            return;
+        }
+        pendingPersistences.put(store, new PendingPersistence(System.currentTimeMillis() + delay, persistHandler));
+        maybeRestartTimer();
+    }
+
+    void cancelPersistence(Object store) {
+        pendingPersistences.remove(store);
+    }
+
+    void reset() {
+        pendingPersistences.clear();
+        stopTimer();
+    }
+
+    private void maybeRestartTimer() {
+        long nextDueTime = pendingPersistences.values().stream()
+                .mapToLong(PendingPersistence::dueTime)
+                .min()
+                .orElse(Long.MAX_VALUE);
+        if (nextDueTime == Long.MAX_VALUE) {
+            stopTimer();
+            return;
+        }
+        if (timer != null && timerDueTime <= nextDueTime) {
+            return;
+        }
+
+        stopTimer();
+        timerDueTime = nextDueTime;
+        timer = UserThread.runAfter(this::onTimer,
+                Math.max(0, nextDueTime - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private void onTimer() {
+        timer = null;
+        // We persist all stores which would be due shortly after, so we have fewer bursts of writes
+        long maxDueTime = System.currentTimeMillis() + COALESCE_WINDOW_MS;
+        List<Runnable> persistHandlers = new ArrayList<>();
+        pendingPersistences.values().removeIf(pending -> {
+            if (pending.dueTime() > maxDueTime) {
+                return false;
+            }
+            persistHandlers.add(pending.persistHandler());
+            return true;
+        });
+        persistHandlers.forEach(persistHandler -> {
+            try {
+                persistHandler.run();
+            } catch (Throwable t) {
+                log.error("Persisting store failed", t);
+            }
+        });
+        maybeRestartTimer();
+    }
+
+    private void stopTimer() {
+        if (timer != null) {
+            timer.stop();
+            timer = null;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Write tasks
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Queues the task after all other tasks of the store. Tasks of the same store are never executed concurrently.
+     */
+    void submit(Object store, int priority, PersistenceMetrics metrics, WriteTask task) {
+        synchronized (storeQueues) {
+            StoreQueue queue = storeQueues.computeIfAbsent(store, k -> new StoreQueue(priority, metrics));
+            WriteTask last = queue.tasks.peekLast();
+            if (last != null && last.merge(task)) {
+                metrics.onCoalesced();
+                return;
+            }
+            queue.tasks.add(task);
+            if (!queue.scheduled) {
+                queue.scheduled = true;
+                executor.execute(new QueueRunner(store, queue, sequence.incrementAndGet()));
+            }
+        }
+    }
+
+    private void runNext(Object store, StoreQueue queue) {
+        WriteTask task;
+        synchronized (storeQueues) {
+            task = queue.tasks.poll();
+        }
+        if (task != null) {
+            queue.metrics.onDequeued(System.nanoTime() - task.enqueueTime);
+            try {
+                task.run();
+            } catch (Throwable t) {
+                log.error("Write task of {} failed", queue.metrics.getFileName(), t);
+            }
+        }
+
+        synchronized (storeQueues) {
+            if (queue.tasks.isEmpty()) {
+                queue.scheduled = false;
+                storeQueues.remove(store);
+            } else {
+                // We requeue the store so that other stores of the same priority get their turn
+                executor.execute(new QueueRunner(store, queue, sequence.incrementAndGet()));
+            }
+        }
+    }
+
+    private class QueueRunner implements Runnable, Comparable<QueueRunner> {
+        private final Object store;
+        private final StoreQueue queue;
+        private final long sequenceNumber;
+
+        QueueRunner(Object store, StoreQueue queue, long sequenceNumber) {
+            this.store = store;
+            this.queue = queue;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void run() {
+            runNext(store, queue);
+        }
+
+        @Override
+        public int compareTo(QueueRunner other) {
+            int result = Integer.compare(queue.priority, other.queue.priority);
+            return result != 0 ? result : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.proto.persistable;
+
+/**
+ * A PersistableEnvelope which supports the journaled mode of the PersistenceManager. Changes are written as small
+ * envelopes of the same type to an append-only journal and are merged into the envelope read from the snapshot at
+ * startup.
+ * Changes must be idempotent upserts, as a change can be contained in the snapshot and in the journal.
+ */
+public interface JournaledPersistableEnvelope extends PersistableEnvelope {
+
+    /**
+     * Merges a change read from the journal into this envelope.
+     *
+     * @param change    An envelope of the same type containing only the changed data.
+     */
+    void applyJournalEntry(PersistableEnvelope change);
+}
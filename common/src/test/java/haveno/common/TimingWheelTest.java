@@ -0,0 +1,193 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class TimingWheelTest {
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<String> fired = new ArrayList<>();
+
+    private List<String> advance(TimingWheel wheel, long ms) {
+        now.addAndGet(ms);
+        fired.clear();
+        wheel.expire().forEach(TimingWheel.Timeout::run);
+        return new ArrayList<>(fired);
+    }
+
+    @Test
+    public void timeoutsExpireAtTheirDeadline() {
+        TimingWheel wheel = new TimingWheel(100, now::get);
+        wheel.schedule(() -> fired.add("a"), 250, 0);
+        wheel.schedule(() -> fired.add("b"), 100, 0);
+        wheel.schedule(() -> fired.add("c"), 0, 0);
+        assertEquals(3, wheel.size());
+
+        assertEquals(List.of("c"), advance(wheel, 0));
+        assertEquals(List.of("b"), advance(wheel, 100));
+        assertEquals(List.of(), advance(wheel, 100));
+        assertEquals(List.of("a"), advance(wheel, 100));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancelledTimeoutsDoNotRun() {
+        TimingWheel wheel = new TimingWheel(100, now::get);
+        TimingWheel.Timeout a = wheel.schedule(() -> fired.add("a"), 100, 0);
+        TimingWheel.Timeout b = wheel.schedule(() -> fired.add("b"), 100, 0);
+        assertTrue(wheel.cancel(a));
+        assertFalse(wheel.cancel(a));
+        assertEquals(1, wheel.size());
+
+        // cancelled after expiry but before running
+        now.addAndGet(100);
+        List<TimingWheel.Timeout> expired = wheel.expire();
+        assertEquals(1, expired.size());
+        assertFalse(wheel.cancel(b));
+        expired.forEach(TimingWheel.Timeout::run);
+        assertTrue(fired.isEmpty());
+    }
+
+    @Test
+    public void periodicTimeoutsAreRescheduled() {
+        TimingWheel wheel = new TimingWheel(100, now::get);
+        TimingWheel.Timeout timeout = wheel.schedule(() -> fired.add("p"), 200, 200);
+
+        assertEquals(List.of(), advance(wheel, 100));
+        assertEquals(List.of("p"), advance(wheel, 100));
+        assertEquals(List.of("p"), advance(wheel, 200));
+        // missed periods fire once
+        assertEquals(List.of("p"), advance(wheel, 1000));
+        assertEquals(List.of(), advance(wheel, 100));
+        assertEquals(List.of("p"), advance(wheel, 100));
+
+        wheel.cancel(timeout);
+        assertEquals(List.of(), advance(wheel, 1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void longDelaysAreCascaded() {
+        TimingWheel wheel = new TimingWheel(1000, now::get);
+        long[] delays = {
+                TimeUnit.MINUTES.toMillis(5),
+                TimeUnit.HOURS.toMillis(3),
+                TimeUnit.DAYS.toMillis(2),
+                TimeUnit.DAYS.toMillis(1000)
+        };
+        for (long delay : delays) wheel.schedule(() -> fired.add(String.valueOf(delay)), delay, 0);
+
+        long elapsed = 0;
+        for (long delay : delays) {
+            assertEquals(List.of(), advance(wheel, delay - elapsed - 1000));
+            assertEquals(List.of(String.valueOf(delay)), advance(wheel, 1000));
+            elapsed = delay;
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void randomTimeoutsExpireInOrder() {
+        TimingWheel wheel = new TimingWheel(10, now::get);
+        Random random = new Random(1);
+        long start = now.get();
+        List<Long> deadlines = new ArrayList<>();
+        List<Long> firedDeadlines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long delay = random.nextInt(2) == 0 ? random.nextInt(5000) : random.nextInt(2_000_000);
+            long deadline = start + Math.ceilDiv(delay, 10) * 10;
+            deadlines.add(deadline);
+            wheel.schedule(() -> {
+                assertEquals(deadline, now.get());
+                firedDeadlines.add(deadline);
+            }, delay, 0);
+        }
+        while (wheel.size() > 0) {
+            now.addAndGet(10);
+            wheel.expire().forEach(TimingWheel.Timeout::run);
+        }
+        deadlines.sort(Long::compare);
+        assertEquals(deadlines, firedDeadlines);
+    }
+
+    // Run with 'gradle benchmark'. Schedules 10k timers, runs 100 ticks of 100 ms and stops the timers.
+    // The cost of a FrameRateTimer tick grows with the number of timers, the cost of a wheel tick does not.
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "haveno.benchmark", matches = "true")
+    public void benchmark() {
+        int numTimers = 10_000;
+        int numTicks = 100;
+        Random random = new Random(1);
+        long[] delays = new long[numTimers];
+        for (int i = 0; i < numTimers; i++) delays[i] = 1000 + random.nextInt(600_000);
+
+        List<FrameRateTimer> frameRateTimers = new ArrayList<>();
+        long ts = System.nanoTime();
+        for (long delay : delays) {
+            FrameRateTimer timer = new FrameRateTimer();
+            timer.runLater(Duration.ofMillis(delay), () -> {
+            });
+            frameRateTimers.add(timer);
+        }
+        long frameRateSchedule = System.nanoTime() - ts;
+        ts = System.nanoTime();
+        // as done by the MasterTimer on each frame
+        for (int tick = 0; tick < numTicks; tick++) frameRateTimers.forEach(FrameRateTimer::run);
+        long frameRateTicks = System.nanoTime() - ts;
+        ts = System.nanoTime();
+        frameRateTimers.forEach(FrameRateTimer::stop);
+        long frameRateStop = System.nanoTime() - ts;
+
+        TimingWheel wheel = new TimingWheel(100, now::get);
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+        ts = System.nanoTime();
+        for (long delay : delays) timeouts.add(wheel.schedule(() -> {
+        }, delay, 0));
+        long wheelSchedule = System.nanoTime() - ts;
+        ts = System.nanoTime();
+        for (int tick = 0; tick < numTicks; tick++) {
+            now.addAndGet(100);
+            wheel.expire().forEach(TimingWheel.Timeout::run);
+        }
+        long wheelTicks = System.nanoTime() - ts;
+        ts = System.nanoTime();
+        timeouts.forEach(wheel::cancel);
+        long wheelStop = System.nanoTime() - ts;
+
+        log.info("{} timers: FrameRateTimer schedule {} ms, {} ticks {} ms, stop {} ms",
+                numTimers, frameRateSchedule / 1_000_000, numTicks, frameRateTicks / 1_000_000, frameRateStop / 1_000_000);
+        log.info("{} timers: TimingWheel schedule {} ms, {} ticks {} ms, stop {} ms",
+                numTimers, wheelSchedule / 1_000_000, numTicks, wheelTicks / 1_000_000, wheelStop / 1_000_000);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.Encryption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.SecretKey;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistenceJournalTest {
+    @TempDir
+    File dir;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void appendAndReadEncryptedRecords() throws IOException, CryptoException {
+        SecretKey secretKey = Encryption.generateSecretKey(256);
+        File file = new File(dir, "Store.journal");
+        PersistenceJournal journal = new PersistenceJournal(file);
+        journal.append(List.of(bytes("a"), bytes("b")), secretKey);
+        journal.append(List.of(bytes("c")), secretKey);
+        assertEquals(3, journal.getNumRecords());
+
+        List<byte[]> records = new PersistenceJournal(file).read(secretKey);
+
+        assertEquals(3, records.size());
+        assertArrayEquals(bytes("a"), records.get(0));
+        assertArrayEquals(bytes("c"), records.get(2));
+    }
+
+    @Test
+    public void incompleteRecordIsDiscarded() throws IOException, CryptoException {
+        File file = new File(dir, "Store.journal");
+        PersistenceJournal journal = new PersistenceJournal(file);
+        journal.append(List.of(bytes("a")), null);
+        long validLength = file.length();
+        journal.append(List.of(bytes("bbbb")), null);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(file.length() - 2);
+        }
+
+        List<byte[]> records = journal.read(null);
+
+        assertEquals(1, records.size());
+        assertArrayEquals(bytes("a"), records.get(0));
+        assertEquals(validLength, file.length());
+
+        // Appending continues after the valid records
+        journal.append(List.of(bytes("c")), null);
+        assertEquals(2, journal.read(null).size());
+    }
+
+    @Test
+    public void recordWithWrongKeyIsDiscarded() throws IOException, CryptoException {
+        File file = new File(dir, "Store.journal");
+        PersistenceJournal journal = new PersistenceJournal(file);
+        journal.append(List.of(bytes("a")), Encryption.generateSecretKey(256));
+
+        assertTrue(journal.read(Encryption.generateSecretKey(256)).isEmpty());
+        assertEquals(0, file.length());
+    }
+
+    @Test
+    public void clearRemovesAllRecords() throws IOException, CryptoException {
+        File file = new File(dir, "Store.journal");
+        PersistenceJournal journal = new PersistenceJournal(file);
+        journal.append(List.of(bytes("a"), bytes("b")), null);
+
+        journal.clear();
+
+        assertEquals(0, journal.getNumRecords());
+        assertTrue(journal.read(null).isEmpty());
+    }
+}
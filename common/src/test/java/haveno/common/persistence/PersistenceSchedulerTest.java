@@ -0,0 +1,109 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.common.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistenceSchedulerTest {
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+    private PersistenceScheduler scheduler;
+    private CountDownLatch blockerStarted;
+    private CountDownLatch releaseBlocker;
+
+    private class TestTask extends PersistenceScheduler.WriteTask {
+        private final String name;
+        private final boolean mergeable;
+        private final CountDownLatch done;
+
+        TestTask(String name, boolean mergeable, CountDownLatch done) {
+            this.name = name;
+            this.mergeable = mergeable;
+            this.done = done;
+        }
+
+        @Override
+        boolean merge(PersistenceScheduler.WriteTask later) {
+            return mergeable && later instanceof TestTask laterTask && laterTask.mergeable;
+        }
+
+        @Override
+        void run() {
+            executed.add(name);
+            done.countDown();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        scheduler = new PersistenceScheduler(1);
+        blockerStarted = new CountDownLatch(1);
+        releaseBlocker = new CountDownLatch(1);
+
+        // Keeps the single writer thread busy, so we can queue tasks before they get executed
+        scheduler.submit("blocker", 0, new PersistenceMetrics("blocker"), new PersistenceScheduler.WriteTask() {
+            @Override
+            void run() {
+                blockerStarted.countDown();
+                try {
+                    releaseBlocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void storesWithHigherPriorityAreServedFirst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(3);
+        scheduler.submit("network", 2, new PersistenceMetrics("network"), new TestTask("network", false, done));
+        scheduler.submit("lowPrio", 1, new PersistenceMetrics("lowPrio"), new TestTask("lowPrio", false, done));
+        scheduler.submit("private", 0, new PersistenceMetrics("private"), new TestTask("private", false, done));
+
+        releaseBlocker.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("private", "lowPrio", "network"), executed);
+    }
+
+    @Test
+    public void queuedTasksOfAStoreAreMergedAndKeepTheirOrder() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(3);
+        PersistenceMetrics metrics = new PersistenceMetrics("store");
+        scheduler.submit("store", 0, metrics, new TestTask("append1", false, done));
+        scheduler.submit("store", 0, metrics, new TestTask("snapshot1", true, done));
+        scheduler.submit("store", 0, metrics, new TestTask("snapshot2", true, done));
+        scheduler.submit("store", 0, metrics, new TestTask("append2", false, done));
+
+        releaseBlocker.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("append1", "snapshot1", "append2"), executed);
+        assertEquals(1, metrics.getNumCoalescedRequests());
+    }
+}
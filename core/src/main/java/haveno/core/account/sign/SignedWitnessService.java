@@ -51,6 +51,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.ECKey;
@@ -69,22 +71,32 @@ public class SignedWitnessService {
     private final User user;
     private final FilterManager filterManager;
 
-    private final Map<P2PDataStorage.ByteArray, SignedWitness> signedWitnessMap = new HashMap<>();
+    // The maps are read from the user thread and from threads filtering offers or computing trade limits, so we use
+    // concurrent maps and sets.
+    private final Map<P2PDataStorage.ByteArray, SignedWitness> signedWitnessMap = new ConcurrentHashMap<>();
 
     // This map keeps all SignedWitnesses with the same AccountAgeWitnessHash in a Set.
     // This avoids iterations over the signedWitnessMap for getting the set of such SignedWitnesses.
-    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetByAccountAgeWitnessHash = new HashMap<>();
+    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetByAccountAgeWitnessHash = new ConcurrentHashMap<>();
 
     // Iterating over all SignedWitnesses and do a byte array comparison is a bit expensive and
     // it is called at filtering the offer book many times, so we use a lookup map for fast
     // access to the set of SignedWitness which match the ownerPubKey.
-    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetByOwnerPubKey = new HashMap<>();
+    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetByOwnerPubKey = new ConcurrentHashMap<>();
 
     // The signature verification calls are rather expensive and called at filtering the offer book many times,
     // so we cache the results using the hash as key. The hash is created from the accountAgeWitnessHash and the
     // signature.
-    private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithDSAKeyResultCache = new HashMap<>();
-    private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithECKeyResultCache = new HashMap<>();
+    private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithDSAKeyResultCache = new ConcurrentHashMap<>();
+    private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithECKeyResultCache = new ConcurrentHashMap<>();
+
+    // Walking the signer chain up to an arbitrator is called at filtering the offer book and at computing the trade
+    // limits many times, so we cache whether a SignedWitness has a valid signer chain using its hash as key.
+    // A new SignedWitness or a new filter can change the results, so the cache gets replaced in that case. Results
+    // of walks which started before are written to the old cache.
+    private volatile Map<P2PDataStorage.ByteArray, Boolean> signerChainResultCache = new ConcurrentHashMap<>();
+    // Increased whenever the signer chain results are invalidated, so users can detect stale data derived from them
+    private final AtomicLong version = new AtomicLong();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -116,6 +128,8 @@ public class SignedWitnessService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void onAllServicesInitialized() {
+        filterManager.filterProperty().addListener((observable, oldValue, newValue) -> clearSignerChainResultCache());
+
         p2PService.getP2PDataStorage().addAppendOnlyDataStoreListener(payload -> {
             if (payload instanceof SignedWitness)
                 addToMap((SignedWitness) payload);
@@ -151,6 +165,13 @@ public class SignedWitnessService {
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Returns a version which changes whenever a SignedWitness is added or removed or the filter changes.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     public Collection<SignedWitness> getSignedWitnessMapValues() {
         return signedWitnessMap.values();
     }
@@ -212,9 +233,8 @@ public class SignedWitnessService {
 
     @VisibleForTesting
     public Set<SignedWitness> getSignedWitnessSetByOwnerPubKey(byte[] ownerPubKey) {
-        return getSignedWitnessMapValues().stream()
-                .filter(e -> Arrays.equals(e.getWitnessOwnerPubKey(), ownerPubKey))
-                .collect(Collectors.toSet());
+        P2PDataStorage.ByteArray key = new P2PDataStorage.ByteArray(ownerPubKey);
+        return new HashSet<>(signedWitnessSetByOwnerPubKey.getOrDefault(key, new HashSet<>()));
     }
 
     public boolean publishOwnSignedWitness(SignedWitness signedWitness) {
@@ -392,7 +412,7 @@ public class SignedWitnessService {
 
     public Set<SignedWitness> getRootSignedWitnessSet(boolean includeSignedByArbitrator) {
         return getSignedWitnessMapValues().stream()
-                .filter(witness -> getSignedWitnessSetByOwnerPubKey(witness.getSignerPubKey(), new Stack<>()).isEmpty())
+                .filter(witness -> !signedWitnessSetByOwnerPubKey.containsKey(new P2PDataStorage.ByteArray(witness.getSignerPubKey())))
                 .filter(witness -> includeSignedByArbitrator ||
                         witness.getVerificationMethod() != SignedWitness.VerificationMethod.ARBITRATOR)
                 .collect(Collectors.toSet());
@@ -437,7 +457,7 @@ public class SignedWitnessService {
 
     private boolean verifySigner(SignedWitness signedWitness) {
         return getSignedWitnessSetByOwnerPubKey(signedWitness.getWitnessOwnerPubKey(), new Stack<>()).stream()
-                .anyMatch(w -> isValidSignerWitnessInternal(w, signedWitness.getDate(), new Stack<>()));
+                .anyMatch(w -> isValidSignerWitness(w, signedWitness.getDate()));
     }
 
     /**
@@ -449,10 +469,9 @@ public class SignedWitnessService {
      * @return true if accountAgeWitness is allowed to sign at time, false otherwise.
      */
     private boolean isSignerAccountAgeWitness(AccountAgeWitness accountAgeWitness, long time) {
-        Stack<P2PDataStorage.ByteArray> excludedPubKeys = new Stack<>();
         Set<SignedWitness> signedWitnessSet = getSignedWitnessSet(accountAgeWitness);
         for (SignedWitness signedWitness : signedWitnessSet) {
-            if (isValidSignerWitnessInternal(signedWitness, time, excludedPubKeys)) {
+            if (isValidSignerWitness(signedWitness, time)) {
                 return true;
             }
         }
@@ -460,6 +479,10 @@ public class SignedWitnessService {
         return false;
     }
 
+    private boolean isValidSignerWitness(SignedWitness signedWitness, long childSignedWitnessDateMillis) {
+        return isValidSignerWitnessInternal(signedWitness, childSignedWitnessDateMillis, new Stack<>());
+    }
+
     /**
      * Helper to isValidAccountAgeWitness(accountAgeWitness)
      *
@@ -471,6 +494,42 @@ public class SignedWitnessService {
     private boolean isValidSignerWitnessInternal(SignedWitness signedWitness,
                                                  long childSignedWitnessDateMillis,
                                                  Stack<P2PDataStorage.ByteArray> excludedPubKeys) {
+        // If signed by an arbitrator we don't have to check the date.
+        if (!signedWitness.isSignedByArbitrator() && !verifyDate(signedWitness, childSignedWitnessDateMillis)) {
+            return false;
+        }
+        return hasValidSignerChain(signedWitness, excludedPubKeys);
+    }
+
+    /**
+     * Checks whether the signedWitness is not banned, has a valid signature and is signed by an arbitrator or by a
+     * valid signer at its date.
+     *
+     * Results without excluded keys are cached. A signer chain which is invalid without excluded keys is invalid with
+     * excluded keys as well, but a valid signer chain might use an excluded key, so only the invalid results are used
+     * if there are excluded keys.
+     *
+     * @param signedWitness   the signedWitness to validate
+     * @param excludedPubKeys stack to prevent recursive loops
+     * @return true if the signer chain of signedWitness is valid, false otherwise.
+     */
+    private boolean hasValidSignerChain(SignedWitness signedWitness, Stack<P2PDataStorage.ByteArray> excludedPubKeys) {
+        Map<P2PDataStorage.ByteArray, Boolean> resultCache = signerChainResultCache;
+        P2PDataStorage.ByteArray hash = signedWitness.getHashAsByteArray();
+        Boolean cachedResult = resultCache.get(hash);
+        if (cachedResult != null && (!cachedResult || excludedPubKeys.isEmpty())) {
+            return cachedResult;
+        }
+
+        boolean result = hasValidSignerChainInternal(signedWitness, excludedPubKeys);
+        if (excludedPubKeys.isEmpty()) {
+            resultCache.put(hash, result);
+        }
+        return result;
+    }
+
+    private boolean hasValidSignerChainInternal(SignedWitness signedWitness,
+                                                Stack<P2PDataStorage.ByteArray> excludedPubKeys) {
         if (filterManager.isWitnessSignerPubKeyBanned(Utils.HEX.encode(signedWitness.getWitnessOwnerPubKey()))) {
             return false;
         }
@@ -481,9 +540,6 @@ public class SignedWitnessService {
             // If signed by an arbitrator we don't have to check anything else.
             return true;
         } else {
-            if (!verifyDate(signedWitness, childSignedWitnessDateMillis)) {
-                return false;
-            }
             if (excludedPubKeys.size() >= 2000) {
                 // Prevent DoS attack: an attacker floods the SignedWitness db with a long chain that takes lots of time to verify.
                 return false;
@@ -517,15 +573,24 @@ public class SignedWitnessService {
 
     @VisibleForTesting
     public void addToMap(SignedWitness signedWitness) {
-        signedWitnessMap.putIfAbsent(signedWitness.getHashAsByteArray(), signedWitness);
+        if (signedWitnessMap.putIfAbsent(signedWitness.getHashAsByteArray(), signedWitness) != null) {
+            return;
+        }
 
         P2PDataStorage.ByteArray accountAgeWitnessHash = new P2PDataStorage.ByteArray(signedWitness.getAccountAgeWitnessHash());
-        signedWitnessSetByAccountAgeWitnessHash.putIfAbsent(accountAgeWitnessHash, new HashSet<>());
-        signedWitnessSetByAccountAgeWitnessHash.get(accountAgeWitnessHash).add(signedWitness);
+        addToIndex(signedWitnessSetByAccountAgeWitnessHash, accountAgeWitnessHash, signedWitness);
 
         P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey());
-        signedWitnessSetByOwnerPubKey.putIfAbsent(ownerPubKey, new HashSet<>());
-        signedWitnessSetByOwnerPubKey.get(ownerPubKey).add(signedWitness);
+        addToIndex(signedWitnessSetByOwnerPubKey, ownerPubKey, signedWitness);
+
+        // The new SignedWitness can be the missing link of other signer chains
+        clearSignerChainResultCache();
+    }
+
+    @VisibleForTesting
+    public void clearSignerChainResultCache() {
+        signerChainResultCache = new ConcurrentHashMap<>();
+        version.incrementAndGet();
     }
 
     private void publishSignedWitness(SignedWitness signedWitness) {
@@ -547,22 +612,34 @@ public class SignedWitnessService {
         signedWitnessMap.remove(signedWitness.getHashAsByteArray());
 
         P2PDataStorage.ByteArray accountAgeWitnessHash = new P2PDataStorage.ByteArray(signedWitness.getAccountAgeWitnessHash());
-        if (signedWitnessSetByAccountAgeWitnessHash.containsKey(accountAgeWitnessHash)) {
-            Set<SignedWitness> set = signedWitnessSetByAccountAgeWitnessHash.get(accountAgeWitnessHash);
-            set.remove(signedWitness);
-            if (set.isEmpty()) {
-                signedWitnessSetByAccountAgeWitnessHash.remove(accountAgeWitnessHash);
-            }
-        }
+        removeFromIndex(signedWitnessSetByAccountAgeWitnessHash, accountAgeWitnessHash, signedWitness);
 
         P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey());
-        if (signedWitnessSetByOwnerPubKey.containsKey(ownerPubKey)) {
-            Set<SignedWitness> set = signedWitnessSetByOwnerPubKey.get(ownerPubKey);
-            set.remove(signedWitness);
-            if (set.isEmpty()) {
-                signedWitnessSetByOwnerPubKey.remove(ownerPubKey);
+        removeFromIndex(signedWitnessSetByOwnerPubKey, ownerPubKey, signedWitness);
+
+        clearSignerChainResultCache();
+    }
+
+    // The sets are changed inside compute so a set which becomes empty is not removed while another thread adds to it
+    private static void addToIndex(Map<P2PDataStorage.ByteArray, Set<SignedWitness>> index,
+                                   P2PDataStorage.ByteArray key,
+                                   SignedWitness signedWitness) {
+        index.compute(key, (k, set) -> {
+            if (set == null) {
+                set = ConcurrentHashMap.newKeySet();
             }
-        }
+            set.add(signedWitness);
+            return set;
+        });
+    }
+
+    private static void removeFromIndex(Map<P2PDataStorage.ByteArray, Set<SignedWitness>> index,
+                                        P2PDataStorage.ByteArray key,
+                                        SignedWitness signedWitness) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(signedWitness);
+            return set.isEmpty() ? null : set;
+        });
     }
 
     // Remove SignedWitnesses that are signed by TRADE that also have an ARBITRATOR signature
@@ -0,0 +1,156 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.account.witness;
+
+import haveno.network.p2p.storage.P2PDataStorage;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import lombok.Getter;
+
+/**
+ * Bounded cache of the data derived from the signed witnesses of an account age witness: the date of the first
+ * verified signature, whether it is signed by an arbitrator or filtered, and the trade limits per payment method,
+ * currency and direction.
+ * <p>
+ * Entries are stamped with the version of the signed witnesses and a time bucket. A new or removed signed witness or
+ * a new filter changes the version, and the sign state depends on the current time, so entries with an old stamp are
+ * computed again. If the cache is full the least recently used entry is removed.
+ */
+public class AccountAgeWitnessDataCache {
+    static final int MAX_SIZE = 10_000;
+    static final long TIME_BUCKET_MS = TimeUnit.MINUTES.toMillis(1);
+
+    static class WitnessData {
+        // -1 if not signed
+        @Getter
+        private final long firstSignDate;
+        @Getter
+        private final boolean signedByArbitrator;
+        @Getter
+        private final boolean filtered;
+        private final Map<String, Long> tradeLimits = new ConcurrentHashMap<>();
+        private long version;
+        private long timeBucket;
+
+        WitnessData(long firstSignDate, boolean signedByArbitrator, boolean filtered) {
+            this.firstSignDate = firstSignDate;
+            this.signedByArbitrator = signedByArbitrator;
+            this.filtered = filtered;
+        }
+
+        boolean isSigned() {
+            return firstSignDate >= 0;
+        }
+
+        long getSignAge(long now) {
+            return isSigned() ? now - firstSignDate : -1;
+        }
+
+        long getTradeLimit(String key, LongSupplier tradeLimitSupplier) {
+            return tradeLimits.computeIfAbsent(key, k -> tradeLimitSupplier.getAsLong());
+        }
+    }
+
+    private final Map<P2PDataStorage.ByteArray, WitnessData> entries = Collections.synchronizedMap(
+            new LinkedHashMap<P2PDataStorage.ByteArray, WitnessData>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<P2PDataStorage.ByteArray, WitnessData> eldest) {
+                    boolean remove = size() > MAX_SIZE;
+                    if (remove) {
+                        numEvictions.incrementAndGet();
+                    }
+                    return remove;
+                }
+            });
+    private final AtomicLong numHits = new AtomicLong();
+    private final AtomicLong numMisses = new AtomicLong();
+    private final AtomicLong numEvictions = new AtomicLong();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns the cached data of the witness or computes it if there is no entry or the entry has an old stamp.
+     *
+     * @param version the version of the signed witnesses, read before the data gets computed
+     * @param now     the current time in ms
+     */
+    WitnessData get(AccountAgeWitness accountAgeWitness,
+                    long version,
+                    long now,
+                    Function<AccountAgeWitness, WitnessData> loader) {
+        P2PDataStorage.ByteArray key = accountAgeWitness.getHashAsByteArray();
+        long timeBucket = now / TIME_BUCKET_MS;
+        WitnessData witnessData = entries.get(key);
+        if (witnessData != null && witnessData.version == version && witnessData.timeBucket == timeBucket) {
+            numHits.incrementAndGet();
+            return witnessData;
+        }
+
+        // Computed outside the lock, concurrent misses of the same witness compute the same data
+        numMisses.incrementAndGet();
+        witnessData = loader.apply(accountAgeWitness);
+        witnessData.version = version;
+        witnessData.timeBucket = timeBucket;
+        entries.put(key, witnessData);
+        return witnessData;
+    }
+
+    public void invalidate() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getNumHits() {
+        return numHits.get();
+    }
+
+    public long getNumMisses() {
+        return numMisses.get();
+    }
+
+    public long getNumEvictions() {
+        return numEvictions.get();
+    }
+
+    public double getHitRate() {
+        long hits = getNumHits();
+        long total = hits + getNumMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountAgeWitnessDataCache: size=" + size() +
+                ", hits=" + getNumHits() +
+                ", misses=" + getNumMisses() +
+                ", evictions=" + getNumEvictions() +
+                ", hitRate=" + String.format("%.2f", getHitRate());
+    }
+}
@@ -60,7 +60,6 @@ import java.time.Clock;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -138,12 +137,14 @@ public class AccountAgeWitnessService {
     @Getter
     private final AccountAgeWitnessUtils accountAgeWitnessUtils;
 
-    private final Map<P2PDataStorage.ByteArray, AccountAgeWitness> accountAgeWitnessMap = new HashMap<>();
+    // The accountAgeWitnessMap is very large (70k items) and is read from the user thread and from threads filtering
+    // offers, so we use a concurrent map for lookups without locking.
+    private final Map<P2PDataStorage.ByteArray, AccountAgeWitness> accountAgeWitnessMap = new ConcurrentHashMap<>();
 
-    // The accountAgeWitnessMap is very large (70k items) and access is a bit expensive. We usually only access less
-    // than 100 items, those who have offers online. So we use a cache for a fast lookup and only if
-    // not found there we use the accountAgeWitnessMap and put then the new item into our cache.
-    private final Map<P2PDataStorage.ByteArray, AccountAgeWitness> accountAgeWitnessCache = new ConcurrentHashMap<>();
+    // Account age, sign age, sign state and trade limits are computed for every offer at filtering the offer book and
+    // at each refresh of the views, so we cache the data derived from the signed witnesses.
+    @Getter
+    private final AccountAgeWitnessDataCache witnessDataCache = new AccountAgeWitnessDataCache();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -191,6 +192,7 @@ public class AccountAgeWitnessService {
         });
 
         // At startup the P2PDataStorage initializes earlier, otherwise we get the listener called.
+        // All witnesses are kept in the accountAgeWitnessMap, so we decode the historical ones once here.
         accountAgeWitnessStorageService.getMapOfAllData().values().stream()
                 .filter(e -> e instanceof AccountAgeWitness)
                 .map(e -> (AccountAgeWitness) e)
@@ -235,9 +237,7 @@ public class AccountAgeWitnessService {
 
     @VisibleForTesting
     public void addToMap(AccountAgeWitness accountAgeWitness) {
-        synchronized (this) {
-            accountAgeWitnessMap.putIfAbsent(accountAgeWitness.getHashAsByteArray(), accountAgeWitness);
-        }
+        accountAgeWitnessMap.putIfAbsent(accountAgeWitness.getHashAsByteArray(), accountAgeWitness);
     }
 
 
@@ -249,13 +249,6 @@ public class AccountAgeWitnessService {
         synchronized (this) {
             AccountAgeWitness accountAgeWitness = getMyWitness(paymentAccountPayload);
             P2PDataStorage.ByteArray hash = accountAgeWitness.getHashAsByteArray();
-
-            // We use first our fast lookup cache. If its in accountAgeWitnessCache it is also in accountAgeWitnessMap
-            // and we do not publish.
-            if (accountAgeWitnessCache.containsKey(hash)) {
-                return;
-            }
-
             if (!accountAgeWitnessMap.containsKey(hash)) {
                 p2PService.addPersistableNetworkPayload(accountAgeWitness, false);
             }
@@ -313,24 +306,7 @@ public class AccountAgeWitnessService {
 
     private Optional<AccountAgeWitness> getWitnessByHash(byte[] hash) {
         P2PDataStorage.ByteArray hashAsByteArray = new P2PDataStorage.ByteArray(hash);
-        synchronized (this) {
-
-            // First we look up in our fast lookup cache
-            if (accountAgeWitnessCache.containsKey(hashAsByteArray)) {
-                return Optional.of(accountAgeWitnessCache.get(hashAsByteArray));
-            }
-
-            if (accountAgeWitnessMap.containsKey(hashAsByteArray)) {
-                AccountAgeWitness accountAgeWitness = accountAgeWitnessMap.get(hashAsByteArray);
-
-                // We add it to our fast lookup cache
-                accountAgeWitnessCache.put(hashAsByteArray, accountAgeWitness);
-
-                return Optional.of(accountAgeWitness);
-            }
-
-            return Optional.empty();
-        }
+        return Optional.ofNullable(accountAgeWitnessMap.get(hashAsByteArray));
     }
 
     private Optional<AccountAgeWitness> getWitnessByHashAsHex(String hashAsHex) {
@@ -371,12 +347,7 @@ public class AccountAgeWitnessService {
 
     // Return -1 if not signed
     public long getWitnessSignAge(AccountAgeWitness accountAgeWitness, Date now) {
-        List<Long> dates = signedWitnessService.getVerifiedWitnessDateList(accountAgeWitness);
-        if (dates.isEmpty()) {
-            return -1L;
-        } else {
-            return now.getTime() - dates.get(0);
-        }
+        return getWitnessData(accountAgeWitness).getSignAge(now.getTime());
     }
 
     // Return -1 if not signed
@@ -474,7 +445,25 @@ public class AccountAgeWitnessService {
     // - are mature
     // - were signed by an arbitrator
     private boolean hasTradeLimitException(AccountAgeWitness accountAgeWitness) {
-        return !isImmature(accountAgeWitness) || signedWitnessService.isSignedByArbitrator(accountAgeWitness);
+        return !isImmature(accountAgeWitness) || getWitnessData(accountAgeWitness).isSignedByArbitrator();
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Witness data
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private AccountAgeWitnessDataCache.WitnessData getWitnessData(AccountAgeWitness accountAgeWitness) {
+        return witnessDataCache.get(accountAgeWitness,
+                signedWitnessService.getVersion(),
+                new Date().getTime(),
+                this::computeWitnessData);
+    }
+
+    private AccountAgeWitnessDataCache.WitnessData computeWitnessData(AccountAgeWitness accountAgeWitness) {
+        List<Long> dates = signedWitnessService.getVerifiedWitnessDateList(accountAgeWitness);
+        return new AccountAgeWitnessDataCache.WitnessData(dates.isEmpty() ? -1L : dates.get(0),
+                signedWitnessService.isSignedByArbitrator(accountAgeWitness),
+                signedWitnessService.isFilteredWitness(accountAgeWitness));
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -509,19 +498,23 @@ public class AccountAgeWitnessService {
         }
 
         AccountAgeWitness accountAgeWitness = getMyWitness(paymentAccount.getPaymentAccountPayload());
-        BigInteger maxTradeLimit = paymentAccount.getPaymentMethod().getMaxTradeLimit(currencyCode);
-        if (hasTradeLimitException(accountAgeWitness)) {
-            return maxTradeLimit.longValueExact();
-        }
-        final long accountSignAge = getWitnessSignAge(accountAgeWitness, new Date());
-        AccountAge accountAgeCategory = getAccountAgeCategory(accountSignAge);
-
-        return getTradeLimit(maxTradeLimit,
-                currencyCode,
-                accountAgeWitness,
-                accountAgeCategory,
-                direction,
-                paymentAccount.getPaymentMethod()).longValueExact();
+        PaymentMethod paymentMethod = paymentAccount.getPaymentMethod();
+        String tradeLimitKey = paymentMethod.getId() + "_" + currencyCode + "_" + direction.name();
+        return getWitnessData(accountAgeWitness).getTradeLimit(tradeLimitKey, () -> {
+            BigInteger maxTradeLimit = paymentMethod.getMaxTradeLimit(currencyCode);
+            if (hasTradeLimitException(accountAgeWitness)) {
+                return maxTradeLimit.longValueExact();
+            }
+            final long accountSignAge = getWitnessSignAge(accountAgeWitness, new Date());
+            AccountAge accountAgeCategory = getAccountAgeCategory(accountSignAge);
+
+            return getTradeLimit(maxTradeLimit,
+                    currencyCode,
+                    accountAgeWitness,
+                    accountAgeCategory,
+                    direction,
+                    paymentMethod).longValueExact();
+        });
     }
 
     public long getUnsignedTradeLimit(PaymentMethod paymentMethod, String currencyCode, OfferDirection direction) {
@@ -600,6 +593,14 @@ public class AccountAgeWitnessService {
                 .orElse(isToleratedSmalleAmount(tradeAmount));
     }
 
+    // Same as verifyPeersTradeAmount without logging, used at filtering the offer book
+    public boolean isPeersTradeLimitSufficient(Offer offer, BigInteger tradeAmount) {
+        checkNotNull(offer);
+        return findWitness(offer)
+                .map(witness -> tradeAmount.longValueExact() <= getPeersTradeLimit(offer, witness, new Date()).longValueExact())
+                .orElse(isToleratedSmalleAmount(tradeAmount));
+    }
+
     private boolean isToleratedSmalleAmount(BigInteger tradeAmount) {
         return tradeAmount.longValueExact() <= OfferRestrictions.TOLERATED_SMALL_TRADE_AMOUNT.longValueExact();
     }
@@ -654,17 +655,7 @@ public class AccountAgeWitnessService {
                                           Date peersCurrentDate,
                                           ErrorMessageHandler errorMessageHandler) {
         checkNotNull(offer);
-        final String currencyCode = offer.getCounterCurrencyCode();
-        final BigInteger defaultMaxTradeLimit = offer.getPaymentMethod().getMaxTradeLimit(currencyCode);
-        BigInteger peersCurrentTradeLimit = defaultMaxTradeLimit;
-        if (!hasTradeLimitException(peersWitness)) {
-            final long accountSignAge = getWitnessSignAge(peersWitness, peersCurrentDate);
-            AccountAge accountAgeCategory = getPeersAccountAgeCategory(accountSignAge);
-            OfferDirection direction = offer.isMyOffer(keyRing) ?
-                    offer.getMirroredDirection() : offer.getDirection();
-            peersCurrentTradeLimit = getTradeLimit(defaultMaxTradeLimit, currencyCode, peersWitness,
-                    accountAgeCategory, direction, offer.getPaymentMethod());
-        }
+        BigInteger peersCurrentTradeLimit = getPeersTradeLimit(offer, peersWitness, peersCurrentDate);
         // Makers current trade limit cannot be smaller than that in the offer
         boolean result = tradeAmount.longValueExact() <= peersCurrentTradeLimit.longValueExact();
         if (!result) {
@@ -680,6 +671,20 @@ public class AccountAgeWitnessService {
         return result;
     }
 
+    private BigInteger getPeersTradeLimit(Offer offer, AccountAgeWitness peersWitness, Date peersCurrentDate) {
+        final String currencyCode = offer.getCounterCurrencyCode();
+        final BigInteger defaultMaxTradeLimit = offer.getPaymentMethod().getMaxTradeLimit(currencyCode);
+        if (hasTradeLimitException(peersWitness)) {
+            return defaultMaxTradeLimit;
+        }
+        final long accountSignAge = getWitnessSignAge(peersWitness, peersCurrentDate);
+        AccountAge accountAgeCategory = getPeersAccountAgeCategory(accountSignAge);
+        OfferDirection direction = offer.isMyOffer(keyRing) ?
+                offer.getMirroredDirection() : offer.getDirection();
+        return getTradeLimit(defaultMaxTradeLimit, currencyCode, peersWitness,
+                accountAgeCategory, direction, offer.getPaymentMethod());
+    }
+
     boolean verifySignature(PublicKey peersPublicKey,
                             byte[] nonce,
                             byte[] signature,
@@ -833,13 +838,13 @@ public class AccountAgeWitnessService {
 
     public boolean hasSignedWitness(Offer offer) {
         return findWitness(offer)
-                .map(signedWitnessService::isSignedAccountAgeWitness)
+                .map(witness -> getWitnessData(witness).isSigned())
                 .orElse(false);
     }
 
     public boolean peerHasSignedWitness(Trade trade) {
         return findTradePeerWitness(trade)
-                .map(signedWitnessService::isSignedAccountAgeWitness)
+                .map(witness -> getWitnessData(witness).isSigned())
                 .orElse(false);
     }
 
@@ -868,10 +873,11 @@ public class AccountAgeWitnessService {
         // Add hash to sign state info when running in debug mode
         String hash = log.isDebugEnabled() ? Utilities.bytesAsHexString(accountAgeWitness.getHash()) + "\n" +
                 signedWitnessService.ownerPubKeyAsString(accountAgeWitness) : "";
-        if (signedWitnessService.isFilteredWitness(accountAgeWitness)) {
+        AccountAgeWitnessDataCache.WitnessData witnessData = getWitnessData(accountAgeWitness);
+        if (witnessData.isFiltered()) {
             return SignState.BANNED.addHash(hash);
         }
-        if (signedWitnessService.isSignedByArbitrator(accountAgeWitness)) {
+        if (witnessData.isSignedByArbitrator()) {
             return SignState.ARBITRATOR.addHash(hash);
         } else {
             final long accountSignAge = getWitnessSignAge(accountAgeWitness, new Date());
@@ -21,6 +21,7 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import haveno.common.config.Config;
 import haveno.common.persistence.PersistenceManager;
+import haveno.common.proto.persistable.PersistenceProtoResolver;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.persistence.HistoricalDataStoreService;
 import java.io.File;
@@ -37,8 +38,10 @@ public class AccountAgeWitnessStorageService extends HistoricalDataStoreService<
 
     @Inject
     public AccountAgeWitnessStorageService(@Named(Config.STORAGE_DIR) File storageDir,
-                                           PersistenceManager<AccountAgeWitnessStore> persistenceManager) {
-        super(storageDir, persistenceManager);
+                                           PersistenceManager<AccountAgeWitnessStore> persistenceManager,
+                                           PersistenceProtoResolver persistenceProtoResolver,
+                                           @Named(Config.USE_MAPPED_HISTORICAL_STORES) boolean useMappedHistoricalStores) {
+        super(storageDir, persistenceManager, useMappedHistoricalStores, persistenceProtoResolver);
     }
 
 
@@ -61,6 +61,7 @@ import haveno.core.support.dispute.DisputeResult;
 import haveno.core.support.messages.ChatMessage;
 import haveno.core.trade.Trade;
 import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatisticsCandleStore;
 import haveno.core.trade.statistics.TradeStatisticsManager;
 import haveno.core.xmr.XmrNodeSettings;
 import haveno.proto.grpc.NotificationMessage;
@@ -343,6 +344,16 @@ public class CoreApi {
         return new ArrayList<>(tradeStatisticsManager.getObservableTradeStatisticsSet());
     }
 
+    public List<TradeStatisticsCandleStore.Candle> getCandles(String currencyCode, String tickUnit, long fromDate, long toDate) {
+        TradeStatisticsCandleStore.TickUnit candleTickUnit;
+        try {
+            candleTickUnit = TradeStatisticsCandleStore.TickUnit.valueOf(tickUnit.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid tick unit: " + tickUnit);
+        }
+        return tradeStatisticsManager.getCandleStore().getCandles(currencyCode.toUpperCase(), candleTickUnit, fromDate, toDate <= 0 ? Long.MAX_VALUE : toDate);
+    }
+
     public int getNumConfirmationsForMostRecentTransaction(String addressString) {
         return walletsService.getNumConfirmationsForMostRecentTransaction(addressString);
     }
@@ -408,6 +419,14 @@ public class CoreApi {
         return coreOffersService.getOffers(direction, currencyCode);
     }
 
+    public OfferBookSubscriber watchOffers(String direction,
+                                           String currencyCode,
+                                           String resumeSessionId,
+                                           long resumeSequenceNumber,
+                                           OfferBookSubscriber.Listener listener) {
+        return coreOffersService.watchOffers(direction, currencyCode, resumeSessionId, resumeSequenceNumber, listener);
+    }
+
     public List<OpenOffer> getMyOffers(String direction, String currencyCode) {
         return coreOffersService.getMyOffers(direction, currencyCode);
     }
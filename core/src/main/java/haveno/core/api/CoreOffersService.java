@@ -93,6 +93,7 @@ public class CoreOffersService {
     private final OfferFilterService offerFilter;
     private final OpenOfferManager openOfferManager;
     private final User user;
+    private final OfferBookEventJournal offerBookEventJournal = new OfferBookEventJournal();
 
     @Inject
     public CoreOffersService(CoreContext coreContext,
@@ -112,16 +113,29 @@ public class CoreOffersService {
         this.offerFilter = offerFilter;
         this.openOfferManager = openOfferManager;
         this.user = user;
+
+        offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                offerBookEventJournal.append(OfferBookEventJournal.Type.ADDED, offer);
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                offerBookEventJournal.append(OfferBookEventJournal.Type.REMOVED, offer);
+            }
+
+            @Override
+            public void onUpdated(Offer offer) {
+                offerBookEventJournal.append(OfferBookEventJournal.Type.UPDATED, offer);
+            }
+        });
     }
 
     // excludes my offers
     List<Offer> getOffers() {
         List<Offer> offers = new ArrayList<>(offerBookService.getOffers()).stream()
-                .filter(o -> !o.isMyOffer(keyRing))
-                .filter(o -> {
-                    Result result = offerFilter.canTakeOffer(o, coreContext.isApiUser());
-                    return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
-                })
+                .filter(this::isAvailableOffer)
                 .collect(Collectors.toList());
         return offers;
     }
@@ -133,6 +147,21 @@ public class CoreOffersService {
                 .collect(Collectors.toList());
     }
 
+    // streams the offers of a market starting with a snapshot, or resumes a previous stream of the session
+    OfferBookSubscriber watchOffers(String direction,
+                                    String currencyCode,
+                                    String resumeSessionId,
+                                    long resumeSequenceNumber,
+                                    OfferBookSubscriber.Listener listener) {
+        OfferBookSubscriber subscriber = new OfferBookSubscriber(offerBookEventJournal,
+                offer -> offerMatchesDirectionAndCurrency(offer, direction, currencyCode),
+                this::isAvailableOffer,
+                () -> getOffers(direction, currencyCode),
+                listener);
+        offerBookEventJournal.subscribe(subscriber, resumeSessionId, resumeSequenceNumber);
+        return subscriber;
+    }
+
     Offer getOffer(String id) {
         return getOffers().stream()
                 .filter(o -> o.getId().equals(id))
@@ -347,6 +376,13 @@ public class CoreOffersService {
                 errorMessageHandler);
     }
 
+    // excludes my offers and offers which cannot be taken, except for missing payment accounts
+    private boolean isAvailableOffer(Offer offer) {
+        if (offer.isMyOffer(keyRing)) return false;
+        Result result = offerFilter.canTakeOffer(offer, coreContext.isApiUser());
+        return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
+    }
+
     private boolean offerMatchesDirectionAndCurrency(Offer offer,
                                                      String direction,
                                                      String currencyCode) {
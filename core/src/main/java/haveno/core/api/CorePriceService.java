@@ -34,20 +34,14 @@
 
 package haveno.core.api;
 
-import com.google.common.math.LongMath;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import haveno.core.api.model.MarketDepthInfo;
 import haveno.core.api.model.MarketPriceInfo;
 import haveno.core.locale.CurrencyUtil;
-import haveno.core.monetary.Price;
-import haveno.core.offer.Offer;
+import haveno.core.offer.MarketDepthBook;
 import haveno.core.offer.OfferBookService;
-import haveno.core.offer.OfferDirection;
 import haveno.core.provider.price.PriceFeedService;
-import haveno.core.trade.HavenoUtils;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
@@ -95,67 +89,17 @@ class CorePriceService {
     /**
      * @return Data for market depth chart
      */
-     public MarketDepthInfo getMarketDepth(String currencyCode) throws ExecutionException, InterruptedException, TimeoutException, IllegalArgumentException  {
-        if (priceFeedService.requestAllPrices().get(currencyCode.toUpperCase()) == null) throw new IllegalArgumentException("Currency not found: " + currencyCode) ;
-
-        // Offer price can be null (if price feed unavailable), thus a null-tolerant comparator is used.
-        Comparator<Offer> offerPriceComparator = Comparator.comparing(Offer::getPrice, Comparator.nullsLast(Comparator.naturalOrder()));
-
-        // TODO: remove this!!!
-        // Trading xmr-traditional is considered as buying/selling XMR, but trading xmr-crypto is
-        // considered as buying/selling crypto. Because of this, when viewing a xmr-crypto pair,
-        // the buy column is actually the sell column and vice versa. To maintain the expected
-        // ordering, we have to reverse the price comparator.
-        //boolean isCrypto = CurrencyUtil.isCryptoCurrency(currencyCode);
-        //if (isCrypto) offerPriceComparator = offerPriceComparator.reversed();
-
-        // Offer amounts are used for the secondary sort. They are sorted from high to low.
-        Comparator<Offer> offerAmountComparator = Comparator.comparing(Offer::getAmount).reversed();
-
-        var buyOfferSortComparator =
-                offerPriceComparator.reversed() // Buy offers, as opposed to sell offers, are primarily sorted from high price to low.
-                        .thenComparing(offerAmountComparator);
-        var sellOfferSortComparator =
-                offerPriceComparator
-                        .thenComparing(offerAmountComparator);
-        List<Offer> buyOffers = offerBookService.getOffersByCurrency(OfferDirection.BUY.name(), currencyCode).stream().sorted(buyOfferSortComparator).collect(Collectors.toList());
-        List<Offer> sellOffers = offerBookService.getOffersByCurrency(OfferDirection.SELL.name(), currencyCode).stream().sorted(sellOfferSortComparator).collect(Collectors.toList());
-
-        // Create buyer hashmap {key:price, value:count}, uses LinkedHashMap to maintain insertion order
-        double accumulatedAmount = 0;
-        LinkedHashMap<Double,Double> buyTM = new LinkedHashMap<Double,Double>();
-        for(Offer offer: buyOffers) {
-            Price price = offer.getPrice();
-            if (price != null) {
-                double amount = (double) offer.getAmount().longValueExact() / LongMath.pow(10, HavenoUtils.XMR_SMALLEST_UNIT_EXPONENT);
-                accumulatedAmount += amount;
-                double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
-                buyTM.put(priceAsDouble, accumulatedAmount);
-            }
-        };
-
-        // Create seller hashmap {key:price, value:count}, uses TreeMap to sort by key (asc)
-        accumulatedAmount = 0;
-        LinkedHashMap<Double,Double> sellTM = new LinkedHashMap<Double,Double>();
-        for(Offer offer: sellOffers){
-            Price price = offer.getPrice();
-            if (price != null) {
-                double amount = (double) offer.getAmount().longValueExact() / LongMath.pow(10, HavenoUtils.XMR_SMALLEST_UNIT_EXPONENT);
-                accumulatedAmount += amount;
-                double priceAsDouble = (double) price.getValue() / LongMath.pow(10, price.smallestUnitExponent());
-                sellTM.put(priceAsDouble, accumulatedAmount);
-            }
-        };
-
-        // Make array of buyPrices and buyDepth
-        Double[] buyDepth = buyTM.values().toArray(new Double[buyTM.size()]);
-        Double[] buyPrices = buyTM.keySet().toArray(new Double[buyTM.size()]);
-
-        // Make array of sellPrices and sellDepth
-        Double[] sellDepth = sellTM.values().toArray(new Double[sellTM.size()]);
-        Double[] sellPrices = sellTM.keySet().toArray(new Double[sellTM.size()]);
-
-        return new MarketDepthInfo(currencyCode, buyPrices, buyDepth, sellPrices, sellDepth);
+    public MarketDepthInfo getMarketDepth(String currencyCode) throws ExecutionException, InterruptedException, TimeoutException, IllegalArgumentException  {
+        if (priceFeedService.getMarketPrice(currencyCode) == null && priceFeedService.requestAllPrices().get(currencyCode.toUpperCase()) == null) throw new IllegalArgumentException("Currency not found: " + currencyCode);
+
+        // The depth is maintained by the offer book with each offer change and only recomputed after changes.
+        // Buy levels are sorted from high price to low, sell levels from low to high.
+        MarketDepthBook.MarketDepth marketDepth = offerBookService.getMarketDepth(currencyCode);
+        return new MarketDepthInfo(currencyCode,
+                marketDepth.getBuyPrices(),
+                marketDepth.getBuyDepth(),
+                marketDepth.getSellPrices(),
+                marketDepth.getSellDepth());
     }
 }
 
@@ -0,0 +1,168 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import haveno.core.api.model.OfferInfo;
+import haveno.core.offer.Offer;
+import lombok.Getter;
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Journal of the recent offer book changes, numbered with increasing sequence numbers.
+ * <p>
+ * Streaming clients receive the changes after a snapshot of the offer book. If a client reconnects with the last
+ * sequence number it received, the changes it missed are replayed from the journal instead of sending a new snapshot.
+ * Sequence numbers are only valid within the session of the journal, which ends when the application stops.
+ */
+public class OfferBookEventJournal {
+    static final int DEFAULT_CAPACITY = 10_000;
+
+    public enum Type {
+        ADDED,
+        REMOVED,
+        UPDATED
+    }
+
+    @Getter
+    public static class Event {
+        private final long sequenceNumber;
+        private final Type type;
+        private final Offer offer;
+        @Nullable
+        private volatile OfferInfo offerInfo;
+
+        Event(long sequenceNumber, Type type, Offer offer) {
+            this.sequenceNumber = sequenceNumber;
+            this.type = type;
+            this.offer = offer;
+        }
+
+        // the offer info is created once and shared by all subscribers
+        public OfferInfo getOfferInfo() {
+            OfferInfo info = offerInfo;
+            if (info == null) {
+                info = OfferInfo.toOfferInfo(offer);
+                offerInfo = info;
+            }
+            return info;
+        }
+
+        Event asRemoved() {
+            return type == Type.REMOVED ? this : new Event(sequenceNumber, Type.REMOVED, offer);
+        }
+
+        Event asAdded() {
+            return type == Type.ADDED ? this : new Event(sequenceNumber, Type.ADDED, offer);
+        }
+    }
+
+    @Value
+    public static class Subscription {
+        // sequence number of the last change before the subscription
+        long sequenceNumber;
+        // changes after the resumed sequence number, or null if the subscriber needs a snapshot
+        @Nullable
+        List<Event> missedEvents;
+    }
+
+    /**
+     * Subscribers are called while the journal is locked, so they must not block. They receive the changes in order.
+     */
+    public interface Subscriber {
+        void onSubscribed(Subscription subscription);
+
+        void onEvent(Event event);
+    }
+
+    @Getter
+    private final String sessionId = UUID.randomUUID().toString();
+    private final int capacity;
+    private final Deque<Event> events = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = new LinkedHashSet<>();
+    private long sequenceNumber;
+
+    public OfferBookEventJournal() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    OfferBookEventJournal(int capacity) {
+        this.capacity = capacity;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized Event append(Type type, Offer offer) {
+        Event event = new Event(++sequenceNumber, type, offer);
+        events.addLast(event);
+        if (events.size() > capacity) events.removeFirst();
+        for (Subscriber subscriber : subscribers) subscriber.onEvent(event);
+        return event;
+    }
+
+    /**
+     * Adds the subscriber. The missed changes are replayed if the session id matches and the journal still contains
+     * all changes after the given sequence number, otherwise the subscriber needs a snapshot.
+     */
+    public synchronized Subscription subscribe(Subscriber subscriber, @Nullable String resumeSessionId, long resumeSequenceNumber) {
+        Subscription subscription = new Subscription(sequenceNumber, getEventsAfter(resumeSessionId, resumeSequenceNumber));
+        subscribers.add(subscriber);
+        subscriber.onSubscribed(subscription);
+        return subscription;
+    }
+
+    public synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public synchronized long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public synchronized int getNumSubscribers() {
+        return subscribers.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    private List<Event> getEventsAfter(@Nullable String resumeSessionId, long resumeSequenceNumber) {
+        if (!sessionId.equals(resumeSessionId) || resumeSequenceNumber > sequenceNumber) return null;
+        long firstSequenceNumber = events.isEmpty() ? sequenceNumber + 1 : events.getFirst().getSequenceNumber();
+        if (resumeSequenceNumber < firstSequenceNumber - 1) return null; // changes were dropped from the journal
+        List<Event> missedEvents = new ArrayList<>();
+        for (Event event : events) {
+            if (event.getSequenceNumber() > resumeSequenceNumber) missedEvents.add(event);
+        }
+        return missedEvents;
+    }
+}
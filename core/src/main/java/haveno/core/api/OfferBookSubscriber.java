@@ -0,0 +1,202 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import haveno.common.ThreadUtils;
+import haveno.core.offer.Offer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Streams the offers of a market to a listener: first a snapshot or the missed changes, then each change.
+ * <p>
+ * The journal hands the changes over while it is locked, so changes of other markets are dropped right away and the
+ * others are queued and delivered in order on a thread of the subscriber. An added or updated offer which cannot be
+ * taken is delivered as removed.
+ * <p>
+ * If the listener is not ready or slow, a queued change of an offer gets replaced by its later changes, so the queue
+ * holds at most one change per offer. If it still exceeds MAX_PENDING_EVENTS offers the subscription fails and the
+ * client has to resume from its last sequence number.
+ */
+@Slf4j
+public class OfferBookSubscriber implements OfferBookEventJournal.Subscriber {
+    static final int MAX_PENDING_EVENTS = 1000;
+
+    public interface Listener {
+        void onSnapshot(String sessionId, long sequenceNumber, List<Offer> offers);
+
+        void onEvent(String sessionId, OfferBookEventJournal.Event event);
+
+        void onError(Throwable throwable);
+
+        // If not ready the changes are queued until onReady is called
+        default boolean isReady() {
+            return true;
+        }
+    }
+
+    private final OfferBookEventJournal journal;
+    private final Predicate<Offer> isInMarket;
+    private final Predicate<Offer> isAvailable;
+    private final Supplier<List<Offer>> snapshotProvider;
+    private final Listener listener;
+    private final String threadId = OfferBookSubscriber.class.getSimpleName() + "_" + UUID.randomUUID();
+    // Queued changes by offer id in the order of their last change. Guarded by itself.
+    private final Map<String, OfferBookEventJournal.Event> pendingEvents = new LinkedHashMap<>();
+    private boolean isDrainScheduled;
+    private boolean isOverflow;
+    private volatile boolean isClosed;
+
+    OfferBookSubscriber(OfferBookEventJournal journal,
+                        Predicate<Offer> isInMarket,
+                        Predicate<Offer> isAvailable,
+                        Supplier<List<Offer>> snapshotProvider,
+                        Listener listener) {
+        this.journal = journal;
+        this.isInMarket = isInMarket;
+        this.isAvailable = isAvailable;
+        this.snapshotProvider = snapshotProvider;
+        this.listener = listener;
+    }
+
+    @Override
+    public void onSubscribed(OfferBookEventJournal.Subscription subscription) {
+        execute(() -> {
+            if (subscription.getMissedEvents() == null) {
+                listener.onSnapshot(journal.getSessionId(), subscription.getSequenceNumber(),
+                        snapshotProvider.get());
+            } else {
+                subscription.getMissedEvents().forEach(this::deliver);
+            }
+        });
+    }
+
+    @Override
+    public void onEvent(OfferBookEventJournal.Event event) {
+        if (isClosed || !isInMarket.test(event.getOffer())) return;
+        boolean scheduleFailure = false;
+        boolean scheduleDrain = false;
+        synchronized (pendingEvents) {
+            if (isOverflow) return;
+            // We remove the previous change so the offer moves to the end of the queue
+            OfferBookEventJournal.Event previous = pendingEvents.remove(event.getOffer().getId());
+            pendingEvents.put(event.getOffer().getId(), coalesce(previous, event));
+            if (pendingEvents.size() > MAX_PENDING_EVENTS) {
+                isOverflow = true;
+                pendingEvents.clear();
+                scheduleFailure = true;
+            } else if (!isDrainScheduled) {
+                isDrainScheduled = true;
+                scheduleDrain = true;
+            }
+        }
+        if (scheduleFailure) {
+            // We are called while the journal is locked, so we must not unsubscribe here
+            execute(() -> {
+                throw new IllegalStateException("Offer book subscriber has more than " + MAX_PENDING_EVENTS +
+                        " pending changes. Resubscribe with the last received sequence number.");
+            });
+        } else if (scheduleDrain) {
+            execute(this::drain);
+        }
+    }
+
+    /**
+     * Called if the listener gets ready again after isReady returned false.
+     */
+    public void onReady() {
+        execute(this::drain);
+    }
+
+    public void close() {
+        if (isClosed) return;
+        isClosed = true;
+        journal.unsubscribe(this);
+        synchronized (pendingEvents) {
+            pendingEvents.clear();
+        }
+        ThreadUtils.submitToPool(() -> ThreadUtils.shutDown(threadId));
+    }
+
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // An offer added and updated before the listener got the addition is still new to the listener
+    private static OfferBookEventJournal.Event coalesce(OfferBookEventJournal.Event previous,
+                                                       OfferBookEventJournal.Event event) {
+        if (previous != null &&
+                previous.getType() == OfferBookEventJournal.Type.ADDED &&
+                event.getType() == OfferBookEventJournal.Type.UPDATED) {
+            return event.asAdded();
+        }
+        return event;
+    }
+
+    private void drain() {
+        while (!isClosed && listener.isReady()) {
+            OfferBookEventJournal.Event event;
+            synchronized (pendingEvents) {
+                Iterator<OfferBookEventJournal.Event> iterator = pendingEvents.values().iterator();
+                if (!iterator.hasNext()) {
+                    isDrainScheduled = false;
+                    return;
+                }
+                event = iterator.next();
+                iterator.remove();
+            }
+            deliver(event);
+        }
+        // onReady schedules the next drain
+        synchronized (pendingEvents) {
+            isDrainScheduled = false;
+        }
+    }
+
+    private void deliver(OfferBookEventJournal.Event event) {
+        if (!isInMarket.test(event.getOffer())) return;
+        boolean isRemoved = event.getType() == OfferBookEventJournal.Type.REMOVED || !isAvailable.test(event.getOffer());
+        listener.onEvent(journal.getSessionId(), isRemoved ? event.asRemoved() : event);
+    }
+
+    private void execute(Runnable runnable) {
+        if (isClosed) return;
+        ThreadUtils.execute(() -> {
+            if (isClosed) return;
+            try {
+                runnable.run();
+            } catch (Exception e) {
+                log.warn("Closing offer book subscription after error: {}", e.getMessage());
+                close();
+                listener.onError(e);
+            }
+        }, threadId);
+    }
+}
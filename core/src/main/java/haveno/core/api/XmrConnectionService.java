@@ -33,6 +33,7 @@ import haveno.core.xmr.nodes.XmrNodes.XmrNode;
 import haveno.core.xmr.nodes.XmrNodesSetupPreferences;
 import haveno.core.xmr.setup.DownloadListener;
 import haveno.core.xmr.setup.WalletsSetup;
+import haveno.core.xmr.wallet.MonerodRequestBroker;
 import haveno.core.xmr.wallet.XmrKeyImagePoller;
 import haveno.network.Socks5ProxyProvider;
 import haveno.network.p2p.P2PService;
@@ -123,6 +124,7 @@ public final class XmrConnectionService {
     private boolean isShutDownStarted;
     private List<MoneroConnectionManagerListener> listeners = new ArrayList<>();
     private XmrKeyImagePoller keyImagePoller;
+    private final MonerodRequestBroker monerodRequestBroker = new MonerodRequestBroker(() -> monerod);
 
     // connection switching
     private static final int EXCLUDE_CONNECTION_SECONDS = 180;
@@ -429,11 +431,21 @@ public final class XmrConnectionService {
 
     public XmrKeyImagePoller getKeyImagePoller() {
         synchronized (lock) {
-            if (keyImagePoller == null) keyImagePoller = new XmrKeyImagePoller();
+            if (keyImagePoller == null) {
+                keyImagePoller = new XmrKeyImagePoller();
+                keyImagePoller.setRequestBroker(monerodRequestBroker);
+            }
             return keyImagePoller;
         }
     }
 
+    /**
+     * Get the broker which batches, deduplicates and caches requests to the current monerod.
+     */
+    public MonerodRequestBroker getMonerodRequestBroker() {
+        return monerodRequestBroker;
+    }
+
     private long getKeyImageRefreshPeriodMs() {
         return isConnectionLocalHost() ? KEY_IMAGE_REFRESH_PERIOD_MS_LOCAL : KEY_IMAGE_REFRESH_PERIOD_MS_REMOTE;
     }
@@ -738,6 +750,9 @@ public final class XmrConnectionService {
             });
         }
 
+        // results of the previous monerod are not valid for the new one
+        monerodRequestBroker.clearCache();
+
         // update key image poller
         keyImagePoller.setMonerod(getMonerod());
         keyImagePoller.setRefreshPeriodMs(getKeyImageRefreshPeriodMs());
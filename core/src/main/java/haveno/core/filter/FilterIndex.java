@@ -0,0 +1,163 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.filter;
+
+import haveno.core.payment.payload.PaymentAccountPayload;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable index of the ban lists of a filter, built once per applied filter so ban checks do not scan the lists.
+ * <p>
+ * Banned payment account values are grouped by payment method id and getter name. The getters are resolved to method
+ * handles once per payload class. Values are compared case insensitive, like equalsIgnoreCase.
+ */
+@Slf4j
+final class FilterIndex {
+    static final FilterIndex EMPTY = new FilterIndex(null);
+
+    @Nullable
+    @Getter
+    private final Filter filter;
+    private final Set<String> bannedOfferIds;
+    private final Set<String> nodeAddressesBannedFromTrading;
+    private final Set<String> nodeAddressesBannedFromNetwork;
+    private final Set<String> bannedAutoConfExplorers;
+    private final Set<String> bannedCurrencies;
+    private final Set<String> bannedPaymentMethods;
+    private final Set<String> bannedAccountWitnessSignerPubKeys;
+    private final Set<String> bannedPrivilegedDevPubKeys;
+    // payment method id -> getter name -> banned values
+    private final Map<String, Map<String, Set<String>>> bannedPaymentAccountValues = new HashMap<>();
+    // payload class -> getter name -> getter, empty if the getter does not exist
+    private final Map<Class<?>, Map<String, Optional<MethodHandle>>> getters = new ConcurrentHashMap<>();
+
+    private FilterIndex(@Nullable Filter filter) {
+        this.filter = filter;
+        bannedOfferIds = toSet(filter == null ? null : filter.getBannedOfferIds());
+        nodeAddressesBannedFromTrading = toSet(filter == null ? null : filter.getNodeAddressesBannedFromTrading());
+        nodeAddressesBannedFromNetwork = toSet(filter == null ? null : filter.getNodeAddressesBannedFromNetwork());
+        bannedAutoConfExplorers = toSet(filter == null ? null : filter.getBannedAutoConfExplorers());
+        bannedCurrencies = toSet(filter == null ? null : filter.getBannedCurrencies());
+        bannedPaymentMethods = toSet(filter == null ? null : filter.getBannedPaymentMethods());
+        bannedAccountWitnessSignerPubKeys = toSet(filter == null ? null : filter.getBannedAccountWitnessSignerPubKeys());
+        bannedPrivilegedDevPubKeys = toSet(filter == null ? null : filter.getBannedPrivilegedDevPubKeys());
+        if (filter != null && filter.getBannedPaymentAccounts() != null) {
+            for (PaymentAccountFilter paymentAccountFilter : filter.getBannedPaymentAccounts()) {
+                bannedPaymentAccountValues.computeIfAbsent(paymentAccountFilter.getPaymentMethodId(), k -> new HashMap<>())
+                        .computeIfAbsent(paymentAccountFilter.getGetMethodName(), k -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER))
+                        .add(paymentAccountFilter.getValue());
+            }
+        }
+    }
+
+    static FilterIndex of(@Nullable Filter filter) {
+        return filter == null ? EMPTY : new FilterIndex(filter);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    boolean isOfferIdBanned(String offerId) {
+        return bannedOfferIds.contains(offerId);
+    }
+
+    boolean isNodeAddressBannedFromTrading(String fullAddress) {
+        return nodeAddressesBannedFromTrading.contains(fullAddress);
+    }
+
+    boolean isNodeAddressBannedFromNetwork(String fullAddress) {
+        return nodeAddressesBannedFromNetwork.contains(fullAddress);
+    }
+
+    boolean isAutoConfExplorerBanned(String address) {
+        return bannedAutoConfExplorers.contains(address);
+    }
+
+    boolean isCurrencyBanned(String currencyCode) {
+        return bannedCurrencies.contains(currencyCode);
+    }
+
+    boolean isPaymentMethodBanned(String paymentMethodId) {
+        return bannedPaymentMethods.contains(paymentMethodId);
+    }
+
+    boolean isWitnessSignerPubKeyBanned(String witnessSignerPubKeyAsHex) {
+        return bannedAccountWitnessSignerPubKeys.contains(witnessSignerPubKeyAsHex);
+    }
+
+    boolean isPrivilegedDevPubKeyBanned(String pubKeyAsHex) {
+        return bannedPrivilegedDevPubKeys.contains(pubKeyAsHex);
+    }
+
+    boolean isPaymentAccountDataBanned(PaymentAccountPayload paymentAccountPayload) {
+        Map<String, Set<String>> valuesByGetter = bannedPaymentAccountValues.get(paymentAccountPayload.getPaymentMethodId());
+        if (valuesByGetter == null) return false;
+        for (Map.Entry<String, Set<String>> entry : valuesByGetter.entrySet()) {
+            Optional<MethodHandle> getter = getGetter(paymentAccountPayload.getClass(), entry.getKey());
+            if (getter.isEmpty()) continue;
+            try {
+                // We invoke getter methods (no args), e.g. getHolderName
+                Object value = getter.get().invoke(paymentAccountPayload);
+                if (value instanceof String && entry.getValue().contains(value)) return true;
+            } catch (Throwable e) {
+                log.error(e.getMessage());
+            }
+        }
+        return false;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Optional<MethodHandle> getGetter(Class<?> payloadClass, String getMethodName) {
+        return getters.computeIfAbsent(payloadClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(getMethodName, name -> {
+                    try {
+                        MethodHandle methodHandle = MethodHandles.publicLookup().unreflect(payloadClass.getMethod(name));
+                        return Optional.of(methodHandle.asType(MethodType.methodType(Object.class, Object.class)));
+                    } catch (Throwable e) {
+                        log.error("Getter {} of payment account filter not found at {}: {}",
+                                name, payloadClass.getSimpleName(), e.getMessage());
+                        return Optional.empty();
+                    }
+                });
+    }
+
+    private static Set<String> toSet(@Nullable Collection<String> values) {
+        return values == null || values.isEmpty() ? Collections.emptySet() : new HashSet<>(values);
+    }
+}
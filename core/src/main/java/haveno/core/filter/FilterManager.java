@@ -38,7 +38,6 @@ import haveno.network.p2p.P2PServiceListener;
 import haveno.network.p2p.network.BanFilter;
 import haveno.network.p2p.storage.HashMapChangedListener;
 import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
-import java.lang.reflect.Method;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.PublicKey;
@@ -86,6 +85,7 @@ public class FilterManager {
     private final boolean ignoreDevMsg;
     private final boolean useDevPrivilegeKeys;
     private final ObjectProperty<Filter> filterProperty = new SimpleObjectProperty<>();
+    private volatile FilterIndex filterIndex = FilterIndex.EMPTY;
     private final List<Listener> listeners = new CopyOnWriteArrayList<>();
     private ECKey filterSigningKey;
     private final Set<Filter> invalidFilters = new HashSet<>();
@@ -116,6 +116,7 @@ public class FilterManager {
         this.useDevPrivilegeKeys = useDevPrivilegeKeys;
 
         banFilter.setBannedNodePredicate(this::isNodeAddressBannedFromNetwork);
+        filterProperty.addListener((observable, oldValue, newValue) -> filterIndex = FilterIndex.of(newValue));
     }
 
     protected List<String> getPubKeyList() {
@@ -251,12 +252,7 @@ public class FilterManager {
     }
 
     public boolean isPrivilegedDevPubKeyBanned(String pubKeyAsHex) {
-        Filter filter = getFilter();
-        if (filter == null) {
-            return false;
-        }
-
-        return filter.getBannedPrivilegedDevPubKeys().contains(pubKeyAsHex);
+        return getFilterIndex().isPrivilegedDevPubKeyBanned(pubKeyAsHex);
     }
 
     public boolean canAddDevFilter(String privKeyString) {
@@ -387,41 +383,27 @@ public class FilterManager {
     }
 
     public boolean isCurrencyBanned(String currencyCode) {
-        return getFilter() != null &&
-                getFilter().getBannedCurrencies() != null &&
-                getFilter().getBannedCurrencies().stream()
-                        .anyMatch(e -> e.equals(currencyCode));
+        return getFilterIndex().isCurrencyBanned(currencyCode);
     }
 
     public boolean isPaymentMethodBanned(PaymentMethod paymentMethod) {
-        return getFilter() != null &&
-                getFilter().getBannedPaymentMethods() != null &&
-                getFilter().getBannedPaymentMethods().stream()
-                        .anyMatch(e -> e.equals(paymentMethod.getId()));
+        return getFilterIndex().isPaymentMethodBanned(paymentMethod.getId());
     }
 
     public boolean isOfferIdBanned(String offerId) {
-        return getFilter() != null &&
-                getFilter().getBannedOfferIds().stream()
-                        .anyMatch(e -> e.equals(offerId));
+        return getFilterIndex().isOfferIdBanned(offerId);
     }
 
     public boolean isNodeAddressBanned(NodeAddress nodeAddress) {
-        return getFilter() != null &&
-                getFilter().getNodeAddressesBannedFromTrading().stream()
-                        .anyMatch(e -> e.equals(nodeAddress.getFullAddress()));
+        return getFilterIndex().isNodeAddressBannedFromTrading(nodeAddress.getFullAddress());
     }
 
     public boolean isNodeAddressBannedFromNetwork(NodeAddress nodeAddress) {
-        return getFilter() != null &&
-                getFilter().getNodeAddressesBannedFromNetwork().stream()
-                        .anyMatch(e -> e.equals(nodeAddress.getFullAddress()));
+        return getFilterIndex().isNodeAddressBannedFromNetwork(nodeAddress.getFullAddress());
     }
 
     public boolean isAutoConfExplorerBanned(String address) {
-        return getFilter() != null &&
-                getFilter().getBannedAutoConfExplorers().stream()
-                        .anyMatch(e -> e.equals(address));
+        return getFilterIndex().isAutoConfExplorerBanned(address);
     }
 
     public String getDisableTradeBelowVersion() {
@@ -443,28 +425,11 @@ public class FilterManager {
     }
 
     public boolean arePeersPaymentAccountDataBanned(PaymentAccountPayload paymentAccountPayload) {
-        return getFilter() != null &&
-                getFilter().getBannedPaymentAccounts().stream()
-                        .filter(paymentAccountFilter -> paymentAccountFilter.getPaymentMethodId().equals(
-                                paymentAccountPayload.getPaymentMethodId()))
-                        .anyMatch(paymentAccountFilter -> {
-                            try {
-                                Method method = paymentAccountPayload.getClass().getMethod(paymentAccountFilter.getGetMethodName());
-                                // We invoke getter methods (no args), e.g. getHolderName
-                                String valueFromInvoke = (String) method.invoke(paymentAccountPayload);
-                                return valueFromInvoke.equalsIgnoreCase(paymentAccountFilter.getValue());
-                            } catch (Throwable e) {
-                                log.error(e.getMessage());
-                                return false;
-                            }
-                        });
+        return getFilterIndex().isPaymentAccountDataBanned(paymentAccountPayload);
     }
 
     public boolean isWitnessSignerPubKeyBanned(String witnessSignerPubKeyAsHex) {
-        return getFilter() != null &&
-                getFilter().getBannedAccountWitnessSignerPubKeys() != null &&
-                getFilter().getBannedAccountWitnessSignerPubKeys().stream()
-                        .anyMatch(e -> e.equals(witnessSignerPubKeyAsHex));
+        return getFilterIndex().isWitnessSignerPubKeyBanned(witnessSignerPubKeyAsHex);
     }
 
 
@@ -472,6 +437,17 @@ public class FilterManager {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // The index is built once per applied filter, also if the filter property is set from outside
+    private FilterIndex getFilterIndex() {
+        Filter filter = getFilter();
+        FilterIndex index = filterIndex;
+        if (index.getFilter() != filter) {
+            index = FilterIndex.of(filter);
+            filterIndex = index;
+        }
+        return index;
+    }
+
     private void onFilterAddedFromNetwork(Filter newFilter) {
         Filter currentFilter = getFilter();
 
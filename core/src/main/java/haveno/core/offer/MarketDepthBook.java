@@ -0,0 +1,187 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import com.google.common.math.LongMath;
+import haveno.core.monetary.Price;
+import haveno.core.trade.HavenoUtils;
+
+import javax.annotation.Nullable;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Amounts of the offers per price level and currency, updated with each added and removed offer.
+ * <p>
+ * Buy levels are sorted from high to low price and sell levels from low to high. The cumulative depth of a currency
+ * is computed once after it changed and then returned until the next change. The prices of market based offers are
+ * updated lazily when the depth is read after a price update.
+ * Not thread safe, callers synchronize on the offer book.
+ */
+public class MarketDepthBook {
+
+    // The depth is cached and shared by all callers, so the getters return copies of the arrays
+    public static class MarketDepth {
+        private final Double[] buyPrices;
+        private final Double[] buyDepth;
+        private final Double[] sellPrices;
+        private final Double[] sellDepth;
+
+        private MarketDepth(Map<Double, Double> buyDepth, Map<Double, Double> sellDepth) {
+            this.buyPrices = buyDepth.keySet().toArray(new Double[0]);
+            this.buyDepth = buyDepth.values().toArray(new Double[0]);
+            this.sellPrices = sellDepth.keySet().toArray(new Double[0]);
+            this.sellDepth = sellDepth.values().toArray(new Double[0]);
+        }
+
+        public Double[] getBuyPrices() {
+            return buyPrices.clone();
+        }
+
+        public Double[] getBuyDepth() {
+            return buyDepth.clone();
+        }
+
+        public Double[] getSellPrices() {
+            return sellPrices.clone();
+        }
+
+        public Double[] getSellDepth() {
+            return sellDepth.clone();
+        }
+    }
+
+    // price of the offer when it was added to its level, null if the offer has no price
+    private static class Entry {
+        final Offer offer;
+        final Book book;
+        @Nullable
+        Price price;
+
+        Entry(Offer offer, Book book) {
+            this.offer = offer;
+            this.book = book;
+        }
+    }
+
+    private static class Book {
+        // price value -> sum of offer amounts in atomic units
+        final NavigableMap<Long, Long> buyLevels = new TreeMap<>(Comparator.reverseOrder());
+        final NavigableMap<Long, Long> sellLevels = new TreeMap<>();
+        final Map<String, Entry> marketBasedEntries = new HashMap<>();
+        int priceExponent;
+        long priceEpoch = -1;
+        @Nullable
+        MarketDepth marketDepth;
+    }
+
+    private final Map<String, Entry> entriesByOfferId = new HashMap<>();
+    private final Map<String, Book> booksByCurrency = new HashMap<>();
+
+    void put(Offer offer) {
+        remove(offer.getId());
+        Book book = booksByCurrency.computeIfAbsent(getCurrencyKey(offer.getCounterCurrencyCode()), k -> new Book());
+        Entry entry = new Entry(offer, book);
+        entriesByOfferId.put(offer.getId(), entry);
+        if (offer.isUseMarketBasedPrice()) book.marketBasedEntries.put(offer.getId(), entry);
+        addToLevel(entry, offer.getPrice());
+    }
+
+    void remove(String offerId) {
+        Entry entry = entriesByOfferId.remove(offerId);
+        if (entry == null) return;
+        entry.book.marketBasedEntries.remove(offerId);
+        removeFromLevel(entry);
+    }
+
+    /**
+     * Returns the cumulative amounts per price level of the currency.
+     *
+     * @param priceEpoch the price epoch of the price feed, market based offers are re-priced when it changed
+     */
+    MarketDepth getMarketDepth(String currencyCode, long priceEpoch) {
+        Book book = booksByCurrency.get(getCurrencyKey(currencyCode));
+        if (book == null) return new MarketDepth(Map.of(), Map.of());
+        if (book.priceEpoch != priceEpoch) {
+            book.priceEpoch = priceEpoch;
+            for (Entry entry : book.marketBasedEntries.values()) {
+                Price price = entry.offer.getPrice();
+                if (isSameLevel(price, entry.price)) continue;
+                removeFromLevel(entry);
+                addToLevel(entry, price);
+            }
+        }
+        if (book.marketDepth == null) {
+            book.marketDepth = new MarketDepth(getDepth(book.buyLevels, book.priceExponent),
+                    getDepth(book.sellLevels, book.priceExponent));
+        }
+        return book.marketDepth;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void addToLevel(Entry entry, @Nullable Price price) {
+        entry.price = price;
+        if (price == null) return;
+        Book book = entry.book;
+        book.priceExponent = price.smallestUnitExponent();
+        getLevels(entry).merge(price.getValue(), entry.offer.getAmount().longValueExact(), Long::sum);
+        book.marketDepth = null;
+    }
+
+    private static void removeFromLevel(Entry entry) {
+        if (entry.price == null) return;
+        long amount = entry.offer.getAmount().longValueExact();
+        getLevels(entry).computeIfPresent(entry.price.getValue(), (price, sum) -> sum == amount ? null : sum - amount);
+        entry.book.marketDepth = null;
+        entry.price = null;
+    }
+
+    private static NavigableMap<Long, Long> getLevels(Entry entry) {
+        return entry.offer.getDirection() == OfferDirection.BUY ? entry.book.buyLevels : entry.book.sellLevels;
+    }
+
+    private static boolean isSameLevel(@Nullable Price price1, @Nullable Price price2) {
+        if (price1 == null || price2 == null) return price1 == price2;
+        return price1.getValue() == price2.getValue();
+    }
+
+    private static Map<Double, Double> getDepth(NavigableMap<Long, Long> levels, int priceExponent) {
+        Map<Double, Double> depth = new LinkedHashMap<>();
+        double priceDivisor = LongMath.pow(10, priceExponent);
+        double amountDivisor = LongMath.pow(10, HavenoUtils.XMR_SMALLEST_UNIT_EXPONENT);
+        long accumulatedAmount = 0;
+        for (Map.Entry<Long, Long> level : levels.entrySet()) {
+            accumulatedAmount += level.getValue();
+            depth.put(level.getKey() / priceDivisor, accumulatedAmount / amountDivisor);
+        }
+        return depth;
+    }
+
+    private static String getCurrencyKey(String currencyCode) {
+        return currencyCode.toUpperCase(Locale.ROOT);
+    }
+}
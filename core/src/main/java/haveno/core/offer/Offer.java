@@ -103,9 +103,22 @@ public class Offer implements NetworkPayload, PersistablePayload {
     final transient private StringProperty errorMessageProperty = new SimpleStringProperty();
     @JsonExclude
     @Nullable
-    @Setter
     transient private PriceFeedService priceFeedService;
 
+    // Price and volumes are computed once per price update of the price feed service
+    private record PriceMemo(long priceEpoch, @Nullable MarketPrice marketPrice, Price price) {
+    }
+
+    private record VolumeMemo(@Nullable Price price, @Nullable Volume volume, @Nullable Volume minVolume) {
+    }
+
+    @JsonExclude
+    @Nullable
+    transient private volatile PriceMemo priceMemo;
+    @JsonExclude
+    @Nullable
+    transient private volatile VolumeMemo volumeMemo;
+
     // Used only as cache
     @Nullable
     @JsonExclude
@@ -173,15 +186,45 @@ public class Offer implements NetworkPayload, PersistablePayload {
             availabilityProtocol.cancel();
     }
 
+    public void setPriceFeedService(@Nullable PriceFeedService priceFeedService) {
+        this.priceFeedService = priceFeedService;
+        priceMemo = null;
+    }
+
+    /**
+     * Returns the price of the offer. A market based price is computed once per price update and reused until the
+     * next update, or until the market price gets too old.
+     */
     @Nullable
     public Price getPrice() {
-        String counterCurrencyCode = getCounterCurrencyCode();
         if (!offerPayload.isUseMarketBasedPrice()) {
-            return Price.valueOf(counterCurrencyCode, isInverted() ? PriceUtil.invertLongPrice(offerPayload.getPrice(), counterCurrencyCode) : offerPayload.getPrice());
+            PriceMemo memo = priceMemo;
+            if (memo == null) {
+                String counterCurrencyCode = getCounterCurrencyCode();
+                memo = new PriceMemo(0, null, Price.valueOf(counterCurrencyCode, isInverted() ? PriceUtil.invertLongPrice(offerPayload.getPrice(), counterCurrencyCode) : offerPayload.getPrice()));
+                priceMemo = memo;
+            }
+            return memo.price();
         }
 
         checkNotNull(priceFeedService, "priceFeed must not be null");
-        MarketPrice marketPrice = priceFeedService.getMarketPrice(counterCurrencyCode);
+        long priceEpoch = priceFeedService.getPriceEpoch();
+        PriceMemo memo = priceMemo;
+        if (memo != null && memo.priceEpoch() == priceEpoch) {
+            if (memo.marketPrice().isRecentExternalPriceAvailable()) return memo.price();
+            return null;
+        }
+
+        // A missing price is not memoized, it is looked up again until it is available
+        MarketPrice marketPrice = priceFeedService.getMarketPrice(getCounterCurrencyCode());
+        Price price = computeMarketBasedPrice(marketPrice);
+        priceMemo = price == null ? null : new PriceMemo(priceEpoch, marketPrice, price);
+        return price;
+    }
+
+    @Nullable
+    private Price computeMarketBasedPrice(@Nullable MarketPrice marketPrice) {
+        String counterCurrencyCode = getCounterCurrencyCode();
         if (marketPrice != null && marketPrice.isRecentExternalPriceAvailable()) {
             double factor;
             double marketPriceMargin = offerPayload.getMarketPriceMarginPct();
@@ -249,7 +292,11 @@ public class Offer implements NetworkPayload, PersistablePayload {
 
     @Nullable
     public Volume getVolumeByAmount(BigInteger amount, BigInteger minAmount, BigInteger maxAmount) {
-        Price price = getPrice();
+        return getVolumeByAmount(getPrice(), amount, minAmount, maxAmount);
+    }
+
+    @Nullable
+    private Volume getVolumeByAmount(@Nullable Price price, BigInteger amount, BigInteger minAmount, BigInteger maxAmount) {
         if (price == null || amount == null) {
             return null;
         }
@@ -383,12 +430,25 @@ public class Offer implements NetworkPayload, PersistablePayload {
 
     @Nullable
     public Volume getVolume() {
-        return getVolumeByAmount(getAmount(), getMinAmount(), getAmount());
+        return getVolumeMemo().volume();
     }
 
     @Nullable
     public Volume getMinVolume() {
-        return getVolumeByAmount(getMinAmount(), getMinAmount(), getAmount());
+        return getVolumeMemo().minVolume();
+    }
+
+    // The volumes only change with the price, which is the same instance until the next price update
+    private VolumeMemo getVolumeMemo() {
+        Price price = getPrice();
+        VolumeMemo memo = volumeMemo;
+        if (memo == null || memo.price() != price) {
+            memo = new VolumeMemo(price,
+                    getVolumeByAmount(price, getAmount(), getMinAmount(), getAmount()),
+                    getVolumeByAmount(price, getMinAmount(), getMinAmount(), getAmount()));
+            volumeMemo = memo;
+        }
+        return memo;
     }
 
     public boolean isBuyOffer() {
@@ -0,0 +1,160 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offers indexed by offer id, reserve tx key image and market (counter currency and direction), and the market
+ * depth of the offers. The indices are updated with each put and remove, so lookups do not need to scan all offers.
+ * Offers keep the order in which they were added. A replaced offer moves to the end.
+ * Not thread safe, callers synchronize on the index.
+ */
+class OfferBookIndex {
+    private final Map<String, Offer> offersById = new LinkedHashMap<>();
+    private final Map<String, Set<String>> offerIdsByKeyImage = new HashMap<>();
+    private final Map<String, Set<String>> offerIdsByMarket = new HashMap<>();
+    private final MarketDepthBook marketDepthBook = new MarketDepthBook();
+
+    /**
+     * Adds the offer or replaces the offer with the same id.
+     */
+    void put(Offer offer) {
+        remove(offer.getId());
+        offersById.put(offer.getId(), offer);
+        for (String keyImage : getKeyImages(offer)) {
+            offerIdsByKeyImage.computeIfAbsent(keyImage, k -> new LinkedHashSet<>()).add(offer.getId());
+        }
+        offerIdsByMarket.computeIfAbsent(getMarketKey(offer), k -> new LinkedHashSet<>()).add(offer.getId());
+        marketDepthBook.put(offer);
+    }
+
+    @Nullable
+    Offer remove(String offerId) {
+        Offer offer = offersById.remove(offerId);
+        if (offer == null) {
+            return null;
+        }
+        for (String keyImage : getKeyImages(offer)) {
+            removeFromIndex(offerIdsByKeyImage, keyImage, offerId);
+        }
+        removeFromIndex(offerIdsByMarket, getMarketKey(offer), offerId);
+        marketDepthBook.remove(offerId);
+        return offer;
+    }
+
+    @Nullable
+    Offer get(String offerId) {
+        return offersById.get(offerId);
+    }
+
+    boolean contains(String offerId) {
+        return offersById.containsKey(offerId);
+    }
+
+    int size() {
+        return offersById.size();
+    }
+
+    List<Offer> getOffers() {
+        return new ArrayList<>(offersById.values());
+    }
+
+    List<Offer> getOffersByMarket(String direction, String currencyCode) {
+        return getOffers(offerIdsByMarket.get(getMarketKey(direction, currencyCode)));
+    }
+
+    List<Offer> getOffersWithKeyImage(String keyImage) {
+        return getOffers(offerIdsByKeyImage.get(keyImage));
+    }
+
+    /**
+     * Returns the offers which have at least one of the given key images.
+     */
+    List<Offer> getOffersWithAnyKeyImage(Collection<String> keyImages) {
+        Set<String> offerIds = new LinkedHashSet<>();
+        for (String keyImage : keyImages) {
+            Set<String> ids = offerIdsByKeyImage.get(keyImage);
+            if (ids != null) {
+                offerIds.addAll(ids);
+            }
+        }
+        return getOffers(offerIds);
+    }
+
+    MarketDepthBook.MarketDepth getMarketDepth(String currencyCode, long priceEpoch) {
+        return marketDepthBook.getMarketDepth(currencyCode, priceEpoch);
+    }
+
+    /**
+     * Returns true if an offer other than the offer with the given id has the key image.
+     */
+    boolean isKeyImageUsedByOtherOffer(String keyImage, String offerId) {
+        Set<String> ids = offerIdsByKeyImage.get(keyImage);
+        return ids != null && (ids.size() > 1 || !ids.contains(offerId));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private List<Offer> getOffers(@Nullable Collection<String> offerIds) {
+        if (offerIds == null) {
+            return new ArrayList<>();
+        }
+        List<Offer> offers = new ArrayList<>(offerIds.size());
+        for (String offerId : offerIds) {
+            offers.add(offersById.get(offerId));
+        }
+        return offers;
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> index, String key, String offerId) {
+        Set<String> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(offerId);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static Collection<String> getKeyImages(Offer offer) {
+        List<String> keyImages = offer.getOfferPayload().getReserveTxKeyImages();
+        return keyImages == null ? Collections.emptyList() : keyImages;
+    }
+
+    private static String getMarketKey(Offer offer) {
+        return getMarketKey(offer.getDirection().name(), offer.getOfferPayload().getCounterCurrencyCode());
+    }
+
+    private static String getMarketKey(String direction, String currencyCode) {
+        return currencyCode.toUpperCase(Locale.ROOT) + "_" + direction;
+    }
+}
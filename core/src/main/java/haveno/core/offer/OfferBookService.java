@@ -64,6 +64,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -87,13 +88,19 @@ public class OfferBookService {
     private final FilterManager filterManager;
     private final JsonFileManager jsonFileManager;
     private final XmrConnectionService xmrConnectionService;
-    private final List<Offer> validOffers = new ArrayList<Offer>();
-    private final List<Offer> invalidOffers = new ArrayList<Offer>();
+    private final OfferBookIndex validOffers = new OfferBookIndex();
+    private final Map<String, Offer> invalidOffers = new LinkedHashMap<>();
     private final Map<String, Timer> invalidOfferTimers = new HashMap<>();
 
     public interface OfferBookChangedListener {
         void onAdded(Offer offer);
         void onRemoved(Offer offer);
+
+        // called if the state of an offer in the offer book changed, e.g. its reserved funds were spent
+        default void onUpdated(Offer offer) {
+            onRemoved(offer);
+            onAdded(offer);
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -152,7 +159,7 @@ public class OfferBookService {
 
                             // check if invalid offers are now valid
                             synchronized (invalidOffers) {
-                                for (Offer invalidOffer : new ArrayList<Offer>(invalidOffers)) {
+                                for (Offer invalidOffer : new ArrayList<Offer>(invalidOffers.values())) {
                                     try {
                                         validateOfferPayload(invalidOffer.getOfferPayload());
                                         removeInvalidOffer(invalidOffer.getId());
@@ -265,14 +272,23 @@ public class OfferBookService {
 
     public List<Offer> getOffers() {
         synchronized (validOffers) {
-            return new ArrayList<>(validOffers);
+            return validOffers.getOffers();
         }
     }
 
     public List<Offer> getOffersByCurrency(String direction, String currencyCode) {
-        return getOffers().stream()
-                .filter(o -> o.getOfferPayload().getCounterCurrencyCode().equalsIgnoreCase(currencyCode) && o.getDirection().name() == direction)
-                .collect(Collectors.toList());
+        synchronized (validOffers) {
+            return validOffers.getOffersByMarket(direction, currencyCode);
+        }
+    }
+
+    /**
+     * Returns the cumulative offer amounts per price level of the currency, sorted from the best price.
+     */
+    public MarketDepthBook.MarketDepth getMarketDepth(String currencyCode) {
+        synchronized (validOffers) {
+            return validOffers.getMarketDepth(currencyCode, priceFeedService.getPriceEpoch());
+        }
     }
 
     public void removeOfferAtShutDown(OfferPayload offerPayload) {
@@ -315,25 +331,21 @@ public class OfferBookService {
     }
 
     private boolean hasValidOffer(String offerId) {
-        for (Offer offer : getOffers()) {
-            if (offer.getId().equals(offerId)) {
-                return true;
-            }
+        synchronized (validOffers) {
+            return validOffers.contains(offerId);
         }
-        return false;
     }
     
     private void replaceValidOffer(Offer offer) {
         synchronized (validOffers) {
-            removeValidOffer(offer.getId());
-            validOffers.add(offer);
+            validOffers.put(offer);
         }
     }
 
     private void replaceInvalidOffer(Offer offer) {
         synchronized (invalidOffers) {
             removeInvalidOffer(offer.getId());
-            invalidOffers.add(offer);
+            invalidOffers.put(offer.getId(), offer);
 
             // remove invalid offer after timeout
             synchronized (invalidOfferTimers) {
@@ -349,13 +361,13 @@ public class OfferBookService {
 
     private void removeValidOffer(String offerId) {
         synchronized (validOffers) {
-            validOffers.removeIf(offer -> offer.getId().equals(offerId));
+            validOffers.remove(offerId);
         }
     }
 
     private void removeInvalidOffer(String offerId) {
         synchronized (invalidOffers) {
-            invalidOffers.removeIf(offer -> offer.getId().equals(offerId));
+            invalidOffers.remove(offerId);
 
             // remove timeout
             synchronized (invalidOfferTimers) {
@@ -381,8 +393,15 @@ public class OfferBookService {
 
         // validate against existing offers
         synchronized (validOffers) {
+
+            // only offers sharing a key image can conflict, unless the offer has no key images
+            List<String> keyImages = offerPayload.getReserveTxKeyImages();
+            List<Offer> candidates = keyImages == null || keyImages.isEmpty() ?
+                    validOffers.getOffers() :
+                    validOffers.getOffersWithAnyKeyImage(keyImages);
+
             int numOffersWithSharedKeyImages = 0;
-            for (Offer offer : validOffers) {
+            for (Offer offer : candidates) {
 
                 // validate that no offer has overlapping but different key images
                 if (!offer.getOfferPayload().getReserveTxKeyImages().equals(offerPayload.getReserveTxKeyImages()) && 
@@ -411,24 +430,20 @@ public class OfferBookService {
     private void removeKeyImages(Offer offer) {
         Set<String> unsharedKeyImages = new HashSet<>(offer.getOfferPayload().getReserveTxKeyImages());
         synchronized (validOffers) {
-            for (Offer validOffer : validOffers) {
-                if (validOffer.getId().equals(offer.getId())) continue;
-                unsharedKeyImages.removeAll(validOffer.getOfferPayload().getReserveTxKeyImages());
-            }
+            unsharedKeyImages.removeIf(keyImage -> validOffers.isKeyImageUsedByOtherOffer(keyImage, offer.getId()));
         }
         xmrConnectionService.getKeyImagePoller().removeKeyImages(unsharedKeyImages, OfferBookService.class.getSimpleName());
     }
     
     private void updateAffectedOffers(String keyImage) {
-        for (Offer offer : getOffers()) {
-            if (offer.getOfferPayload().getReserveTxKeyImages().contains(keyImage)) {
-                updateReservedFundsSpentStatus(offer);
-                synchronized (offerBookChangedListeners) {
-                    offerBookChangedListeners.forEach(listener -> {
-                        listener.onRemoved(offer);
-                        listener.onAdded(offer);
-                    });
-                }
+        List<Offer> affectedOffers;
+        synchronized (validOffers) {
+            affectedOffers = validOffers.getOffersWithKeyImage(keyImage);
+        }
+        for (Offer offer : affectedOffers) {
+            updateReservedFundsSpentStatus(offer);
+            synchronized (offerBookChangedListeners) {
+                offerBookChangedListeners.forEach(listener -> listener.onUpdated(offer));
             }
         }
     }
@@ -29,9 +29,9 @@ import haveno.core.trade.HavenoUtils;
 import haveno.core.user.Preferences;
 import haveno.core.user.User;
 import haveno.network.p2p.P2PService;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import javafx.collections.SetChangeListener;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -45,8 +45,9 @@ public class OfferFilterService {
     private final Preferences preferences;
     private final FilterManager filterManager;
     private final AccountAgeWitnessService accountAgeWitnessService;
-    private final Map<String, Boolean> insufficientCounterpartyTradeLimitCache = new HashMap<>();
-    private final Map<String, Boolean> myInsufficientTradeLimitCache = new HashMap<>();
+    // Depends on our own payment accounts, the counterparty trade limit uses the witness data cache of the
+    // AccountAgeWitnessService instead
+    private final Map<String, Boolean> myInsufficientTradeLimitCache = new ConcurrentHashMap<>();
 
     @Inject
     public OfferFilterService(User user,
@@ -177,19 +178,10 @@ public class OfferFilterService {
         return filterManager.requireUpdateToNewVersionForTrading();
     }
 
-    // This call is a bit expensive so we cache results
+    // The expensive part is cached by the AccountAgeWitnessService and invalidated on new signed witnesses
     public boolean isInsufficientCounterpartyTradeLimit(Offer offer) {
-        String offerId = offer.getId();
-        if (insufficientCounterpartyTradeLimitCache.containsKey(offerId)) {
-            return insufficientCounterpartyTradeLimitCache.get(offerId);
-        }
-
-        boolean result = offer.isTraditionalOffer() &&
-                !accountAgeWitnessService.verifyPeersTradeAmount(offer, offer.getAmount(),
-                        errorMessage -> {
-                        });
-        insufficientCounterpartyTradeLimitCache.put(offerId, result);
-        return result;
+        return offer.isTraditionalOffer() &&
+                !accountAgeWitnessService.isPeersTradeLimitSufficient(offer, offer.getAmount());
     }
 
     // This call is a bit expensive so we cache results
@@ -80,6 +80,8 @@ public class PriceFeedService {
     private String currencyCode;
     private final StringProperty currencyCodeProperty = new SimpleStringProperty();
     private final IntegerProperty updateCounter = new SimpleIntegerProperty(0);
+    // Mirrors the update counter for reads from any thread
+    private volatile long priceEpoch;
     private long epochInMillisAtLastRequest;
     private long retryDelay = 0;
     private long requestTs;
@@ -107,6 +109,8 @@ public class PriceFeedService {
 
         // Do not use Guice for PriceProvider as we might create multiple instances
         this.priceProvider = new PriceProvider(httpClient, providersRepository.getBaseUrl());
+
+        updateCounter.addListener((observable, oldValue, newValue) -> priceEpoch = newValue.longValue());
     }
 
 
@@ -342,6 +346,14 @@ public class PriceFeedService {
         return updateCounter;
     }
 
+    /**
+     * Returns a value which changes with each price update. Values derived from market prices can be cached
+     * until it changes.
+     */
+    public long getPriceEpoch() {
+        return priceEpoch;
+    }
+
     public Date getLastRequestTimeStamp() {
         return new Date(epochInMillisAtLastRequest);
     }
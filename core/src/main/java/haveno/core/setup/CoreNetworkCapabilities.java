@@ -39,7 +39,10 @@ public class CoreNetworkCapabilities {
                 Capability.REFUND_AGENT,
                 Capability.TRADE_STATISTICS_HASH_UPDATE,
                 Capability.NO_ADDRESS_PRE_FIX,
-                Capability.TRADE_STATISTICS_3
+                Capability.TRADE_STATISTICS_3,
+                Capability.PAYLOAD_HASH_DIGEST,
+                Capability.DATA_RESPONSE_CURSOR,
+                Capability.COMPRESSED_ENVELOPE
         );
 
         log.info(Capabilities.app.prettyPrint());
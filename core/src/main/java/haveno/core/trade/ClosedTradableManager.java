@@ -34,8 +34,9 @@ import lombok.extern.slf4j.Slf4j;
 import java.math.BigInteger;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -60,6 +61,10 @@ public class ClosedTradableManager implements PersistedDataHost {
     private final CleanupMailboxMessagesService cleanupMailboxMessagesService;
 
     private final TradableList<Tradable> closedTradables = new TradableList<>();
+    // Number of closed trades per peer, used for each row of the portfolio views. The counted peer of each trade is
+    // kept by trade id so removing a trade decrements the right count, also if it is another instance of the trade.
+    private final Map<NodeAddress, Integer> numTradesByPeer = new HashMap<>();
+    private final Map<String, NodeAddress> countedPeerByTradeId = new HashMap<>();
 
     @Inject
     public ClosedTradableManager(KeyRing keyRing,
@@ -82,7 +87,12 @@ public class ClosedTradableManager implements PersistedDataHost {
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(persisted -> {
             synchronized (persisted.getList()) {
-                closedTradables.setAll(persisted.getList());
+                synchronized (closedTradables.getList()) {
+                    closedTradables.setAll(persisted.getList());
+                    numTradesByPeer.clear();
+                    countedPeerByTradeId.clear();
+                    closedTradables.forEach(this::addToNumTradesByPeer);
+                }
                 closedTradables.stream()
                         .filter(tradable -> tradable.getOffer() != null)
                         .forEach(tradable -> tradable.getOffer().setPriceFeedService(priceFeedService));
@@ -100,6 +110,7 @@ public class ClosedTradableManager implements PersistedDataHost {
     public void add(Tradable tradable) {
         synchronized (closedTradables.getList()) {
             if (closedTradables.add(tradable)) {
+                addToNumTradesByPeer(tradable);
                 maybeClearSensitiveData();
                 requestPersistence();
             }
@@ -109,6 +120,7 @@ public class ClosedTradableManager implements PersistedDataHost {
     public void remove(Tradable tradable) {
         synchronized (closedTradables.getList()) {
             if (closedTradables.remove(tradable)) {
+                removeFromNumTradesByPeer(tradable);
                 requestPersistence();
             }
         }
@@ -147,15 +159,14 @@ public class ClosedTradableManager implements PersistedDataHost {
     }
 
     public Optional<Tradable> getTradableById(String id) {
-        synchronized (closedTradables.getList()) {
-            return closedTradables.stream().filter(e -> e.getId().equals(id)).findFirst();
-        }
+        return closedTradables.getById(id);
     }
 
     public Optional<Trade> getTradeById(String id) {
-        synchronized (closedTradables.getList()) {
-            return getClosedTrades().stream().filter(e -> e.getId().equals(id)).findFirst();
-        }
+        return closedTradables.getAllById(id).stream()
+                .filter(e -> e instanceof Trade)
+                .map(e -> (Trade) e)
+                .findFirst();
     }
 
     public void maybeClearSensitiveData() {
@@ -172,12 +183,8 @@ public class ClosedTradableManager implements PersistedDataHost {
 
     public boolean canTradeHaveSensitiveDataCleared(String tradeId) {
         Instant safeDate = getSafeDateForSensitiveDataClearing();
-        synchronized (closedTradables.getList()) {
-            return closedTradables.stream()
-                    .filter(e -> e.getId().equals(tradeId))
-                    .filter(e -> e.getDate().toInstant().isBefore(safeDate))
-                    .count() > 0;
-        }
+        return closedTradables.getAllById(tradeId).stream()
+                .anyMatch(e -> e.getDate().toInstant().isBefore(safeDate));
     }
 
     public Instant getSafeDateForSensitiveDataClearing() {
@@ -199,11 +206,12 @@ public class ClosedTradableManager implements PersistedDataHost {
             return 0;
         }
         NodeAddress addressInTrade = castToTradeModel(tradable).getTradePeerNodeAddress();
-        return (int) getTradeModelStream()
-                .map(Trade::getTradePeerNodeAddress)
-                .filter(Objects::nonNull)
-                .filter(address -> address.equals(addressInTrade))
-                .count();
+        if (addressInTrade == null) {
+            return 0;
+        }
+        synchronized (closedTradables.getList()) {
+            return numTradesByPeer.getOrDefault(addressInTrade, 0);
+        }
     }
 
     public BigInteger getTotalTradeFee(List<Tradable> tradableList) {
@@ -228,6 +236,23 @@ public class ClosedTradableManager implements PersistedDataHost {
         return tradable instanceof MakerTrade || tradable.getOffer().isMyOffer(keyRing);
     }
 
+    private void addToNumTradesByPeer(Tradable tradable) {
+        // A trade is counted only once
+        removeFromNumTradesByPeer(tradable);
+        NodeAddress peerNodeAddress = tradable.getOptionalTradePeerNodeAddress().orElse(null);
+        if (peerNodeAddress != null) {
+            numTradesByPeer.merge(peerNodeAddress, 1, Integer::sum);
+            countedPeerByTradeId.put(tradable.getId(), peerNodeAddress);
+        }
+    }
+
+    private void removeFromNumTradesByPeer(Tradable tradable) {
+        NodeAddress peerNodeAddress = countedPeerByTradeId.remove(tradable.getId());
+        if (peerNodeAddress != null) {
+            numTradesByPeer.computeIfPresent(peerNodeAddress, (k, numTrades) -> numTrades > 1 ? numTrades - 1 : null);
+        }
+    }
+
     private void requestPersistence() {
         persistenceManager.requestPersistence();
     }
@@ -235,6 +260,7 @@ public class ClosedTradableManager implements PersistedDataHost {
     public void removeTrade(Trade trade) {
         synchronized (closedTradables.getList()) {
             if (closedTradables.remove(trade)) {
+                removeFromNumTradesByPeer(trade);
                 requestPersistence();
             }
         }
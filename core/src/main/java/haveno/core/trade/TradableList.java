@@ -26,12 +26,24 @@ import haveno.core.proto.CoreProtoResolver;
 import haveno.core.xmr.wallet.XmrWalletService;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Tradables are indexed by id and trades by uid, so lookups do not need to scan the list. The indices are updated
+ * with each change done with the methods of the list. Tradables with the same id keep the order of the list.
+ */
 @Slf4j
 public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T> {
+    // Not initialized at declaration as the super constructor calls setAll before the fields of this class are
+    // initialized, which would reset the indices
+    private Map<String, List<T>> tradablesById;
+    private Map<String, List<T>> tradesByUid;
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -49,6 +61,88 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
         super(collection);
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void setAll(Collection<T> collection) {
+        synchronized (getList()) {
+            super.setAll(collection);
+            rebuildIndices();
+        }
+    }
+
+    @Override
+    public boolean add(T item) {
+        synchronized (getList()) {
+            if (contains(item)) {
+                return false;
+            }
+            getList().add(item);
+            addToIndices(item);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean remove(T item) {
+        synchronized (getList()) {
+            if (!getList().remove(item)) {
+                return false;
+            }
+            removeFromIndices(item);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean contains(T item) {
+        synchronized (getList()) {
+            ensureIndices();
+            List<T> tradables = tradablesById.get(item.getId());
+            return tradables != null && tradables.contains(item);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (getList()) {
+            super.clear();
+            rebuildIndices();
+        }
+    }
+
+    /**
+     * Returns the first tradable with the given id.
+     */
+    public Optional<T> getById(String id) {
+        synchronized (getList()) {
+            ensureIndices();
+            List<T> tradables = tradablesById.get(id);
+            return tradables == null ? Optional.empty() : Optional.of(tradables.get(0));
+        }
+    }
+
+    public List<T> getAllById(String id) {
+        synchronized (getList()) {
+            ensureIndices();
+            List<T> tradables = tradablesById.get(id);
+            return tradables == null ? new ArrayList<>() : new ArrayList<>(tradables);
+        }
+    }
+
+    /**
+     * Returns the first trade with the given uid.
+     */
+    public Optional<T> getTradeByUid(String uid) {
+        synchronized (getList()) {
+            ensureIndices();
+            List<T> trades = tradesByUid.get(uid);
+            return trades == null ? Optional.empty() : Optional.of(trades.get(0));
+        }
+    }
+
     @Override
     public Message toProtoMessage() {
         synchronized (getList()) {
@@ -88,6 +182,58 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
         return new TradableList<>(list);
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void ensureIndices() {
+        if (tradablesById == null) {
+            rebuildIndices();
+        }
+    }
+
+    private void rebuildIndices() {
+        tradablesById = new HashMap<>();
+        tradesByUid = new HashMap<>();
+        getList().forEach(this::addToIndices);
+    }
+
+    private void addToIndices(T tradable) {
+        ensureIndices();
+        addToIndex(tradablesById, tradable.getId(), tradable);
+        String uid = getUid(tradable);
+        if (uid != null) {
+            addToIndex(tradesByUid, uid, tradable);
+        }
+    }
+
+    private void removeFromIndices(T tradable) {
+        ensureIndices();
+        removeFromIndex(tradablesById, tradable.getId(), tradable);
+        String uid = getUid(tradable);
+        if (uid != null) {
+            removeFromIndex(tradesByUid, uid, tradable);
+        }
+    }
+
+    private static <T> void addToIndex(Map<String, List<T>> index, String key, T tradable) {
+        index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(tradable);
+    }
+
+    private static <T> void removeFromIndex(Map<String, List<T>> index, String key, T tradable) {
+        List<T> tradables = index.get(key);
+        if (tradables != null) {
+            tradables.remove(tradable);
+            if (tradables.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static String getUid(Tradable tradable) {
+        return tradable instanceof Trade ? ((Trade) tradable).getUid() : null;
+    }
+
     @Override
     public String toString() {
         return "TradableList{" +
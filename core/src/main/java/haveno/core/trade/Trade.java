@@ -1874,8 +1874,8 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
             ThreadUtils.execute(() -> {
 
                 // get trade's deposit txs from daemon
-                MoneroTx makerDepositTx = getMaker().getDepositTxHash() == null ? null : xmrWalletService.getMonerod().getTx(getMaker().getDepositTxHash());
-                MoneroTx takerDepositTx = getTaker().getDepositTxHash() == null ? null : xmrWalletService.getMonerod().getTx(getTaker().getDepositTxHash());
+                MoneroTx makerDepositTx = getMaker().getDepositTxHash() == null ? null : xmrConnectionService.getMonerodRequestBroker().getTx(getMaker().getDepositTxHash());
+                MoneroTx takerDepositTx = getTaker().getDepositTxHash() == null ? null : xmrConnectionService.getMonerodRequestBroker().getTx(getTaker().getDepositTxHash());
 
                 // remove trade and wallet if neither deposit tx published
                 if (makerDepositTx == null && takerDepositTx == null) {
@@ -3537,13 +3537,13 @@ public abstract class Trade extends XmrWalletBase implements Tradable, Model {
 
                     // get payout height if unknown
                     if (payoutHeight == null && getPayoutTxId() != null && isPayoutPublished()) {
-                        MoneroTx tx = xmrWalletService.getMonerod().getTx(getPayoutTxId());
+                        MoneroTx tx = xmrConnectionService.getMonerodRequestBroker().getTx(getPayoutTxId());
                         if (tx == null) log.warn("Payout tx not found for {} {}, txId={}", getTrade().getClass().getSimpleName(), getId(), getPayoutTxId());
                         else if (tx.isConfirmed()) payoutHeight = tx.getHeight();
                     }
 
                     // sync wallet if confirm or unlock expected
-                    long currentHeight = xmrWalletService.getMonerod().getHeight();
+                    long currentHeight = xmrConnectionService.getMonerodRequestBroker().getHeight();
                     if (!isPayoutConfirmed() || (payoutHeight != null && 
                             ((!isPayoutUnlocked() && currentHeight >= payoutHeight + XmrWalletService.NUM_BLOCKS_UNLOCK) ||
                             (!isPayoutFinalized() && currentHeight >= payoutHeight + NUM_BLOCKS_PAYOUT_FINALIZED)))) {
@@ -1349,9 +1349,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     public Optional<Trade> getOpenTrade(String tradeId) {
-        synchronized (tradableList.getList()) {
-            return tradableList.stream().filter(e -> e.getId().equals(tradeId)).findFirst();
-        }
+        return tradableList.getById(tradeId);
     }
 
     public boolean hasOpenTrade(Trade trade) {
@@ -1365,9 +1363,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     public Optional<Trade> getOpenTradeByUid(String tradeUid) {
-        synchronized (tradableList.getList()) {
-            return tradableList.stream().filter(e -> e.getUid().equals(tradeUid)).findFirst();
-        }
+        return tradableList.getTradeByUid(tradeUid);
     }
 
     public List<Trade> getAllTrades() {
@@ -112,9 +112,7 @@ public class FailedTradesManager implements PersistedDataHost {
     }
 
     public Optional<Trade> getTradeById(String id) {
-        synchronized (failedTrades.getList()) {
-            return failedTrades.stream().filter(e -> e.getId().equals(id)).findFirst();
-        }
+        return failedTrades.getById(id);
     }
 
     public Stream<Trade> getTradesStreamWithFundsLockedIn() {
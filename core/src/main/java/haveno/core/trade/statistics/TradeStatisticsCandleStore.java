@@ -0,0 +1,229 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade.statistics;
+
+import haveno.common.util.MathUtils;
+import haveno.core.locale.CurrencyUtil;
+import haveno.core.monetary.CryptoMoney;
+import haveno.core.monetary.TraditionalMoney;
+import haveno.core.trade.HavenoUtils;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * OHLCV candles of the trade statistics per currency and tick unit.
+ * <p>
+ * Each added trade statistic updates the candle of its interval for every tick unit, so charts and API clients read
+ * the candles without regrouping the trade history. A candle is created once after it changed and then returned until
+ * the next change. Candles of all currencies are also kept under ALL_CURRENCIES.
+ */
+public class TradeStatisticsCandleStore {
+    public static final String ALL_CURRENCIES = "";
+    public static final ZoneId ZONE_ID = ZoneId.systemDefault();
+
+    public enum TickUnit {
+        YEAR,
+        MONTH,
+        WEEK,
+        DAY,
+        HOUR,
+        MINUTE_10
+    }
+
+    @Getter
+    public static class Candle {
+        private final long startTime;
+        private final long open;
+        private final long close;
+        private final long high;
+        private final long low;
+        private final long average;
+        private final long median;
+        private final long accumulatedAmount;
+        private final long accumulatedVolume;
+        private final long numTrades;
+
+        private Candle(long startTime, Interval interval, int smallestUnitExponent) {
+            this.startTime = startTime;
+            this.open = interval.open;
+            this.close = interval.close;
+            this.high = interval.high;
+            this.low = interval.low;
+            BigInteger accumulatedVolumeAsBI = MathUtils.scaleUpByPowerOf10(BigInteger.valueOf(interval.accumulatedVolume), smallestUnitExponent + 4);
+            this.average = MathUtils.roundDoubleToLong(HavenoUtils.divide(accumulatedVolumeAsBI, BigInteger.valueOf(interval.accumulatedAmount)));
+            this.median = MathUtils.getMedian(interval.getSortedPrices().toArray(new Long[0]));
+            this.accumulatedAmount = interval.accumulatedAmount;
+            this.accumulatedVolume = interval.accumulatedVolume;
+            this.numTrades = interval.prices.size();
+        }
+
+        public boolean isBullish() {
+            return close > open;
+        }
+    }
+
+    // mutable aggregate of the trade statistics in one interval
+    private static class Interval {
+        long open;
+        long openDate = Long.MAX_VALUE;
+        long close;
+        long closeDate = Long.MIN_VALUE;
+        long high;
+        long low;
+        long accumulatedAmount;
+        long accumulatedVolume;
+        // prices are appended and only sorted when the candle is created
+        final List<Long> prices = new ArrayList<>();
+        boolean pricesSorted = true;
+        @Nullable
+        Candle candle;
+
+        void add(TradeStatistics3 tradeStatistics) {
+            long price = tradeStatistics.getTradePrice().getValue();
+            long date = tradeStatistics.getDateAsLong();
+            if (date < openDate) {
+                openDate = date;
+                open = price;
+            }
+            if (date > closeDate) {
+                closeDate = date;
+                close = price;
+            }
+            high = prices.isEmpty() ? price : Math.max(high, price);
+            low = prices.isEmpty() ? price : Math.min(low, price);
+            accumulatedAmount += tradeStatistics.getTradeAmount().longValueExact();
+            accumulatedVolume += tradeStatistics.getTradeVolume().getValue();
+            pricesSorted = pricesSorted && (prices.isEmpty() || prices.get(prices.size() - 1) <= price);
+            prices.add(price);
+            candle = null;
+        }
+
+        List<Long> getSortedPrices() {
+            if (!pricesSorted) {
+                Collections.sort(prices);
+                pricesSorted = true;
+            }
+            return prices;
+        }
+    }
+
+    private final Map<String, Map<TickUnit, NavigableMap<Long, Interval>>> intervalsByCurrency = new HashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized void add(TradeStatistics3 tradeStatistics) {
+        for (TickUnit tickUnit : TickUnit.values()) {
+            long startTime = roundToTick(tradeStatistics.getLocalDateTime(), tickUnit).getTime();
+            getInterval(tradeStatistics.getCurrency(), tickUnit, startTime).add(tradeStatistics);
+            getInterval(ALL_CURRENCIES, tickUnit, startTime).add(tradeStatistics);
+        }
+    }
+
+    public synchronized void addAll(Collection<TradeStatistics3> tradeStatisticsSet) {
+        tradeStatisticsSet.forEach(this::add);
+    }
+
+    /**
+     * Returns the candle of the interval starting at the given time, or null if no trades are in the interval.
+     */
+    @Nullable
+    public synchronized Candle getCandle(String currencyCode, TickUnit tickUnit, long startTime) {
+        Interval interval = getIntervals(currencyCode, tickUnit).get(startTime);
+        return interval == null ? null : getCandle(currencyCode, startTime, interval);
+    }
+
+    /**
+     * Returns the candles of the intervals starting from fromTime (inclusive) to toTime (exclusive), sorted by time.
+     */
+    public synchronized List<Candle> getCandles(String currencyCode, TickUnit tickUnit, long fromTime, long toTime) {
+        List<Candle> candles = new ArrayList<>();
+        if (fromTime >= toTime) return candles;
+        getIntervals(currencyCode, tickUnit).subMap(fromTime, true, toTime, false)
+                .forEach((startTime, interval) -> candles.add(getCandle(currencyCode, startTime, interval)));
+        return candles;
+    }
+
+    public static Date roundToTick(LocalDateTime localDate, TickUnit tickUnit) {
+        switch (tickUnit) {
+            case YEAR:
+                return Date.from(localDate.withMonth(1).withDayOfYear(1).withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
+            case MONTH:
+                return Date.from(localDate.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
+            case WEEK:
+                int dayOfWeek = localDate.getDayOfWeek().getValue();
+                LocalDateTime firstDayOfWeek = ChronoUnit.DAYS.addTo(localDate, 1 - dayOfWeek);
+                return Date.from(firstDayOfWeek.withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
+            case DAY:
+                return Date.from(localDate.withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
+            case HOUR:
+                return Date.from(localDate.withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
+            case MINUTE_10:
+                return Date.from(localDate.withMinute(localDate.getMinute() - localDate.getMinute() % 10).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
+            default:
+                return Date.from(localDate.atZone(ZONE_ID).toInstant());
+        }
+    }
+
+    public static Date roundToTick(Date time, TickUnit tickUnit) {
+        return roundToTick(time.toInstant().atZone(ZONE_ID).toLocalDateTime(), tickUnit);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Interval getInterval(String currencyCode, TickUnit tickUnit, long startTime) {
+        return intervalsByCurrency.computeIfAbsent(currencyCode, k -> new EnumMap<>(TickUnit.class))
+                .computeIfAbsent(tickUnit, k -> new TreeMap<>())
+                .computeIfAbsent(startTime, k -> new Interval());
+    }
+
+    private NavigableMap<Long, Interval> getIntervals(String currencyCode, TickUnit tickUnit) {
+        Map<TickUnit, NavigableMap<Long, Interval>> intervals = intervalsByCurrency.get(currencyCode);
+        if (intervals == null) return Collections.emptyNavigableMap();
+        return intervals.getOrDefault(tickUnit, Collections.emptyNavigableMap());
+    }
+
+    private static Candle getCandle(String currencyCode, long startTime, Interval interval) {
+        if (interval.candle == null) {
+            boolean isCrypto = !ALL_CURRENCIES.equals(currencyCode) && CurrencyUtil.isCryptoCurrency(currencyCode);
+            int smallestUnitExponent = isCrypto ? CryptoMoney.SMALLEST_UNIT_EXPONENT : TraditionalMoney.SMALLEST_UNIT_EXPONENT;
+            interval.candle = new Candle(startTime, interval, smallestUnitExponent);
+        }
+        return interval.candle;
+    }
+}
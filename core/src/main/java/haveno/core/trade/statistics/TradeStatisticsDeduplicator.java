@@ -0,0 +1,150 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade.statistics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Detects duplicated trade statistics published by early versions due to bugs.
+ * <p>
+ * Exact duplicates have the same payment method, currency and date. They are found with a set of these keys.
+ * Fuzzy duplicates have the same payment method, currency and price and a date within FUZZ_DATE_HOURS. They are
+ * indexed by these fields and by day, so only the statistics of the neighbouring days need to be compared.
+ * <p>
+ * The kept statistics remain indexed, so statistics received later can be checked with isDuplicate.
+ * Not thread safe.
+ */
+class TradeStatisticsDeduplicator {
+    // trades before these dates can have duplicates
+    private static final long EXACT_DUPLICATES_BEFORE = Instant.parse("2024-09-30T00:00:00Z").toEpochMilli();
+    private static final long FUZZY_DUPLICATES_BEFORE = Instant.parse("2024-08-07T00:00:00Z").toEpochMilli();
+
+    // bug caused all peers to publish same trade with similar timestamps
+    private static final long FUZZ_DATE_MS_V1 = TimeUnit.MINUTES.toMillis(2);
+
+    // bug caused sellers to re-publish their trades with randomized amounts
+    private static final double FUZZ_AMOUNT_PCT = 0.05;
+    private static final int FUZZ_DATE_HOURS = 24;
+    private static final long FUZZ_DATE_MS_V2 = TimeUnit.HOURS.toMillis(FUZZ_DATE_HOURS);
+
+    private record ExactKey(String paymentMethodId, String currency, long date) {
+    }
+
+    private record FuzzyKey(String paymentMethodId, String currency, long normalizedPrice) {
+    }
+
+    private final Set<ExactKey> exactKeys = new HashSet<>();
+    private final Map<FuzzyKey, Map<Long, List<TradeStatistics3>>> fuzzyIndex = new HashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Removes the duplicates from the given statistics and indexes the remaining ones. Exact duplicates are removed
+     * first, then fuzzy duplicates.
+     */
+    void removeDuplicates(Set<TradeStatistics3> tradeStats) {
+        Set<TradeStatistics3> earlyTrades = tradeStats.stream()
+                .filter(e -> e.getDateAsLong() < EXACT_DUPLICATES_BEFORE)
+                .collect(Collectors.toSet());
+        Set<TradeStatistics3> duplicates = new HashSet<>();
+        for (TradeStatistics3 tradeStatistic : earlyTrades) {
+            if (!exactKeys.add(getExactKey(tradeStatistic))) duplicates.add(tradeStatistic);
+        }
+        tradeStats.removeAll(duplicates);
+
+        earlyTrades = tradeStats.stream()
+                .filter(e -> e.getDateAsLong() < FUZZY_DUPLICATES_BEFORE)
+                .collect(Collectors.toSet());
+        duplicates = new HashSet<>();
+        for (TradeStatistics3 tradeStatistic : earlyTrades) {
+            if (hasFuzzyDuplicate(tradeStatistic)) duplicates.add(tradeStatistic);
+            else addToFuzzyIndex(tradeStatistic);
+        }
+        tradeStats.removeAll(duplicates);
+    }
+
+    /**
+     * Returns true if the statistic duplicates a statistic seen before. Otherwise the statistic is indexed.
+     */
+    boolean isDuplicate(TradeStatistics3 tradeStatistic) {
+        long date = tradeStatistic.getDateAsLong();
+        if (date < EXACT_DUPLICATES_BEFORE && exactKeys.contains(getExactKey(tradeStatistic))) return true;
+        if (date < FUZZY_DUPLICATES_BEFORE && hasFuzzyDuplicate(tradeStatistic)) return true;
+        if (date < EXACT_DUPLICATES_BEFORE) exactKeys.add(getExactKey(tradeStatistic));
+        if (date < FUZZY_DUPLICATES_BEFORE) addToFuzzyIndex(tradeStatistic);
+        return false;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean hasFuzzyDuplicate(TradeStatistics3 tradeStatistic) {
+        Map<Long, List<TradeStatistics3>> statsByDay = fuzzyIndex.get(getFuzzyKey(tradeStatistic));
+        if (statsByDay == null) return false;
+
+        // the max. distance of fuzzy duplicates is one day, so they are in the same or a neighbouring day
+        long day = getDay(tradeStatistic);
+        for (long d = day - 1; d <= day + 1; d++) {
+            List<TradeStatistics3> stats = statsByDay.get(d);
+            if (stats == null) continue;
+            for (TradeStatistics3 other : stats) {
+                if (isFuzzyDuplicate(tradeStatistic, other)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void addToFuzzyIndex(TradeStatistics3 tradeStatistic) {
+        fuzzyIndex.computeIfAbsent(getFuzzyKey(tradeStatistic), k -> new HashMap<>())
+                .computeIfAbsent(getDay(tradeStatistic), k -> new ArrayList<>())
+                .add(tradeStatistic);
+    }
+
+    // payment method, currency and price are equal by the index key
+    private static boolean isFuzzyDuplicate(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
+        long timeDiff = Math.abs(tradeStatistics1.getDateAsLong() - tradeStatistics2.getDateAsLong());
+        if (timeDiff <= FUZZ_DATE_MS_V1) return true;
+        boolean isWithinFuzzedAmount = Math.abs(tradeStatistics1.getAmount() - tradeStatistics2.getAmount()) <= FUZZ_AMOUNT_PCT * tradeStatistics1.getAmount();
+        return timeDiff <= FUZZ_DATE_MS_V2 && isWithinFuzzedAmount;
+    }
+
+    private static ExactKey getExactKey(TradeStatistics3 tradeStatistic) {
+        return new ExactKey(tradeStatistic.getPaymentMethodId(), tradeStatistic.getCurrency(), tradeStatistic.getDateAsLong());
+    }
+
+    private static FuzzyKey getFuzzyKey(TradeStatistics3 tradeStatistic) {
+        return new FuzzyKey(tradeStatistic.getPaymentMethodId(), tradeStatistic.getCurrency(), tradeStatistic.getNormalizedPrice());
+    }
+
+    private static long getDay(TradeStatistics3 tradeStatistic) {
+        return Math.floorDiv(tradeStatistic.getDateAsLong(), FUZZ_DATE_MS_V2);
+    }
+}
@@ -45,6 +45,7 @@ import java.util.stream.Collectors;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
 import javax.annotation.Nullable;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 @Singleton
@@ -56,6 +57,9 @@ public class TradeStatisticsManager {
     private final File storageDir;
     private final boolean dumpStatistics;
     private final ObservableSet<TradeStatistics3> observableTradeStatisticsSet = FXCollections.observableSet();
+    private final TradeStatisticsDeduplicator deduplicator = new TradeStatisticsDeduplicator();
+    @Getter
+    private final TradeStatisticsCandleStore candleStore = new TradeStatisticsCandleStore();
     private JsonFileManager jsonFileManager;
     public static final int PUBLISH_STATS_RANDOM_DELAY_HOURS = 24;
 
@@ -90,13 +94,19 @@ public class TradeStatisticsManager {
                     return;
                 }
                 synchronized (observableTradeStatisticsSet) {
-                    observableTradeStatisticsSet.add(tradeStatistics);
+                    if (deduplicator.isDuplicate(tradeStatistics)) {
+                        return;
+                    }
+                    if (observableTradeStatisticsSet.add(tradeStatistics)) {
+                        candleStore.add(tradeStatistics);
+                    }
                     priceFeedService.applyLatestHavenoMarketPrice(observableTradeStatisticsSet);
                 }
                 maybeDumpStatistics();
             }
         });
 
+        // All trade statistics are kept in memory, so we decode the historical ones once here
         Set<TradeStatistics3> set = tradeStatistics3StorageService.getMapOfAllData().values().stream()
                 .filter(e -> e instanceof TradeStatistics3)
                 .map(e -> (TradeStatistics3) e)
@@ -104,97 +114,18 @@ public class TradeStatisticsManager {
                 .collect(Collectors.toSet());
         
 
-        // remove duplicates in early trade stats due to bugs
-        removeDuplicateStats(set);
-
         synchronized (observableTradeStatisticsSet) {
-            observableTradeStatisticsSet.addAll(set);
+            // remove duplicates in early trade stats due to bugs
+            deduplicator.removeDuplicates(set);
+
+            // The listener above might have added some of them already
+            set.removeIf(tradeStatistics -> !observableTradeStatisticsSet.add(tradeStatistics));
+            candleStore.addAll(set);
             priceFeedService.applyLatestHavenoMarketPrice(observableTradeStatisticsSet);
         }
         maybeDumpStatistics();
     }
 
-    private void removeDuplicateStats(Set<TradeStatistics3> tradeStats) {
-        removeEarlyDuplicateStats(tradeStats);
-        removeEarlyDuplicateStatsFuzzy(tradeStats);
-    }
-
-    private void removeEarlyDuplicateStats(Set<TradeStatistics3> tradeStats) {
-       
-        // collect trades before September 30, 2024
-        Set<TradeStatistics3> earlyTrades = tradeStats.stream()
-                .filter(e -> e.getDate().toInstant().isBefore(Instant.parse("2024-09-30T00:00:00Z")))
-                .collect(Collectors.toSet());
-
-        // collect stats with duplicated timestamp, currency, and payment method
-        Set<TradeStatistics3> duplicates = new HashSet<>();
-        Set<TradeStatistics3> deduplicates = new HashSet<>();
-        for (TradeStatistics3 tradeStatistic : earlyTrades) {
-            TradeStatistics3 duplicate = findDuplicate(tradeStatistic, deduplicates);
-            if (duplicate == null) deduplicates.add(tradeStatistic);
-            else duplicates.add(tradeStatistic);
-        }
-
-        // remove duplicated stats
-        tradeStats.removeAll(duplicates);
-    }
-
-    private TradeStatistics3 findDuplicate(TradeStatistics3 tradeStatistics, Set<TradeStatistics3> set) {
-        return set.stream().filter(e -> isDuplicate(tradeStatistics, e)).findFirst().orElse(null);
-    }
-
-    private boolean isDuplicate(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
-        if (!tradeStatistics1.getPaymentMethodId().equals(tradeStatistics2.getPaymentMethodId())) return false;
-        if (!tradeStatistics1.getCurrency().equals(tradeStatistics2.getCurrency())) return false;
-        return tradeStatistics1.getDateAsLong() == tradeStatistics2.getDateAsLong();
-    }
-
-    private void removeEarlyDuplicateStatsFuzzy(Set<TradeStatistics3> tradeStats) {
-
-        // collect trades before August 7, 2024
-        Set<TradeStatistics3> earlyTrades = tradeStats.stream()
-                .filter(e -> e.getDate().toInstant().isBefore(Instant.parse("2024-08-07T00:00:00Z")))
-                .collect(Collectors.toSet());
-
-        // collect duplicated trades
-        Set<TradeStatistics3> duplicates = new HashSet<TradeStatistics3>();
-        Set<TradeStatistics3> deduplicates = new HashSet<TradeStatistics3>();
-        for (TradeStatistics3 tradeStatistic : earlyTrades) {
-            TradeStatistics3 fuzzyDuplicate = findFuzzyDuplicate(tradeStatistic, deduplicates);
-            if (fuzzyDuplicate == null) deduplicates.add(tradeStatistic);
-            else duplicates.add(tradeStatistic);
-        }
-
-        // remove duplicated stats
-        tradeStats.removeAll(duplicates);
-    }
-
-    private TradeStatistics3 findFuzzyDuplicate(TradeStatistics3 tradeStatistics, Set<TradeStatistics3> set) {
-        return set.stream().filter(e -> isFuzzyDuplicate(tradeStatistics, e)).findFirst().orElse(null);
-    }
-
-    private boolean isFuzzyDuplicate(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
-        if (!tradeStatistics1.getPaymentMethodId().equals(tradeStatistics2.getPaymentMethodId())) return false;
-        if (!tradeStatistics1.getCurrency().equals(tradeStatistics2.getCurrency())) return false;
-        if (tradeStatistics1.getNormalizedPrice() != tradeStatistics2.getNormalizedPrice()) return false;
-        return isFuzzyDuplicateV1(tradeStatistics1, tradeStatistics2) || isFuzzyDuplicateV2(tradeStatistics1, tradeStatistics2);
-    }
-
-    // bug caused all peers to publish same trade with similar timestamps
-    private boolean isFuzzyDuplicateV1(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
-        boolean isWithin2Minutes = Math.abs(tradeStatistics1.getDate().getTime() - tradeStatistics2.getDate().getTime()) <= TimeUnit.MINUTES.toMillis(2);
-        return isWithin2Minutes;
-    }
-
-    // bug caused sellers to re-publish their trades with randomized amounts
-    private static final double FUZZ_AMOUNT_PCT = 0.05;
-    private static final int FUZZ_DATE_HOURS = 24;
-    private boolean isFuzzyDuplicateV2(TradeStatistics3 tradeStatistics1, TradeStatistics3 tradeStatistics2) {
-        boolean isWithinFuzzedHours = Math.abs(tradeStatistics1.getDate().getTime() - tradeStatistics2.getDate().getTime()) <= TimeUnit.HOURS.toMillis(FUZZ_DATE_HOURS);
-        boolean isWithinFuzzedAmount = Math.abs(tradeStatistics1.getAmount() - tradeStatistics2.getAmount()) <= FUZZ_AMOUNT_PCT * tradeStatistics1.getAmount();
-        return isWithinFuzzedHours && isWithinFuzzedAmount;
-    }
-
     public ObservableSet<TradeStatistics3> getObservableTradeStatisticsSet() {
         return observableTradeStatisticsSet;
     }
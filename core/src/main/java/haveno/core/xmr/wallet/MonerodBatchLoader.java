@@ -0,0 +1,235 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.xmr.wallet;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Loads values from monerod in batches shared by all callers.
+ * <p>
+ * Requested keys which are not cached are queued. The first caller which gets the fetch lock fetches all queued keys,
+ * also those of other callers, in batches of the current batch size. Keys which are requested while they are queued or
+ * fetched are not queued again. The batch size grows while the latency of a fetch stays below the target latency and
+ * is halved if it gets above.
+ * <p>
+ * Fetched values are cached until the TTL expires. Keys missing in the fetched result are not cached. Each caller gets
+ * its own copy of a value made by the given copier, so callers can modify the values without affecting the cache or
+ * other callers.
+ */
+@Slf4j
+class MonerodBatchLoader<K, V> {
+    private static final int MIN_BATCH_SIZE = 20;
+
+    private record CachedValue<V>(V value, long timestamp) {
+    }
+
+    private final String name;
+    private final Function<List<K>, Map<K, V>> fetcher;
+    private final UnaryOperator<V> copier;
+    private final long ttlMs;
+    private final int maxBatchSize;
+    private final long targetLatencyMs;
+
+    private final Object lock = new Object();
+    private final Object fetchLock = new Object();
+    // Guarded by lock
+    private final Map<K, CachedValue<V>> cache = new HashMap<>();
+    private final Map<K, CompletableFuture<V>> queued = new LinkedHashMap<>();
+    private final Map<K, CompletableFuture<V>> inFlight = new HashMap<>();
+    private int batchSize;
+    private long numFetches;
+    private long numFetchedKeys;
+    private long numCacheHits;
+
+    // For immutable values
+    MonerodBatchLoader(String name,
+                       Function<List<K>, Map<K, V>> fetcher,
+                       long ttlMs,
+                       int initialBatchSize,
+                       int maxBatchSize,
+                       long targetLatencyMs) {
+        this(name, fetcher, UnaryOperator.identity(), ttlMs, initialBatchSize, maxBatchSize, targetLatencyMs);
+    }
+
+    MonerodBatchLoader(String name,
+                       Function<List<K>, Map<K, V>> fetcher,
+                       UnaryOperator<V> copier,
+                       long ttlMs,
+                       int initialBatchSize,
+                       int maxBatchSize,
+                       long targetLatencyMs) {
+        this.name = name;
+        this.fetcher = fetcher;
+        this.copier = copier;
+        this.ttlMs = ttlMs;
+        this.batchSize = initialBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.targetLatencyMs = targetLatencyMs;
+    }
+
+    /**
+     * Returns the values of the given keys. Keys without value are missing in the result.
+     *
+     * @param useCache If false, cached values are ignored, but fetched values are still cached.
+     */
+    Map<K, V> get(Collection<K> keys, boolean useCache) {
+        Map<K, V> result = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            for (K key : new LinkedHashSet<>(keys)) {
+                CachedValue<V> cachedValue = useCache ? cache.get(key) : null;
+                if (cachedValue != null && now - cachedValue.timestamp() < ttlMs) {
+                    result.put(key, copier.apply(cachedValue.value()));
+                    numCacheHits++;
+                    continue;
+                }
+                CompletableFuture<V> future = queued.get(key);
+                if (future == null && useCache) future = inFlight.get(key);
+                if (future == null) {
+                    future = new CompletableFuture<>();
+                    queued.put(key, future);
+                }
+                futures.put(key, future);
+            }
+        }
+        if (futures.isEmpty()) return result;
+
+        fetchQueued();
+
+        // All our keys were fetched by us or by another caller holding the fetch lock before
+        try {
+            for (Map.Entry<K, CompletableFuture<V>> entry : futures.entrySet()) {
+                V value = entry.getValue().join();
+                if (value != null) result.put(entry.getKey(), copier.apply(value));
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+        return result;
+    }
+
+    void clearCache() {
+        synchronized (lock) {
+            cache.clear();
+        }
+    }
+
+    int getBatchSize() {
+        synchronized (lock) {
+            return batchSize;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return name + ": fetches=" + numFetches +
+                    ", fetchedKeys=" + numFetchedKeys +
+                    ", cacheHits=" + numCacheHits +
+                    ", batchSize=" + batchSize;
+        }
+    }
+
+    // Fetches run one at a time. Concurrent fetches would only compete for the same monerod connection, and while a
+    // fetch runs the keys of other callers get queued, so the next fetch takes them in one full batch instead of many
+    // small ones. The batch size is also only adapted to the latency of one fetch at a time.
+    private void fetchQueued() {
+        synchronized (fetchLock) {
+            while (true) {
+                Map<K, CompletableFuture<V>> batch = new LinkedHashMap<>();
+                synchronized (lock) {
+                    Iterator<Map.Entry<K, CompletableFuture<V>>> iterator = queued.entrySet().iterator();
+                    while (iterator.hasNext() && batch.size() < batchSize) {
+                        Map.Entry<K, CompletableFuture<V>> entry = iterator.next();
+                        batch.put(entry.getKey(), entry.getValue());
+                        inFlight.put(entry.getKey(), entry.getValue());
+                        iterator.remove();
+                    }
+                }
+                if (batch.isEmpty()) return;
+                fetch(batch);
+            }
+        }
+    }
+
+    private void fetch(Map<K, CompletableFuture<V>> batch) {
+        long ts = System.currentTimeMillis();
+        Map<K, V> values = null;
+        Throwable error = null;
+        try {
+            values = fetcher.apply(new ArrayList<>(batch.keySet()));
+        } catch (Throwable e) {
+            error = e;
+        }
+
+        // The futures get completed in any case, otherwise the waiting callers would block forever
+        try {
+            long latency = System.currentTimeMillis() - ts;
+            synchronized (lock) {
+                if (values != null) {
+                    numFetches++;
+                    numFetchedKeys += batch.size();
+                    long now = System.currentTimeMillis();
+                    for (K key : batch.keySet()) {
+                        V value = values.get(key);
+                        if (value != null) cache.put(key, new CachedValue<>(value, now));
+                    }
+                    updateBatchSize(batch.size(), latency);
+                }
+                batch.keySet().forEach(inFlight::remove);
+            }
+        } finally {
+            if (values != null) {
+                Map<K, V> fetchedValues = values;
+                batch.forEach((key, future) -> future.complete(fetchedValues.get(key)));
+            } else {
+                Throwable cause = error != null ? error : new IllegalStateException(name + ": fetcher returned null");
+                batch.values().forEach(future -> future.completeExceptionally(cause));
+            }
+        }
+    }
+
+    private void updateBatchSize(int fetchedBatchSize, long latency) {
+        int previousBatchSize = batchSize;
+        if (latency > targetLatencyMs) {
+            batchSize = Math.max(MIN_BATCH_SIZE, batchSize / 2);
+        } else if (fetchedBatchSize >= batchSize) {
+            // Only grow if the batch was full, small batches do not tell us about the latency of larger ones
+            batchSize = Math.min(maxBatchSize, batchSize + Math.max(1, batchSize / 4));
+        }
+        if (batchSize != previousBatchSize) {
+            log.debug("{}: changed batch size from {} to {}, latency={} ms", name, previousBatchSize, batchSize, latency);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.xmr.wallet;
+
+import lombok.extern.slf4j.Slf4j;
+import monero.daemon.MoneroDaemon;
+import monero.daemon.model.MoneroKeyImageSpentStatus;
+import monero.daemon.model.MoneroTx;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shares monerod requests of offers, trades and wallets. Key image spent statuses, txs and the height are loaded in
+ * batches with deduplication of concurrent requests and cached for a short time, so many consumers polling the same
+ * data cause few RPC calls.
+ */
+@Slf4j
+public class MonerodRequestBroker {
+    private static final long KEY_IMAGE_CACHE_TTL_MS = 10000;
+    private static final long TX_CACHE_TTL_MS = 10000;
+    private static final long HEIGHT_CACHE_TTL_MS = 5000;
+    private static final int INITIAL_BATCH_SIZE = 200;
+    private static final int MAX_KEY_IMAGE_BATCH_SIZE = 1000;
+    private static final int MAX_TX_BATCH_SIZE = 100;
+    private static final long TARGET_LATENCY_MS = 2000;
+    private static final String HEIGHT_KEY = "height";
+
+    private final Supplier<MoneroDaemon> monerodSupplier;
+    private final MonerodBatchLoader<String, MoneroKeyImageSpentStatus> keyImageLoader;
+    private final MonerodBatchLoader<String, MoneroTx> txLoader;
+    private final MonerodBatchLoader<String, Long> heightLoader;
+
+    public MonerodRequestBroker(Supplier<MoneroDaemon> monerodSupplier) {
+        this.monerodSupplier = monerodSupplier;
+        keyImageLoader = new MonerodBatchLoader<>("KeyImageSpentStatuses", this::fetchKeyImageSpentStatuses,
+                KEY_IMAGE_CACHE_TTL_MS, INITIAL_BATCH_SIZE, MAX_KEY_IMAGE_BATCH_SIZE, TARGET_LATENCY_MS);
+        txLoader = new MonerodBatchLoader<>("Txs", this::fetchTxs, MoneroTx::copy,
+                TX_CACHE_TTL_MS, MAX_TX_BATCH_SIZE, MAX_TX_BATCH_SIZE, TARGET_LATENCY_MS);
+        heightLoader = new MonerodBatchLoader<>("Height", keys -> Map.of(HEIGHT_KEY, getMonerod().getHeight()),
+                HEIGHT_CACHE_TTL_MS, 1, 1, TARGET_LATENCY_MS);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Get the spent statuses of the given key images.
+     *
+     * @param keyImages key images to get the spent statuses of
+     * @param useCache if false, statuses are fetched from monerod
+     * @return the spent statuses by key image
+     */
+    public Map<String, MoneroKeyImageSpentStatus> getKeyImageSpentStatuses(Collection<String> keyImages, boolean useCache) {
+        return keyImageLoader.get(keyImages, useCache);
+    }
+
+    /**
+     * Get the txs with the given hashes from monerod, including txs in the pool.
+     *
+     * @param txHashes hashes of the txs to get
+     * @param useCache if false, txs are fetched from monerod
+     * @return the found txs in the order of the given hashes
+     */
+    public List<MoneroTx> getTxs(Collection<String> txHashes, boolean useCache) {
+        return new ArrayList<>(txLoader.get(txHashes, useCache).values());
+    }
+
+    @Nullable
+    public MoneroTx getTx(String txHash) {
+        List<MoneroTx> txs = getTxs(List.of(txHash), true);
+        return txs.isEmpty() ? null : txs.get(0);
+    }
+
+    public long getHeight() {
+        return heightLoader.get(List.of(HEIGHT_KEY), true).get(HEIGHT_KEY);
+    }
+
+    /**
+     * Current number of key images per request, adapted to the latency of monerod.
+     */
+    public int getKeyImageBatchSize() {
+        return keyImageLoader.getBatchSize();
+    }
+
+    /**
+     * Clears the cached results, e.g. after switching to another monerod.
+     */
+    public void clearCache() {
+        keyImageLoader.clearCache();
+        txLoader.clearCache();
+        heightLoader.clearCache();
+    }
+
+    @Override
+    public String toString() {
+        return "MonerodRequestBroker{" +
+                "\n     " + keyImageLoader +
+                ",\n     " + txLoader +
+                ",\n     " + heightLoader +
+                "\n}";
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private MoneroDaemon getMonerod() {
+        MoneroDaemon monerod = monerodSupplier.get();
+        if (monerod == null) throw new IllegalStateException("No connection to Monero node");
+        return monerod;
+    }
+
+    private Map<String, MoneroKeyImageSpentStatus> fetchKeyImageSpentStatuses(List<String> keyImages) {
+        List<MoneroKeyImageSpentStatus> spentStatuses = getMonerod().getKeyImageSpentStatuses(keyImages);
+        Map<String, MoneroKeyImageSpentStatus> result = new HashMap<>();
+        for (int i = 0; i < keyImages.size(); i++) result.put(keyImages.get(i), spentStatuses.get(i));
+        return result;
+    }
+
+    private Map<String, MoneroTx> fetchTxs(List<String> txHashes) {
+        Map<String, MoneroTx> result = new HashMap<>();
+        for (MoneroTx tx : getMonerod().getTxs(txHashes, true)) result.put(tx.getHash(), tx);
+        return result;
+    }
+}
@@ -42,6 +42,7 @@ import haveno.core.trade.HavenoUtils;
 public class XmrKeyImagePoller {
 
     private MoneroDaemon monerod;
+    private MonerodRequestBroker requestBroker;
     private long refreshPeriodMs;
     private Object lock = new Object();
     private Map<String, Set<String>> keyImageGroups = new HashMap<String, Set<String>>();
@@ -115,6 +116,16 @@ public class XmrKeyImagePoller {
         return monerod;
     }
 
+    /**
+     * Set the broker to share key image requests with other consumers of monerod.
+     * If set, the number of key images per poll follows the broker's batch size.
+     *
+     * @param requestBroker - the broker to fetch key images with
+     */
+    public void setRequestBroker(MonerodRequestBroker requestBroker) {
+        this.requestBroker = requestBroker;
+    }
+
     /**
      * Set the refresh period in milliseconds.
      *
@@ -252,7 +263,7 @@ public class XmrKeyImagePoller {
         List<MoneroKeyImageSpentStatus> spentStatuses = null;
         List<String> keyImages = new ArrayList<String>(getNextKeyImageBatch());
         try {
-            spentStatuses = keyImages.isEmpty() ? new ArrayList<MoneroKeyImageSpentStatus>() : monerod.getKeyImageSpentStatuses(keyImages); // TODO monero-java: if order of getKeyImageSpentStatuses is guaranteed, then it should take list parameter
+            spentStatuses = keyImages.isEmpty() ? new ArrayList<MoneroKeyImageSpentStatus>() : getKeyImageSpentStatuses(keyImages);
         } catch (Exception e) {
 
             // limit error logging
@@ -296,6 +307,18 @@ public class XmrKeyImagePoller {
         }
     }
 
+    private List<MoneroKeyImageSpentStatus> getKeyImageSpentStatuses(List<String> keyImages) {
+        if (requestBroker == null) return monerod.getKeyImageSpentStatuses(keyImages); // TODO monero-java: if order of getKeyImageSpentStatuses is guaranteed, then it should take list parameter
+        Map<String, MoneroKeyImageSpentStatus> spentStatuses = requestBroker.getKeyImageSpentStatuses(keyImages, true);
+        List<MoneroKeyImageSpentStatus> orderedSpentStatuses = new ArrayList<>(keyImages.size());
+        for (String keyImage : keyImages) {
+            MoneroKeyImageSpentStatus spentStatus = spentStatuses.get(keyImage);
+            if (spentStatus == null) throw new MoneroError("Missing spent status of key image " + keyImage);
+            orderedSpentStatuses.add(spentStatus);
+        }
+        return orderedSpentStatuses;
+    }
+
     private void refreshPolling() {
         synchronized (lock) {
             setIsPolling(!getKeyImages().isEmpty() && listeners.size() > 0);
@@ -329,11 +352,15 @@ public class XmrKeyImagePoller {
             List<String> keyImageBatch = new ArrayList<>();
             int count = 0;
             for (String keyImage : keyImagePollQueue) {
-                if (count >= MAX_POLL_SIZE) break;
+                if (count >= getMaxPollSize()) break;
                 keyImageBatch.add(keyImage);
                 count++;
             }
             return keyImageBatch;
         }
     }
+
+    private int getMaxPollSize() {
+        return requestBroker == null ? MAX_POLL_SIZE : requestBroker.getKeyImageBatchSize();
+    }
 }
@@ -875,11 +875,12 @@ public class XmrWalletService extends XmrWalletBase {
     }
 
     public List<MoneroTx> getDaemonTxs(List<String> txHashes) {
-        synchronized (txCache) {
 
-            // fetch txs
-            if (getMonerod() == null) xmrConnectionService.verifyConnection(); // will throw
-            List<MoneroTx> txs = getMonerod().getTxs(txHashes, true);
+        // fetch txs, concurrent requests for the same txs are shared
+        if (getMonerod() == null) xmrConnectionService.verifyConnection(); // will throw
+        List<MoneroTx> txs = xmrConnectionService.getMonerodRequestBroker().getTxs(txHashes, false);
+
+        synchronized (txCache) {
 
             // store to cache
             for (MoneroTx tx : txs) txCache.put(tx.getHash(), Optional.of(tx));
@@ -0,0 +1,103 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.account.witness;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountAgeWitnessDataCacheTest {
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final AtomicInteger numLoads = new AtomicInteger();
+    private final Function<AccountAgeWitness, AccountAgeWitnessDataCache.WitnessData> loader = witness -> {
+        numLoads.incrementAndGet();
+        return new AccountAgeWitnessDataCache.WitnessData(NOW - 1000, false, false);
+    };
+
+    private static AccountAgeWitness witness(int i) {
+        return new AccountAgeWitness(org.bitcoinj.core.Utils.sha256hash160(new byte[]{(byte) i, (byte) (i >> 8)}), NOW);
+    }
+
+    @Test
+    public void cachedUntilVersionOrTimeBucketChanges() {
+        AccountAgeWitnessDataCache cache = new AccountAgeWitnessDataCache();
+        AccountAgeWitness witness = witness(1);
+
+        AccountAgeWitnessDataCache.WitnessData witnessData = cache.get(witness, 0, NOW, loader);
+        assertSame(witnessData, cache.get(witness, 0, NOW, loader));
+        assertEquals(1, numLoads.get());
+        assertEquals(1000, witnessData.getSignAge(NOW));
+        assertTrue(witnessData.isSigned());
+
+        // new signed witness or filter
+        cache.get(witness, 1, NOW, loader);
+        assertEquals(2, numLoads.get());
+
+        // next time bucket
+        cache.get(witness, 1, NOW + AccountAgeWitnessDataCache.TIME_BUCKET_MS, loader);
+        assertEquals(3, numLoads.get());
+
+        assertEquals(1, cache.getNumHits());
+        assertEquals(3, cache.getNumMisses());
+        assertEquals(0.25, cache.getHitRate());
+    }
+
+    @Test
+    public void tradeLimitsAreCachedPerKey() {
+        AccountAgeWitnessDataCache cache = new AccountAgeWitnessDataCache();
+        AccountAgeWitnessDataCache.WitnessData witnessData = cache.get(witness(1), 0, NOW, loader);
+
+        assertEquals(1, witnessData.getTradeLimit("SEPA_EUR_BUY", () -> 1));
+        assertEquals(1, witnessData.getTradeLimit("SEPA_EUR_BUY", () -> 2));
+        assertEquals(3, witnessData.getTradeLimit("SEPA_EUR_SELL", () -> 3));
+
+        // limits of an old stamp are computed again
+        witnessData = cache.get(witness(1), 1, NOW, loader);
+        assertEquals(2, witnessData.getTradeLimit("SEPA_EUR_BUY", () -> 2));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() {
+        AccountAgeWitnessDataCache cache = new AccountAgeWitnessDataCache();
+        for (int i = 0; i <= AccountAgeWitnessDataCache.MAX_SIZE; i++) {
+            cache.get(witness(i), 0, NOW, loader);
+            if (i == 0) {
+                continue;
+            }
+            // keep the first witness recently used
+            cache.get(witness(0), 0, NOW, loader);
+        }
+
+        assertEquals(AccountAgeWitnessDataCache.MAX_SIZE, cache.size());
+        assertEquals(1, cache.getNumEvictions());
+        int numLoadsBefore = numLoads.get();
+        cache.get(witness(0), 0, NOW, loader);
+        assertEquals(numLoadsBefore, numLoads.get());
+        cache.get(witness(1), 0, NOW, loader);
+        assertEquals(numLoadsBefore + 1, numLoads.get());
+
+        cache.invalidate();
+        assertEquals(0, cache.size());
+    }
+}
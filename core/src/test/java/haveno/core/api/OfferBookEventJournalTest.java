@@ -0,0 +1,120 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import haveno.core.offer.Offer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class OfferBookEventJournalTest {
+
+    private static class RecordingSubscriber implements OfferBookEventJournal.Subscriber {
+        OfferBookEventJournal.Subscription subscription;
+        final List<OfferBookEventJournal.Event> events = new ArrayList<>();
+
+        @Override
+        public void onSubscribed(OfferBookEventJournal.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onEvent(OfferBookEventJournal.Event event) {
+            events.add(event);
+        }
+    }
+
+    @Test
+    public void newSubscriberNeedsSnapshotAndReceivesLaterEvents() {
+        OfferBookEventJournal journal = new OfferBookEventJournal(10);
+        journal.append(OfferBookEventJournal.Type.ADDED, mock(Offer.class));
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        journal.subscribe(subscriber, "", 0);
+        Offer offer = mock(Offer.class);
+        journal.append(OfferBookEventJournal.Type.UPDATED, offer);
+
+        assertEquals(1, subscriber.subscription.getSequenceNumber());
+        assertNull(subscriber.subscription.getMissedEvents());
+        assertEquals(1, subscriber.events.size());
+        assertEquals(2, subscriber.events.get(0).getSequenceNumber());
+        assertSame(offer, subscriber.events.get(0).getOffer());
+
+        journal.unsubscribe(subscriber);
+        journal.append(OfferBookEventJournal.Type.REMOVED, offer);
+        assertEquals(1, subscriber.events.size());
+        assertEquals(0, journal.getNumSubscribers());
+    }
+
+    @Test
+    public void resumedSubscriberReceivesMissedEvents() {
+        OfferBookEventJournal journal = new OfferBookEventJournal(10);
+        for (int i = 0; i < 5; i++) journal.append(OfferBookEventJournal.Type.ADDED, mock(Offer.class));
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        journal.subscribe(subscriber, journal.getSessionId(), 3);
+
+        List<OfferBookEventJournal.Event> missedEvents = subscriber.subscription.getMissedEvents();
+        assertNotNull(missedEvents);
+        assertEquals(2, missedEvents.size());
+        assertEquals(4, missedEvents.get(0).getSequenceNumber());
+        assertEquals(5, missedEvents.get(1).getSequenceNumber());
+
+        // nothing missed
+        journal.subscribe(subscriber, journal.getSessionId(), 5);
+        assertEquals(0, subscriber.subscription.getMissedEvents().size());
+    }
+
+    @Test
+    public void snapshotIsNeededIfEventsWereDroppedOrSessionIsUnknown() {
+        OfferBookEventJournal journal = new OfferBookEventJournal(3);
+        for (int i = 0; i < 5; i++) journal.append(OfferBookEventJournal.Type.ADDED, mock(Offer.class));
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        // journal holds events 3 to 5
+        journal.subscribe(subscriber, journal.getSessionId(), 1);
+        assertNull(subscriber.subscription.getMissedEvents());
+        journal.subscribe(subscriber, journal.getSessionId(), 2);
+        assertEquals(3, subscriber.subscription.getMissedEvents().size());
+
+        journal.subscribe(subscriber, "otherSession", 4);
+        assertNull(subscriber.subscription.getMissedEvents());
+        journal.subscribe(subscriber, journal.getSessionId(), 6);
+        assertNull(subscriber.subscription.getMissedEvents());
+    }
+
+    @Test
+    public void removedEventKeepsSequenceNumber() {
+        OfferBookEventJournal journal = new OfferBookEventJournal(10);
+        OfferBookEventJournal.Event event = journal.append(OfferBookEventJournal.Type.ADDED, mock(Offer.class));
+
+        OfferBookEventJournal.Event removed = event.asRemoved();
+
+        assertEquals(OfferBookEventJournal.Type.REMOVED, removed.getType());
+        assertEquals(event.getSequenceNumber(), removed.getSequenceNumber());
+        assertSame(event.getOffer(), removed.getOffer());
+        assertSame(removed, removed.asRemoved());
+    }
+}
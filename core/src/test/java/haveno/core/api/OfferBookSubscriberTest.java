@@ -0,0 +1,106 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.api;
+
+import haveno.core.offer.Offer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OfferBookSubscriberTest {
+
+    private static class RecordingListener implements OfferBookSubscriber.Listener {
+        final List<OfferBookEventJournal.Event> events = new ArrayList<>();
+        final CountDownLatch snapshotLatch = new CountDownLatch(1);
+        final CountDownLatch eventLatch = new CountDownLatch(1);
+        final CountDownLatch errorLatch = new CountDownLatch(1);
+        volatile boolean isReady;
+
+        @Override
+        public void onSnapshot(String sessionId, long sequenceNumber, List<Offer> offers) {
+            snapshotLatch.countDown();
+        }
+
+        @Override
+        public void onEvent(String sessionId, OfferBookEventJournal.Event event) {
+            events.add(event);
+            eventLatch.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            errorLatch.countDown();
+        }
+
+        @Override
+        public boolean isReady() {
+            return isReady;
+        }
+    }
+
+    private static Offer mockOffer(String id) {
+        Offer offer = mock(Offer.class);
+        when(offer.getId()).thenReturn(id);
+        return offer;
+    }
+
+    @Test
+    public void changesOfAnOfferAreCoalescedWhileNotReady() throws InterruptedException {
+        OfferBookEventJournal journal = new OfferBookEventJournal(10);
+        RecordingListener listener = new RecordingListener();
+        OfferBookSubscriber subscriber = new OfferBookSubscriber(journal, offer -> true, offer -> true,
+                List::of, listener);
+        journal.subscribe(subscriber, null, 0);
+        assertTrue(listener.snapshotLatch.await(5, TimeUnit.SECONDS));
+
+        Offer offer = mockOffer("offer");
+        journal.append(OfferBookEventJournal.Type.ADDED, offer);
+        journal.append(OfferBookEventJournal.Type.UPDATED, offer);
+        listener.isReady = true;
+        subscriber.onReady();
+
+        assertTrue(listener.eventLatch.await(5, TimeUnit.SECONDS));
+        subscriber.close();
+        assertEquals(1, listener.events.size());
+        assertEquals(OfferBookEventJournal.Type.ADDED, listener.events.get(0).getType());
+        assertEquals(2, listener.events.get(0).getSequenceNumber());
+    }
+
+    @Test
+    public void errorIsPassedToListener() throws InterruptedException {
+        OfferBookEventJournal journal = new OfferBookEventJournal(10);
+        RecordingListener listener = new RecordingListener();
+        OfferBookSubscriber subscriber = new OfferBookSubscriber(journal, offer -> true, offer -> true,
+                () -> {
+                    throw new IllegalStateException("No snapshot");
+                }, listener);
+        journal.subscribe(subscriber, null, 0);
+
+        assertTrue(listener.errorLatch.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber.isClosed());
+        assertEquals(0, journal.getNumSubscribers());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.filter;
+
+import haveno.core.payment.payload.AliPayAccountPayload;
+import haveno.core.payment.payload.PaymentMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FilterIndexTest {
+
+    private static AliPayAccountPayload aliPayAccountPayload(String accountNr) {
+        AliPayAccountPayload payload = new AliPayAccountPayload(PaymentMethod.ALI_PAY_ID, "id");
+        payload.setAccountNr(accountNr);
+        return payload;
+    }
+
+    @Test
+    public void emptyIndexBansNothing() {
+        FilterIndex index = FilterIndex.of(null);
+
+        assertSame(FilterIndex.EMPTY, index);
+        assertNull(index.getFilter());
+        assertFalse(index.isOfferIdBanned("offer"));
+        assertFalse(index.isNodeAddressBannedFromNetwork("node.onion:9999"));
+        assertFalse(index.isPaymentAccountDataBanned(aliPayAccountPayload("123")));
+    }
+
+    @Test
+    public void banListsAreIndexed() {
+        Filter filter = mock(Filter.class);
+        when(filter.getBannedOfferIds()).thenReturn(List.of("offer1", "offer2"));
+        when(filter.getNodeAddressesBannedFromTrading()).thenReturn(List.of("trader.onion:9999"));
+        when(filter.getNodeAddressesBannedFromNetwork()).thenReturn(Set.of("node.onion:9999"));
+        when(filter.getBannedCurrencies()).thenReturn(List.of("XYZ"));
+        when(filter.getBannedPaymentMethods()).thenReturn(List.of(PaymentMethod.ALI_PAY_ID));
+
+        FilterIndex index = FilterIndex.of(filter);
+
+        assertSame(filter, index.getFilter());
+        assertTrue(index.isOfferIdBanned("offer2"));
+        assertFalse(index.isOfferIdBanned("offer3"));
+        assertTrue(index.isNodeAddressBannedFromTrading("trader.onion:9999"));
+        assertFalse(index.isNodeAddressBannedFromTrading("node.onion:9999"));
+        assertTrue(index.isNodeAddressBannedFromNetwork("node.onion:9999"));
+        assertTrue(index.isCurrencyBanned("XYZ"));
+        assertTrue(index.isPaymentMethodBanned(PaymentMethod.ALI_PAY_ID));
+        assertFalse(index.isAutoConfExplorerBanned("explorer"));
+    }
+
+    @Test
+    public void paymentAccountValuesAreMatchedIgnoringCase() {
+        Filter filter = mock(Filter.class);
+        when(filter.getBannedPaymentAccounts()).thenReturn(List.of(
+                new PaymentAccountFilter(PaymentMethod.ALI_PAY_ID, "getAccountNr", "abc123"),
+                new PaymentAccountFilter(PaymentMethod.ALI_PAY_ID, "getMissingGetter", "abc123"),
+                new PaymentAccountFilter(PaymentMethod.SEPA_ID, "getAccountNr", "def456")));
+
+        FilterIndex index = FilterIndex.of(filter);
+
+        assertTrue(index.isPaymentAccountDataBanned(aliPayAccountPayload("ABC123")));
+        assertFalse(index.isPaymentAccountDataBanned(aliPayAccountPayload("def456")));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import haveno.core.provider.price.MarketPrice;
+import haveno.core.provider.price.PriceFeedService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static haveno.core.offer.OfferMaker.amount;
+import static haveno.core.offer.OfferMaker.btcUsdOffer;
+import static haveno.core.offer.OfferMaker.direction;
+import static haveno.core.offer.OfferMaker.id;
+import static haveno.core.offer.OfferMaker.marketPriceMargin;
+import static haveno.core.offer.OfferMaker.price;
+import static haveno.core.offer.OfferMaker.useMarketBasedPrice;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarketDepthBookTest {
+    private static final long XMR = 1_000_000_000_000L;
+    private static final long USD = 100_000_000L;
+
+    private static Offer offer(String offerId, OfferDirection offerDirection, long offerPrice, long offerAmount) {
+        return make(btcUsdOffer.but(with(id, offerId),
+                with(direction, offerDirection),
+                with(price, offerPrice * USD),
+                with(amount, offerAmount * XMR)));
+    }
+
+    @Test
+    public void levelsAreSortedFromBestPriceWithCumulativeAmounts() {
+        MarketDepthBook book = new MarketDepthBook();
+        book.put(offer("1", OfferDirection.BUY, 100, 1));
+        book.put(offer("2", OfferDirection.BUY, 110, 2));
+        book.put(offer("3", OfferDirection.BUY, 100, 3));
+        book.put(offer("4", OfferDirection.SELL, 130, 1));
+        book.put(offer("5", OfferDirection.SELL, 120, 2));
+
+        MarketDepthBook.MarketDepth depth = book.getMarketDepth("usd", 0);
+
+        assertArrayEquals(new Double[]{110.0, 100.0}, depth.getBuyPrices());
+        assertArrayEquals(new Double[]{2.0, 6.0}, depth.getBuyDepth());
+        assertArrayEquals(new Double[]{120.0, 130.0}, depth.getSellPrices());
+        assertArrayEquals(new Double[]{2.0, 3.0}, depth.getSellDepth());
+        assertSame(depth, book.getMarketDepth("USD", 0));
+        assertEquals(0, book.getMarketDepth("EUR", 0).getBuyPrices().length);
+
+        // callers cannot change the cached depth
+        depth.getBuyPrices()[0] = 0.0;
+        assertArrayEquals(new Double[]{110.0, 100.0}, book.getMarketDepth("USD", 0).getBuyPrices());
+    }
+
+    @Test
+    public void removedAndReplacedOffersUpdateLevels() {
+        MarketDepthBook book = new MarketDepthBook();
+        book.put(offer("1", OfferDirection.BUY, 100, 1));
+        book.put(offer("2", OfferDirection.BUY, 100, 3));
+        book.put(offer("3", OfferDirection.BUY, 90, 1));
+        MarketDepthBook.MarketDepth depth = book.getMarketDepth("USD", 0);
+
+        book.remove("2");
+        book.put(offer("3", OfferDirection.SELL, 90, 1));
+
+        MarketDepthBook.MarketDepth updatedDepth = book.getMarketDepth("USD", 0);
+        assertArrayEquals(new Double[]{100.0}, updatedDepth.getBuyPrices());
+        assertArrayEquals(new Double[]{1.0}, updatedDepth.getBuyDepth());
+        assertArrayEquals(new Double[]{90.0}, updatedDepth.getSellPrices());
+        assertEquals(2, depth.getBuyPrices().length);
+    }
+
+    @Test
+    public void marketBasedOffersAreRepricedAfterPriceUpdate() {
+        PriceFeedService priceFeedService = mock(PriceFeedService.class);
+        when(priceFeedService.getPriceEpoch()).thenReturn(1L);
+        when(priceFeedService.getMarketPrice("USD")).thenReturn(new MarketPrice("USD", 100, Instant.now().getEpochSecond(), true));
+        Offer marketBasedOffer = make(btcUsdOffer.but(with(id, "1"),
+                with(direction, OfferDirection.SELL),
+                with(useMarketBasedPrice, true),
+                with(marketPriceMargin, 0.1),
+                with(amount, XMR)));
+        marketBasedOffer.setPriceFeedService(priceFeedService);
+        MarketDepthBook book = new MarketDepthBook();
+        book.put(marketBasedOffer);
+        book.put(offer("2", OfferDirection.SELL, 115, 1));
+
+        assertArrayEquals(new Double[]{110.0, 115.0}, book.getMarketDepth("USD", 1).getSellPrices());
+
+        when(priceFeedService.getPriceEpoch()).thenReturn(2L);
+        when(priceFeedService.getMarketPrice("USD")).thenReturn(new MarketPrice("USD", 200, Instant.now().getEpochSecond(), true));
+
+        MarketDepthBook.MarketDepth depth = book.getMarketDepth("USD", 2);
+        assertArrayEquals(new Double[]{115.0, 220.0}, depth.getSellPrices());
+        assertArrayEquals(new Double[]{1.0, 2.0}, depth.getSellDepth());
+    }
+}
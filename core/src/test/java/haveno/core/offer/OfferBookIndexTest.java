@@ -0,0 +1,116 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.offer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static haveno.core.offer.OfferMaker.btcUsdOffer;
+import static haveno.core.offer.OfferMaker.counterCurrencyCode;
+import static haveno.core.offer.OfferMaker.direction;
+import static haveno.core.offer.OfferMaker.id;
+import static haveno.core.offer.OfferMaker.reserveTxKeyImages;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class OfferBookIndexTest {
+
+    private static Offer offer(String offerId, String currencyCode, OfferDirection offerDirection, String... keyImages) {
+        return make(btcUsdOffer.but(with(id, offerId),
+                with(counterCurrencyCode, currencyCode),
+                with(direction, offerDirection),
+                with(reserveTxKeyImages, List.of(keyImages))));
+    }
+
+    @Test
+    public void lookupsByIdMarketAndKeyImage() {
+        OfferBookIndex index = new OfferBookIndex();
+        index.put(offer("1", "USD", OfferDirection.BUY, "a", "b"));
+        index.put(offer("2", "USD", OfferDirection.SELL, "b", "c"));
+        index.put(offer("3", "EUR", OfferDirection.BUY, "d"));
+
+        assertTrue(index.contains("1"));
+        assertEquals(3, index.size());
+        assertEquals(List.of("1"), getIds(index.getOffersByMarket("BUY", "usd")));
+        assertEquals(List.of("1", "2"), getIds(index.getOffersWithKeyImage("b")));
+        assertEquals(List.of("2", "3"), getIds(index.getOffersWithAnyKeyImage(List.of("c", "d"))));
+        assertTrue(index.isKeyImageUsedByOtherOffer("b", "1"));
+        assertFalse(index.isKeyImageUsedByOtherOffer("a", "1"));
+    }
+
+    @Test
+    public void replaceAndRemoveUpdateIndices() {
+        OfferBookIndex index = new OfferBookIndex();
+        index.put(offer("1", "USD", OfferDirection.BUY, "a"));
+        index.put(offer("2", "USD", OfferDirection.BUY, "b"));
+        index.put(offer("1", "EUR", OfferDirection.SELL, "c"));
+
+        // replaced offer moves to the end
+        assertEquals(List.of("2", "1"), getIds(index.getOffers()));
+        assertTrue(index.getOffersWithKeyImage("a").isEmpty());
+        assertEquals(List.of("2"), getIds(index.getOffersByMarket("BUY", "USD")));
+        assertEquals(List.of("1"), getIds(index.getOffersByMarket("SELL", "EUR")));
+
+        assertEquals("1", index.remove("1").getId());
+        assertNull(index.remove("1"));
+        assertTrue(index.getOffersWithKeyImage("c").isEmpty());
+        assertTrue(index.getOffersByMarket("SELL", "EUR").isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    // Run with 'gradle benchmark'. Adds, looks up and removes offers at growing book sizes. The time per
+    // operation should stay about constant.
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "haveno.benchmark", matches = "true")
+    public void benchmark() {
+        for (int numOffers : new int[]{1_000, 10_000, 50_000}) {
+            List<Offer> offers = new ArrayList<>(numOffers);
+            for (int i = 0; i < numOffers; i++) {
+                offers.add(offer("id" + i, i % 2 == 0 ? "USD" : "EUR", i % 3 == 0 ? OfferDirection.BUY : OfferDirection.SELL,
+                        "keyImage" + i, "keyImage" + (i + 1)));
+            }
+
+            OfferBookIndex index = new OfferBookIndex();
+            long ts = System.nanoTime();
+            offers.forEach(index::put);
+            offers.forEach(offer -> index.getOffersWithAnyKeyImage(offer.getOfferPayload().getReserveTxKeyImages()));
+            offers.forEach(offer -> index.remove(offer.getId()));
+            long elapsed = System.nanoTime() - ts;
+
+            log.info("{} offers: {} ns per offer for put, key image lookup and remove",
+                    numOffers, elapsed / numOffers);
+        }
+    }
+
+    private static List<String> getIds(List<Offer> offers) {
+        List<String> ids = new ArrayList<>();
+        offers.forEach(offer -> ids.add(offer.getId()));
+        return ids;
+    }
+}
@@ -21,6 +21,8 @@ import com.natpryce.makeiteasy.Instantiator;
 import com.natpryce.makeiteasy.Maker;
 import com.natpryce.makeiteasy.Property;
 
+import java.util.List;
+
 import static com.natpryce.makeiteasy.MakeItEasy.a;
 
 public class OfferMaker {
@@ -34,6 +36,7 @@ public class OfferMaker {
     public static final Property<Offer, Boolean> useMarketBasedPrice = new Property<>();
     public static final Property<Offer, Double> marketPriceMargin = new Property<>();
     public static final Property<Offer, String> id = new Property<>();
+    public static final Property<Offer, List<String>> reserveTxKeyImages = new Property<>();
 
     public static final Instantiator<Offer> Offer = lookup -> new Offer(
             new OfferPayload(lookup.valueOf(id, "1234"),
@@ -73,7 +76,7 @@ public class OfferMaker {
                     0,
                     null,
                     null,
-                    null,
+                    lookup.valueOf(reserveTxKeyImages, (List<String>) null),
                     "My extra info"));
 
     public static final Maker<Offer> btcUsdOffer = a(Offer);
@@ -17,15 +17,52 @@
 
 package haveno.core.offer;
 
+import haveno.core.monetary.Price;
+import haveno.core.provider.price.MarketPrice;
+import haveno.core.provider.price.PriceFeedService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static haveno.core.offer.OfferMaker.btcUsdOffer;
+import static haveno.core.offer.OfferMaker.id;
+import static haveno.core.offer.OfferMaker.marketPriceMargin;
+import static haveno.core.offer.OfferMaker.useMarketBasedPrice;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+@Slf4j
 public class OfferTest {
 
+    private static Offer marketBasedOffer(String offerId, double margin, PriceFeedService priceFeedService) {
+        Offer offer = make(btcUsdOffer.but(with(id, offerId),
+                with(useMarketBasedPrice, true),
+                with(marketPriceMargin, margin)));
+        offer.setPriceFeedService(priceFeedService);
+        return offer;
+    }
+
+    private static MarketPrice marketPrice(double price) {
+        return new MarketPrice("USD", price, Instant.now().getEpochSecond(), true);
+    }
+
     @Test
     public void testHasNoRange() {
         OfferPayload payload = mock(OfferPayload.class);
@@ -45,4 +82,68 @@ public class OfferTest {
         Offer offer = new Offer(payload);
         assertTrue(offer.isRange());
     }
+
+    @Test
+    public void marketBasedPriceIsComputedOncePerPriceUpdate() {
+        PriceFeedService priceFeedService = mock(PriceFeedService.class);
+        when(priceFeedService.getPriceEpoch()).thenReturn(1L);
+        when(priceFeedService.getMarketPrice("USD")).thenReturn(marketPrice(100));
+        Offer offer = marketBasedOffer("1", 0.1, priceFeedService);
+
+        Price price = offer.getPrice();
+        assertEquals(90_00000000L, price.getValue());
+        assertSame(price, offer.getPrice());
+        assertSame(offer.getVolume(), offer.getVolume());
+        verify(priceFeedService, times(1)).getMarketPrice("USD");
+
+        when(priceFeedService.getPriceEpoch()).thenReturn(2L);
+        when(priceFeedService.getMarketPrice("USD")).thenReturn(marketPrice(200));
+        Price updatedPrice = offer.getPrice();
+        assertNotSame(price, updatedPrice);
+        assertEquals(180_00000000L, updatedPrice.getValue());
+    }
+
+    @Test
+    public void missingMarketPriceIsNotMemoized() {
+        PriceFeedService priceFeedService = mock(PriceFeedService.class);
+        when(priceFeedService.getPriceEpoch()).thenReturn(1L);
+        Offer offer = marketBasedOffer("1", 0, priceFeedService);
+
+        assertNull(offer.getPrice());
+        assertNull(offer.getVolume());
+
+        when(priceFeedService.getMarketPrice("USD")).thenReturn(marketPrice(100));
+        assertEquals(100_00000000L, offer.getPrice().getValue());
+    }
+
+    // Run with 'gradle benchmark'. Sorts 10k market based offers by price, recomputing the prices on each
+    // call as before and with the prices memoized for the current price update.
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "haveno.benchmark", matches = "true")
+    public void benchmark() {
+        AtomicLong priceEpoch = new AtomicLong();
+        PriceFeedService priceFeedService = mock(PriceFeedService.class);
+        when(priceFeedService.getMarketPrice("USD")).thenReturn(marketPrice(100));
+        when(priceFeedService.getPriceEpoch()).thenAnswer(invocation -> priceEpoch.get());
+        List<Offer> offers = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            offers.add(marketBasedOffer(String.valueOf(i), (i % 200 - 100) / 1000d, priceFeedService));
+        }
+        Comparator<Offer> byPrice = Comparator.comparing(offer -> offer.getPrice().getValue());
+
+        // new epoch for each call to getPrice
+        when(priceFeedService.getPriceEpoch()).thenAnswer(invocation -> priceEpoch.incrementAndGet());
+        long ts = System.nanoTime();
+        new ArrayList<>(offers).sort(byPrice);
+        long recomputed = System.nanoTime() - ts;
+
+        when(priceFeedService.getPriceEpoch()).thenAnswer(invocation -> priceEpoch.get());
+        ts = System.nanoTime();
+        new ArrayList<>(offers).sort(byPrice);
+        long memoized = System.nanoTime() - ts;
+
+        log.info("Sorting {} offers by price: recomputed {} ms, memoized {} ms",
+                offers.size(), recomputed / 1_000_000, memoized / 1_000_000);
+    }
 }
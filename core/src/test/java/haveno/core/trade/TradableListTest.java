@@ -22,9 +22,15 @@ import haveno.core.offer.OfferPayload;
 import haveno.core.offer.OpenOffer;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static protobuf.PersistableEnvelope.MessageCase.TRADABLE_LIST;
 
 public class TradableListTest {
@@ -44,4 +50,41 @@ public class TradableListTest {
         assertEquals(message.getMessageCase(), TRADABLE_LIST);
         assertEquals(1, message.getTradableList().getTradableList().size());
     }
+
+    private static Trade trade(String id, String uid) {
+        Trade trade = mock(Trade.class);
+        when(trade.getId()).thenReturn(id);
+        when(trade.getUid()).thenReturn(uid);
+        return trade;
+    }
+
+    @Test
+    public void lookupsByIdAndUid() {
+        Trade trade1 = trade("1", "uid1");
+        Trade trade2 = trade("2", "uid2");
+        Trade trade3 = trade("1", "uid3");
+        TradableList<Trade> tradableList = new TradableList<>();
+        tradableList.setAll(List.of(trade1, trade2));
+        assertTrue(tradableList.add(trade3));
+        assertFalse(tradableList.add(trade3));
+
+        assertEquals(Optional.of(trade1), tradableList.getById("1"));
+        assertEquals(List.of(trade1, trade3), tradableList.getAllById("1"));
+        assertEquals(Optional.of(trade2), tradableList.getTradeByUid("uid2"));
+        assertTrue(tradableList.contains(trade2));
+
+        assertTrue(tradableList.remove(trade1));
+        assertFalse(tradableList.remove(trade1));
+        assertEquals(Optional.of(trade3), tradableList.getById("1"));
+        assertEquals(Optional.empty(), tradableList.getTradeByUid("uid1"));
+
+        tradableList.clear();
+        assertEquals(Optional.empty(), tradableList.getById("2"));
+        assertFalse(tradableList.contains(trade2));
+
+        // indices of a list created from proto
+        TradableList<Trade> persistedList = new TradableList<>(List.of(trade1, trade2));
+        assertEquals(Optional.of(trade2), persistedList.getById("2"));
+        assertEquals(Optional.of(trade1), persistedList.getTradeByUid("uid1"));
+    }
 }
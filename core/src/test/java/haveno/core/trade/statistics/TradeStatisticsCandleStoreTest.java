@@ -0,0 +1,112 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade.statistics;
+
+import haveno.core.monetary.Price;
+import haveno.core.payment.payload.PaymentMethod;
+import haveno.core.trade.HavenoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TradeStatisticsCandleStoreTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 5, 1, 10, 55);
+
+    private static TradeStatistics3 tradeStatistics(String currency, String price, double amount, LocalDateTime time) {
+        return new TradeStatistics3(currency,
+                Price.parse(currency, price).getValue(),
+                HavenoUtils.xmrToAtomicUnits(amount).longValue(),
+                PaymentMethod.BLOCK_CHAINS_ID,
+                time.atZone(TradeStatisticsCandleStore.ZONE_ID).toInstant().toEpochMilli(),
+                null,
+                null,
+                null);
+    }
+
+    private static long startTime(LocalDateTime time, TradeStatisticsCandleStore.TickUnit tickUnit) {
+        return TradeStatisticsCandleStore.roundToTick(time, tickUnit).getTime();
+    }
+
+    @Test
+    public void candleAggregatesTradesOfInterval() {
+        TradeStatisticsCandleStore store = new TradeStatisticsCandleStore();
+        store.add(tradeStatistics("EUR", "580", 1, TIME.plusSeconds(30)));
+        store.add(tradeStatistics("EUR", "520", 1, TIME));
+        store.add(tradeStatistics("EUR", "600", 1, TIME.plusSeconds(20)));
+        store.add(tradeStatistics("EUR", "500", 1, TIME.plusSeconds(10)));
+
+        TradeStatisticsCandleStore.Candle candle = store.getCandle("EUR", TradeStatisticsCandleStore.TickUnit.HOUR,
+                startTime(TIME, TradeStatisticsCandleStore.TickUnit.HOUR));
+
+        assertEquals(Price.parse("EUR", "520").getValue(), candle.getOpen());
+        assertEquals(Price.parse("EUR", "580").getValue(), candle.getClose());
+        assertEquals(Price.parse("EUR", "600").getValue(), candle.getHigh());
+        assertEquals(Price.parse("EUR", "500").getValue(), candle.getLow());
+        assertEquals(Price.parse("EUR", "550").getValue(), candle.getAverage());
+        assertEquals(Price.parse("EUR", "550").getValue(), candle.getMedian());
+        assertEquals(HavenoUtils.xmrToAtomicUnits(4).longValue(), candle.getAccumulatedAmount());
+        assertEquals(4, candle.getNumTrades());
+        assertTrue(candle.isBullish());
+    }
+
+    @Test
+    public void tradesAreGroupedPerTickUnit() {
+        TradeStatisticsCandleStore store = new TradeStatisticsCandleStore();
+        store.add(tradeStatistics("EUR", "500", 1, TIME));
+        store.add(tradeStatistics("EUR", "510", 2, TIME.plusMinutes(10)));
+        store.add(tradeStatistics("USD", "520", 1, TIME));
+
+        List<TradeStatisticsCandleStore.Candle> hourCandles = store.getCandles("EUR", TradeStatisticsCandleStore.TickUnit.HOUR, 0, Long.MAX_VALUE);
+        assertEquals(2, hourCandles.size());
+        assertEquals(startTime(TIME, TradeStatisticsCandleStore.TickUnit.HOUR), hourCandles.get(0).getStartTime());
+        assertEquals(startTime(TIME.plusMinutes(10), TradeStatisticsCandleStore.TickUnit.HOUR), hourCandles.get(1).getStartTime());
+
+        List<TradeStatisticsCandleStore.Candle> dayCandles = store.getCandles("EUR", TradeStatisticsCandleStore.TickUnit.DAY, 0, Long.MAX_VALUE);
+        assertEquals(1, dayCandles.size());
+        assertEquals(HavenoUtils.xmrToAtomicUnits(3).longValue(), dayCandles.get(0).getAccumulatedAmount());
+
+        long dayStart = startTime(TIME, TradeStatisticsCandleStore.TickUnit.DAY);
+        assertEquals(3, store.getCandle(TradeStatisticsCandleStore.ALL_CURRENCIES, TradeStatisticsCandleStore.TickUnit.DAY, dayStart).getNumTrades());
+        assertTrue(store.getCandles("EUR", TradeStatisticsCandleStore.TickUnit.DAY, dayStart + 1, Long.MAX_VALUE).isEmpty());
+        assertNull(store.getCandle("XMR", TradeStatisticsCandleStore.TickUnit.DAY, dayStart));
+    }
+
+    @Test
+    public void candleIsRecreatedAfterChange() {
+        TradeStatisticsCandleStore store = new TradeStatisticsCandleStore();
+        store.add(tradeStatistics("EUR", "500", 1, TIME));
+        long dayStart = startTime(TIME, TradeStatisticsCandleStore.TickUnit.DAY);
+        TradeStatisticsCandleStore.Candle candle = store.getCandle("EUR", TradeStatisticsCandleStore.TickUnit.DAY, dayStart);
+        assertSame(candle, store.getCandle("EUR", TradeStatisticsCandleStore.TickUnit.DAY, dayStart));
+
+        store.add(tradeStatistics("EUR", "400", 1, TIME.minusHours(1)));
+
+        TradeStatisticsCandleStore.Candle updatedCandle = store.getCandle("EUR", TradeStatisticsCandleStore.TickUnit.DAY, dayStart);
+        assertNotSame(candle, updatedCandle);
+        assertEquals(Price.parse("EUR", "400").getValue(), updatedCandle.getOpen());
+        assertEquals(Price.parse("EUR", "500").getValue(), updatedCandle.getClose());
+        assertEquals(2, updatedCandle.getNumTrades());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.trade.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TradeStatisticsDeduplicatorTest {
+    private static final long EARLY_DATE = Instant.parse("2024-08-01T00:00:00Z").toEpochMilli();
+
+    private static TradeStatistics3 tradeStatistics(String currency, long price, long amount, String paymentMethod, long date) {
+        return new TradeStatistics3(currency, price, amount, paymentMethod, date, null, null, null);
+    }
+
+    @Test
+    public void removesExactAndFuzzyDuplicates() {
+        Set<TradeStatistics3> tradeStats = new HashSet<>();
+        tradeStats.add(tradeStatistics("USD", 100, 1000, "0", EARLY_DATE));
+        // exact duplicate
+        tradeStats.add(tradeStatistics("USD", 200, 2000, "0", EARLY_DATE));
+        // fuzzy duplicate within 2 minutes
+        tradeStats.add(tradeStatistics("EUR", 100, 1000, "0", EARLY_DATE));
+        tradeStats.add(tradeStatistics("EUR", 100, 5000, "0", EARLY_DATE + TimeUnit.MINUTES.toMillis(1)));
+        // fuzzy duplicate within a day with similar amount
+        tradeStats.add(tradeStatistics("EUR", 300, 1000, "0", EARLY_DATE + TimeUnit.HOURS.toMillis(1)));
+        tradeStats.add(tradeStatistics("EUR", 300, 1010, "0", EARLY_DATE + TimeUnit.HOURS.toMillis(20)));
+        // different payment method
+        tradeStats.add(tradeStatistics("EUR", 100, 1000, "1", EARLY_DATE));
+
+        new TradeStatisticsDeduplicator().removeDuplicates(tradeStats);
+
+        assertEquals(4, tradeStats.size());
+    }
+
+    @Test
+    public void recentStatisticsAreNotDeduplicated() {
+        long date = Instant.parse("2024-10-01T00:00:00Z").toEpochMilli();
+        Set<TradeStatistics3> tradeStats = new HashSet<>();
+        tradeStats.add(tradeStatistics("USD", 100, 1000, "0", date));
+        tradeStats.add(tradeStatistics("USD", 200, 2000, "0", date));
+
+        new TradeStatisticsDeduplicator().removeDuplicates(tradeStats);
+
+        assertEquals(2, tradeStats.size());
+    }
+
+    @Test
+    public void incrementalCheckUsesKeptStatistics() {
+        TradeStatisticsDeduplicator deduplicator = new TradeStatisticsDeduplicator();
+        Set<TradeStatistics3> tradeStats = new HashSet<>();
+        tradeStats.add(tradeStatistics("USD", 100, 1000, "0", EARLY_DATE));
+        deduplicator.removeDuplicates(tradeStats);
+
+        assertTrue(deduplicator.isDuplicate(tradeStatistics("USD", 200, 2000, "0", EARLY_DATE)));
+        assertTrue(deduplicator.isDuplicate(tradeStatistics("USD", 100, 1020, "0", EARLY_DATE + TimeUnit.HOURS.toMillis(23))));
+        assertFalse(deduplicator.isDuplicate(tradeStatistics("USD", 100, 1000, "0", EARLY_DATE + TimeUnit.HOURS.toMillis(25))));
+        assertTrue(deduplicator.isDuplicate(tradeStatistics("USD", 100, 1000, "0", EARLY_DATE + TimeUnit.HOURS.toMillis(26))));
+    }
+
+    @Test
+    public void resultsMatchPairwiseComparison() {
+        Random random = new Random(1);
+        Set<TradeStatistics3> tradeStats = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            long date = EARLY_DATE - TimeUnit.DAYS.toMillis(10) + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(80));
+            // round dates to create exact duplicates
+            date = date - date % TimeUnit.MINUTES.toMillis(30);
+            tradeStats.add(tradeStatistics(random.nextBoolean() ? "USD" : "EUR",
+                    100 + random.nextInt(3),
+                    1000 + random.nextInt(100),
+                    String.valueOf(random.nextInt(2)),
+                    date));
+        }
+
+        Set<TradeStatistics3> expected = new HashSet<>(tradeStats);
+        removeDuplicatesPairwise(expected);
+        Set<TradeStatistics3> result = new HashSet<>(tradeStats);
+        new TradeStatisticsDeduplicator().removeDuplicates(result);
+
+        assertTrue(expected.size() < tradeStats.size());
+        assertEquals(expected, result);
+    }
+
+    // Reference implementation comparing each statistic with all kept statistics
+    private static void removeDuplicatesPairwise(Set<TradeStatistics3> tradeStats) {
+        Set<TradeStatistics3> earlyTrades = tradeStats.stream()
+                .filter(e -> e.getDate().toInstant().isBefore(Instant.parse("2024-09-30T00:00:00Z")))
+                .collect(Collectors.toSet());
+        Set<TradeStatistics3> duplicates = new HashSet<>();
+        Set<TradeStatistics3> deduplicates = new HashSet<>();
+        for (TradeStatistics3 tradeStatistic : earlyTrades) {
+            boolean isDuplicate = deduplicates.stream().anyMatch(e ->
+                    tradeStatistic.getPaymentMethodId().equals(e.getPaymentMethodId()) &&
+                            tradeStatistic.getCurrency().equals(e.getCurrency()) &&
+                            tradeStatistic.getDateAsLong() == e.getDateAsLong());
+            if (isDuplicate) duplicates.add(tradeStatistic);
+            else deduplicates.add(tradeStatistic);
+        }
+        tradeStats.removeAll(duplicates);
+
+        earlyTrades = tradeStats.stream()
+                .filter(e -> e.getDate().toInstant().isBefore(Instant.parse("2024-08-07T00:00:00Z")))
+                .collect(Collectors.toSet());
+        duplicates = new HashSet<>();
+        deduplicates = new HashSet<>();
+        for (TradeStatistics3 tradeStatistic : earlyTrades) {
+            boolean isDuplicate = deduplicates.stream().anyMatch(e -> {
+                if (!tradeStatistic.getPaymentMethodId().equals(e.getPaymentMethodId())) return false;
+                if (!tradeStatistic.getCurrency().equals(e.getCurrency())) return false;
+                if (tradeStatistic.getNormalizedPrice() != e.getNormalizedPrice()) return false;
+                long timeDiff = Math.abs(tradeStatistic.getDate().getTime() - e.getDate().getTime());
+                boolean isWithinFuzzedAmount = Math.abs(tradeStatistic.getAmount() - e.getAmount()) <= 0.05 * tradeStatistic.getAmount();
+                return timeDiff <= TimeUnit.MINUTES.toMillis(2) || (timeDiff <= TimeUnit.HOURS.toMillis(24) && isWithinFuzzedAmount);
+            });
+            if (isDuplicate) duplicates.add(tradeStatistic);
+            else deduplicates.add(tradeStatistic);
+        }
+        tradeStats.removeAll(duplicates);
+    }
+}
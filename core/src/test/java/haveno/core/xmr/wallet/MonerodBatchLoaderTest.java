@@ -0,0 +1,176 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.core.xmr.wallet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MonerodBatchLoaderTest {
+    private final List<List<String>> fetchedBatches = new ArrayList<>();
+
+    private Function<List<String>, Map<String, Integer>> fetcher(AtomicLong latencyMs) {
+        return keys -> {
+            synchronized (fetchedBatches) {
+                fetchedBatches.add(keys);
+            }
+            try {
+                Thread.sleep(latencyMs.get());
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            Map<String, Integer> values = new HashMap<>();
+            for (String key : keys) {
+                if (!key.startsWith("missing")) values.put(key, key.length());
+            }
+            return values;
+        };
+    }
+
+    @Test
+    public void cachedValuesAreNotFetchedAgain() {
+        MonerodBatchLoader<String, Integer> loader = new MonerodBatchLoader<>("test", fetcher(new AtomicLong()),
+                60000, 20, 100, 1000);
+
+        assertEquals(Map.of("a", 1, "bb", 2), loader.get(List.of("a", "bb", "missing"), true));
+        assertEquals(Map.of("a", 1, "ccc", 3), loader.get(List.of("a", "ccc", "missing"), true));
+        assertEquals(List.of(List.of("a", "bb", "missing"), List.of("ccc", "missing")), fetchedBatches);
+
+        loader.get(List.of("a"), false);
+        loader.clearCache();
+        loader.get(List.of("bb"), true);
+        assertEquals(List.of(List.of("a"), List.of("bb")), fetchedBatches.subList(2, 4));
+    }
+
+    @Test
+    public void callersGetCopiesOfTheValues() {
+        MonerodBatchLoader<String, List<String>> loader = new MonerodBatchLoader<>("test", keys -> {
+            Map<String, List<String>> values = new HashMap<>();
+            keys.forEach(key -> values.put(key, new ArrayList<>(List.of(key))));
+            return values;
+        }, ArrayList::new, 60000, 20, 100, 1000);
+
+        loader.get(List.of("a"), true).get("a").add("changed");
+
+        assertEquals(List.of("a"), loader.get(List.of("a"), true).get("a"));
+    }
+
+    @Test
+    public void concurrentRequestsAreDeduplicated() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        Function<List<String>, Map<String, Integer>> delegate = fetcher(new AtomicLong());
+        MonerodBatchLoader<String, Integer> loader = new MonerodBatchLoader<>("test", keys -> {
+            fetchStarted.countDown();
+            try {
+                releaseFetch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return delegate.apply(keys);
+        }, 60000, 20, 100, 1000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Map<String, Integer>> first = executor.submit(() -> loader.get(List.of("a", "bb"), true));
+            assertTrue(fetchStarted.await(10, TimeUnit.SECONDS));
+            List<Future<Map<String, Integer>>> others = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                others.add(executor.submit(() -> loader.get(List.of("bb", "ccc"), true)));
+            }
+            Thread.sleep(200);
+            releaseFetch.countDown();
+
+            assertEquals(Map.of("a", 1, "bb", 2), first.get(10, TimeUnit.SECONDS));
+            for (Future<Map<String, Integer>> other : others) {
+                assertEquals(Map.of("bb", 2, "ccc", 3), other.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // "bb" is fetched once and "ccc" is fetched once for all waiting callers
+        assertEquals(List.of(List.of("a", "bb"), List.of("ccc")), fetchedBatches);
+    }
+
+    @Test
+    public void batchSizeAdaptsToLatency() {
+        AtomicLong latencyMs = new AtomicLong();
+        MonerodBatchLoader<String, Integer> loader = new MonerodBatchLoader<>("test", fetcher(latencyMs),
+                0, 40, 100, 50);
+
+        loader.get(keys(40), true);
+        assertEquals(50, loader.getBatchSize());
+        loader.get(keys(10), true);
+        assertEquals(50, loader.getBatchSize());
+
+        latencyMs.set(100);
+        loader.get(keys(10), true);
+        assertEquals(25, loader.getBatchSize());
+        loader.get(keys(10), true);
+        assertEquals(20, loader.getBatchSize());
+
+        latencyMs.set(0);
+        fetchedBatches.clear();
+        loader.get(keys(45), true);
+        assertEquals(List.of(20, 25), List.of(fetchedBatches.get(0).size(), fetchedBatches.get(1).size()));
+    }
+
+    @Test
+    public void fetchErrorsArePropagated() {
+        MonerodBatchLoader<String, Integer> loader = new MonerodBatchLoader<>("test", keys -> {
+            throw new IllegalStateException("No connection");
+        }, 60000, 20, 100, 1000);
+
+        assertThrows(IllegalStateException.class, () -> loader.get(List.of("a"), true));
+        assertThrows(IllegalStateException.class, () -> loader.get(List.of("a"), true));
+    }
+
+    @Test
+    public void keysAreFetchedAgainAfterError() {
+        AtomicLong numFetches = new AtomicLong();
+        Function<List<String>, Map<String, Integer>> delegate = fetcher(new AtomicLong());
+        MonerodBatchLoader<String, Integer> loader = new MonerodBatchLoader<>("test", keys -> {
+            if (numFetches.incrementAndGet() == 1) throw new OutOfMemoryError("No memory");
+            return delegate.apply(keys);
+        }, 60000, 20, 100, 1000);
+
+        assertThrows(OutOfMemoryError.class, () -> loader.get(List.of("a"), true));
+        assertEquals(Map.of("a", 1), loader.get(List.of("a"), true));
+    }
+
+    private static List<String> keys(int numKeys) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < numKeys; i++) keys.add("key" + i);
+        return keys;
+    }
+}
@@ -3,10 +3,15 @@ package haveno.daemon.grpc;
 import com.google.inject.Inject;
 import haveno.core.api.CoreApi;
 import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatisticsCandleStore;
 import haveno.daemon.grpc.interceptor.CallRateMeteringInterceptor;
 import haveno.daemon.grpc.interceptor.GrpcCallRateMeter;
 import static haveno.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
+import haveno.proto.grpc.Candle;
+import haveno.proto.grpc.GetCandlesReply;
+import haveno.proto.grpc.GetCandlesRequest;
 import static haveno.proto.grpc.GetTradeStatisticsGrpc.GetTradeStatisticsImplBase;
+import static haveno.proto.grpc.GetTradeStatisticsGrpc.getGetCandlesMethod;
 import static haveno.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsMethod;
 import haveno.proto.grpc.GetTradeStatisticsReply;
 import haveno.proto.grpc.GetTradeStatisticsRequest;
@@ -46,6 +51,37 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
         }
     }
 
+    @Override
+    public void getCandles(GetCandlesRequest req,
+                           StreamObserver<GetCandlesReply> responseObserver) {
+        try {
+            var candles = coreApi.getCandles(req.getCurrencyCode(), req.getTickUnit(), req.getFromDate(), req.getToDate()).stream()
+                    .map(GrpcGetTradeStatisticsService::toCandle)
+                    .collect(Collectors.toList());
+
+            var reply = GetCandlesReply.newBuilder().addAllCandles(candles).build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private static Candle toCandle(TradeStatisticsCandleStore.Candle candle) {
+        return Candle.newBuilder()
+                .setDate(candle.getStartTime())
+                .setOpen(candle.getOpen())
+                .setClose(candle.getClose())
+                .setHigh(candle.getHigh())
+                .setLow(candle.getLow())
+                .setAverage(candle.getAverage())
+                .setMedian(candle.getMedian())
+                .setAmount(candle.getAccumulatedAmount())
+                .setVolume(candle.getAccumulatedVolume())
+                .setNumTrades(candle.getNumTrades())
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -57,6 +93,7 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            put(getGetCandlesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
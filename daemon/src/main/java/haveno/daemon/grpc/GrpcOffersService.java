@@ -20,6 +20,8 @@ package haveno.daemon.grpc;
 import com.google.inject.Inject;
 import haveno.common.config.Config;
 import haveno.core.api.CoreApi;
+import haveno.core.api.OfferBookEventJournal;
+import haveno.core.api.OfferBookSubscriber;
 import haveno.core.api.model.OfferInfo;
 import haveno.core.offer.Offer;
 import haveno.core.offer.OpenOffer;
@@ -43,9 +45,14 @@ import static haveno.proto.grpc.OffersGrpc.getGetMyOffersMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetOfferMethod;
 import static haveno.proto.grpc.OffersGrpc.getGetOffersMethod;
 import static haveno.proto.grpc.OffersGrpc.getPostOfferMethod;
+import static haveno.proto.grpc.OffersGrpc.getWatchOffersMethod;
 import haveno.proto.grpc.PostOfferReply;
 import haveno.proto.grpc.PostOfferRequest;
+import haveno.proto.grpc.WatchOffersReply;
+import haveno.proto.grpc.WatchOffersRequest;
+import io.grpc.Context;
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -194,6 +201,85 @@ class GrpcOffersService extends OffersImplBase {
         }
     }
 
+    @Override
+    public void watchOffers(WatchOffersRequest req,
+                            StreamObserver<WatchOffersReply> responseObserver) {
+        Context ctx = Context.current().fork(); // context is independent for long-lived request
+        ctx.run(() -> {
+            try {
+                var serverCallStreamObserver = (ServerCallStreamObserver<WatchOffersReply>) responseObserver;
+                OfferBookSubscriber subscriber = coreApi.watchOffers(req.getDirection(),
+                        req.getCurrencyCode(),
+                        req.getSessionId(),
+                        req.getSequenceNumber(),
+                        new GrpcOfferBookListener(serverCallStreamObserver, exceptionHandler));
+                serverCallStreamObserver.setOnCancelHandler(subscriber::close);
+                serverCallStreamObserver.setOnReadyHandler(subscriber::onReady);
+                // No onCompleted, as the response observer should be kept open
+            } catch (Throwable cause) {
+                exceptionHandler.handleException(log, cause, responseObserver);
+            }
+        });
+    }
+
+    private static class GrpcOfferBookListener implements OfferBookSubscriber.Listener {
+
+        private final ServerCallStreamObserver<WatchOffersReply> responseObserver;
+        private final GrpcExceptionHandler exceptionHandler;
+
+        GrpcOfferBookListener(ServerCallStreamObserver<WatchOffersReply> responseObserver,
+                              GrpcExceptionHandler exceptionHandler) {
+            this.responseObserver = responseObserver;
+            this.exceptionHandler = exceptionHandler;
+        }
+
+        @Override
+        public void onSnapshot(String sessionId, long sequenceNumber, List<Offer> offers) {
+            var reply = WatchOffersReply.newBuilder()
+                    .setType(WatchOffersReply.Type.SNAPSHOT)
+                    .setSessionId(sessionId)
+                    .setSequenceNumber(sequenceNumber)
+                    .addAllOffers(offers.stream()
+                            .map(offer -> OfferInfo.toOfferInfo(offer).toProtoMessage())
+                            .collect(Collectors.toList()))
+                    .build();
+            send(reply);
+        }
+
+        @Override
+        public void onEvent(String sessionId, OfferBookEventJournal.Event event) {
+            var reply = WatchOffersReply.newBuilder()
+                    .setSessionId(sessionId)
+                    .setSequenceNumber(event.getSequenceNumber());
+            if (event.getType() == OfferBookEventJournal.Type.REMOVED) {
+                reply.setType(WatchOffersReply.Type.REMOVED).setOfferId(event.getOffer().getId());
+            } else {
+                reply.setType(event.getType() == OfferBookEventJournal.Type.ADDED ? WatchOffersReply.Type.ADDED : WatchOffersReply.Type.UPDATED)
+                        .addOffers(event.getOfferInfo().toProtoMessage());
+            }
+            send(reply.build());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (responseObserver) {
+                if (!responseObserver.isCancelled()) exceptionHandler.handleException(log, throwable, responseObserver);
+            }
+        }
+
+        // Changes are queued and coalesced by the subscriber while the client does not keep up
+        @Override
+        public boolean isReady() {
+            return responseObserver.isReady();
+        }
+
+        private void send(WatchOffersReply reply) {
+            synchronized (responseObserver) {
+                if (!responseObserver.isCancelled()) responseObserver.onNext(reply);
+            }
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -210,6 +296,7 @@ class GrpcOffersService extends OffersImplBase {
                             put(getGetMyOffersMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                             put(getPostOfferMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                             put(getCancelOfferMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
+                            put(getWatchOffersMethod().getFullMethodName(), new GrpcCallRateMeter(Config.baseCurrencyNetwork().isTestnet() ? 75 : 3, Config.baseCurrencyNetwork().isTestnet() ? SECONDS : MINUTES));
                         }}
                 )));
     }
@@ -22,71 +22,38 @@ import haveno.common.util.MathUtils;
 import haveno.core.locale.CurrencyUtil;
 import haveno.core.monetary.CryptoMoney;
 import haveno.core.monetary.TraditionalMoney;
-import haveno.core.trade.HavenoUtils;
 import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatisticsCandleStore;
 import haveno.desktop.main.market.trades.charts.CandleData;
 import haveno.desktop.util.DisplayUtils;
 import javafx.scene.chart.XYChart;
-import javafx.util.Pair;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static haveno.desktop.main.market.trades.TradesChartsViewModel.MAX_TICKS;
 
 @Slf4j
 public class ChartCalculations {
-    static final ZoneId ZONE_ID = ZoneId.systemDefault();
+    static final ZoneId ZONE_ID = TradeStatisticsCandleStore.ZONE_ID;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Async
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    static CompletableFuture<Map<TradesChartsViewModel.TickUnit, Map<Long, Long>>> getUsdAveragePriceMapsPerTickUnit(Set<TradeStatistics3> tradeStatisticsSet) {
-        return CompletableFuture.supplyAsync(() -> {
-            Map<TradesChartsViewModel.TickUnit, Map<Long, Long>> usdAveragePriceMapsPerTickUnit = new HashMap<>();
-            Map<TradesChartsViewModel.TickUnit, Map<Long, List<TradeStatistics3>>> dateMapsPerTickUnit = new HashMap<>();
-            for (TradesChartsViewModel.TickUnit tick : TradesChartsViewModel.TickUnit.values()) {
-                dateMapsPerTickUnit.put(tick, new HashMap<>());
-            }
-
-            tradeStatisticsSet.stream()
-                    .filter(e -> e.getCurrency().equals("USD"))
-                    .forEach(tradeStatistics -> {
-                        for (TradesChartsViewModel.TickUnit tick : TradesChartsViewModel.TickUnit.values()) {
-                            long time = roundToTick(tradeStatistics.getLocalDateTime(), tick).getTime();
-                            Map<Long, List<TradeStatistics3>> map = dateMapsPerTickUnit.get(tick);
-                            map.putIfAbsent(time, new ArrayList<>());
-                            map.get(time).add(tradeStatistics);
-                        }
-                    });
-
-            dateMapsPerTickUnit.forEach((tick, map) -> {
-                HashMap<Long, Long> priceMap = new HashMap<>();
-                map.forEach((date, tradeStatisticsList) -> priceMap.put(date, getAverageTraditionalPrice(tradeStatisticsList)));
-                usdAveragePriceMapsPerTickUnit.put(tick, priceMap);
-            });
-            return usdAveragePriceMapsPerTickUnit;
-        });
-    }
-
     static CompletableFuture<List<TradeStatistics3>> getTradeStatisticsForCurrency(Set<TradeStatistics3> tradeStatisticsSet,
                                                                                    String currencyCode,
                                                                                    boolean showAllTradeCurrencies) {
@@ -97,30 +64,32 @@ public class ChartCalculations {
         });
     }
 
-    static CompletableFuture<UpdateChartResult> getUpdateChartResult(List<TradeStatistics3> tradeStatisticsByCurrency,
+    // The candles are maintained by the candle store as trade statistics are added, so only the visible
+    // intervals are read here.
+    static CompletableFuture<UpdateChartResult> getUpdateChartResult(TradeStatisticsCandleStore candleStore,
                                                                      TradesChartsViewModel.TickUnit tickUnit,
-                                                                     Map<TradesChartsViewModel.TickUnit, Map<Long, Long>> usdAveragePriceMapsPerTickUnit,
-                                                                     String currencyCode) {
+                                                                     String currencyCode,
+                                                                     boolean showAllTradeCurrencies) {
         return CompletableFuture.supplyAsync(() -> {
-            // Generate date range and create sets for all ticks
-            Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval = getItemsPerInterval(tradeStatisticsByCurrency, tickUnit);
-
-            Map<Long, Long> usdAveragePriceMap = usdAveragePriceMapsPerTickUnit.get(tickUnit);
-            AtomicLong averageUsdPrice = new AtomicLong(0);
+            Map<Long, Date> tickStartDates = getTickStartDates(tickUnit);
+            TradeStatisticsCandleStore.TickUnit candleTickUnit = toCandleTickUnit(tickUnit);
+            String candleCurrencyCode = showAllTradeCurrencies ? TradeStatisticsCandleStore.ALL_CURRENCIES : currencyCode;
 
             // create CandleData for defined time interval
-            List<CandleData> candleDataList = itemsPerInterval.entrySet().stream()
-                    .filter(entry -> entry.getKey() >= 0 && !entry.getValue().getValue().isEmpty())
-                    .map(entry -> {
-                        long tickStartDate = entry.getValue().getKey().getTime();
-                        // If we don't have a price we take the previous one
-                        if (usdAveragePriceMap.containsKey(tickStartDate)) {
-                            averageUsdPrice.set(usdAveragePriceMap.get(tickStartDate));
-                        }
-                        return getCandleData(entry.getKey(), entry.getValue().getValue(), averageUsdPrice.get(), tickUnit, currencyCode, itemsPerInterval);
-                    })
-                    .sorted(Comparator.comparingLong(o -> o.tick))
-                    .collect(Collectors.toList());
+            List<CandleData> candleDataList = new ArrayList<>();
+            long averageUsdPrice = 0;
+            for (long tick = 1; tick <= MAX_TICKS; tick++) {
+                long tickStartDate = tickStartDates.get(tick).getTime();
+                // If we don't have a price we take the previous one
+                TradeStatisticsCandleStore.Candle usdCandle = candleStore.getCandle("USD", candleTickUnit, tickStartDate);
+                if (usdCandle != null) {
+                    averageUsdPrice = usdCandle.getAverage();
+                }
+                TradeStatisticsCandleStore.Candle candle = candleStore.getCandle(candleCurrencyCode, candleTickUnit, tickStartDate);
+                if (candle != null) {
+                    candleDataList.add(getCandleData(tick, candle, averageUsdPrice, tickUnit, currencyCode, tickStartDates));
+                }
+            }
 
             List<XYChart.Data<Number, Number>> priceItems = candleDataList.stream()
                     .map(e -> new XYChart.Data<Number, Number>(e.tick, e.open, e))
@@ -134,23 +103,23 @@ public class ChartCalculations {
                     .map(candleData -> new XYChart.Data<Number, Number>(candleData.tick, candleData.volumeInUsd, candleData))
                     .collect(Collectors.toList());
 
-            return new UpdateChartResult(itemsPerInterval, priceItems, volumeItems, volumeInUsdItems);
+            return new UpdateChartResult(tickStartDates, priceItems, volumeItems, volumeInUsdItems);
         });
     }
 
     @Getter
     static class UpdateChartResult {
-        private final Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval;
+        private final Map<Long, Date> tickStartDates;
         private final List<XYChart.Data<Number, Number>> priceItems;
         private final List<XYChart.Data<Number, Number>> volumeItems;
         private final List<XYChart.Data<Number, Number>> volumeInUsdItems;
 
-        public UpdateChartResult(Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval,
+        public UpdateChartResult(Map<Long, Date> tickStartDates,
                                  List<XYChart.Data<Number, Number>> priceItems,
                                  List<XYChart.Data<Number, Number>> volumeItems,
                                  List<XYChart.Data<Number, Number>> volumeInUsdItems) {
 
-            this.itemsPerInterval = itemsPerInterval;
+            this.tickStartDates = tickStartDates;
             this.priceItems = priceItems;
             this.volumeItems = volumeItems;
             this.volumeInUsdItems = volumeInUsdItems;
@@ -162,132 +131,60 @@ public class ChartCalculations {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    static Map<Long, Pair<Date, Set<TradeStatistics3>>> getItemsPerInterval(List<TradeStatistics3> tradeStatisticsByCurrency,
-                                                                            TradesChartsViewModel.TickUnit tickUnit) {
-        // Generate date range and create sets for all ticks
-        Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval = new HashMap<>();
+    // Start dates of the ticks, the tick MAX_TICKS + 1 is the current time
+    static Map<Long, Date> getTickStartDates(TradesChartsViewModel.TickUnit tickUnit) {
+        Map<Long, Date> tickStartDates = new HashMap<>();
         Date time = new Date();
         for (long i = MAX_TICKS + 1; i >= 0; --i) {
-            Pair<Date, Set<TradeStatistics3>> pair = new Pair<>((Date) time.clone(), new HashSet<>());
-            itemsPerInterval.put(i, pair);
+            tickStartDates.put(i, (Date) time.clone());
             // We adjust the time for the next iteration
             time.setTime(time.getTime() - 1);
             time = roundToTick(time, tickUnit);
         }
-
-        // Get all entries for the defined time interval
-        tradeStatisticsByCurrency.forEach(tradeStatistics -> {
-            for (long i = MAX_TICKS; i > 0; --i) {
-                Pair<Date, Set<TradeStatistics3>> pair = itemsPerInterval.get(i);
-                if (tradeStatistics.getDate().after(pair.getKey())) {
-                    pair.getValue().add(tradeStatistics);
-                    break;
-                }
-            }
-        });
-        return itemsPerInterval;
+        return tickStartDates;
     }
 
-
     static Date roundToTick(LocalDateTime localDate, TradesChartsViewModel.TickUnit tickUnit) {
-        switch (tickUnit) {
-            case YEAR:
-                return Date.from(localDate.withMonth(1).withDayOfYear(1).withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case MONTH:
-                return Date.from(localDate.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case WEEK:
-                int dayOfWeek = localDate.getDayOfWeek().getValue();
-                LocalDateTime firstDayOfWeek = ChronoUnit.DAYS.addTo(localDate, 1 - dayOfWeek);
-                return Date.from(firstDayOfWeek.withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case DAY:
-                return Date.from(localDate.withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case HOUR:
-                return Date.from(localDate.withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case MINUTE_10:
-                return Date.from(localDate.withMinute(localDate.getMinute() - localDate.getMinute() % 10).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            default:
-                return Date.from(localDate.atZone(ZONE_ID).toInstant());
-        }
+        return TradeStatisticsCandleStore.roundToTick(localDate, toCandleTickUnit(tickUnit));
     }
 
     static Date roundToTick(Date time, TradesChartsViewModel.TickUnit tickUnit) {
-        return roundToTick(time.toInstant().atZone(ChartCalculations.ZONE_ID).toLocalDateTime(), tickUnit);
+        return TradeStatisticsCandleStore.roundToTick(time, toCandleTickUnit(tickUnit));
     }
 
-    private static long getAverageTraditionalPrice(List<TradeStatistics3> tradeStatisticsList) {
-        BigInteger accumulatedAmount = BigInteger.ZERO;
-        BigInteger accumulatedVolume = BigInteger.ZERO;
-        for (TradeStatistics3 tradeStatistics : tradeStatisticsList) {
-            accumulatedAmount = accumulatedAmount.add(BigInteger.valueOf(tradeStatistics.getAmount()));
-            accumulatedVolume = accumulatedVolume.add(BigInteger.valueOf(tradeStatistics.getTradeVolume().getValue()));
-        }
-
-        BigInteger accumulatedVolumeAsBI = MathUtils.scaleUpByPowerOf10(accumulatedVolume, TraditionalMoney.SMALLEST_UNIT_EXPONENT + 4);
-        return MathUtils.roundDoubleToLong(HavenoUtils.divide(accumulatedVolumeAsBI, accumulatedAmount));
+    static TradeStatisticsCandleStore.TickUnit toCandleTickUnit(TradesChartsViewModel.TickUnit tickUnit) {
+        return TradeStatisticsCandleStore.TickUnit.valueOf(tickUnit.name());
     }
 
     @VisibleForTesting
-    static CandleData getCandleData(long tick, Set<TradeStatistics3> set,
+    static CandleData getCandleData(long tick,
+                                    TradeStatisticsCandleStore.Candle candle,
                                     long averageUsdPrice,
                                     TradesChartsViewModel.TickUnit tickUnit,
                                     String currencyCode,
-                                    Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval) {
-        long open = 0;
-        long close = 0;
-        long high = 0;
-        long low = 0;
-        BigInteger accumulatedVolume = BigInteger.ZERO;
-        BigInteger accumulatedAmount = BigInteger.ZERO;
-        long numTrades = set.size();
-        List<Long> tradePrices = new ArrayList<>();
-        for (TradeStatistics3 item : set) {
-            long tradePriceAsLong = item.getTradePrice().getValue();
-            // Previously a check was done which inverted the low and high for cryptocurrencies.
-            low = (low != 0) ? Math.min(low, tradePriceAsLong) : tradePriceAsLong;
-            high = (high != 0) ? Math.max(high, tradePriceAsLong) : tradePriceAsLong;
-
-            accumulatedVolume = accumulatedVolume.add(BigInteger.valueOf(item.getTradeVolume().getValue()));
-            accumulatedAmount = accumulatedAmount.add(item.getTradeAmount());
-            tradePrices.add(tradePriceAsLong);
-        }
-        Collections.sort(tradePrices);
-
-        List<TradeStatistics3> list = new ArrayList<>(set);
-        list.sort(Comparator.comparingLong(TradeStatistics3::getDateAsLong));
-        if (list.size() > 0) {
-            open = list.get(0).getTradePrice().getValue();
-            close = list.get(list.size() - 1).getTradePrice().getValue();
-        }
-
-        long averagePrice;
-        Long[] prices = new Long[tradePrices.size()];
-        tradePrices.toArray(prices);
-        long medianPrice = MathUtils.getMedian(prices);
-        boolean isBullish = close > open;
-        int smallestUnitExponent = CurrencyUtil.isCryptoCurrency(currencyCode) ? CryptoMoney.SMALLEST_UNIT_EXPONENT : TraditionalMoney.SMALLEST_UNIT_EXPONENT;
-        BigInteger accumulatedVolumeAsBI = MathUtils.scaleUpByPowerOf10(accumulatedVolume, smallestUnitExponent + 4);
-        averagePrice = MathUtils.roundDoubleToLong(HavenoUtils.divide(accumulatedVolumeAsBI, accumulatedAmount));
-
-        Date dateFrom = new Date(getTimeFromTickIndex(tick, itemsPerInterval));
-        Date dateTo = new Date(getTimeFromTickIndex(tick + 1, itemsPerInterval));
+                                    @Nullable Map<Long, Date> tickStartDates) {
+        Date dateFrom = new Date(getTimeFromTickIndex(tick, tickStartDates));
+        Date dateTo = new Date(getTimeFromTickIndex(tick + 1, tickStartDates));
         String dateString = tickUnit.ordinal() > TradesChartsViewModel.TickUnit.DAY.ordinal() ?
                 DisplayUtils.formatDateTimeSpan(dateFrom, dateTo) :
                 DisplayUtils.formatDate(dateFrom) + " - " + DisplayUtils.formatDate(dateTo);
 
         // We do not need precision, so we scale down before multiplication otherwise we could get an overflow.
+        int smallestUnitExponent = CurrencyUtil.isCryptoCurrency(currencyCode) ? CryptoMoney.SMALLEST_UNIT_EXPONENT : TraditionalMoney.SMALLEST_UNIT_EXPONENT;
         averageUsdPrice = (long) MathUtils.scaleDownByPowerOf10((double) averageUsdPrice, smallestUnitExponent);
-        long volumeInUsd = averageUsdPrice * MathUtils.scaleDownByPowerOf10(accumulatedAmount, 4).longValue();
+        long volumeInUsd = averageUsdPrice * MathUtils.scaleDownByPowerOf10(BigInteger.valueOf(candle.getAccumulatedAmount()), 4).longValue();
         // We store USD value without decimals as its only total volume, no precision is needed.
         volumeInUsd = (long) MathUtils.scaleDownByPowerOf10((double) volumeInUsd, smallestUnitExponent);
-        return new CandleData(tick, open, close, high, low, averagePrice, medianPrice, accumulatedAmount.longValueExact(), accumulatedVolume.longValueExact(),
-                numTrades, isBullish, dateString, volumeInUsd);
+        return new CandleData(tick, candle.getOpen(), candle.getClose(), candle.getHigh(), candle.getLow(), candle.getAverage(), candle.getMedian(),
+                candle.getAccumulatedAmount(), candle.getAccumulatedVolume(), candle.getNumTrades(), candle.isBullish(), dateString, volumeInUsd);
     }
 
-    static long getTimeFromTickIndex(long tick, Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval) {
+    static long getTimeFromTickIndex(long tick, @Nullable Map<Long, Date> tickStartDates) {
         if (tick > MAX_TICKS + 1 ||
-                itemsPerInterval.get(tick) == null) {
+                tickStartDates == null ||
+                tickStartDates.get(tick) == null) {
             return 0;
         }
-        return itemsPerInterval.get(tick).getKey().getTime();
+        return tickStartDates.get(tick).getTime();
     }
 }
@@ -19,7 +19,6 @@ package haveno.desktop.main.market.trades;
 
 import com.google.inject.Inject;
 import haveno.common.UserThread;
-import haveno.common.util.CompletableFutureUtils;
 import haveno.core.locale.CryptoCurrency;
 import haveno.core.locale.CurrencyUtil;
 import haveno.core.locale.GlobalSettings;
@@ -44,16 +43,13 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.SetChangeListener;
 import javafx.scene.chart.XYChart;
-import javafx.util.Pair;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -88,11 +84,10 @@ class TradesChartsViewModel extends ActivatableViewModel {
     final ObservableList<XYChart.Data<Number, Number>> priceItems = FXCollections.observableArrayList();
     final ObservableList<XYChart.Data<Number, Number>> volumeItems = FXCollections.observableArrayList();
     final ObservableList<XYChart.Data<Number, Number>> volumeInUsdItems = FXCollections.observableArrayList();
-    private final Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval = new HashMap<>();
+    private final Map<Long, Date> tickStartDates = new HashMap<>();
 
     TickUnit tickUnit;
     private int selectedTabIndex;
-    final Map<TickUnit, Map<Long, Long>> usdAveragePriceMapsPerTickUnit = new HashMap<>();
     private boolean fillTradeCurrenciesOnActivateCalled;
     private volatile boolean deactivateCalled;
 
@@ -110,17 +105,8 @@ class TradesChartsViewModel extends ActivatableViewModel {
         this.navigation = navigation;
 
         setChangeListener = change -> {
-            applyAsyncTradeStatisticsForCurrency(getCurrencyCode())
-                    .whenComplete((result, throwable) -> {
-                        if (deactivateCalled) {
-                            return;
-                        }
-                        if (throwable != null) {
-                            log.error("Error at setChangeListener/applyAsyncTradeStatisticsForCurrency. {}", throwable.toString());
-                            return;
-                        }
-                        applyAsyncChartData();
-                    });
+            applyAsyncTradeStatisticsForCurrency(getCurrencyCode());
+            applyAsyncChartData();
             fillTradeCurrencies();
         };
 
@@ -149,29 +135,9 @@ class TradesChartsViewModel extends ActivatableViewModel {
         syncPriceFeedCurrency();
         setMarketPriceFeedCurrency();
 
-        List<CompletableFuture<Boolean>> allFutures = new ArrayList<>();
-        CompletableFuture<Boolean> task1Done = new CompletableFuture<>();
-        allFutures.add(task1Done);
-        CompletableFuture<Boolean> task2Done = new CompletableFuture<>();
-        allFutures.add(task2Done);
-        CompletableFutureUtils.allOf(allFutures)
-                .whenComplete((res, throwable) -> {
-                    if (deactivateCalled) {
-                        return;
-                    }
-                    if (throwable != null) {
-                        log.error(throwable.toString());
-                        return;
-                    }
-                    //Once applyAsyncUsdAveragePriceMapsPerTickUnit and applyAsyncTradeStatisticsForCurrency are
-                    // both completed we call applyAsyncChartData
-                    UserThread.execute(this::applyAsyncChartData);
-                });
-
-        // We call applyAsyncUsdAveragePriceMapsPerTickUnit and applyAsyncTradeStatisticsForCurrency
-        // in parallel for better performance
-        applyAsyncUsdAveragePriceMapsPerTickUnit(task1Done);
-        applyAsyncTradeStatisticsForCurrency(getCurrencyCode(), task2Done);
+        // The chart data is read from the candle store, so it does not wait for the trade statistics of the currency
+        applyAsyncTradeStatisticsForCurrency(getCurrencyCode());
+        applyAsyncChartData();
 
         log.debug("activate took {}", System.currentTimeMillis() - ts);
     }
@@ -184,12 +150,11 @@ class TradesChartsViewModel extends ActivatableViewModel {
         // We want to avoid to trigger listeners in the view so we delay a bit. Deactivate on model is called before
         // deactivate on view.
         UserThread.execute(() -> {
-            usdAveragePriceMapsPerTickUnit.clear();
             tradeStatisticsByCurrency.clear();
             priceItems.clear();
             volumeItems.clear();
             volumeInUsdItems.clear();
-            itemsPerInterval.clear();
+            tickStartDates.clear();
         });
     }
 
@@ -198,27 +163,6 @@ class TradesChartsViewModel extends ActivatableViewModel {
     // Async calls
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private void applyAsyncUsdAveragePriceMapsPerTickUnit(CompletableFuture<Boolean> completeFuture) {
-        long ts = System.currentTimeMillis();
-        ChartCalculations.getUsdAveragePriceMapsPerTickUnit(tradeStatisticsManager.getObservableTradeStatisticsSet())
-                .whenComplete((usdAveragePriceMapsPerTickUnit, throwable) -> {
-                    if (deactivateCalled) {
-                        return;
-                    }
-                    if (throwable != null) {
-                        log.error("Error at applyAsyncUsdAveragePriceMapsPerTickUnit. {}", throwable.toString());
-                        completeFuture.completeExceptionally(throwable);
-                        return;
-                    }
-                    UserThread.execute(() -> {
-                        this.usdAveragePriceMapsPerTickUnit.clear();
-                        this.usdAveragePriceMapsPerTickUnit.putAll(usdAveragePriceMapsPerTickUnit);
-                        log.debug("applyAsyncUsdAveragePriceMapsPerTickUnit took {}", System.currentTimeMillis() - ts);
-                        completeFuture.complete(true);
-                    });
-                });
-    }
-
     private CompletableFuture<Boolean> applyAsyncTradeStatisticsForCurrency(String currencyCode) {
         return applyAsyncTradeStatisticsForCurrency(currencyCode, null);
     }
@@ -256,10 +200,10 @@ class TradesChartsViewModel extends ActivatableViewModel {
 
     private void applyAsyncChartData() {
         long ts = System.currentTimeMillis();
-        ChartCalculations.getUpdateChartResult(new ArrayList<>(tradeStatisticsByCurrency),
+        ChartCalculations.getUpdateChartResult(tradeStatisticsManager.getCandleStore(),
                 tickUnit,
-                usdAveragePriceMapsPerTickUnit,
-                getCurrencyCode())
+                getCurrencyCode(),
+                showAllTradeCurrenciesProperty.get())
                 .whenComplete((updateChartResult, throwable) -> {
                     if (deactivateCalled) {
                         return;
@@ -269,8 +213,8 @@ class TradesChartsViewModel extends ActivatableViewModel {
                         return;
                     }
                     UserThread.execute(() -> {
-                        itemsPerInterval.clear();
-                        itemsPerInterval.putAll(updateChartResult.getItemsPerInterval());
+                        tickStartDates.clear();
+                        tickStartDates.putAll(updateChartResult.getTickStartDates());
 
                         priceItems.setAll(updateChartResult.getPriceItems());
                         volumeItems.setAll(updateChartResult.getVolumeItems());
@@ -305,17 +249,8 @@ class TradesChartsViewModel extends ActivatableViewModel {
             }
             preferences.setTradeChartsScreenCurrencyCode(code);
 
-            applyAsyncTradeStatisticsForCurrency(getCurrencyCode())
-                    .whenComplete((result, throwable) -> {
-                        if (deactivateCalled) {
-                            return;
-                        }
-                        if (throwable != null) {
-                            log.error("Error at onSetTradeCurrency/applyAsyncTradeStatisticsForCurrency. {}", throwable.toString());
-                            return;
-                        }
-                        applyAsyncChartData();
-                    });
+            applyAsyncTradeStatisticsForCurrency(getCurrencyCode());
+            applyAsyncChartData();
         }
     }
 
@@ -349,7 +284,7 @@ class TradesChartsViewModel extends ActivatableViewModel {
     }
 
     long getTimeFromTickIndex(long tick) {
-        return ChartCalculations.getTimeFromTickIndex(tick, itemsPerInterval);
+        return ChartCalculations.getTimeFromTickIndex(tick, tickStartDates);
     }
 
 
@@ -25,13 +25,13 @@ import haveno.core.payment.payload.PaymentMethod;
 import haveno.core.provider.price.PriceFeedService;
 import haveno.core.trade.HavenoUtils;
 import haveno.core.trade.statistics.TradeStatistics3;
+import haveno.core.trade.statistics.TradeStatisticsCandleStore;
 import haveno.core.trade.statistics.TradeStatisticsManager;
 import haveno.core.user.Preferences;
 import haveno.desktop.Navigation;
 import haveno.desktop.main.market.trades.charts.CandleData;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
-import javafx.util.Pair;
 import org.bitcoinj.core.Coin;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -45,7 +45,6 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -161,13 +160,14 @@ public class TradesChartsViewModelTest {
                 null,
                 null));
 
-        Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval = null;
+        TradeStatisticsCandleStore candleStore = new TradeStatisticsCandleStore();
+        candleStore.addAll(set);
         long tick = ChartCalculations.roundToTick(now, TradesChartsViewModel.TickUnit.DAY).getTime();
         CandleData candleData = ChartCalculations.getCandleData(tick,
-                set,
+                candleStore.getCandle(offer.getCurrencyCode(), TradeStatisticsCandleStore.TickUnit.DAY, tick),
                 0,
                 TradesChartsViewModel.TickUnit.DAY, currencyCode,
-                itemsPerInterval);
+                null);
         assertEquals(open, candleData.open);
         assertEquals(close, candleData.close);
         assertEquals(high, candleData.high);
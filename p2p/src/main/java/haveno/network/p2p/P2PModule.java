@@ -40,6 +40,8 @@ import static haveno.common.config.Config.TOR_CONTROL_USE_SAFE_COOKIE_AUTH;
 import static haveno.common.config.Config.TOR_DIR;
 import static haveno.common.config.Config.TOR_STREAM_ISOLATION;
 import static haveno.common.config.Config.USE_LOCALHOST_FOR_P2P;
+import static haveno.common.config.Config.USE_MAPPED_HISTORICAL_STORES;
+import static haveno.common.config.Config.USE_PERSISTENCE_JOURNAL;
 import haveno.network.Socks5ProxyProvider;
 import haveno.network.http.HttpClient;
 import haveno.network.http.HttpClientImpl;
@@ -105,5 +107,7 @@ public class P2PModule extends AppModule {
         bindConstant().annotatedWith(named(TOR_STREAM_ISOLATION)).to(config.torStreamIsolation);
         bindConstant().annotatedWith(named("MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE")).to(1000);
         bind(Boolean.class).annotatedWith(named(REPUBLISH_MAILBOX_ENTRIES)).toInstance(config.republishMailboxEntries);
+        bindConstant().annotatedWith(named(USE_MAPPED_HISTORICAL_STORES)).to(config.useMappedHistoricalStores);
+        bindConstant().annotatedWith(named(USE_PERSISTENCE_JOURNAL)).to(config.usePersistenceJournal);
     }
 }
@@ -196,6 +196,10 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         log.info("P2PService doShutDown started");
         isShutDownStarted = true;
 
+        if (mailboxMessageService != null) {
+            mailboxMessageService.shutDown();
+        }
+
         if (p2PDataStorage != null) {
             p2PDataStorage.shutDown();
         }
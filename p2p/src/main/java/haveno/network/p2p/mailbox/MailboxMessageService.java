@@ -39,6 +39,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import com.google.inject.Inject;
@@ -54,6 +56,7 @@ import haveno.common.persistence.PersistenceManager;
 import haveno.common.proto.ProtobufferException;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.proto.persistable.PersistedDataHost;
+import haveno.common.util.SingleThreadExecutorUtils;
 import haveno.common.util.Tuple2;
 import haveno.common.util.Utilities;
 import haveno.network.crypto.EncryptionService;
@@ -87,9 +90,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -120,6 +124,7 @@ import org.jetbrains.annotations.NotNull;
 public class MailboxMessageService implements HashMapChangedListener, PersistedDataHost {
     private static final long REPUBLISH_DELAY_SEC = TimeUnit.MINUTES.toSeconds(2);
     private static final long MAX_SERIALIZED_SIZE = 50000;
+    private static final int NUM_DECRYPTION_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
@@ -134,6 +139,10 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     private final Set<DecryptedMailboxListener> decryptedMailboxListeners = new CopyOnWriteArraySet<>();
     private final MailboxMessageList mailboxMessageList = new MailboxMessageList();
     private final Map<String, MailboxItem> mailboxItemsByUid = new HashMap<>();
+    // Batches are processed in order on a single thread, the decryption of the entries addressed to us on a bounded pool
+    private final ExecutorService batchProcessingExecutor = SingleThreadExecutorUtils.getSingleThreadExecutor("MailboxBatchProcessing");
+    private final ListeningExecutorService decryptionExecutor = Utilities.getListeningExecutorService("MailboxDecryption",
+            NUM_DECRYPTION_THREADS, NUM_DECRYPTION_THREADS, 60, new LinkedBlockingQueue<>());
 
     private boolean isBootstrapped;
     private boolean allServicesInitialized;
@@ -268,6 +277,12 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         init();
     }
 
+    public void shutDown() {
+        p2PDataStorage.removeHashMapChangedListener(this);
+        batchProcessingExecutor.shutdownNow();
+        decryptionExecutor.shutdownNow();
+    }
+
     private void init() {
         if (allServicesInitialized && initAfterBootstrapped) {
             // Only now we start listening and processing. The p2PDataStorage is our cache for data we have received
@@ -439,42 +454,43 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     }
 
     // We run the batch processing of all mailbox messages we have received at startup in a thread to not block the UI.
-    // For about 1000 messages decryption takes about 1 sec.
+    // Only the entries addressed to us need to be decrypted.
     private void threadedBatchProcessMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        long ts = System.currentTimeMillis();
-        SettableFuture<Set<MailboxItem>> future = SettableFuture.create();
-
-        new Thread(() -> {
+        if (batchProcessingExecutor.isShutdown()) {
+            return;
+        }
+        batchProcessingExecutor.execute(() -> {
             try {
+                long ts = System.currentTimeMillis();
                 var mailboxItems = getMailboxItems(protectedMailboxStorageEntries);
 
                 if (!protectedMailboxStorageEntries.isEmpty())
                     log.info("Batch processing of {} mailbox entries took {} ms",
                             protectedMailboxStorageEntries.size(),
                             System.currentTimeMillis() - ts);
-                future.set(mailboxItems);
 
+                handleMailboxItems(mailboxItems);
             } catch (Throwable throwable) {
-                future.setException(throwable);
-            }
-        }, "processMailboxEntry-" + new Random().nextInt(1000)).start();
-
-        Futures.addCallback(future, new FutureCallback<>() {
-            public void onSuccess(Set<MailboxItem> decryptedMailboxMessageWithEntries) {
-                new Thread(() -> handleMailboxItems(decryptedMailboxMessageWithEntries)).start();
-            }
-
-            public void onFailure(@NotNull Throwable throwable) {
                 log.error(throwable.toString());
             }
-        }, MoreExecutors.directExecutor());
+        });
     }
 
-    private Set<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
+    private Set<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries)
+            throws Exception {
         Set<MailboxItem> mailboxItems = new HashSet<>();
-        protectedMailboxStorageEntries.stream()
-                .map(this::tryDecryptProtectedMailboxStorageEntry)
-                .forEach(mailboxItems::add);
+        byte[] mySignaturePubKeyBytes = keyRing.getPubKeyRing().getSignaturePubKeyBytes();
+        List<ListenableFuture<MailboxItem>> decryptedItems = new ArrayList<>();
+        for (ProtectedMailboxStorageEntry protectedMailboxStorageEntry : protectedMailboxStorageEntries) {
+            // The receiver's pub key is part of the payload, so we skip the messages for other nodes without any
+            // asymmetric crypto.
+            if (protectedMailboxStorageEntry.getMailboxStoragePayload().isReceiver(mySignaturePubKeyBytes)) {
+                decryptedItems.add(decryptionExecutor.submit(() -> tryDecryptProtectedMailboxStorageEntry(protectedMailboxStorageEntry)));
+            } else {
+                mailboxItems.add(new MailboxItem(protectedMailboxStorageEntry, null));
+            }
+        }
+        mailboxItems.addAll(Futures.allAsList(decryptedItems).get());
         return mailboxItems;
     }
 
@@ -40,8 +40,8 @@ import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
 import com.google.protobuf.InvalidProtocolBufferException;
 import haveno.common.Proto;
-import haveno.common.ThreadUtils;
 import haveno.common.app.Capabilities;
+import haveno.common.app.Capability;
 import haveno.common.app.HasCapabilities;
 import haveno.common.app.Version;
 import haveno.common.config.Config;
@@ -116,7 +116,6 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     //TODO decrease limits again after testing
     private static final int SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(240);
     private static final int SHUTDOWN_TIMEOUT = 100;
-    private static final String THREAD_ID = Connection.class.getSimpleName();
     public static final int POSSIBLE_DOS_THRESHOLD = 5;
 
     public static int getPermittedMessageSize() {
@@ -142,6 +141,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     @Getter
     private final String uid;
     private final ExecutorService executorService;
+    // Listeners and handlers of this connection are called in order on its own lane
+    private final ConnectionDispatchLane dispatchLane;
     @Getter
     private final Statistic statistic;
     @Getter
@@ -198,6 +199,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
         this.uid = UUID.randomUUID().toString();
         this.executorService = SingleThreadExecutorUtils.getSingleThreadExecutor("Executor service for connection with uid " + uid);
+        this.dispatchLane = new ConnectionDispatchLane(uid);
 
         statistic = new Statistic();
 
@@ -205,7 +207,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
         this.networkProtoResolver = networkProtoResolver;
         connectionState = new ConnectionState(this);
-        connectionStatistics = new ConnectionStatistics(this, connectionState);
+        connectionStatistics = new ConnectionStatistics(this, connectionState, dispatchLane);
         init(peersNodeAddress);
     }
 
@@ -228,7 +230,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                     reportInvalidRequest(RuleViolation.PEER_BANNED, "We created an outbound connection with a banned peer");
                 }
             }
-            ThreadUtils.execute(() -> connectionListener.onConnection(this), THREAD_ID);
+            dispatchLane.execute(() -> connectionListener.onConnection(this));
         } catch (Throwable e) {
             handleException(e);
         }
@@ -244,6 +246,17 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     }
 
     void sendMessage(NetworkEnvelope networkEnvelope) {
+        sendMessage(networkEnvelope, null);
+    }
+
+    /**
+     * Sends the envelope with its serialized bytes, which can be shared with other connections.
+     */
+    void sendMessage(EncodedEnvelope encodedEnvelope) {
+        sendMessage(encodedEnvelope.getEnvelope(), encodedEnvelope);
+    }
+
+    private void sendMessage(NetworkEnvelope networkEnvelope, @Nullable EncodedEnvelope encodedEnvelope) {
         long ts = System.currentTimeMillis();
         log.debug(">> Send networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
 
@@ -264,7 +277,11 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.debug("Capability for networkEnvelope is required but not supported");
             return;
         }
-        int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
+        // The capability check can remove envelopes from a bundle, we need to serialize it again then
+        if (encodedEnvelope == null || encodedEnvelope.isStale()) {
+            encodedEnvelope = EncodedEnvelope.of(networkEnvelope);
+        }
+        int networkEnvelopeSize = encodedEnvelope.getSize();
         try {
             // Throttle outbound network_messages
             long now = System.currentTimeMillis();
@@ -281,9 +298,11 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             lastSendTimeStamp = now;
 
             if (!stopped) {
-                protoOutputStream.writeEnvelope(networkEnvelope);
-                ThreadUtils.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)), THREAD_ID);
-                ThreadUtils.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize), THREAD_ID);
+                int wireSize = protoOutputStream.writeEnvelope(encodedEnvelope,
+                        capabilities.contains(Capability.COMPRESSED_ENVELOPE));
+                dispatchLane.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)));
+                dispatchLane.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts,
+                        networkEnvelopeSize, wireSize));
             }
         } catch (Throwable t) {
             handleException(t);
@@ -412,7 +431,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         if (networkEnvelope instanceof BundleOfEnvelopes) {
             onBundleOfEnvelopes((BundleOfEnvelopes) networkEnvelope, connection);
         } else {
-            ThreadUtils.execute(() -> messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection)), THREAD_ID);
+            dispatchLane.execute(() -> messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection)));
         }
     }
 
@@ -448,9 +467,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                 envelopesToProcess.add(networkEnvelope);
             }
         }
-        envelopesToProcess.forEach(envelope -> ThreadUtils.execute(() -> {
+        envelopesToProcess.forEach(envelope -> dispatchLane.execute(() -> {
                 messageListeners.forEach(listener -> listener.onMessage(envelope, connection));
-        }, THREAD_ID));
+        }));
     }
 
 
@@ -519,7 +538,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         log.error(ExceptionUtils.getStackTrace(t));
                     } finally {
                         stopped = true;
-                        ThreadUtils.execute(() -> doShutDown(closeConnectionReason, shutDownCompleteHandler), THREAD_ID);
+                        dispatchLane.execute(() -> doShutDown(closeConnectionReason, shutDownCompleteHandler));
                     }
                 }, "Connection:SendCloseConnectionMessage-" + this.uid).start();
             } else {
@@ -529,12 +548,12 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         } else {
             //TODO find out why we get called that
             log.debug("stopped was already at shutDown call");
-            ThreadUtils.execute(() -> doShutDown(closeConnectionReason, shutDownCompleteHandler), THREAD_ID);
+            dispatchLane.execute(() -> doShutDown(closeConnectionReason, shutDownCompleteHandler));
         }
     }
 
     private void doShutDown(CloseConnectionReason closeConnectionReason, @Nullable Runnable shutDownCompleteHandler) {
-        ThreadUtils.execute(() -> connectionListener.onDisconnect(closeConnectionReason, this), THREAD_ID);
+        dispatchLane.execute(() -> connectionListener.onDisconnect(closeConnectionReason, this));
         try {
             protoOutputStream.onConnectionShutdown();
             socket.close();
@@ -555,7 +574,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
             log.debug("Connection shutdown complete {}", this);
             if (shutDownCompleteHandler != null)
-                ThreadUtils.execute(shutDownCompleteHandler, THREAD_ID);
+                dispatchLane.execute(shutDownCompleteHandler);
         }
     }
 
@@ -783,6 +802,13 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         return;
                     }
 
+                    // Peers supporting COMPRESSED_ENVELOPE can send us compressed envelopes. We do not inflate
+                    // envelopes of banned peers. All other checks are done on the uncompressed envelope.
+                    int wireSize = proto.getSerializedSize();
+                    if (proto.hasCompressedEnvelope()) {
+                        proto = EnvelopeCompression.decompress(proto.getCompressedEnvelope());
+                    }
+
                     // Throttle inbound network messages
                     long now = System.currentTimeMillis();
                     long elapsed = now - lastReadTimeStamp;
@@ -799,7 +825,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                     int size = proto.getSerializedSize();
 
                     // We want to track the size of each object even if it is invalid data
-                    statistic.addReceivedBytes(size);
+                    statistic.addReceivedBytes(wireSize);
 
                     // We want to track the network_messages also before the checks, so do it early...
                     statistic.addReceivedMessage(networkEnvelope);
@@ -874,7 +900,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         }
 
                         onMessage(networkEnvelope, this);
-                        ThreadUtils.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size), THREAD_ID);
+                        dispatchLane.execute(() -> connectionStatistics.addReceivedMsgMetrics(System.currentTimeMillis() - ts, size, wireSize));
                     }
                 } catch (InvalidClassException e) {
                     reportInvalidRequest(RuleViolation.INVALID_CLASS, e.getMessage());
@@ -920,7 +946,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         capabilitiesListeners.forEach(weakListener -> {
             SupportedCapabilitiesListener supportedCapabilitiesListener = weakListener.get();
             if (supportedCapabilitiesListener != null) {
-                ThreadUtils.execute(() -> supportedCapabilitiesListener.onChanged(supportedCapabilities), THREAD_ID);
+                dispatchLane.execute(() -> supportedCapabilitiesListener.onChanged(supportedCapabilities));
             }
         });
         return false;
@@ -0,0 +1,127 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes the tasks of one connection in submission order. Lanes of different connections run in parallel on
+ * virtual threads, so a slow listener only delays the messages of its own peer.
+ * Listeners which are shared by all connections get called from several lanes at once and have to be thread safe.
+ * A lane does not own a thread. A virtual thread is started when tasks get queued on an idle lane and it terminates
+ * once the queue is drained.
+ */
+@Slf4j
+class ConnectionDispatchLane {
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("Connection-", 0).factory());
+
+    private final String uid;
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    // Metrics
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong numExecutedTasks = new AtomicLong();
+    private final AtomicLong totalQueueLatencyNanos = new AtomicLong();
+    private final AtomicLong maxQueueLatencyNanos = new AtomicLong();
+
+    private record Task(Runnable command, long enqueuedAtNanos) {
+    }
+
+    ConnectionDispatchLane(String uid) {
+        this.uid = uid;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void execute(Runnable command) {
+        queue.add(new Task(command, System.nanoTime()));
+        int depth = queueDepth.incrementAndGet();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        scheduleDrain();
+    }
+
+    int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    long getNumExecutedTasks() {
+        return numExecutedTasks.get();
+    }
+
+    long getAverageQueueLatencyMillis() {
+        long numExecuted = numExecutedTasks.get();
+        return numExecuted == 0 ? 0 : totalQueueLatencyNanos.get() / numExecuted / 1_000_000;
+    }
+
+    long getMaxQueueLatencyMillis() {
+        return maxQueueLatencyNanos.get() / 1_000_000;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            EXECUTOR.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Task task;
+            while ((task = queue.poll()) != null) {
+                queueDepth.decrementAndGet();
+                long latency = System.nanoTime() - task.enqueuedAtNanos();
+                totalQueueLatencyNanos.addAndGet(latency);
+                maxQueueLatencyNanos.accumulateAndGet(latency, Math::max);
+                numExecutedTasks.incrementAndGet();
+                try {
+                    task.command().run();
+                } catch (Throwable t) {
+                    log.error("Task of connection {} failed", uid, t);
+                }
+            }
+        } finally {
+            draining.set(false);
+            // A task might have been added after our last poll but before we reset the flag.
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
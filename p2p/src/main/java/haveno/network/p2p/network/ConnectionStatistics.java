@@ -34,6 +34,7 @@ import java.util.stream.Collectors;
 public class ConnectionStatistics implements MessageListener {
     private final Connection connection;
     private final ConnectionState connectionState;
+    private final ConnectionDispatchLane dispatchLane;
     private final Map<String, Integer> sentDataMap = new HashMap<>();
     private final Map<String, Integer> receivedDataMap = new HashMap<>();
     private final Map<String, Long> rrtMap = new HashMap<>();
@@ -45,14 +46,23 @@ public class ConnectionStatistics implements MessageListener {
     private long timeOnSendMsg = 0;
     @Getter
     private long timeOnReceivedMsg = 0;
+    // Size of the envelopes
     @Getter
     private int sentBytes = 0;
     @Getter
     private int receivedBytes = 0;
+    // Bytes on the wire, which are less than the size of the envelopes if they got compressed
+    @Getter
+    private int sentWireBytes = 0;
+    @Getter
+    private int receivedWireBytes = 0;
 
-    public ConnectionStatistics(Connection connection, ConnectionState connectionState) {
+    public ConnectionStatistics(Connection connection,
+                                ConnectionState connectionState,
+                                ConnectionDispatchLane dispatchLane) {
         this.connection = connection;
         this.connectionState = connectionState;
+        this.dispatchLane = dispatchLane;
 
         connection.addMessageListener(this);
 
@@ -102,10 +112,11 @@ public class ConnectionStatistics implements MessageListener {
                         "UID: %s" + ls +
                         "Time since last message: %s" + ls +
                         "%s" +
-                        "Sent data: %s; %s" + ls +
-                        "Received data: %s; %s" + ls +
+                        "Sent data: %s (on wire: %s); %s" + ls +
+                        "Received data: %s (on wire: %s); %s" + ls +
                         "CPU time spent on sending messages: %s" + ls +
-                        "CPU time spent on receiving messages: %s",
+                        "CPU time spent on receiving messages: %s" + ls +
+                        "Dispatch queue: %d pending, %d max, %d executed; queue latency avg %d ms, max %d ms",
                 age,
                 seedNode ? "[Seed node] " : "", peer,
                 connectionState.getPeerType().name(),
@@ -113,10 +124,37 @@ public class ConnectionStatistics implements MessageListener {
                 connection.getUid(),
                 lastMsg,
                 rrt,
-                Utilities.readableFileSize(sentBytes), sentDataMap.toString(),
-                Utilities.readableFileSize(receivedBytes), receivedDataMap.toString(),
+                Utilities.readableFileSize(sentBytes), Utilities.readableFileSize(sentWireBytes), sentDataMap.toString(),
+                Utilities.readableFileSize(receivedBytes), Utilities.readableFileSize(receivedWireBytes), receivedDataMap.toString(),
                 Utilities.formatDurationAsWords(timeOnSendMsg),
-                Utilities.formatDurationAsWords(timeOnReceivedMsg));
+                Utilities.formatDurationAsWords(timeOnReceivedMsg),
+                getDispatchQueueDepth(),
+                getMaxDispatchQueueDepth(),
+                getNumDispatchedTasks(),
+                getAverageDispatchLatencyMillis(),
+                getMaxDispatchLatencyMillis());
+    }
+
+    // Number of tasks waiting on the dispatch lane of the connection
+    public int getDispatchQueueDepth() {
+        return dispatchLane.getQueueDepth();
+    }
+
+    public int getMaxDispatchQueueDepth() {
+        return dispatchLane.getMaxQueueDepth();
+    }
+
+    public long getNumDispatchedTasks() {
+        return dispatchLane.getNumExecutedTasks();
+    }
+
+    // Time tasks spent in the queue before they got executed
+    public long getAverageDispatchLatencyMillis() {
+        return dispatchLane.getAverageQueueLatencyMillis();
+    }
+
+    public long getMaxDispatchLatencyMillis() {
+        return dispatchLane.getMaxQueueLatencyMillis();
     }
 
     @Override
@@ -159,13 +197,15 @@ public class ConnectionStatistics implements MessageListener {
         }
     }
 
-    public void addSendMsgMetrics(long timeSpent, int bytes) {
+    public void addSendMsgMetrics(long timeSpent, int bytes, int wireBytes) {
         this.timeOnSendMsg += timeSpent;
         this.sentBytes += bytes;
+        this.sentWireBytes += wireBytes;
     }
 
-    public void addReceivedMsgMetrics(long timeSpent, int bytes) {
+    public void addReceivedMsgMetrics(long timeSpent, int bytes, int wireBytes) {
         this.timeOnReceivedMsg += timeSpent;
         this.receivedBytes += bytes;
+        this.receivedWireBytes += wireBytes;
     }
 }
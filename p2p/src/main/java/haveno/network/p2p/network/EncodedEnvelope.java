@@ -0,0 +1,181 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.network.p2p.BundleOfEnvelopes;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A network envelope with its serialized protobuf.NetworkEnvelope. The envelope is serialized once, on first use,
+ * and the bytes are written to each connection it is sent to, so a broadcast to many peers does not build the proto
+ * for each of them.
+ * <p>
+ * A bundle is composed of the serialized bytes of its envelopes, so bundles for different connections, which differ
+ * in the contained envelopes, still serialize each envelope only once.
+ * <p>
+ * For peers supporting Capability.COMPRESSED_ENVELOPE large envelopes are written compressed. The compressed bytes
+ * are cached as well.
+ */
+public final class EncodedEnvelope {
+    @Getter
+    private final NetworkEnvelope envelope;
+    @Nullable
+    private final List<EncodedEnvelope> bundledEnvelopes;
+    @Nullable
+    private volatile byte[] bytes;
+    // Empty if the envelope does not get compressed
+    @Nullable
+    private volatile byte[] compressedBytes;
+
+    private EncodedEnvelope(NetworkEnvelope envelope, @Nullable List<EncodedEnvelope> bundledEnvelopes) {
+        this.envelope = envelope;
+        this.bundledEnvelopes = bundledEnvelopes;
+    }
+
+    public static EncodedEnvelope of(NetworkEnvelope envelope) {
+        return new EncodedEnvelope(envelope, null);
+    }
+
+    public static EncodedEnvelope bundle(List<EncodedEnvelope> encodedEnvelopes) {
+        List<NetworkEnvelope> envelopes = new ArrayList<>(encodedEnvelopes.size());
+        encodedEnvelopes.forEach(encodedEnvelope -> envelopes.add(encodedEnvelope.getEnvelope()));
+        return new EncodedEnvelope(new BundleOfEnvelopes(envelopes), new ArrayList<>(encodedEnvelopes));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Size of the serialized protobuf.NetworkEnvelope, without the length prefix.
+     */
+    public int getSize() {
+        return getBytes().length;
+    }
+
+    /**
+     * Writes the serialized envelope with its length prefix, the same as protobuf.NetworkEnvelope.writeDelimitedTo.
+     */
+    void writeDelimitedTo(OutputStream outputStream) throws IOException {
+        writeDelimitedTo(outputStream, false);
+    }
+
+    /**
+     * Writes the envelope with its length prefix, compressed if useCompression is set and the envelope is large
+     * enough. Returns the number of written bytes without the length prefix.
+     */
+    int writeDelimitedTo(OutputStream outputStream, boolean useCompression) throws IOException {
+        byte[] bytes = getBytes();
+        if (useCompression) {
+            byte[] compressed = getCompressedBytes();
+            if (compressed.length > 0) {
+                bytes = compressed;
+            }
+        }
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(outputStream,
+                CodedOutputStream.computeUInt32SizeNoTag(bytes.length) + bytes.length);
+        codedOutputStream.writeUInt32NoTag(bytes.length);
+        codedOutputStream.writeRawBytes(bytes);
+        codedOutputStream.flush();
+        return bytes.length;
+    }
+
+    /**
+     * Returns true if the envelopes of the bundle were changed after it was created, e.g. by a capability check.
+     */
+    boolean isStale() {
+        return bundledEnvelopes != null &&
+                ((BundleOfEnvelopes) envelope).getEnvelopes().size() != bundledEnvelopes.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private byte[] getBytes() {
+        byte[] result = bytes;
+        if (result == null) {
+            synchronized (this) {
+                result = bytes;
+                if (result == null) {
+                    result = bundledEnvelopes == null ? envelope.toProtoNetworkEnvelope().toByteArray() : encodeBundle();
+                    bytes = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private byte[] getCompressedBytes() {
+        byte[] result = compressedBytes;
+        if (result == null) {
+            synchronized (this) {
+                result = compressedBytes;
+                if (result == null) {
+                    byte[] compressed = EnvelopeCompression.compress(getBytes());
+                    result = compressed != null ? compressed : new byte[0];
+                    compressedBytes = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Same bytes as BundleOfEnvelopes.toProtoNetworkEnvelope().toByteArray(): the envelope fields (message version)
+    // followed by the bundle field with the already serialized envelopes.
+    private byte[] encodeBundle() {
+        byte[] header = envelope.getNetworkEnvelopeBuilder().build().toByteArray();
+        int bundleSize = 0;
+        for (EncodedEnvelope bundledEnvelope : bundledEnvelopes) {
+            bundleSize += CodedOutputStream.computeByteArraySize(protobuf.BundleOfEnvelopes.ENVELOPES_FIELD_NUMBER,
+                    bundledEnvelope.getBytes());
+        }
+        int size = header.length +
+                CodedOutputStream.computeTagSize(protobuf.NetworkEnvelope.BUNDLE_OF_ENVELOPES_FIELD_NUMBER) +
+                CodedOutputStream.computeUInt32SizeNoTag(bundleSize) +
+                bundleSize;
+
+        byte[] result = new byte[size];
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(result);
+        try {
+            codedOutputStream.writeRawBytes(header);
+            codedOutputStream.writeTag(protobuf.NetworkEnvelope.BUNDLE_OF_ENVELOPES_FIELD_NUMBER,
+                    WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            codedOutputStream.writeUInt32NoTag(bundleSize);
+            for (EncodedEnvelope bundledEnvelope : bundledEnvelopes) {
+                codedOutputStream.writeByteArray(protobuf.BundleOfEnvelopes.ENVELOPES_FIELD_NUMBER,
+                        bundledEnvelope.getBytes());
+            }
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode BundleOfEnvelopes", e);
+        }
+        return result;
+    }
+}
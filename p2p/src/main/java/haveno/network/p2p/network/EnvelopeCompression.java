@@ -0,0 +1,119 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import haveno.common.app.Version;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of serialized envelopes for peers supporting Capability.COMPRESSED_ENVELOPE. A compressed
+ * envelope is sent as protobuf.NetworkEnvelope with a CompressedEnvelope, so the framing of the stream does not change.
+ * Small envelopes like keep alive messages are not compressed.
+ */
+final class EnvelopeCompression {
+    static final int MIN_SIZE_FOR_COMPRESSION = 1024;
+
+    private EnvelopeCompression() {
+    }
+
+    /**
+     * Returns the serialized protobuf.NetworkEnvelope wrapping the compressed bytes, or null if the envelope is below
+     * MIN_SIZE_FOR_COMPRESSION or does not get smaller by compression.
+     */
+    @Nullable
+    static byte[] compress(byte[] bytes) {
+        if (bytes.length < MIN_SIZE_FOR_COMPRESSION) {
+            return null;
+        }
+
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, length);
+            }
+            byte[] compressed = protobuf.NetworkEnvelope.newBuilder()
+                    .setMessageVersion(Version.getP2PMessageVersion())
+                    .setCompressedEnvelope(protobuf.CompressedEnvelope.newBuilder()
+                            .setData(ByteString.copyFrom(outputStream.toByteArray()))
+                            .setUncompressedSize(bytes.length))
+                    .build()
+                    .toByteArray();
+            return compressed.length < bytes.length ? compressed : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the envelope wrapped in the CompressedEnvelope. The announced size is only used as limit, which must not
+     * exceed the max. permitted message size. The buffer grows with the inflated data, so a peer cannot make us
+     * allocate the limit with a small envelope.
+     */
+    static protobuf.NetworkEnvelope decompress(protobuf.CompressedEnvelope compressedEnvelope)
+            throws InvalidProtocolBufferException {
+        int uncompressedSize = compressedEnvelope.getUncompressedSize();
+        if (uncompressedSize <= 0 || uncompressedSize > Connection.getMaxPermittedMessageSize()) {
+            throw new InvalidProtocolBufferException("Invalid uncompressed size of CompressedEnvelope: " + uncompressedSize);
+        }
+
+        Inflater inflater = new Inflater();
+        byte[] bytes;
+        try {
+            byte[] data = compressedEnvelope.getData().toByteArray();
+            inflater.setInput(data);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(
+                    Math.min(uncompressedSize, Math.max(data.length * 2, 8192)));
+            byte[] buffer = new byte[8192];
+            int length = 0;
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new InvalidProtocolBufferException("CompressedEnvelope is incomplete");
+                }
+                length += inflated;
+                if (length > uncompressedSize) {
+                    throw new InvalidProtocolBufferException("CompressedEnvelope exceeds its uncompressed size");
+                }
+                outputStream.write(buffer, 0, inflated);
+            }
+            bytes = outputStream.toByteArray();
+        } catch (DataFormatException e) {
+            throw new InvalidProtocolBufferException("Invalid data of CompressedEnvelope: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+
+        protobuf.NetworkEnvelope proto = protobuf.NetworkEnvelope.parseFrom(bytes);
+        if (proto.hasCompressedEnvelope()) {
+            throw new InvalidProtocolBufferException("Nested CompressedEnvelope");
+        }
+        return proto;
+    }
+}
@@ -300,13 +300,32 @@ public abstract class NetworkNode implements MessageListener {
     public SettableFuture<Connection> sendMessage(Connection connection,
             NetworkEnvelope networkEnvelope,
             ListeningExecutorService executor) {
+        return sendMessage(connection, () -> connection.sendMessage(networkEnvelope), executor);
+    }
+
+    /**
+     * Sends an envelope which is serialized only once if it is sent to multiple connections.
+     */
+    public SettableFuture<Connection> sendMessage(Connection connection, EncodedEnvelope encodedEnvelope) {
+        return sendMessage(connection, encodedEnvelope, sendMessageExecutor);
+    }
+
+    public SettableFuture<Connection> sendMessage(Connection connection,
+            EncodedEnvelope encodedEnvelope,
+            ListeningExecutorService executor) {
+        return sendMessage(connection, () -> connection.sendMessage(encodedEnvelope), executor);
+    }
+
+    private SettableFuture<Connection> sendMessage(Connection connection,
+            Runnable sendTask,
+            ListeningExecutorService executor) {
         SettableFuture<Connection> resultFuture = SettableFuture.create();
         try {
             ListenableFuture<Connection> future = executor.submit(() -> {
                 String id = connection.getPeersNodeAddressOptional().isPresent() ? connection.getPeersNodeAddressOptional().get().getFullAddress() : connection.getUid();
                 Thread.currentThread().setName("NetworkNode:SendMessage-to-" + Utilities.toTruncatedString(id, 15));
 
-                connection.sendMessage(networkEnvelope);
+                sendTask.run();
                 return connection;
             });
 
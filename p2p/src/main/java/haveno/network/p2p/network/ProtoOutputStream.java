@@ -49,15 +49,19 @@ class ProtoOutputStream {
         this.statistic = statistic;
     }
 
-    void writeEnvelope(NetworkEnvelope envelope) {
+    /**
+     * Returns the number of bytes written to the stream for the envelope, which is smaller than its size if it got
+     * compressed.
+     */
+    int writeEnvelope(EncodedEnvelope envelope, boolean useCompression) {
         lock.lock();
 
         try {
-            writeEnvelopeOrThrow(envelope);
+            return writeEnvelopeOrThrow(envelope, useCompression);
         } catch (IOException e) {
             if (!isConnectionActive.get()) {
                 // Connection was closed by us.
-                return;
+                return 0;
             }
 
             log.error("Failed to write envelope", e);
@@ -86,21 +90,25 @@ class ProtoOutputStream {
         }
     }
 
-    private void writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
+    private int writeEnvelopeOrThrow(EncodedEnvelope encodedEnvelope, boolean useCompression) throws IOException {
         long ts = System.currentTimeMillis();
-        protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
-        proto.writeDelimitedTo(outputStream);
+        NetworkEnvelope envelope = encodedEnvelope.getEnvelope();
+        int wireSize = encodedEnvelope.writeDelimitedTo(outputStream, useCompression);
         outputStream.flush();
         long duration = System.currentTimeMillis() - ts;
         if (duration > 10000) {
             log.info("Sending {} to peer took {} sec.", envelope.getClass().getSimpleName(), duration / 1000d);
         }
-        statistic.addSentBytes(proto.getSerializedSize());
+        statistic.addSentBytes(wireSize);
         statistic.addSentMessage(envelope);
+        if (wireSize < encodedEnvelope.getSize()) {
+            Statistic.addBytesSavedByCompression(encodedEnvelope.getSize() - wireSize);
+        }
 
         if (!(envelope instanceof KeepAliveMessage)) {
             statistic.updateLastActivityTimestamp();
         }
+        return wireSize;
     }
 
     private boolean tryToAcquireLock() {
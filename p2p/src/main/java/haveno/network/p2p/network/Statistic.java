@@ -56,6 +56,8 @@ public class Statistic {
     private final static DoubleProperty numTotalSentMessagesPerSec = new SimpleDoubleProperty(0);
     private final static LongProperty numTotalReceivedMessages = new SimpleLongProperty(0);
     private final static DoubleProperty numTotalReceivedMessagesPerSec = new SimpleDoubleProperty(0);
+    private final static LongProperty totalBytesSavedByPayloadHashDigest = new SimpleLongProperty(0);
+    private final static LongProperty totalBytesSavedByCompression = new SimpleLongProperty(0);
 
     static {
         UserThread.runPeriodically(() -> {
@@ -79,13 +81,17 @@ public class Statistic {
                             "Number of sent messages per sec: {};" + ls +
                             "Bytes received: {}" + ls +
                             "Number of received messages/Received messages: {} / {};" + ls +
-                            "Number of received messages per sec: {}" + ls,
+                            "Number of received messages per sec: {}" + ls +
+                            "Bytes saved by payload hash digests: {}" + ls +
+                            "Bytes saved by compression: {}" + ls,
                     Utilities.readableFileSize(totalSentBytes.get()),
                     numTotalSentMessages.get(), totalSentMessages,
                     numTotalSentMessagesPerSec.get(),
                     Utilities.readableFileSize(totalReceivedBytes.get()),
                     numTotalReceivedMessages.get(), totalReceivedMessages,
-                    numTotalReceivedMessagesPerSec.get());
+                    numTotalReceivedMessagesPerSec.get(),
+                    Utilities.readableFileSize(totalBytesSavedByPayloadHashDigest.get()),
+                    Utilities.readableFileSize(totalBytesSavedByCompression.get()));
         }, TimeUnit.MINUTES.toSeconds(60));
     }
 
@@ -121,6 +127,22 @@ public class Statistic {
         return numTotalReceivedMessagesPerSec;
     }
 
+    public static LongProperty totalBytesSavedByPayloadHashDigestProperty() {
+        return totalBytesSavedByPayloadHashDigest;
+    }
+
+    public static void addBytesSavedByPayloadHashDigest(long value) {
+        UserThread.execute(() -> totalBytesSavedByPayloadHashDigest.set(totalBytesSavedByPayloadHashDigest.get() + value));
+    }
+
+    public static LongProperty totalBytesSavedByCompressionProperty() {
+        return totalBytesSavedByCompression;
+    }
+
+    public static void addBytesSavedByCompression(long value) {
+        UserThread.execute(() -> totalBytesSavedByCompression.set(totalBytesSavedByCompression.get() + value));
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Instance fields
@@ -260,6 +282,14 @@ public class Statistic {
         return numTotalSentMessagesPerSec.get();
     }
 
+    public static long getTotalBytesSavedByPayloadHashDigest() {
+        return totalBytesSavedByPayloadHashDigest.get();
+    }
+
+    public static long getTotalBytesSavedByCompression() {
+        return totalBytesSavedByCompression.get();
+    }
+
     @Override
     public String toString() {
         return "Statistic{" +
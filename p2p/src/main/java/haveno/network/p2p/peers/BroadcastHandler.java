@@ -17,11 +17,10 @@
 
 package haveno.network.p2p.peers;
 
-import haveno.network.p2p.BundleOfEnvelopes;
 import haveno.network.p2p.NodeAddress;
 import haveno.network.p2p.network.Connection;
+import haveno.network.p2p.network.EncodedEnvelope;
 import haveno.network.p2p.network.NetworkNode;
-import haveno.network.p2p.storage.messages.BroadcastMessage;
 
 import haveno.common.Timer;
 import haveno.common.UserThread;
@@ -34,7 +33,9 @@ import com.google.common.util.concurrent.SettableFuture;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -133,6 +134,10 @@ public class BroadcastHandler implements PeerManager.Listener {
 
         setupTimeoutHandler(broadcastRequests, delay, shutDownRequested);
 
+        // Each message is serialized once on first send and the bytes are reused for all peers
+        Map<Broadcaster.BroadcastRequest, EncodedEnvelope> encodedEnvelopes = new IdentityHashMap<>();
+        broadcastRequests.forEach(request -> encodedEnvelopes.put(request, EncodedEnvelope.of(request.getMessage())));
+
         int iterations = numPeersForBroadcast.get();
         for (int i = 0; i < iterations; i++) {
             long minDelay = (i + 1) * delay;
@@ -170,7 +175,7 @@ public class BroadcastHandler implements PeerManager.Listener {
                 }
 
                 try {
-                    sendToPeer(connection, broadcastRequestsForConnection, executor);
+                    sendToPeer(connection, broadcastRequestsForConnection, encodedEnvelopes, executor);
                 } catch (RejectedExecutionException e) {
                     log.error("RejectedExecutionException at broadcast ", e);
                     cleanup();
@@ -257,10 +262,11 @@ public class BroadcastHandler implements PeerManager.Listener {
 
     private void sendToPeer(Connection connection,
             List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection,
+            Map<Broadcaster.BroadcastRequest, EncodedEnvelope> encodedEnvelopes,
             ListeningExecutorService executor) {
         // Can be BundleOfEnvelopes or a single BroadcastMessage
-        BroadcastMessage broadcastMessage = getMessage(broadcastRequestsForConnection);
-        SettableFuture<Connection> future = networkNode.sendMessage(connection, broadcastMessage, executor);
+        EncodedEnvelope encodedEnvelope = getEncodedEnvelope(broadcastRequestsForConnection, encodedEnvelopes);
+        SettableFuture<Connection> future = networkNode.sendMessage(connection, encodedEnvelope, executor);
         sendMessageFutures.add(future);
         Futures.addCallback(future, new FutureCallback<>() {
             @Override
@@ -290,13 +296,15 @@ public class BroadcastHandler implements PeerManager.Listener {
         }, MoreExecutors.directExecutor());
     }
 
-    private BroadcastMessage getMessage(List<Broadcaster.BroadcastRequest> broadcastRequests) {
+    private EncodedEnvelope getEncodedEnvelope(List<Broadcaster.BroadcastRequest> broadcastRequests,
+            Map<Broadcaster.BroadcastRequest, EncodedEnvelope> encodedEnvelopes) {
         if (broadcastRequests.size() == 1) {
             // If we only have 1 message we avoid the overhead of the BundleOfEnvelopes and send the message directly
-            return broadcastRequests.get(0).getMessage();
+            return encodedEnvelopes.get(broadcastRequests.get(0));
         } else {
-            return new BundleOfEnvelopes(broadcastRequests.stream()
-                    .map(Broadcaster.BroadcastRequest::getMessage)
+            // The bundle differs per connection, but it is composed of the shared serialized messages
+            return EncodedEnvelope.bundle(broadcastRequests.stream()
+                    .map(encodedEnvelopes::get)
                     .collect(Collectors.toList()));
         }
     }
@@ -48,8 +48,8 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     private final Set<BroadcastHandler> broadcastHandlers = new CopyOnWriteArraySet<>();
     private final List<BroadcastRequest> broadcastRequests = new ArrayList<>();
     private Timer timer;
-    private boolean shutDownRequested;
-    private Runnable shutDownResultHandler;
+    private volatile boolean shutDownRequested;
+    private volatile Runnable shutDownResultHandler;
     private final ListeningExecutorService executor;
     private final Object lock = new Object();
 
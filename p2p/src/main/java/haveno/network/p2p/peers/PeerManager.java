@@ -49,6 +49,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -76,7 +77,7 @@ public final class PeerManager implements ConnectionListener, PersistedDataHost
     private static final long MAX_AGE_LIVE_PEERS = TimeUnit.MINUTES.toMillis(30);
     private static final boolean PRINT_REPORTED_PEERS_DETAILS = true;
     private Timer printStatisticsTimer;
-    private boolean shutDownRequested;
+    private volatile boolean shutDownRequested;
     private int numOnConnections;
 
 
@@ -108,13 +109,13 @@ public final class PeerManager implements ConnectionListener, PersistedDataHost
     private final PeerList peerList = new PeerList();
     // Peers we got reported from other peers
     @Getter
-    private final Set<Peer> reportedPeers = new HashSet<>();
+    private final Set<Peer> reportedPeers = ConcurrentHashMap.newKeySet();
     // Most recent peers with activity date of last 30 min.
     private final Set<Peer> latestLivePeers = new HashSet<>();
 
     private Timer checkMaxConnectionsTimer;
-    private boolean stopped;
-    private boolean lostAllConnections;
+    private volatile boolean stopped;
+    private volatile boolean lostAllConnections;
     private int maxConnections;
 
     @Getter
@@ -139,7 +140,8 @@ public final class PeerManager implements ConnectionListener, PersistedDataHost
                        PersistenceManager<PeerList> persistenceManager,
                        @Named(Config.MAX_CONNECTIONS) int maxConnections) {
         this.networkNode = networkNode;
-        this.seedNodeAddresses = new HashSet<>(seedNodeRepository.getSeedNodeAddresses());
+        this.seedNodeAddresses = ConcurrentHashMap.newKeySet();
+        this.seedNodeAddresses.addAll(seedNodeRepository.getSeedNodeAddresses());
         this.clockWatcher = clockWatcher;
         this.persistenceManager = persistenceManager;
 
@@ -208,50 +210,55 @@ public final class PeerManager implements ConnectionListener, PersistedDataHost
     public void onConnection(Connection connection) {
         connection.getConnectionState().setSeedNode(isSeedNode(connection));
 
-        doHouseKeeping();
+        // Connection callbacks run on the lane of the connection, our state is only changed on the user thread
+        UserThread.execute(() -> {
+            doHouseKeeping();
 
-        numOnConnections++;
+            numOnConnections++;
 
-        if (lostAllConnections) {
-            lostAllConnections = false;
-            stopped = false;
-            log.info("\n------------------------------------------------------------\n" +
-                    "Established a new connection from/to {} after all connections lost.\n" +
-                    "------------------------------------------------------------", connection.getPeersNodeAddressOptional());
-            listeners.forEach(Listener::onNewConnectionAfterAllConnectionsLost);
-        }
-        connection.getPeersNodeAddressOptional()
-                .flatMap(this::findPeer)
-                .ifPresent(Peer::onConnection);
+            if (lostAllConnections) {
+                lostAllConnections = false;
+                stopped = false;
+                log.info("\n------------------------------------------------------------\n" +
+                        "Established a new connection from/to {} after all connections lost.\n" +
+                        "------------------------------------------------------------", connection.getPeersNodeAddressOptional());
+                listeners.forEach(Listener::onNewConnectionAfterAllConnectionsLost);
+            }
+            connection.getPeersNodeAddressOptional()
+                    .flatMap(this::findPeer)
+                    .ifPresent(Peer::onConnection);
+        });
     }
 
     @Override
     public void onDisconnect(CloseConnectionReason closeConnectionReason, Connection connection) {
         log.debug("onDisconnect called: nodeAddress={}, closeConnectionReason={}",
                 connection.getPeersNodeAddressOptional(), closeConnectionReason);
-        handleConnectionFault(connection);
+        UserThread.execute(() -> {
+            handleConnectionFault(connection);
 
-        boolean previousLostAllConnections = lostAllConnections;
-        lostAllConnections = networkNode.getAllConnections().isEmpty();
+            boolean previousLostAllConnections = lostAllConnections;
+            lostAllConnections = networkNode.getAllConnections().isEmpty();
 
-        // At start-up we ignore if we would lose a connection and would fall back to no connections
-        if (lostAllConnections && numOnConnections > 2) {
-            stopped = true;
+            // At start-up we ignore if we would lose a connection and would fall back to no connections
+            if (lostAllConnections && numOnConnections > 2) {
+                stopped = true;
 
-            if (!shutDownRequested) {
-                if (!previousLostAllConnections) {
-                    // If we enter to 'All connections lost' we count the event.
-                    numAllConnectionsLostEvents++;
-                }
+                if (!shutDownRequested) {
+                    if (!previousLostAllConnections) {
+                        // If we enter to 'All connections lost' we count the event.
+                        numAllConnectionsLostEvents++;
+                    }
 
-                log.warn("\n------------------------------------------------------------\n" +
-                        "All connections lost\n" +
-                        "------------------------------------------------------------");
+                    log.warn("\n------------------------------------------------------------\n" +
+                            "All connections lost\n" +
+                            "------------------------------------------------------------");
 
-                listeners.forEach(Listener::onAllConnectionsLost);
+                    listeners.forEach(Listener::onAllConnectionsLost);
+                }
             }
-        }
-        maybeRemoveBannedPeer(closeConnectionReason, connection);
+            maybeRemoveBannedPeer(closeConnectionReason, connection);
+        });
     }
 
 
@@ -392,6 +399,12 @@ public final class PeerManager implements ConnectionListener, PersistedDataHost
     }
 
     public Set<Peer> getLivePeers(@Nullable NodeAddress excludedNodeAddress) {
+        synchronized (latestLivePeers) {
+            return new HashSet<>(updateLatestLivePeers(excludedNodeAddress));
+        }
+    }
+
+    private Set<Peer> updateLatestLivePeers(@Nullable NodeAddress excludedNodeAddress) {
         int oldNumLatestLivePeers = latestLivePeers.size();
 
         Set<Peer> peers = new HashSet<>(latestLivePeers);
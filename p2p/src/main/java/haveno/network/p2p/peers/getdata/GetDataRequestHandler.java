@@ -25,6 +25,7 @@ import haveno.common.Timer;
 import haveno.common.UserThread;
 import haveno.network.p2p.network.CloseConnectionReason;
 import haveno.network.p2p.network.Connection;
+import haveno.network.p2p.network.EncodedEnvelope;
 import haveno.network.p2p.network.NetworkNode;
 import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
 import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
@@ -115,14 +116,16 @@ public class GetDataRequestHandler {
                     TIMEOUT, TimeUnit.SECONDS);
         }
 
-        SettableFuture<Connection> future = networkNode.sendMessage(connection, getDataResponse);
+        // We serialize the response once for sending and for reporting its size
+        EncodedEnvelope encodedEnvelope = EncodedEnvelope.of(getDataResponse);
+        SettableFuture<Connection> future = networkNode.sendMessage(connection, encodedEnvelope);
         Futures.addCallback(future, new FutureCallback<>() {
             @Override
             public void onSuccess(Connection connection) {
                 if (!stopped) {
                     log.trace("Send DataResponse to {} succeeded. getDataResponse={}",
                             connection.getPeersNodeAddressOptional(), getDataResponse);
-                    listener.onComplete(getDataResponse.toProtoNetworkEnvelope().getSerializedSize());
+                    listener.onComplete(encodedEnvelope.getSize());
                     cleanup();
                 } else {
                     log.trace("We have stopped already. We ignore that networkNode.sendMessage.onSuccess call.");
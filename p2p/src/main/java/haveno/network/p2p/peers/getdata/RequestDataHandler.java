@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 import haveno.common.Timer;
 import haveno.common.UserThread;
+import haveno.common.app.Capability;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.proto.network.NetworkPayload;
 import haveno.common.util.Tuple2;
@@ -35,6 +36,7 @@ import haveno.network.p2p.network.NetworkNode;
 import haveno.network.p2p.peers.PeerManager;
 import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
 import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
+import haveno.network.p2p.peers.getdata.messages.PayloadHashDigest;
 import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
@@ -69,7 +71,7 @@ class RequestDataHandler implements MessageListener {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public interface Listener {
-        void onComplete(boolean wasTruncated);
+        void onComplete(boolean wasTruncated, @Nullable P2PDataStorage.ByteArray dataResponseCursor);
 
         @SuppressWarnings("UnusedParameters")
         void onFault(String errorMessage, @SuppressWarnings("SameParameterValue") @Nullable Connection connection);
@@ -87,6 +89,13 @@ class RequestDataHandler implements MessageListener {
     private Timer timeoutTimer;
     private final int nonce = new Random().nextInt();
     private boolean stopped;
+    // Set if the peer responded with the buckets where our PayloadHashDigests do not match. We repeat the request once
+    // with the exact keys of these buckets.
+    @Nullable
+    private PayloadHashDigest exactBucketsDigest;
+    private boolean isPreliminaryDataRequest;
+    @Nullable
+    private P2PDataStorage.ByteArray dataResponseCursor;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -113,14 +122,38 @@ class RequestDataHandler implements MessageListener {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     void requestData(NodeAddress nodeAddress, boolean isPreliminaryDataRequest) {
+        requestData(nodeAddress, isPreliminaryDataRequest, null);
+    }
+
+    /**
+     * If we have a dataResponseCursor from a previous chunked response of that peer we continue after the cursor.
+     */
+    void requestData(NodeAddress nodeAddress,
+                     boolean isPreliminaryDataRequest,
+                     @Nullable P2PDataStorage.ByteArray dataResponseCursor) {
         peersNodeAddress = nodeAddress;
+        this.isPreliminaryDataRequest = isPreliminaryDataRequest;
+        this.dataResponseCursor = dataResponseCursor;
         if (!stopped) {
             GetDataRequest getDataRequest;
 
-            if (isPreliminaryDataRequest)
-                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce);
+            // Peers supporting PAYLOAD_HASH_DIGEST get a compact digest instead of all PersistableNetworkPayload keys.
+            // If we do not know the peers capabilities yet we use the exclude keys as old peers would ignore the digest.
+            boolean usePayloadHashDigest = peerManager.peerHasCapability(nodeAddress, Capability.PAYLOAD_HASH_DIGEST);
+            // Old peers would ignore the cursor and we would miss the data before it, so we only send it to peers
+            // supporting DATA_RESPONSE_CURSOR.
+            if (!peerManager.peerHasCapability(nodeAddress, Capability.DATA_RESPONSE_CURSOR))
+                dataResponseCursor = null;
+            if (exactBucketsDigest != null && isPreliminaryDataRequest)
+                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce, dataResponseCursor, exactBucketsDigest);
+            else if (exactBucketsDigest != null)
+                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce,
+                        dataResponseCursor, exactBucketsDigest);
+            else if (isPreliminaryDataRequest)
+                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce, usePayloadHashDigest, dataResponseCursor);
             else
-                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce);
+                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce,
+                        usePayloadHashDigest, dataResponseCursor);
 
             if (timeoutTimer == null) {
                 timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
@@ -201,8 +234,20 @@ class RequestDataHandler implements MessageListener {
                         dataStorage.processGetDataResponse(getDataResponse,
                                 connection.getPeersNodeAddressOptional().get());
 
+                        // We repeat the request only once. A peer responding again with exact buckets gets treated
+                        // like a complete response.
+                        PayloadHashDigest responseDigest = getDataResponse.getPayloadHashDigest();
+                        if (exactBucketsDigest == null && responseDigest != null && responseDigest.hasExactBuckets()) {
+                            exactBucketsDigest = responseDigest;
+                            networkNode.removeMessageListener(this);
+                            requestData(peersNodeAddress, isPreliminaryDataRequest, dataResponseCursor);
+                            return;
+                        }
+
                         cleanup();
-                        listener.onComplete(getDataResponse.isWasTruncated());
+                        byte[] dataResponseCursor = getDataResponse.getDataResponseCursor();
+                        listener.onComplete(getDataResponse.isWasTruncated(),
+                                dataResponseCursor != null ? new P2PDataStorage.ByteArray(dataResponseCursor) : null);
                     } else {
                         log.warn("Nonce not matching. That can happen rarely if we get a response after a canceled " +
                                         "handshake (timeout causes connection close but peer might have sent a msg before " +
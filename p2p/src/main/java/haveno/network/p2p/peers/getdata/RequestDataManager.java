@@ -38,10 +38,10 @@ import haveno.network.p2p.storage.P2PDataStorage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -57,6 +57,8 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
     // how many seeds additional to the first responding PreliminaryGetDataRequest seed we request the GetUpdatedDataRequest from
     private static int NUM_ADDITIONAL_SEEDS_FOR_UPDATE_REQUEST = 1;
     private static int MAX_REPEATED_REQUESTS = 30;
+    // A peer sending more chunks than that does not make progress, so we stop following its cursors
+    private static final int MAX_DATA_RESPONSE_CHUNKS = 1000;
     private boolean isPreliminaryDataRequest = true;
 
 
@@ -99,13 +101,17 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
     // in it's constructor so we can guarantee it is not null.
     private Listener listener;
 
-    private final Map<NodeAddress, RequestDataHandler> handlerMap = new HashMap<>();
-    private final Map<String, GetDataRequestHandler> getDataRequestHandlers = new HashMap<>();
+    // The handler maps are accessed from the lanes of the connections, the other state only from the user thread
+    private final Map<NodeAddress, RequestDataHandler> handlerMap = new ConcurrentHashMap<>();
+    // Cursors of incomplete chunked responses
+    private final Map<NodeAddress, P2PDataStorage.ByteArray> dataResponseCursors = new ConcurrentHashMap<>();
+    private final Map<NodeAddress, Integer> numDataResponseChunks = new ConcurrentHashMap<>();
+    private final Map<String, GetDataRequestHandler> getDataRequestHandlers = new ConcurrentHashMap<>();
     private Optional<NodeAddress> nodeAddressOfPreliminaryDataRequest = Optional.empty();
     private Timer retryTimer;
     private boolean dataUpdateRequested;
     private boolean allDataReceived;
-    private boolean stopped;
+    private volatile boolean stopped;
     private int numRepeatedRequests = 0;
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -133,6 +139,7 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
             if (myAddress != null) {
                 seedNodeAddresses.remove(myAddress);
                 if (seedNodeRepository.isSeedNode(myAddress)) {
+                    dataStorage.setUseMapForDataResponseCache(true);
                     NUM_SEEDS_FOR_PRELIMINARY_REQUEST = 3;
                     NUM_ADDITIONAL_SEEDS_FOR_UPDATE_REQUEST = 2;
                     MAX_REPEATED_REQUESTS = 100;
@@ -148,6 +155,8 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
         networkNode.removeConnectionListener(this);
         peerManager.removeListener(this);
         closeAllHandlers();
+        dataResponseCursors.clear();
+        numDataResponseChunks.clear();
     }
 
 
@@ -230,8 +239,8 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
 
         if (peerManager.isPeerBanned(closeConnectionReason, connection) && connection.getPeersNodeAddressOptional().isPresent()) {
             NodeAddress nodeAddress = connection.getPeersNodeAddressOptional().get();
-            seedNodeAddresses.remove(nodeAddress);
             handlerMap.remove(nodeAddress);
+            UserThread.execute(() -> seedNodeAddresses.remove(nodeAddress));
         }
     }
 
@@ -332,93 +341,31 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
             if (!handlerMap.containsKey(nodeAddress)) {
                 RequestDataHandler requestDataHandler = new RequestDataHandler(networkNode, dataStorage, peerManager,
                         new RequestDataHandler.Listener() {
+                            // The handler calls us from the lane of its connection. We remove the handler at once and
+                            // handle the result on the user thread, where our other state is changed.
                             @Override
-                            public void onComplete(boolean wasTruncated) {
-                                log.trace("RequestDataHandshake of outbound connection complete. nodeAddress={}",
-                                        nodeAddress);
-                                stopRetryTimer();
-
+                            public void onComplete(boolean wasTruncated,
+                                                   @Nullable P2PDataStorage.ByteArray dataResponseCursor) {
                                 // need to remove before listeners are notified as they cause the update call
                                 handlerMap.remove(nodeAddress);
-
-                                // 1. We get a response from requestPreliminaryData
-                                if (!nodeAddressOfPreliminaryDataRequest.isPresent()) {
-                                    nodeAddressOfPreliminaryDataRequest = Optional.of(nodeAddress);
-                                    // We delay because it can be that we get the HS published before we receive the
-                                    // preliminary data and the onPreliminaryDataReceived call triggers the
-                                    // dataUpdateRequested set to true, so we would also call the onUpdatedDataReceived.
-                                    UserThread.runAfter(checkNotNull(listener)::onPreliminaryDataReceived, 100, TimeUnit.MILLISECONDS);
-                                }
-
-                                // 2. Later we get a response from requestUpdatesData
-                                if (dataUpdateRequested) {
-                                    dataUpdateRequested = false;
-                                    checkNotNull(listener).onUpdatedDataReceived();
-                                }
-
-                                if (wasTruncated) {
-                                    if (numRepeatedRequests < MAX_REPEATED_REQUESTS) {
-                                        // If we had allDataReceived already set to true but get a response with truncated flag,
-                                        // we still repeat the request to that node for higher redundancy. Otherwise, one seed node
-                                        // providing incomplete data would stop others to fill the gaps.
-                                        log.info("DataResponse did not contain all data, so we repeat request until we got all data");
-                                        UserThread.runAfter(() -> requestData(nodeAddress, remainingNodeAddresses), 2);
-                                    } else if (!allDataReceived) {
-                                        allDataReceived = true;
-                                        log.warn("\n#################################################################\n" +
-                                                "Loading initial data from {} did not complete after 20 repeated requests. \n" +
-                                                "#################################################################\n", nodeAddress);
-                                        checkNotNull(listener).onDataReceived();
-                                    }
-                                } else if (!allDataReceived) {
-                                    allDataReceived = true;
-                                    log.info("\n\n#################################################################\n" +
-                                            "Loading initial data from {} completed\n" +
-                                            "#################################################################\n", nodeAddress);
-                                    checkNotNull(listener).onDataReceived();
-                                }
+                                UserThread.execute(() -> onRequestDataComplete(nodeAddress, remainingNodeAddresses,
+                                        wasTruncated, dataResponseCursor));
                             }
 
                             @Override
                             public void onFault(String errorMessage, @Nullable Connection connection) {
-                                log.trace("requestDataHandshake with outbound connection failed.\n\tnodeAddress={}\n\t" +
-                                        "ErrorMessage={}", nodeAddress, errorMessage);
-
-                                peerManager.handleConnectionFault(nodeAddress);
                                 handlerMap.remove(nodeAddress);
-
-                                if (!remainingNodeAddresses.isEmpty()) {
-                                    log.debug("There are remaining nodes available for requesting data. " +
-                                            "We will try requestDataFromPeers again.");
-                                    NodeAddress nextCandidate = remainingNodeAddresses.get(0);
-                                    remainingNodeAddresses.remove(nextCandidate);
-                                    requestData(nextCandidate, remainingNodeAddresses);
-                                } else if (handlerMap.isEmpty()) {
-                                    // If not other connection attempts are in the handlerMap we assume that no seed
-                                    // nodes are available.
-                                    log.debug("There is no remaining node available for requesting data. " +
-                                            "That is expected if no other node is online.\n\t" +
-                                            "We will try to use reported peers (if no available we use persisted peers) " +
-                                            "and try again to request data from our seed nodes after a random pause.");
-
-                                    // Notify listeners
-                                    if (!nodeAddressOfPreliminaryDataRequest.isPresent()) {
-                                        if (peerManager.isSeedNode(nodeAddress)) {
-                                            checkNotNull(listener).onNoSeedNodeAvailable();
-                                        } else {
-                                            checkNotNull(listener).onNoPeersAvailable();
-                                        }
-                                    }
-
-                                    requestFromNonSeedNodePeers();
-                                } else {
-                                    log.info("We could not connect to seed node {} but we have other connection attempts open.", nodeAddress.getFullAddress());
-                                }
+                                UserThread.execute(() -> onRequestDataFault(nodeAddress, remainingNodeAddresses,
+                                        errorMessage));
                             }
                         });
                 handlerMap.put(nodeAddress, requestDataHandler);
-                numRepeatedRequests++;
-                requestDataHandler.requestData(nodeAddress, isPreliminaryDataRequest);
+                // Requests for the next chunk do not count as repeated requests
+                P2PDataStorage.ByteArray dataResponseCursor = dataResponseCursors.get(nodeAddress);
+                if (dataResponseCursor == null) {
+                    numRepeatedRequests++;
+                }
+                requestDataHandler.requestData(nodeAddress, isPreliminaryDataRequest, dataResponseCursor);
             } else {
                 log.warn("We have started already a requestDataHandshake to peer. nodeAddress=" + nodeAddress + "\n" +
                         "We start a cleanup timer if the handler has not closed by itself in between 2 minutes.");
@@ -436,6 +383,115 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
         }
     }
 
+    private void onRequestDataComplete(NodeAddress nodeAddress,
+                                       List<NodeAddress> remainingNodeAddresses,
+                                       boolean wasTruncated,
+                                       @Nullable P2PDataStorage.ByteArray dataResponseCursor) {
+        log.trace("RequestDataHandshake of outbound connection complete. nodeAddress={}",
+                nodeAddress);
+        stopRetryTimer();
+
+        // 1. We get a response from requestPreliminaryData
+        if (!nodeAddressOfPreliminaryDataRequest.isPresent()) {
+            nodeAddressOfPreliminaryDataRequest = Optional.of(nodeAddress);
+            // We delay because it can be that we get the HS published before we receive the
+            // preliminary data and the onPreliminaryDataReceived call triggers the
+            // dataUpdateRequested set to true, so we would also call the onUpdatedDataReceived.
+            UserThread.runAfter(checkNotNull(listener)::onPreliminaryDataReceived, 100, TimeUnit.MILLISECONDS);
+        }
+
+        // 2. Later we get a response from requestUpdatesData
+        if (dataUpdateRequested) {
+            dataUpdateRequested = false;
+            checkNotNull(listener).onUpdatedDataReceived();
+        }
+
+        // The peer delivers the data in chunks, so we request the next chunk. Each chunk
+        // is applied when it arrives. A cursor which does not advance or too many chunks
+        // are handled like a truncated response without cursor.
+        if (dataResponseCursor != null) {
+            P2PDataStorage.ByteArray previousCursor = dataResponseCursors.remove(nodeAddress);
+            int numChunks = numDataResponseChunks.merge(nodeAddress, 1, Integer::sum);
+            if (previousCursor != null && dataResponseCursor.compareTo(previousCursor) <= 0) {
+                log.warn("DataResponse from {} has a cursor which is not after the previous " +
+                        "cursor. We ignore the cursor.", nodeAddress);
+            } else if (numChunks > MAX_DATA_RESPONSE_CHUNKS) {
+                log.warn("DataResponse from {} exceeded {} chunks. We ignore the cursor.",
+                        nodeAddress, MAX_DATA_RESPONSE_CHUNKS);
+            } else {
+                log.info("DataResponse was a chunk, so we request the next chunk after the cursor");
+                dataResponseCursors.put(nodeAddress, dataResponseCursor);
+                UserThread.runAfter(() -> requestData(nodeAddress, remainingNodeAddresses),
+                        100, TimeUnit.MILLISECONDS);
+                return;
+            }
+        } else {
+            dataResponseCursors.remove(nodeAddress);
+            numDataResponseChunks.remove(nodeAddress);
+        }
+
+        if (wasTruncated) {
+            if (numRepeatedRequests < MAX_REPEATED_REQUESTS) {
+                // If we had allDataReceived already set to true but get a response with truncated flag,
+                // we still repeat the request to that node for higher redundancy. Otherwise, one seed node
+                // providing incomplete data would stop others to fill the gaps.
+                log.info("DataResponse did not contain all data, so we repeat request until we got all data");
+                UserThread.runAfter(() -> requestData(nodeAddress, remainingNodeAddresses), 2);
+            } else if (!allDataReceived) {
+                allDataReceived = true;
+                log.warn("\n#################################################################\n" +
+                        "Loading initial data from {} did not complete after 20 repeated requests. \n" +
+                        "#################################################################\n", nodeAddress);
+                checkNotNull(listener).onDataReceived();
+            }
+        } else if (!allDataReceived) {
+            allDataReceived = true;
+            log.info("\n\n#################################################################\n" +
+                    "Loading initial data from {} completed\n" +
+                    "#################################################################\n", nodeAddress);
+            checkNotNull(listener).onDataReceived();
+        }
+    }
+
+    private void onRequestDataFault(NodeAddress nodeAddress,
+                                    List<NodeAddress> remainingNodeAddresses,
+                                    String errorMessage) {
+        log.trace("requestDataHandshake with outbound connection failed.\n\tnodeAddress={}\n\t" +
+                "ErrorMessage={}", nodeAddress, errorMessage);
+
+        peerManager.handleConnectionFault(nodeAddress);
+        dataResponseCursors.remove(nodeAddress);
+        numDataResponseChunks.remove(nodeAddress);
+
+        if (!remainingNodeAddresses.isEmpty()) {
+            log.debug("There are remaining nodes available for requesting data. " +
+                    "We will try requestDataFromPeers again.");
+            NodeAddress nextCandidate = remainingNodeAddresses.get(0);
+            remainingNodeAddresses.remove(nextCandidate);
+            requestData(nextCandidate, remainingNodeAddresses);
+        } else if (handlerMap.isEmpty()) {
+            // If not other connection attempts are in the handlerMap we assume that no seed
+            // nodes are available.
+            log.debug("There is no remaining node available for requesting data. " +
+                    "That is expected if no other node is online.\n\t" +
+                    "We will try to use reported peers (if no available we use persisted peers) " +
+                    "and try again to request data from our seed nodes after a random pause.");
+
+            // Notify listeners
+            if (!nodeAddressOfPreliminaryDataRequest.isPresent()) {
+                if (peerManager.isSeedNode(nodeAddress)) {
+                    checkNotNull(listener).onNoSeedNodeAvailable();
+                } else {
+                    checkNotNull(listener).onNoPeersAvailable();
+                }
+            }
+
+            requestFromNonSeedNodePeers();
+        } else {
+            log.info("We could not connect to seed node {} but we have other connection attempts open.", nodeAddress.getFullAddress());
+        }
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Utils
@@ -514,10 +570,9 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
     private void closeHandler(Connection connection) {
         Optional<NodeAddress> peersNodeAddressOptional = connection.getPeersNodeAddressOptional();
         if (peersNodeAddressOptional.isPresent()) {
-            NodeAddress nodeAddress = peersNodeAddressOptional.get();
-            if (handlerMap.containsKey(nodeAddress)) {
-                handlerMap.get(nodeAddress).cancel();
-                handlerMap.remove(nodeAddress);
+            RequestDataHandler handler = handlerMap.remove(peersNodeAddressOptional.get());
+            if (handler != null) {
+                handler.cancel();
             }
         } else {
             log.trace("closeRequestDataHandler: nodeAddress not set in connection {}", connection);
@@ -41,13 +41,28 @@ public abstract class GetDataRequest extends NetworkEnvelope implements Extended
     @Nullable
     protected final String version;
 
+    // Only set if the peer supports Capability.PAYLOAD_HASH_DIGEST. In that case the excludedKeys do not contain
+    // the keys of the PersistableNetworkPayload stores.
+    @Nullable
+    protected final PayloadHashDigest payloadHashDigest;
+
+    // Only set if the peer supports Capability.DATA_RESPONSE_CURSOR and we continue a chunked response. The cursor is
+    // the key of the last PersistableNetworkPayload we got from the peer. The excludedKeys and the payloadHashDigest
+    // only contain the keys of the PersistableNetworkPayloads after the cursor.
+    @Nullable
+    protected final byte[] dataResponseCursor;
+
     public GetDataRequest(String messageVersion,
                           int nonce,
                           Set<byte[]> excludedKeys,
-                          @Nullable String version) {
+                          @Nullable String version,
+                          @Nullable PayloadHashDigest payloadHashDigest,
+                          @Nullable byte[] dataResponseCursor) {
         super(messageVersion);
         this.nonce = nonce;
         this.excludedKeys = excludedKeys;
         this.version = version;
+        this.payloadHashDigest = payloadHashDigest;
+        this.dataResponseCursor = dataResponseCursor;
     }
 }
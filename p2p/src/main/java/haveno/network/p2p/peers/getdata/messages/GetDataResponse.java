@@ -17,8 +17,10 @@
 
 package haveno.network.p2p.peers.getdata.messages;
 
+import com.google.protobuf.ByteString;
 import haveno.common.app.Capabilities;
 import haveno.common.app.Version;
+import haveno.common.proto.ProtoUtil;
 import haveno.common.proto.network.NetworkEnvelope;
 import haveno.common.proto.network.NetworkProtoResolver;
 import haveno.common.util.Utilities;
@@ -34,6 +36,8 @@ import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
 
+import javax.annotation.Nullable;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -56,16 +60,49 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
     // Added at v1.9.6
     private final boolean wasTruncated;
 
+    // Only set for peers supporting Capability.DATA_RESPONSE_CURSOR if more PersistableNetworkPayloads are available.
+    // It is the key of the last PersistableNetworkPayload in this response and the requester sends it with its next
+    // request to get the next chunk.
+    @Nullable
+    private final byte[] dataResponseCursor;
+
+    // Only set if the request had a PayloadHashDigest and the requester knows some keys of the buckets where our
+    // digests do not match. It lists these buckets and the requester repeats its request with their exact keys.
+    @Nullable
+    private final PayloadHashDigest payloadHashDigest;
+
     public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
                            @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
                            int requestNonce,
                            boolean isGetUpdatedDataResponse,
                            boolean wasTruncated) {
+        this(dataSet, persistableNetworkPayloadSet, requestNonce, isGetUpdatedDataResponse, wasTruncated, null);
+    }
+
+    public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
+                           @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
+                           int requestNonce,
+                           boolean isGetUpdatedDataResponse,
+                           boolean wasTruncated,
+                           @Nullable byte[] dataResponseCursor) {
+        this(dataSet, persistableNetworkPayloadSet, requestNonce, isGetUpdatedDataResponse, wasTruncated,
+                dataResponseCursor, null);
+    }
+
+    public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
+                           @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
+                           int requestNonce,
+                           boolean isGetUpdatedDataResponse,
+                           boolean wasTruncated,
+                           @Nullable byte[] dataResponseCursor,
+                           @Nullable PayloadHashDigest payloadHashDigest) {
         this(dataSet,
                 persistableNetworkPayloadSet,
                 requestNonce,
                 isGetUpdatedDataResponse,
                 wasTruncated,
+                dataResponseCursor,
+                payloadHashDigest,
                 Capabilities.app,
                 Version.getP2PMessageVersion());
     }
@@ -79,6 +116,8 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                             int requestNonce,
                             boolean isGetUpdatedDataResponse,
                             boolean wasTruncated,
+                            @Nullable byte[] dataResponseCursor,
+                            @Nullable PayloadHashDigest payloadHashDigest,
                             @NotNull Capabilities supportedCapabilities,
                             String messageVersion) {
         super(messageVersion);
@@ -88,6 +127,8 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
         this.requestNonce = requestNonce;
         this.isGetUpdatedDataResponse = isGetUpdatedDataResponse;
         this.wasTruncated = wasTruncated;
+        this.dataResponseCursor = dataResponseCursor;
+        this.payloadHashDigest = payloadHashDigest;
         this.supportedCapabilities = supportedCapabilities;
     }
 
@@ -111,6 +152,8 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 .setIsGetUpdatedDataResponse(isGetUpdatedDataResponse)
                 .setWasTruncated(wasTruncated)
                 .addAllSupportedCapabilities(Capabilities.toIntList(supportedCapabilities));
+        Optional.ofNullable(dataResponseCursor).ifPresent(e -> builder.setDataResponseCursor(ByteString.copyFrom(e)));
+        Optional.ofNullable(payloadHashDigest).ifPresent(e -> builder.setPayloadHashDigest(e.toProtoMessage()));
 
         protobuf.NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setGetDataResponse(builder)
@@ -135,6 +178,8 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 proto.getRequestNonce(),
                 proto.getIsGetUpdatedDataResponse(),
                 wasTruncated,
+                ProtoUtil.byteArrayOrNullFromProto(proto.getDataResponseCursor()),
+                proto.hasPayloadHashDigest() ? PayloadHashDigest.fromProto(proto.getPayloadHashDigest()) : null,
                 Capabilities.fromIntList(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
@@ -41,10 +41,27 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
     public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
                                  int nonce,
                                  Set<byte[]> excludedKeys) {
+        this(senderNodeAddress, nonce, excludedKeys, null);
+    }
+
+    public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                 int nonce,
+                                 Set<byte[]> excludedKeys,
+                                 @Nullable PayloadHashDigest payloadHashDigest) {
+        this(senderNodeAddress, nonce, excludedKeys, payloadHashDigest, null);
+    }
+
+    public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                 int nonce,
+                                 Set<byte[]> excludedKeys,
+                                 @Nullable PayloadHashDigest payloadHashDigest,
+                                 @Nullable byte[] dataResponseCursor) {
         this(senderNodeAddress,
                 nonce,
                 excludedKeys,
                 Version.VERSION,
+                payloadHashDigest,
+                dataResponseCursor,
                 Version.getP2PMessageVersion());
     }
 
@@ -57,11 +74,15 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                                   int nonce,
                                   Set<byte[]> excludedKeys,
                                   @Nullable String version,
+                                  @Nullable PayloadHashDigest payloadHashDigest,
+                                  @Nullable byte[] dataResponseCursor,
                                   String messageVersion) {
         super(messageVersion,
                 nonce,
                 excludedKeys,
-                version);
+                version,
+                payloadHashDigest,
+                dataResponseCursor);
         this.senderNodeAddress = senderNodeAddress;
     }
 
@@ -74,6 +95,8 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(payloadHashDigest).ifPresent(e -> builder.setPayloadHashDigest(e.toProtoMessage()));
+        Optional.ofNullable(dataResponseCursor).ifPresent(e -> builder.setDataResponseCursor(ByteString.copyFrom(e)));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setGetUpdatedDataRequest(builder)
                 .build();
@@ -85,12 +108,16 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
     public static GetUpdatedDataRequest fromProto(protobuf.GetUpdatedDataRequest proto, String messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
+        PayloadHashDigest payloadHashDigest = proto.hasPayloadHashDigest() ?
+                PayloadHashDigest.fromProto(proto.getPayloadHashDigest()) : null;
         log.info("Received a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
                 proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
         return new GetUpdatedDataRequest(NodeAddress.fromProto(proto.getSenderNodeAddress()),
                 proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                payloadHashDigest,
+                ProtoUtil.byteArrayOrNullFromProto(proto.getDataResponseCursor()),
                 messageVersion);
     }
 }
@@ -0,0 +1,236 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.peers.getdata.messages;
+
+import haveno.common.proto.network.NetworkPayload;
+import haveno.network.p2p.storage.P2PDataStorage;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact replacement for the excluded keys of the PersistableNetworkPayload stores in a GetDataRequest.
+ * The hashes known by the requester are distributed into a power of two number of buckets. For each bucket we keep
+ * the number of hashes and the xor of their 64 bit fingerprints. The responder builds the same digest over its own
+ * data and only needs to consider the entries of buckets which do not match.
+ * Payload hashes are uniformly distributed, so the first bytes select the bucket and the last bytes are used as
+ * fingerprint.
+ * <p>
+ * If the requester knows some hashes of a non matching bucket the responder cannot tell which of its entries are
+ * missing. It then answers with a digest listing the exact buckets, and the requester repeats its request with the
+ * exact keys of these buckets. Such a digest has no counts and fingerprints.
+ */
+@EqualsAndHashCode
+@ToString(of = "numBuckets")
+public final class PayloadHashDigest implements NetworkPayload {
+    public static final int MIN_BUCKETS = 64;
+    public static final int MAX_BUCKETS = 1 << 16;
+    // We target about 8 hashes per bucket. A bucket costs about 9 bytes on the wire while 8 hashes cost > 256 bytes.
+    private static final int TARGET_HASHES_PER_BUCKET = 8;
+
+    @Getter
+    private final int numBuckets;
+    private final int[] counts;
+    private final long[] fingerprints;
+    // Sorted. Only set at a digest created with forExactBuckets.
+    private final int[] exactBuckets;
+
+    private PayloadHashDigest(int numBuckets, int[] counts, long[] fingerprints, int[] exactBuckets) {
+        this.numBuckets = numBuckets;
+        this.counts = counts;
+        this.fingerprints = fingerprints;
+        this.exactBuckets = exactBuckets;
+    }
+
+    public static PayloadHashDigest fromKeys(Collection<P2PDataStorage.ByteArray> keys) {
+        return fromKeys(keys, getNumBucketsForSize(keys.size()));
+    }
+
+    public static PayloadHashDigest fromKeys(Collection<P2PDataStorage.ByteArray> keys, int numBuckets) {
+        int[] counts = new int[numBuckets];
+        long[] fingerprints = new long[numBuckets];
+        keys.forEach(key -> {
+            int bucket = getBucket(key.bytes, numBuckets);
+            counts[bucket]++;
+            fingerprints[bucket] ^= getFingerprint(key.bytes);
+        });
+        return new PayloadHashDigest(numBuckets, counts, fingerprints, new int[0]);
+    }
+
+    public static PayloadHashDigest forExactBuckets(int numBuckets, Collection<Integer> buckets) {
+        int[] exactBuckets = buckets.stream().mapToInt(Integer::intValue).sorted().toArray();
+        return new PayloadHashDigest(numBuckets, new int[0], new long[0], exactBuckets);
+    }
+
+    static int getNumBucketsForSize(int size) {
+        int numBuckets = Integer.highestOneBit(Math.max(1, size / TARGET_HASHES_PER_BUCKET));
+        return Math.min(MAX_BUCKETS, Math.max(MIN_BUCKETS, numBuckets));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public protobuf.PayloadHashDigest toProtoMessage() {
+        protobuf.PayloadHashDigest.Builder builder = protobuf.PayloadHashDigest.newBuilder();
+        if (hasExactBuckets()) {
+            builder.setNumBuckets(numBuckets);
+            for (int bucket : exactBuckets) {
+                builder.addExactBuckets(bucket);
+            }
+            return builder.build();
+        }
+        for (int i = 0; i < numBuckets; i++) {
+            builder.addCounts(counts[i]);
+            builder.addFingerprints(fingerprints[i]);
+        }
+        return builder.build();
+    }
+
+    public static PayloadHashDigest fromProto(protobuf.PayloadHashDigest proto) {
+        if (proto.getExactBucketsCount() > 0) {
+            return fromProtoWithExactBuckets(proto);
+        }
+        int numBuckets = proto.getCountsCount();
+        if (numBuckets != proto.getFingerprintsCount() || !isValidNumBuckets(numBuckets)) {
+            throw new IllegalArgumentException("Invalid PayloadHashDigest with " + numBuckets + " buckets and " +
+                    proto.getFingerprintsCount() + " fingerprints");
+        }
+        int[] counts = new int[numBuckets];
+        long[] fingerprints = new long[numBuckets];
+        for (int i = 0; i < numBuckets; i++) {
+            counts[i] = proto.getCounts(i);
+            fingerprints[i] = proto.getFingerprints(i);
+        }
+        return new PayloadHashDigest(numBuckets, counts, fingerprints, new int[0]);
+    }
+
+    private static PayloadHashDigest fromProtoWithExactBuckets(protobuf.PayloadHashDigest proto) {
+        int numBuckets = proto.getNumBuckets();
+        if (!isValidNumBuckets(numBuckets) ||
+                proto.getCountsCount() > 0 ||
+                proto.getFingerprintsCount() > 0 ||
+                proto.getExactBucketsCount() > numBuckets) {
+            throw new IllegalArgumentException("Invalid PayloadHashDigest with " + numBuckets + " buckets and " +
+                    proto.getExactBucketsCount() + " exact buckets");
+        }
+        List<Integer> exactBuckets = proto.getExactBucketsList();
+        exactBuckets.forEach(bucket -> {
+            if (bucket < 0 || bucket >= numBuckets) {
+                throw new IllegalArgumentException("Invalid exact bucket " + bucket + " of PayloadHashDigest with " +
+                        numBuckets + " buckets");
+            }
+        });
+        return forExactBuckets(numBuckets, exactBuckets);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Returns true if the given key falls into a bucket where this digest and the other digest are equal. In that case
+     * both sides know the same set of hashes for that bucket (with overwhelming probability).
+     */
+    public boolean isInMatchingBucket(P2PDataStorage.ByteArray key, PayloadHashDigest other) {
+        if (numBuckets != other.numBuckets) {
+            return false;
+        }
+        int bucket = getBucket(key.bytes, numBuckets);
+        return counts[bucket] == other.counts[bucket] && fingerprints[bucket] == other.fingerprints[bucket];
+    }
+
+    /**
+     * Returns the buckets where this digest and the other digest differ.
+     */
+    public List<Integer> getMismatchedBuckets(PayloadHashDigest other) {
+        if (numBuckets != other.numBuckets) {
+            throw new IllegalArgumentException("Cannot compare PayloadHashDigests with different number of buckets");
+        }
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < numBuckets; i++) {
+            if (counts[i] != other.counts[i] || fingerprints[i] != other.fingerprints[i]) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    public int getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    public boolean hasExactBuckets() {
+        return exactBuckets.length > 0;
+    }
+
+    public int getNumExactBuckets() {
+        return exactBuckets.length;
+    }
+
+    public boolean isInExactBucket(P2PDataStorage.ByteArray key) {
+        return Arrays.binarySearch(exactBuckets, getBucket(key.bytes, numBuckets)) >= 0;
+    }
+
+    public int getNumMatchingBuckets(PayloadHashDigest other) {
+        if (numBuckets != other.numBuckets) {
+            return 0;
+        }
+        int result = 0;
+        for (int i = 0; i < numBuckets; i++) {
+            if (counts[i] == other.counts[i] && fingerprints[i] == other.fingerprints[i]) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static boolean isValidNumBuckets(int numBuckets) {
+        return numBuckets >= MIN_BUCKETS && numBuckets <= MAX_BUCKETS && Integer.bitCount(numBuckets) == 1;
+    }
+
+    private static int getBucket(byte[] bytes, int numBuckets) {
+        int value = 0;
+        for (int i = 0; i < Math.min(4, bytes.length); i++) {
+            value = (value << 8) | (bytes[i] & 0xff);
+        }
+        return value & (numBuckets - 1);
+    }
+
+    // For hashes with at least 8 bytes that is the value of the last 8 bytes.
+    private static long getFingerprint(byte[] bytes) {
+        long value = 0;
+        for (byte b : bytes) {
+            value = (value << 8) | (b & 0xff);
+        }
+        return value;
+    }
+}
@@ -40,9 +40,24 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     private final Capabilities supportedCapabilities;
 
     public PreliminaryGetDataRequest(int nonce, Set<byte[]> excludedKeys) {
+        this(nonce, excludedKeys, null);
+    }
+
+    public PreliminaryGetDataRequest(int nonce,
+                                     Set<byte[]> excludedKeys,
+                                     @Nullable PayloadHashDigest payloadHashDigest) {
+        this(nonce, excludedKeys, payloadHashDigest, null);
+    }
+
+    public PreliminaryGetDataRequest(int nonce,
+                                     Set<byte[]> excludedKeys,
+                                     @Nullable PayloadHashDigest payloadHashDigest,
+                                     @Nullable byte[] dataResponseCursor) {
         this(nonce,
                 excludedKeys,
                 Version.VERSION,
+                payloadHashDigest,
+                dataResponseCursor,
                 Capabilities.app,
                 Version.getP2PMessageVersion());
     }
@@ -55,9 +70,11 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     private PreliminaryGetDataRequest(int nonce,
                                       Set<byte[]> excludedKeys,
                                       @Nullable String version,
+                                      @Nullable PayloadHashDigest payloadHashDigest,
+                                      @Nullable byte[] dataResponseCursor,
                                       Capabilities supportedCapabilities,
                                       String messageVersion) {
-        super(messageVersion, nonce, excludedKeys, version);
+        super(messageVersion, nonce, excludedKeys, version, payloadHashDigest, dataResponseCursor);
 
         this.supportedCapabilities = supportedCapabilities;
     }
@@ -71,6 +88,8 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(payloadHashDigest).ifPresent(e -> builder.setPayloadHashDigest(e.toProtoMessage()));
+        Optional.ofNullable(dataResponseCursor).ifPresent(e -> builder.setDataResponseCursor(ByteString.copyFrom(e)));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setPreliminaryGetDataRequest(builder)
                 .build();
@@ -82,11 +101,15 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     public static PreliminaryGetDataRequest fromProto(protobuf.PreliminaryGetDataRequest proto, String messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
+        PayloadHashDigest payloadHashDigest = proto.hasPayloadHashDigest() ?
+                PayloadHashDigest.fromProto(proto.getPayloadHashDigest()) : null;
         log.info("Received a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}",
                 proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
         return new PreliminaryGetDataRequest(proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                payloadHashDigest,
+                ProtoUtil.byteArrayOrNullFromProto(proto.getDataResponseCursor()),
                 Capabilities.fromIntList(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
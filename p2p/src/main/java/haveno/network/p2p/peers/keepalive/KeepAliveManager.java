@@ -34,9 +34,9 @@ import haveno.network.p2p.network.OutboundConnection;
 import haveno.network.p2p.peers.PeerManager;
 import haveno.network.p2p.peers.keepalive.messages.Ping;
 import haveno.network.p2p.peers.keepalive.messages.Pong;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,9 +48,10 @@ public class KeepAliveManager implements MessageListener, ConnectionListener, Pe
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
-    private final Map<String, KeepAliveHandler> handlerMap = new HashMap<>();
+    // Accessed from the lanes of the connections
+    private final Map<String, KeepAliveHandler> handlerMap = new ConcurrentHashMap<>();
 
-    private boolean stopped;
+    private volatile boolean stopped;
     private Timer keepAliveTimer;
 
 
@@ -222,10 +223,9 @@ public class KeepAliveManager implements MessageListener, ConnectionListener, Pe
     }
 
     private void closeHandler(Connection connection) {
-        String uid = connection.getUid();
-        if (handlerMap.containsKey(uid)) {
-            handlerMap.get(uid).cancel();
-            handlerMap.remove(uid);
+        KeepAliveHandler handler = handlerMap.remove(connection.getUid());
+        if (handler != null) {
+            handler.cancel();
         }
     }
 
@@ -34,13 +34,13 @@ import haveno.network.p2p.seed.SeedNodeRepository;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -56,10 +56,11 @@ public class PeerExchangeManager implements MessageListener, ConnectionListener,
     private final PeerManager peerManager;
 
     private final Set<NodeAddress> seedNodeAddresses;
-    private final Map<NodeAddress, PeerExchangeHandler> handlerMap = new HashMap<>();
+    // Accessed from the lanes of the connections
+    private final Map<NodeAddress, PeerExchangeHandler> handlerMap = new ConcurrentHashMap<>();
 
     private Timer retryTimer, periodicTimer;
-    private boolean stopped;
+    private volatile boolean stopped;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -133,17 +134,20 @@ public class PeerExchangeManager implements MessageListener, ConnectionListener,
         log.debug("onDisconnect closeConnectionReason={}, nodeAddressOpt={}", closeConnectionReason, connection.getPeersNodeAddressOptional());
         closeHandler(connection);
 
-        if (retryTimer == null) {
-            retryTimer = UserThread.runAfter(() -> {
-                log.trace("ConnectToMorePeersTimer called from onDisconnect code path");
-                stopRetryTimer();
-                requestWithAvailablePeers();
-            }, RETRY_DELAY_SEC);
-        }
+        boolean isPeerBanned = peerManager.isPeerBanned(closeConnectionReason, connection);
+        UserThread.execute(() -> {
+            if (retryTimer == null) {
+                retryTimer = UserThread.runAfter(() -> {
+                    log.trace("ConnectToMorePeersTimer called from onDisconnect code path");
+                    stopRetryTimer();
+                    requestWithAvailablePeers();
+                }, RETRY_DELAY_SEC);
+            }
 
-        if (peerManager.isPeerBanned(closeConnectionReason, connection)) {
-            connection.getPeersNodeAddressOptional().ifPresent(seedNodeAddresses::remove);
-        }
+            if (isPeerBanned) {
+                connection.getPeersNodeAddressOptional().ifPresent(seedNodeAddresses::remove);
+            }
+        });
     }
 
 
@@ -222,7 +226,7 @@ public class PeerExchangeManager implements MessageListener, ConnectionListener,
                             @Override
                             public void onComplete() {
                                 handlerMap.remove(nodeAddress);
-                                requestWithAvailablePeers();
+                                UserThread.execute(() -> requestWithAvailablePeers());
                             }
 
                             @Override
@@ -232,33 +236,35 @@ public class PeerExchangeManager implements MessageListener, ConnectionListener,
 
                                 peerManager.handleConnectionFault(nodeAddress);
                                 handlerMap.remove(nodeAddress);
-                                if (!remainingNodeAddresses.isEmpty()) {
-                                    if (!peerManager.hasSufficientConnections()) {
-                                        log.debug("There are remaining nodes available for requesting peers. " +
-                                                "We will try getReportedPeers again.");
-                                        NodeAddress nextCandidate = remainingNodeAddresses.get(new Random().nextInt(remainingNodeAddresses.size()));
-                                        remainingNodeAddresses.remove(nextCandidate);
-                                        requestReportedPeers(nextCandidate, remainingNodeAddresses);
+                                UserThread.execute(() -> {
+                                    if (!remainingNodeAddresses.isEmpty()) {
+                                        if (!peerManager.hasSufficientConnections()) {
+                                            log.debug("There are remaining nodes available for requesting peers. " +
+                                                    "We will try getReportedPeers again.");
+                                            NodeAddress nextCandidate = remainingNodeAddresses.get(new Random().nextInt(remainingNodeAddresses.size()));
+                                            remainingNodeAddresses.remove(nextCandidate);
+                                            requestReportedPeers(nextCandidate, remainingNodeAddresses);
+                                        } else {
+                                            // That path will rarely be reached
+                                            log.debug("We have already sufficient connections.");
+                                        }
                                     } else {
-                                        // That path will rarely be reached
-                                        log.debug("We have already sufficient connections.");
+                                        log.debug("There is no remaining node available for requesting peers. " +
+                                                "That is expected if no other node is online.\n\t" +
+                                                "We will try again after a pause.");
+                                        if (retryTimer == null)
+                                            retryTimer = UserThread.runAfter(() -> {
+                                                if (!stopped) {
+                                                    log.trace("retryTimer called from requestReportedPeers code path");
+                                                    stopRetryTimer();
+                                                    requestWithAvailablePeers();
+                                                } else {
+                                                    stopRetryTimer();
+                                                    log.warn("We have stopped already. We ignore that retryTimer.run call.");
+                                                }
+                                            }, RETRY_DELAY_SEC);
                                     }
-                                } else {
-                                    log.debug("There is no remaining node available for requesting peers. " +
-                                            "That is expected if no other node is online.\n\t" +
-                                            "We will try again after a pause.");
-                                    if (retryTimer == null)
-                                        retryTimer = UserThread.runAfter(() -> {
-                                            if (!stopped) {
-                                                log.trace("retryTimer called from requestReportedPeers code path");
-                                                stopRetryTimer();
-                                                requestWithAvailablePeers();
-                                            } else {
-                                                stopRetryTimer();
-                                                log.warn("We have stopped already. We ignore that retryTimer.run call.");
-                                            }
-                                        }, RETRY_DELAY_SEC);
-                                }
+                                });
                             }
                         });
                 handlerMap.put(nodeAddress, peerExchangeHandler);
@@ -385,9 +391,9 @@ public class PeerExchangeManager implements MessageListener, ConnectionListener,
         Optional<NodeAddress> peersNodeAddressOptional = connection.getPeersNodeAddressOptional();
         if (peersNodeAddressOptional.isPresent()) {
             NodeAddress nodeAddress = peersNodeAddressOptional.get();
-            if (handlerMap.containsKey(nodeAddress)) {
-                handlerMap.get(nodeAddress).cancel();
-                handlerMap.remove(nodeAddress);
+            PeerExchangeHandler handler = handlerMap.remove(nodeAddress);
+            if (handler != null) {
+                handler.cancel();
             }
         }
     }
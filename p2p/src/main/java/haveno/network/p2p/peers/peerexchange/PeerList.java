@@ -24,15 +24,15 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
 @EqualsAndHashCode
 public class PeerList implements PersistableEnvelope {
     @Getter
-    private final Set<Peer> set = new HashSet<>();
+    private final Set<Peer> set = ConcurrentHashMap.newKeySet();
 
     public PeerList() {
     }
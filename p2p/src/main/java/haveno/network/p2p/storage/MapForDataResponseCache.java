@@ -0,0 +1,198 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage;
+
+import haveno.network.p2p.storage.payload.DateSortedTruncatablePayload;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Caches the maps of PersistableNetworkPayloads used for GetDataResponses per requesters version. Seed nodes get many
+ * requests after a restart and building the map copies all historical data stores, so we build it once per version.
+ * <p>
+ * The cached maps list the DateSortedTruncatablePayloads last and sorted by date with the most recent first, so the
+ * response builder does not need to sort them again and fills the size limit with the most recent items.
+ * PersistableNetworkPayloads added to the stores are part of the map for any requesters version, so they are collected
+ * and merged into the cached maps at the next request. Any other change of the stores drops all cached maps.
+ * <p>
+ * Chunked responses use the map sorted by key and truncated to the most recent items of each
+ * DateSortedTruncatablePayload type, which is built once per cached map.
+ */
+@Slf4j
+class MapForDataResponseCache {
+    private static final int MAX_REQUESTER_VERSIONS = 8;
+    // If more payloads got added since a map was built we rather build it again at the next request
+    private static final int MAX_ADDED_PAYLOADS = 10000;
+
+    private static class CachedMap {
+        private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map;
+        @Nullable
+        private NavigableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapForChunks;
+        private final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> added = new HashMap<>();
+
+        private CachedMap(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+            this.map = map;
+        }
+    }
+
+    // LinkedHashMap supports null keys which we use for requesters not sending their version
+    private final Map<String, CachedMap> mapsByRequestersVersion = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedMap> eldest) {
+            return size() > MAX_REQUESTER_VERSIONS;
+        }
+    };
+    private long storeVersion = -1;
+    private long numHits;
+    private long numMisses;
+
+    /**
+     * Returns the cached map for the requesters version or builds it with the given function. The returned map must
+     * not be modified.
+     */
+    synchronized Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> get(
+            @Nullable String requestersVersion,
+            long storeVersion,
+            Function<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> mapBuilder) {
+        if (storeVersion != this.storeVersion) {
+            mapsByRequestersVersion.clear();
+            this.storeVersion = storeVersion;
+        }
+
+        CachedMap cachedMap = mapsByRequestersVersion.get(requestersVersion);
+        if (cachedMap != null) {
+            numHits++;
+            if (!cachedMap.added.isEmpty()) {
+                // The cached map is sorted already, so sorting it with the added payloads is cheap
+                Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new LinkedHashMap<>(cachedMap.map);
+                map.putAll(cachedMap.added);
+                cachedMap.map = sortForDataResponse(map);
+                cachedMap.mapForChunks = null;
+                cachedMap.added.clear();
+            }
+            return cachedMap.map;
+        }
+
+        numMisses++;
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = sortForDataResponse(mapBuilder.apply(requestersVersion));
+        mapsByRequestersVersion.put(requestersVersion, new CachedMap(map));
+        log.info("We cached the map for data responses for requesters version {} with {} entries. Hits: {}, misses: {}",
+                requestersVersion, map.size(), numHits, numMisses);
+        return map;
+    }
+
+    /**
+     * Returns the map for chunked responses built from the given map, see sortForChunks. If the given map is the
+     * cached map for the requesters version it is built only once. The returned map must not be modified.
+     */
+    synchronized NavigableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> getForChunks(
+            @Nullable String requestersVersion,
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        CachedMap cachedMap = mapsByRequestersVersion.get(requestersVersion);
+        if (cachedMap == null || cachedMap.map != map) {
+            return sortForChunks(sortForDataResponse(map));
+        }
+        if (cachedMap.mapForChunks == null) {
+            cachedMap.mapForChunks = sortForChunks(map);
+        }
+        return cachedMap.mapForChunks;
+    }
+
+    /**
+     * Called after the payload was added to the stores, which changed the version of the stores to storeVersion. If
+     * we missed another change of the stores all cached maps are dropped.
+     */
+    synchronized void onAdded(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload, long storeVersion) {
+        if (storeVersion != this.storeVersion + 1) {
+            mapsByRequestersVersion.clear();
+            this.storeVersion = storeVersion;
+            return;
+        }
+
+        this.storeVersion = storeVersion;
+        mapsByRequestersVersion.values().removeIf(cachedMap -> {
+            if (!cachedMap.map.containsKey(hash)) {
+                cachedMap.added.put(hash, payload);
+            }
+            return cachedMap.added.size() > MAX_ADDED_PAYLOADS;
+        });
+    }
+
+    synchronized void clear() {
+        mapsByRequestersVersion.clear();
+        storeVersion = -1;
+    }
+
+    static Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> sortForDataResponse(
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+        List<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> dateSortedEntries = new ArrayList<>();
+        map.entrySet().forEach(entry -> {
+            if (entry.getValue() instanceof DateSortedTruncatablePayload) {
+                dateSortedEntries.add(entry);
+            } else {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        });
+
+        Comparator<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> byDate =
+                Comparator.comparing(entry -> ((DateSortedTruncatablePayload) entry.getValue()).getDate());
+        dateSortedEntries.sort(byDate.reversed());
+        dateSortedEntries.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Returns the map sorted by key as chunked responses are sent in the order of the keys. Of each
+     * DateSortedTruncatablePayload type only the most recent maxItems are kept, as in not chunked responses. The
+     * given map has to be sorted by sortForDataResponse.
+     */
+    static NavigableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> sortForChunks(
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        NavigableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new TreeMap<>();
+        Map<String, Integer> numItemsByClassName = new HashMap<>();
+        Map<String, Integer> numRemovedByClassName = new HashMap<>();
+        map.forEach((key, value) -> {
+            if (value instanceof DateSortedTruncatablePayload) {
+                String name = value.getClass().getSimpleName();
+                if (numItemsByClassName.merge(name, 1, Integer::sum) > ((DateSortedTruncatablePayload) value).maxItems()) {
+                    numRemovedByClassName.merge(name, 1, Integer::sum);
+                    return;
+                }
+            }
+            result.put(key, value);
+        });
+        if (!numRemovedByClassName.isEmpty()) {
+            log.info("We removed the oldest DateSortedTruncatablePayloads from the map for chunked responses: {}",
+                    numRemovedByClassName);
+        }
+        return Collections.unmodifiableNavigableMap(result);
+    }
+}
@@ -25,6 +25,8 @@ import com.google.protobuf.ByteString;
 import haveno.common.Timer;
 import haveno.common.UserThread;
 import haveno.common.app.Capabilities;
+import haveno.common.app.Capability;
+import haveno.common.config.Config;
 import haveno.common.crypto.CryptoException;
 import haveno.common.crypto.Hash;
 import haveno.common.crypto.Sig;
@@ -43,11 +45,13 @@ import haveno.network.p2p.network.Connection;
 import haveno.network.p2p.network.ConnectionListener;
 import haveno.network.p2p.network.MessageListener;
 import haveno.network.p2p.network.NetworkNode;
+import haveno.network.p2p.network.Statistic;
 import haveno.network.p2p.peers.BroadcastHandler;
 import haveno.network.p2p.peers.Broadcaster;
 import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
 import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
 import haveno.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
+import haveno.network.p2p.peers.getdata.messages.PayloadHashDigest;
 import haveno.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
 import haveno.network.p2p.storage.messages.AddDataMessage;
 import haveno.network.p2p.storage.messages.AddOncePayload;
@@ -60,6 +64,7 @@ import haveno.network.p2p.storage.payload.CapabilityRequiringPayload;
 import haveno.network.p2p.storage.payload.DateSortedTruncatablePayload;
 import haveno.network.p2p.storage.payload.DateTolerantPayload;
 import haveno.network.p2p.storage.payload.MailboxStoragePayload;
+import haveno.network.p2p.storage.payload.ParallelSignatureVerifier;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProcessOncePersistableNetworkPayload;
 import haveno.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
@@ -87,6 +92,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -94,6 +100,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -119,6 +126,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @VisibleForTesting
     public static final int CHECK_TTL_INTERVAL_SEC = 60;
 
+    // AddDataMessages received within that window are applied at once but listeners get notified in one batch
+    private static final long ADD_DATA_MESSAGE_BATCH_WINDOW_MS = 200;
+
     private boolean initialRequestApplied = false;
 
     private final Broadcaster broadcaster;
@@ -151,6 +161,21 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @Setter
     private Predicate<ProtectedStoragePayload> filterPredicate; // Set from FilterManager
 
+    // While a batch is open the added entries and the sequence number changes are collected and listeners get
+    // notified and persistence gets requested once when the batch completes. Guarded by map.
+    @Nullable
+    private List<ProtectedStorageEntry> batchedAddedEntries;
+    @Nullable
+    private Map<ByteArray, MapValue> batchedSequenceNumbers;
+    @Setter
+    @VisibleForTesting
+    private long addDataMessageBatchWindowMs = ADD_DATA_MESSAGE_BATCH_WINDOW_MS;
+
+    // Set for seed nodes which answer many GetDataRequests
+    @Setter
+    private boolean useMapForDataResponseCache;
+    private final MapForDataResponseCache mapForDataResponseCache = new MapForDataResponseCache();
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -164,7 +189,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             PersistenceManager<SequenceNumberMap> persistenceManager,
             RemovedPayloadsService removedPayloadsService,
             Clock clock,
-            @Named("MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE") int maxSequenceNumberBeforePurge) {
+            @Named("MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE") int maxSequenceNumberBeforePurge,
+            @Named(Config.USE_PERSISTENCE_JOURNAL) boolean usePersistenceJournal) {
         this.broadcaster = broadcaster;
         this.appendOnlyDataStoreService = appendOnlyDataStoreService;
         this.protectedDataStoreService = protectedDataStoreService;
@@ -178,6 +204,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         networkNode.addConnectionListener(this);
 
         this.persistenceManager.initialize(sequenceNumberMap, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+        if (usePersistenceJournal) {
+            this.persistenceManager.enableJournal();
+        }
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -248,8 +277,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     // to our excluded keys to reduce initial data response data size.
     public void addProtectedMailboxStorageEntryToMap(ProtectedStorageEntry protectedStorageEntry) {
         synchronized (map) {
-            ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
-            ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+            ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
             map.put(hashOfPayload, protectedStorageEntry);
             //log.trace("## addProtectedMailboxStorageEntryToMap hashOfPayload={}, map={}", hashOfPayload, printMap());
         }
@@ -263,31 +291,157 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce) {
-        return new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes());
+        return buildPreliminaryGetDataRequest(nonce, false);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
+     * If usePayloadHashDigest is set the keys of the PersistableNetworkPayload stores are sent as PayloadHashDigest.
+     * It must only be used if the peer supports Capability.PAYLOAD_HASH_DIGEST.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce, boolean usePayloadHashDigest) {
+        return buildPreliminaryGetDataRequest(nonce, usePayloadHashDigest, null);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest continuing a chunked response after the dataResponseCursor. Only the keys of
+     * the PersistableNetworkPayloads after the cursor are sent. The dataResponseCursor must only be set if the peer
+     * supports Capability.DATA_RESPONSE_CURSOR.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce,
+                                                                    boolean usePayloadHashDigest,
+                                                                    @Nullable ByteArray dataResponseCursor) {
+        byte[] cursor = dataResponseCursor != null ? dataResponseCursor.bytes : null;
+        if (usePayloadHashDigest) {
+            return new PreliminaryGetDataRequest(nonce, getKeysAsByteSet(map),
+                    buildPayloadHashDigest(dataResponseCursor), cursor);
+        }
+        return new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes(dataResponseCursor), null, cursor);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest repeating a request with a PayloadHashDigest after the peer responded with the
+     * buckets where our digests did not match. We send the exact keys of these buckets as excluded keys.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce,
+                                                                    @Nullable ByteArray dataResponseCursor,
+                                                                    PayloadHashDigest exactBucketsDigest) {
+        byte[] cursor = dataResponseCursor != null ? dataResponseCursor.bytes : null;
+        return new PreliminaryGetDataRequest(nonce,
+                getKnownPayloadHashesInExactBuckets(dataResponseCursor, exactBucketsDigest),
+                exactBucketsDigest,
+                cursor);
     }
 
     /**
      * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress, int nonce) {
-        return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
+        return buildGetUpdatedDataRequest(senderNodeAddress, nonce, false);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
+     * If usePayloadHashDigest is set the keys of the PersistableNetworkPayload stores are sent as PayloadHashDigest.
+     * It must only be used if the peer supports Capability.PAYLOAD_HASH_DIGEST.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            boolean usePayloadHashDigest) {
+        return buildGetUpdatedDataRequest(senderNodeAddress, nonce, usePayloadHashDigest, null);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest continuing a chunked response after the dataResponseCursor. Only the keys of
+     * the PersistableNetworkPayloads after the cursor are sent. The dataResponseCursor must only be set if the peer
+     * supports Capability.DATA_RESPONSE_CURSOR.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            boolean usePayloadHashDigest,
+                                                            @Nullable ByteArray dataResponseCursor) {
+        byte[] cursor = dataResponseCursor != null ? dataResponseCursor.bytes : null;
+        if (usePayloadHashDigest) {
+            return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKeysAsByteSet(map),
+                    buildPayloadHashDigest(dataResponseCursor), cursor);
+        }
+        return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes(dataResponseCursor), null, cursor);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest repeating a request with a PayloadHashDigest after the peer responded with the
+     * buckets where our digests did not match. We send the exact keys of these buckets as excluded keys.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            @Nullable ByteArray dataResponseCursor,
+                                                            PayloadHashDigest exactBucketsDigest) {
+        byte[] cursor = dataResponseCursor != null ? dataResponseCursor.bytes : null;
+        return new GetUpdatedDataRequest(senderNodeAddress,
+                nonce,
+                getKnownPayloadHashesInExactBuckets(dataResponseCursor, exactBucketsDigest),
+                exactBucketsDigest,
+                cursor);
     }
 
     /**
      * Returns the set of known payload hashes. This is used in the GetData path to request missing data from peer nodes
      */
-    private Set<byte[]> getKnownPayloadHashes() {
+    private Set<byte[]> getKnownPayloadHashes(@Nullable ByteArray dataResponseCursor) {
         // We collect the keys of the PersistableNetworkPayload items so we exclude them in our request.
         // PersistedStoragePayload items don't get removed, so we don't have an issue with the case that
         // an object gets removed in between PreliminaryGetDataRequest and the GetUpdatedDataRequest and we would
         // miss that event if we do not load the full set or use some delta handling.
-        Map<ByteArray, PersistableNetworkPayload> mapForDataRequest = getMapForDataRequest();
+        Map<ByteArray, PersistableNetworkPayload> mapForDataRequest = filterAfterCursor(getMapForDataRequest(),
+                dataResponseCursor);
         Set<byte[]> excludedKeys = getKeysAsByteSet(mapForDataRequest);
         Set<byte[]> excludedKeysFromProtectedStorageEntryMap = getKeysAsByteSet(map);
         excludedKeys.addAll(excludedKeysFromProtectedStorageEntryMap);
         return excludedKeys;
     }
 
+    /**
+     * Returns a PayloadHashDigest over the same PersistableNetworkPayload keys we would add to the excluded keys.
+     */
+    private PayloadHashDigest buildPayloadHashDigest(@Nullable ByteArray dataResponseCursor) {
+        Set<ByteArray> keys = filterAfterCursor(getMapForDataRequest(), dataResponseCursor).keySet();
+        PayloadHashDigest payloadHashDigest = PayloadHashDigest.fromKeys(keys);
+
+        // Each excluded key is a length delimited bytes field with 2 bytes overhead
+        long excludedKeysSize = keys.stream().mapToLong(key -> key.bytes.length + 2).sum();
+        long bytesSaved = excludedKeysSize - payloadHashDigest.toProtoMessage().getSerializedSize();
+        log.info("We use a PayloadHashDigest with {} buckets for {} PersistableNetworkPayload keys. Saved {}",
+                payloadHashDigest.getNumBuckets(), keys.size(), Utilities.readableFileSize(Math.max(0, bytesSaved)));
+        if (bytesSaved > 0) {
+            Statistic.addBytesSavedByPayloadHashDigest(bytesSaved);
+        }
+        return payloadHashDigest;
+    }
+
+    /**
+     * Returns the ProtectedStorageEntry keys and the PersistableNetworkPayload keys of the exact buckets. The second
+     * round is not for free, so we count the keys we send now and the exact bucket lists of the response and of our
+     * request against the bytes saved by the PayloadHashDigest.
+     */
+    private Set<byte[]> getKnownPayloadHashesInExactBuckets(@Nullable ByteArray dataResponseCursor,
+                                                            PayloadHashDigest exactBucketsDigest) {
+        Set<byte[]> excludedKeys = filterAfterCursor(getMapForDataRequest(), dataResponseCursor).keySet().stream()
+                .filter(exactBucketsDigest::isInExactBucket)
+                .map(e -> e.bytes)
+                .collect(Collectors.toSet());
+        int numPersistableNetworkPayloadKeys = excludedKeys.size();
+        excludedKeys.addAll(getKeysAsByteSet(map));
+
+        // Each excluded key is a length delimited bytes field with 2 bytes overhead
+        long excludedKeysSize = excludedKeys.stream().mapToLong(key -> key.length + 2).sum();
+        long extraBytes = excludedKeysSize + 2L * exactBucketsDigest.toProtoMessage().getSerializedSize();
+        log.info("We repeat our request with {} PersistableNetworkPayload keys of {} mismatched buckets. Costs {}",
+                numPersistableNetworkPayloadKeys, exactBucketsDigest.getNumExactBuckets(),
+                Utilities.readableFileSize(extraBytes));
+        Statistic.addBytesSavedByPayloadHashDigest(-extraBytes);
+        return excludedKeys;
+    }
+
     /**
      * Returns a GetDataResponse object that contains the Payloads known locally, but not remotely.
      */
@@ -305,22 +459,67 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // The methods in HistoricalDataStoreService will return all historical data in that case.
         // mapForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
         // maps of the remaining appendOnlyDataStoreServices.
-        Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = getMapForDataResponse(getDataRequest.getVersion());
+        Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = useMapForDataResponseCache ?
+                mapForDataResponseCache.get(getDataRequest.getVersion(), appendOnlyDataStoreService.getVersion(),
+                        this::getMapForDataResponse) :
+                getMapForDataResponse(getDataRequest.getVersion());
+
+        // Peers supporting chunked responses get the PersistableNetworkPayloads in the order of their keys. The map
+        // sorted by key and truncated like the not chunked responses is built once per version of the stores.
+        boolean isChunkedResponse = peerCapabilities.contains(Capability.DATA_RESPONSE_CURSOR);
+        NavigableMap<ByteArray, PersistableNetworkPayload> mapForChunks = null;
+        if (isChunkedResponse) {
+            mapForChunks = useMapForDataResponseCache ?
+                    mapForDataResponseCache.getForChunks(getDataRequest.getVersion(), mapForDataResponse) :
+                    MapForDataResponseCache.sortForChunks(MapForDataResponseCache.sortForDataResponse(mapForDataResponse));
+        }
+        ByteArray dataResponseCursor = getDataRequest.getDataResponseCursor() != null ?
+                new ByteArray(getDataRequest.getDataResponseCursor()) : null;
+
+        // If the requester sent a PayloadHashDigest the excluded keys do not contain the PersistableNetworkPayload
+        // keys. We only consider the entries of the buckets where our digest does not match the requesters digest.
+        // If the requester knows some keys of these buckets we let it repeat the request with their exact keys instead
+        // of sending all entries of these buckets.
+        PayloadHashDigest requestersDigest = getDataRequest.getPayloadHashDigest();
+        AtomicReference<PayloadHashDigest> exactBucketsDigest = new AtomicReference<>();
+        if (requestersDigest != null) {
+            // If the requester continues a chunked response it has all PersistableNetworkPayloads up to the cursor, and
+            // the excluded keys and the digest only cover the keys after the cursor. We filter before comparing
+            // digests, otherwise our digest would cover keys the requesters digest does not.
+            mapForDataResponse = filterAfterCursor(mapForDataResponse, dataResponseCursor);
+            mapForDataResponse = requestersDigest.hasExactBuckets() ?
+                    filterByExactBuckets(mapForDataResponse, requestersDigest) :
+                    filterByPayloadHashDigest(mapForDataResponse, requestersDigest, exactBucketsDigest);
+        }
 
         // Give a bit of tolerance for message overhead
         double maxSize = Connection.getMaxPermittedMessageSize() * 0.6;
 
         // 25% of space is allocated for PersistableNetworkPayloads
         long limit = Math.round(maxSize * 0.25);
-        Set<PersistableNetworkPayload> filteredPersistableNetworkPayloads = filterKnownHashes(
-                mapForDataResponse,
-                Function.identity(),
-                excludedKeysAsByteArray,
-                peerCapabilities,
-                maxEntriesPerType,
-                limit,
-                wasPersistableNetworkPayloadsTruncated,
-                true);
+        // Instead of truncating we send chunked responses with the key of the last payload as cursor for the next request.
+        AtomicReference<ByteArray> nextDataResponseCursor = new AtomicReference<>();
+        Set<PersistableNetworkPayload> filteredPersistableNetworkPayloads =
+                isChunkedResponse ?
+                        getPersistableNetworkPayloadChunk(
+                                mapForChunks,
+                                dataResponseCursor,
+                                mapForDataResponse,
+                                excludedKeysAsByteArray,
+                                peerCapabilities,
+                                maxEntriesPerType,
+                                limit,
+                                nextDataResponseCursor,
+                                wasPersistableNetworkPayloadsTruncated) :
+                        filterKnownHashes(
+                                mapForDataResponse,
+                                Function.identity(),
+                                excludedKeysAsByteArray,
+                                peerCapabilities,
+                                maxEntriesPerType,
+                                limit,
+                                wasPersistableNetworkPayloadsTruncated,
+                                true);
         log.info("{} PersistableNetworkPayload entries remained after filtered by excluded keys. " +
                 "Original map had {} entries.",
                 filteredPersistableNetworkPayloads.size(), mapForDataResponse.size());
@@ -345,7 +544,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 filteredProtectedStorageEntries.size(), map.size());
         log.trace("## buildGetDataResponse filteredProtectedStorageEntryHashes={}",
                 filteredProtectedStorageEntries.stream()
-                        .map(e -> get32ByteHashAsByteArray((e.getProtectedStoragePayload())))
+                        .map(ProtectedStorageEntry::getHashOfPayload)
                         .toArray());
 
         boolean wasTruncated = wasPersistableNetworkPayloadsTruncated.get() || wasProtectedStorageEntriesTruncated.get();
@@ -354,7 +553,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 filteredPersistableNetworkPayloads,
                 getDataRequest.getNonce(),
                 getDataRequest instanceof GetUpdatedDataRequest,
-                wasTruncated);
+                wasTruncated,
+                nextDataResponseCursor.get() != null ? nextDataResponseCursor.get().bytes : null,
+                exactBucketsDigest.get());
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -399,6 +600,111 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return map;
     }
 
+    /**
+     * Returns the entries of the buckets where our digest does not match the requesters digest if the requester does
+     * not know any key of these buckets. Otherwise we return no entries and set the mismatched buckets as
+     * exactBucketsDigest, so the requester repeats its request with the exact keys of these buckets.
+     */
+    private Map<ByteArray, PersistableNetworkPayload> filterByPayloadHashDigest(Map<ByteArray, PersistableNetworkPayload> map,
+                                                                              PayloadHashDigest requestersDigest,
+                                                                              AtomicReference<PayloadHashDigest> exactBucketsDigest) {
+        PayloadHashDigest ourDigest = PayloadHashDigest.fromKeys(map.keySet(), requestersDigest.getNumBuckets());
+        List<Integer> mismatchedBuckets = ourDigest.getMismatchedBuckets(requestersDigest);
+        if (mismatchedBuckets.stream().anyMatch(bucket -> requestersDigest.getCount(bucket) > 0)) {
+            log.info("{} of {} buckets of the requesters PayloadHashDigest do not match. We let the requester send " +
+                            "the exact keys of these buckets.",
+                    mismatchedBuckets.size(), requestersDigest.getNumBuckets());
+            exactBucketsDigest.set(PayloadHashDigest.forExactBuckets(requestersDigest.getNumBuckets(), mismatchedBuckets));
+            return new HashMap<>();
+        }
+
+        Map<ByteArray, PersistableNetworkPayload> filtered = new HashMap<>();
+        map.forEach((key, value) -> {
+            if (!ourDigest.isInMatchingBucket(key, requestersDigest)) {
+                filtered.put(key, value);
+            }
+        });
+        log.info("{} of {} buckets of the requesters PayloadHashDigest match. {} of {} PersistableNetworkPayload " +
+                        "entries remain to be filtered.",
+                ourDigest.getNumMatchingBuckets(requestersDigest), requestersDigest.getNumBuckets(),
+                filtered.size(), map.size());
+        return filtered;
+    }
+
+    /**
+     * Returns the entries of the exact buckets of the repeated request. The excluded keys contain the exact keys of
+     * these buckets.
+     */
+    private static Map<ByteArray, PersistableNetworkPayload> filterByExactBuckets(Map<ByteArray, PersistableNetworkPayload> map,
+                                                                                PayloadHashDigest exactBucketsDigest) {
+        Map<ByteArray, PersistableNetworkPayload> filtered = new HashMap<>();
+        map.forEach((key, value) -> {
+            if (exactBucketsDigest.isInExactBucket(key)) {
+                filtered.put(key, value);
+            }
+        });
+        log.info("{} of {} PersistableNetworkPayload entries are in the {} exact buckets of the request.",
+                filtered.size(), map.size(), exactBucketsDigest.getNumExactBuckets());
+        return filtered;
+    }
+
+    private static Map<ByteArray, PersistableNetworkPayload> filterAfterCursor(Map<ByteArray, PersistableNetworkPayload> map,
+                                                                              @Nullable ByteArray dataResponseCursor) {
+        if (dataResponseCursor == null) {
+            return map;
+        }
+        Map<ByteArray, PersistableNetworkPayload> filtered = new HashMap<>();
+        map.forEach((key, value) -> {
+            if (key.compareTo(dataResponseCursor) > 0) {
+                filtered.put(key, value);
+            }
+        });
+        return filtered;
+    }
+
+    /**
+     * Returns the next chunk of the PersistableNetworkPayloads unknown to the requester in the order of their keys.
+     * We iterate mapForChunks after the cursor and only consider the entries contained in toFilter. If not all
+     * payloads fit into the chunk the key of the last payload is set as outDataResponseCursor. We add at least one
+     * payload, so the requester always makes progress.
+     */
+    private static Set<PersistableNetworkPayload> getPersistableNetworkPayloadChunk(
+            NavigableMap<ByteArray, PersistableNetworkPayload> mapForChunks,
+            @Nullable ByteArray dataResponseCursor,
+            Map<ByteArray, PersistableNetworkPayload> toFilter,
+            Set<ByteArray> knownHashes,
+            Capabilities peerCapabilities,
+            int maxEntries,
+            long limit,
+            AtomicReference<ByteArray> outDataResponseCursor,
+            AtomicBoolean outTruncated) {
+        Map<ByteArray, PersistableNetworkPayload> remaining = dataResponseCursor != null ?
+                mapForChunks.tailMap(dataResponseCursor, false) :
+                mapForChunks;
+
+        Set<PersistableNetworkPayload> result = new HashSet<>();
+        long totalSize = 0;
+        for (Map.Entry<ByteArray, PersistableNetworkPayload> entry : remaining.entrySet()) {
+            if (!toFilter.containsKey(entry.getKey()) ||
+                    knownHashes.contains(entry.getKey()) ||
+                    !shouldTransmitPayloadToPeer(peerCapabilities, entry.getValue())) {
+                continue;
+            }
+            totalSize += entry.getValue().toProtoMessage().getSerializedSize();
+            if (!result.isEmpty() && (result.size() >= maxEntries || totalSize > limit)) {
+                outTruncated.set(true);
+                log.info("We send a chunk of {} PersistableNetworkPayloads and a cursor for the next chunk",
+                        result.size());
+                return result;
+            }
+            result.add(entry.getValue());
+            outDataResponseCursor.set(entry.getKey());
+        }
+
+        outDataResponseCursor.set(null);
+        return result;
+    }
+
     /**
      * Generic function that can be used to filter a Map<ByteArray, ProtectedStorageEntry || PersistableNetworkPayload>
      * by a given set of keys and peer capabilities.
@@ -572,19 +878,31 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         Set<ProtectedStorageEntry> protectedStorageEntries = getDataResponse.getDataSet();
         Set<PersistableNetworkPayload> persistableNetworkPayloadSet = getDataResponse.getPersistableNetworkPayloadSet();
         long ts = System.currentTimeMillis();
-        protectedStorageEntries.forEach(protectedStorageEntry -> {
-            // We rebroadcast high priority data after a delay for better resilience
-            if (protectedStorageEntry.getProtectedStoragePayload().getGetDataResponsePriority() == GetDataResponsePriority.HIGH) {
-                UserThread.runAfter(() -> {
-                    log.info("Rebroadcast {}", protectedStorageEntry.getProtectedStoragePayload().getClass().getSimpleName());
-                    broadcaster.broadcast(new AddDataMessage(protectedStorageEntry), sender, null);
-                }, 60);
-            }
 
-            // We don't broadcast here (last param) as we are only connected to the seed node and would be pointless
-            addProtectedStorageEntry(protectedStorageEntry, sender, null, false);
+        // We verify the signatures of the entries we will likely apply in parallel. The entries are applied in order
+        // afterwards with all the checks, but the signature check then hits the cache of the verifier.
+        ParallelSignatureVerifier.verify(getProtectedStorageEntriesToVerify(protectedStorageEntries));
+        log.info("Verifying signatures of protectedStorageEntries took {} ms.", System.currentTimeMillis() - ts);
+
+        // We apply all entries as one batch, so listeners get notified once and persistence gets requested once
+        boolean batchStarted = startBatch();
+        try {
+            protectedStorageEntries.forEach(protectedStorageEntry -> {
+                // We rebroadcast high priority data after a delay for better resilience
+                if (protectedStorageEntry.getProtectedStoragePayload().getGetDataResponsePriority() == GetDataResponsePriority.HIGH) {
+                    UserThread.runAfter(() -> {
+                        log.info("Rebroadcast {}", protectedStorageEntry.getProtectedStoragePayload().getClass().getSimpleName());
+                        broadcaster.broadcast(new AddDataMessage(protectedStorageEntry), sender, null);
+                    }, 60);
+                }
 
-        });
+                // We don't broadcast here (last param) as we are only connected to the seed node and would be pointless
+                addProtectedStorageEntry(protectedStorageEntry, sender, null, false);
+            });
+        } finally {
+            if (batchStarted)
+                completeBatch();
+        }
         log.info("Processing {} protectedStorageEntries took {} ms.", protectedStorageEntries.size(), this.clock.millis() - ts);
 
         ts = this.clock.millis();
@@ -610,8 +928,26 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         // We only process PersistableNetworkPayloads implementing ProcessOncePersistableNetworkPayload once. It can cause performance
         // issues and since the data is rarely out of sync it is not worth it to apply them from multiple peers during
-        // startup.
-        initialRequestApplied = true;
+        // startup. A chunk of a chunked response is followed by the request for the next chunk, so we wait for the last
+        // chunk. Legacy truncated responses are applied only once as before. A response listing the exact buckets of a
+        // PayloadHashDigest is followed by the repeated request, which delivers the PersistableNetworkPayloads.
+        boolean isFollowedByRequest = (getDataResponse.isWasTruncated() && getDataResponse.getDataResponseCursor() != null) ||
+                getDataResponse.getPayloadHashDigest() != null;
+        if (!isFollowedByRequest) {
+            initialRequestApplied = true;
+        }
+    }
+
+    // Entries we have already stored with the same or a higher sequence number or which are expired get rejected
+    // before the signature is checked, so we do not verify them.
+    private List<ProtectedStorageEntry> getProtectedStorageEntriesToVerify(Collection<ProtectedStorageEntry> protectedStorageEntries) {
+        return protectedStorageEntries.stream()
+                .filter(entry -> !entry.isExpired(clock))
+                .filter(entry -> {
+                    ProtectedStorageEntry storedEntry = map.get(entry.getHashOfPayload());
+                    return storedEntry == null || entry.getSequenceNumber() > storedEntry.getSequenceNumber();
+                })
+                .collect(Collectors.toList());
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -621,6 +957,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void shutDown() {
         if (removeExpiredEntriesTimer != null)
             removeExpiredEntriesTimer.stop();
+
+        completeBatch();
+        appendOnlyDataStoreService.shutDown();
     }
 
     @VisibleForTesting
@@ -667,6 +1006,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         if (networkEnvelope instanceof BroadcastMessage) {
             connection.getPeersNodeAddressOptional().ifPresent(peersNodeAddress -> {
                 if (networkEnvelope instanceof AddDataMessage) {
+                    // The first message of a burst starts a batch which completes after the batch window
+                    if (addDataMessageBatchWindowMs > 0 && startBatch())
+                        UserThread.runAfter(this::completeBatch, addDataMessageBatchWindowMs, TimeUnit.MILLISECONDS);
                     addProtectedStorageEntry(((AddDataMessage) networkEnvelope).getProtectedStorageEntry(), peersNodeAddress, null, true);
                 } else if (networkEnvelope instanceof RemoveDataMessage) {
                     remove(((RemoveDataMessage) networkEnvelope).getProtectedStorageEntry(), peersNodeAddress);
@@ -775,7 +1117,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // Add the payload and publish the state update to the appendOnlyDataStoreListeners
         boolean wasAdded = false;
         if (!payloadHashAlreadyInStore) {
-            wasAdded = appendOnlyDataStoreService.put(hashAsByteArray, payload);
+            wasAdded = putToAppendOnlyDataStore(hashAsByteArray, payload);
             if (wasAdded) {
                 appendOnlyDataStoreListeners.forEach(e -> e.onAdded(payload));
             }
@@ -797,12 +1139,20 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         byte[] hash = payload.getHash();
         if (payload.verifyHashSize()) {
             ByteArray hashAsByteArray = new ByteArray(hash);
-            appendOnlyDataStoreService.put(hashAsByteArray, payload);
+            putToAppendOnlyDataStore(hashAsByteArray, payload);
         } else {
             log.warn("We got a hash exceeding our permitted size");
         }
     }
 
+    private boolean putToAppendOnlyDataStore(ByteArray hashAsByteArray, PersistableNetworkPayload payload) {
+        boolean wasAdded = appendOnlyDataStoreService.put(hashAsByteArray, payload);
+        if (wasAdded && useMapForDataResponseCache) {
+            mapForDataResponseCache.onAdded(hashAsByteArray, payload, appendOnlyDataStoreService.getVersion());
+        }
+        return wasAdded;
+    }
+
     public boolean addProtectedStorageEntry(ProtectedStorageEntry protectedStorageEntry,
                                             @Nullable NodeAddress sender,
                                             @Nullable BroadcastHandler.Listener listener) {
@@ -824,7 +1174,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                                              boolean allowBroadcast) {
         synchronized (map) {
             ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
-            ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+            ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
 
             //log.trace("## call addProtectedStorageEntry hash={}, map={}", hashOfPayload, printMap());
 
@@ -880,11 +1230,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
             // This is an updated entry. Record it and signal listeners.
             map.put(hashOfPayload, protectedStorageEntry);
-            hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
+            if (batchedAddedEntries != null)
+                batchedAddedEntries.add(protectedStorageEntry);
+            else
+                hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
 
             // Record the updated sequence number and persist it. Higher delay so we can batch more items.
-            sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-            requestPersistence();
+            persistSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
             //log.trace("## ProtectedStorageEntry added to map. hash={}, map={}", hashOfPayload, printMap());
 
@@ -913,7 +1265,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                                                               @Nullable NodeAddress sender,
                                                               @Nullable BroadcastHandler.Listener listener) {
         ProtectedStoragePayload protectedStoragePayload = protectedMailboxStorageEntry.getProtectedStoragePayload();
-        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+        ByteArray hashOfPayload = protectedMailboxStorageEntry.getHashOfPayload();
 
         //log.trace("## call republishProtectedStorageEntry hash={}, map={}", hashOfPayload, printMap());
 
@@ -973,8 +1325,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 map.put(hashOfPayload, updatedEntry);
 
                 // Record the latest sequence number and persist it
-                sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
-                requestPersistence();
+                persistSequenceNumber(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
 
                 // Always broadcast refreshes
                 broadcaster.broadcast(refreshTTLMessage, sender);
@@ -999,7 +1350,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                           @Nullable NodeAddress sender) {
         synchronized (map) {
             ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
-            ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+            ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
 
             // If we have seen a more recent operation for this payload, ignore this one
             if (!hasSequenceNrIncreased(protectedStorageEntry.getSequenceNumber(), hashOfPayload))
@@ -1015,8 +1366,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 return false;
 
             // Record the latest sequence number and persist it
-            sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-            requestPersistence();
+            persistSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
             // Update that we have seen this AddOncePayload so the next time it is seen it fails verification
             if (protectedStoragePayload instanceof AddOncePayload) {
@@ -1119,6 +1469,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             if (entriesToRemove.isEmpty())
                 return;
 
+            // Listeners need to see the adds of the open batch before the removes
+            notifyBatchedAddedEntries();
+
             List<ProtectedStorageEntry> removedProtectedStorageEntries = new ArrayList<>(entriesToRemove.size());
             entriesToRemove.forEach(entry -> {
                 ByteArray hashOfPayload = entry.getKey();
@@ -1174,6 +1527,82 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         persistenceManager.requestPersistence();
     }
 
+    /**
+     * Opens a batch if none is open.
+     *
+     * @return <code>true</code> if a batch was opened, the caller has to complete it
+     */
+    private boolean startBatch() {
+        synchronized (map) {
+            if (batchedAddedEntries != null)
+                return false;
+
+            batchedAddedEntries = new ArrayList<>();
+            batchedSequenceNumbers = new HashMap<>();
+            return true;
+        }
+    }
+
+    private void completeBatch() {
+        synchronized (map) {
+            if (batchedAddedEntries == null)
+                return;
+
+            // We close the batch before we notify the listeners, so a listener which throws or adds entries cannot
+            // leave it open or get entries lost.
+            List<ProtectedStorageEntry> addedEntries = batchedAddedEntries;
+            Map<ByteArray, MapValue> sequenceNumbers = batchedSequenceNumbers;
+            batchedAddedEntries = null;
+            batchedSequenceNumbers = null;
+
+            try {
+                if (!addedEntries.isEmpty())
+                    hashMapChangedListeners.forEach(e -> e.onAdded(addedEntries));
+            } finally {
+                persistBatchedSequenceNumbers(sequenceNumbers);
+            }
+        }
+    }
+
+    private void persistBatchedSequenceNumbers(Map<ByteArray, MapValue> sequenceNumbers) {
+        if (sequenceNumbers.isEmpty())
+            return;
+
+        if (persistenceManager.isJournalEnabled()) {
+            persistenceManager.appendToJournal(new SequenceNumberMap(sequenceNumbers));
+        } else {
+            requestPersistence();
+        }
+    }
+
+    private void notifyBatchedAddedEntries() {
+        synchronized (map) {
+            if (batchedAddedEntries == null || batchedAddedEntries.isEmpty())
+                return;
+
+            List<ProtectedStorageEntry> addedEntries = batchedAddedEntries;
+            batchedAddedEntries = new ArrayList<>();
+            hashMapChangedListeners.forEach(e -> e.onAdded(addedEntries));
+        }
+    }
+
+    // In journaled mode only the changed entry gets written. In an open batch the changes are written when the batch
+    // completes.
+    private void persistSequenceNumber(ByteArray hashOfPayload, MapValue mapValue) {
+        sequenceNumberMap.put(hashOfPayload, mapValue);
+        synchronized (map) {
+            if (batchedSequenceNumbers != null) {
+                batchedSequenceNumbers.put(hashOfPayload, mapValue);
+                return;
+            }
+        }
+        if (persistenceManager.isJournalEnabled()) {
+            persistenceManager.appendToJournal(new SequenceNumberMap(hashOfPayload, mapValue));
+        } else {
+            requestPersistence();
+        }
+    }
+
     public static ByteArray get32ByteHashAsByteArray(NetworkPayload data) {
         return new ByteArray(P2PDataStorage.get32ByteHash(data));
     }
@@ -1195,13 +1624,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             sb.append("Data set ").append(info).append(" operation");
             // We print the items sorted by hash with the payload class name and id
             List<Tuple2<String, ProtectedStorageEntry>> tempList = map.values().stream()
-                    .map(e -> new Tuple2<>(org.bitcoinj.core.Utils.HEX.encode(get32ByteHashAsByteArray(e.getProtectedStoragePayload()).bytes), e))
+                    .map(e -> new Tuple2<>(org.bitcoinj.core.Utils.HEX.encode(e.getHashOfPayload().bytes), e))
                     .sorted(Comparator.comparing(o -> o.first))
                     .collect(Collectors.toList());
             tempList.forEach(e -> {
                 ProtectedStorageEntry storageEntry = e.second;
                 ProtectedStoragePayload protectedStoragePayload = storageEntry.getProtectedStoragePayload();
-                MapValue mapValue = sequenceNumberMap.get(get32ByteHashAsByteArray(protectedStoragePayload));
+                MapValue mapValue = sequenceNumberMap.get(storageEntry.getHashOfPayload());
                 sb.append("\n")
                         .append("Hash=")
                         .append(e.first)
@@ -1273,16 +1702,18 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
     /**
      * Used as key object in map for cryptographic hash of stored data as byte[] as primitive data type cannot be
-     * used as key
+     * used as key. The hashCode is computed once at construction as the maps of the storage look up keys often.
+     * The bytes must not be modified after construction.
      */
-    @EqualsAndHashCode
-    public static final class ByteArray implements PersistablePayload {
+    public static final class ByteArray implements PersistablePayload, Comparable<ByteArray> {
         // That object is saved to disc. We need to take care of changes to not break deserialization.
         public final byte[] bytes;
+        private final int hashCode;
 
         public ByteArray(byte[] bytes) {
             this.bytes = bytes;
             verifyBytesNotEmpty();
+            this.hashCode = Arrays.hashCode(bytes);
         }
 
         public void verifyBytesNotEmpty() {
@@ -1293,6 +1724,25 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 throw new IllegalArgumentException("Cannot create P2PDataStorage.ByteArray with empty byte[] array argument.");
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ByteArray)) return false;
+            ByteArray other = (ByteArray) o;
+            return hashCode == other.hashCode && Arrays.equals(bytes, other.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        // Unsigned lexicographic order. Used as order of the keys of chunked GetDataResponses.
+        @Override
+        public int compareTo(ByteArray other) {
+            return Arrays.compareUnsigned(bytes, other.bytes);
+        }
+
         @Override
         public String toString() {
             return "ByteArray{" +
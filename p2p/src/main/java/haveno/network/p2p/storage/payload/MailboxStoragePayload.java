@@ -30,6 +30,7 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
 import java.security.PublicKey;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -139,4 +140,14 @@ public final class MailboxStoragePayload implements ProtectedStoragePayload, Exp
         // If not set in extraDataMap or value is invalid or too large we return default TTL
         return TTL;
     }
+
+    /**
+     * The owner of a mailbox payload is the receiver, as only the receiver is permitted to remove it. This lets the
+     * receiver skip messages for other nodes without trying to decrypt them.
+     *
+     * @param signaturePubKeyBytes  The bytes of the signature pub key of the receiver
+     */
+    public boolean isReceiver(byte[] signaturePubKeyBytes) {
+        return Arrays.equals(ownerPubKeyBytes, signaturePubKeyBytes);
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.payload;
+
+import haveno.common.crypto.Hash;
+import haveno.network.p2p.storage.P2PDataStorage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Verifies the signatures of many ProtectedStorageEntries in parallel and remembers the verified signatures.
+ * <p>
+ * Verification only fills the cache of verified signatures. The entries are still applied one by one with all the
+ * usual checks, but the signature check becomes a cache lookup. We only cache successful verifications, so an invalid
+ * signature is always verified again and rejected.
+ */
+@Slf4j
+public class ParallelSignatureVerifier {
+    private static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM);
+    // Below that size the overhead for the fan out is not worth it
+    private static final int MIN_ENTRIES_FOR_PARALLEL_VERIFICATION = 8;
+    private static final int MAX_CACHE_SIZE = 20_000;
+
+    // Keys are the hash of the public key, the hash of the signed data and the signature
+    private static final Set<P2PDataStorage.ByteArray> VERIFIED_SIGNATURES = Collections.synchronizedSet(
+            Collections.newSetFromMap(new LinkedHashMap<P2PDataStorage.ByteArray, Boolean>(1024, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<P2PDataStorage.ByteArray, Boolean> eldest) {
+                    return size() > MAX_CACHE_SIZE;
+                }
+            }));
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Verifies the signatures of the given entries on a bounded fork-join pool and blocks until all are verified.
+     * The results are not returned but stored in the cache used by ProtectedStorageEntry.isSignatureValid.
+     */
+    public static void verify(Collection<? extends ProtectedStorageEntry> entries) {
+        if (entries.size() < MIN_ENTRIES_FOR_PARALLEL_VERIFICATION || PARALLELISM == 1) {
+            return;
+        }
+
+        try {
+            POOL.submit(() -> entries.parallelStream().forEach(ProtectedStorageEntry::isSignatureValid)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Not critical as the signatures get verified again when the entries are applied
+            log.warn("Parallel signature verification failed: {}", e.toString());
+        }
+    }
+
+    public static void clearCache() {
+        VERIFIED_SIGNATURES.clear();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Package scope
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    static P2PDataStorage.ByteArray getCacheKey(byte[] pubKeyBytes, byte[] hashOfData, byte[] signature) {
+        // We prefix the lengths so different combinations of the fields cannot result in the same data
+        byte[] data = ByteBuffer.allocate(12 + pubKeyBytes.length + hashOfData.length + signature.length)
+                .putInt(pubKeyBytes.length)
+                .put(pubKeyBytes)
+                .putInt(hashOfData.length)
+                .put(hashOfData)
+                .putInt(signature.length)
+                .put(signature)
+                .array();
+        return new P2PDataStorage.ByteArray(Hash.getSha256Hash(data));
+    }
+
+    static boolean isVerified(P2PDataStorage.ByteArray cacheKey) {
+        return VERIFIED_SIGNATURES.contains(cacheKey);
+    }
+
+    static void addVerified(P2PDataStorage.ByteArray cacheKey) {
+        VERIFIED_SIGNATURES.add(cacheKey);
+    }
+}
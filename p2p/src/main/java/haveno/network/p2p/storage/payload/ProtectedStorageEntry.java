@@ -47,6 +47,13 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
     private final byte[] signature;
     private long creationTimeStamp;
 
+    // Payload and sequence number are immutable, so the hashes are computed once on first use. Not part of the
+    // proto message.
+    @EqualsAndHashCode.Exclude
+    transient private volatile P2PDataStorage.ByteArray hashOfPayload;
+    @EqualsAndHashCode.Exclude
+    transient private volatile byte[] hashOfDataAndSeqNr;
+
     public ProtectedStorageEntry(@NotNull ProtectedStoragePayload protectedStoragePayload,
                                  @NotNull PublicKey ownerPubKey,
                                  int sequenceNumber,
@@ -137,6 +144,30 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
             creationTimeStamp -= ((ExpirablePayload) protectedStoragePayload).getTTL() / 2;
     }
 
+    /**
+     * Returns the hash of the payload which is used as key in the P2PDataStorage maps.
+     */
+    public P2PDataStorage.ByteArray getHashOfPayload() {
+        P2PDataStorage.ByteArray result = hashOfPayload;
+        if (result == null) {
+            result = P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload);
+            hashOfPayload = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the hash of the payload and sequence number which is signed by the owner.
+     */
+    public byte[] getHashOfDataAndSeqNr() {
+        byte[] result = hashOfDataAndSeqNr;
+        if (result == null) {
+            result = P2PDataStorage.get32ByteHash(new P2PDataStorage.DataAndSeqNrPair(protectedStoragePayload, sequenceNumber));
+            hashOfDataAndSeqNr = result;
+        }
+        return result;
+    }
+
     public boolean isExpired(Clock clock) {
         return protectedStoragePayload instanceof ExpirablePayload &&
                 (clock.millis() - creationTimeStamp) > ((ExpirablePayload) protectedStoragePayload).getTTL();
@@ -199,16 +230,23 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
     }
 
     /*
-     * Returns true if the signature for the Entry is valid for the payload, sequence number, and ownerPubKey
+     * Returns true if the signature for the Entry is valid for the payload, sequence number, and ownerPubKey.
+     * Signatures verified before (e.g. by ParallelSignatureVerifier) are looked up in its cache.
      */
     boolean isSignatureValid() {
         try {
-            byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(
-                    new P2PDataStorage.DataAndSeqNrPair(this.protectedStoragePayload, this.sequenceNumber));
+            byte[] hashOfDataAndSeqNr = getHashOfDataAndSeqNr();
+
+            P2PDataStorage.ByteArray cacheKey = ParallelSignatureVerifier.getCacheKey(this.ownerPubKeyBytes,
+                    hashOfDataAndSeqNr, this.signature);
+            if (ParallelSignatureVerifier.isVerified(cacheKey))
+                return true;
 
             boolean result = Sig.verify(this.ownerPubKey, hashOfDataAndSeqNr, this.signature);
 
-            if (!result)
+            if (result)
+                ParallelSignatureVerifier.addVerified(cacheKey);
+            else
                 log.warn("ProtectedStorageEntry::isSignatureValid() failed.\n{}}", this);
 
             return result;
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -41,6 +42,9 @@ public class AppendOnlyDataStoreService {
     @Getter
     private final List<MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload>> services = new ArrayList<>();
 
+    // Incremented at each change of the stores, so views derived from the stores can detect if they are outdated
+    private final AtomicLong version = new AtomicLong();
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -52,6 +56,7 @@ public class AppendOnlyDataStoreService {
 
     public void addService(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
         services.add(service);
+        version.incrementAndGet();
     }
 
     public void readFromResources(String postFix, Runnable completeHandler) {
@@ -62,6 +67,7 @@ public class AppendOnlyDataStoreService {
         AtomicInteger remaining = new AtomicInteger(services.size());
         services.forEach(service -> {
             service.readFromResources(postFix, () -> {
+                version.incrementAndGet();
                 if (remaining.decrementAndGet() == 0) {
                     completeHandler.run();
                 }
@@ -73,6 +79,7 @@ public class AppendOnlyDataStoreService {
     @VisibleForTesting
     public void readFromResourcesSync(String postFix) {
         services.forEach(service -> service.readFromResourcesSync(postFix));
+        version.incrementAndGet();
     }
 
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMap(PersistableNetworkPayload payload) {
@@ -85,10 +92,23 @@ public class AppendOnlyDataStoreService {
 
     public boolean put(P2PDataStorage.ByteArray hashAsByteArray, PersistableNetworkPayload payload) {
         Optional<MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload>> optionalService = findService(payload);
-        optionalService.ifPresent(service -> service.putIfAbsent(hashAsByteArray, payload));
+        optionalService.ifPresent(service -> {
+            service.putIfAbsent(hashAsByteArray, payload);
+            version.incrementAndGet();
+        });
         return optionalService.isPresent();
     }
 
+    public void shutDown() {
+        services.stream()
+                .filter(service -> service instanceof HistoricalDataStoreService)
+                .forEach(service -> ((HistoricalDataStoreService<?>) service).shutDown());
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
     @NotNull
     private Optional<MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload>> findService(
             PersistableNetworkPayload payload) {
@@ -21,26 +21,61 @@ import com.google.common.collect.ImmutableMap;
 import haveno.common.app.DevEnv;
 import haveno.common.app.Version;
 import haveno.common.persistence.PersistenceManager;
+import haveno.common.proto.ProtoResolver;
 import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * Manages historical data stores tagged with the release versions.
  * New data is added to the default map in the store (live data). Historical data is created from resource files.
  * For initial data requests we only use the live data as the users version is sent with the
  * request so the responding (seed)node can figure out if we miss any of the historical data.
+ * <p>
+ * If useMappedHistoricalStores is enabled the historical data is kept in a memory-mapped MappedPayloadLog instead
+ * of the heap. The resource files are only read once per version and the payloads are decoded on access.
  */
 @Slf4j
 public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
+    // Each entry holds the decoded historical payloads of a set of versions, so we only keep a few of them
+    private static final int MAX_CACHED_HISTORICAL_MAPS = 3;
+
     private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
     // Cache to avoid that we have to recreate the historical data at each request
-    private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+
+    private final boolean useMappedHistoricalStores;
+    @Nullable
+    private final ProtoResolver protoResolver;
+    // Only set if useMappedHistoricalStores is enabled and the log could be opened
+    @Nullable
+    private MappedPayloadLog historicalPayloadLog;
+    // The tags of the versions in the historical payload log. The log binds the tags to the version strings.
+    private ImmutableMap<String, Integer> tagsByVersion = ImmutableMap.of();
+    // Decoded historical payloads by the tags of the versions newer than the requesters version. Requesters with
+    // versions between the same historical versions share an entry.
+    private final Map<Set<Integer>, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> historicalMapsByTags =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Set<Integer>, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> eldest) {
+                    return size() > MAX_CACHED_HISTORICAL_MAPS;
+                }
+            };
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -48,7 +83,16 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public HistoricalDataStoreService(File storageDir, PersistenceManager<T> persistenceManager) {
+        this(storageDir, persistenceManager, false, null);
+    }
+
+    public HistoricalDataStoreService(File storageDir,
+                                      PersistenceManager<T> persistenceManager,
+                                      boolean useMappedHistoricalStores,
+                                      @Nullable ProtoResolver protoResolver) {
         super(storageDir, persistenceManager);
+        this.useMappedHistoricalStores = useMappedHistoricalStores && protoResolver != null;
+        this.protoResolver = protoResolver;
     }
 
 
@@ -62,6 +106,21 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         // We add all our live data
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(store.getMap());
 
+        if (historicalPayloadLog != null) {
+            Set<Integer> tags = new HashSet<>();
+            tagsByVersion.forEach((version, tag) -> {
+                if (requestersVersion == null || Version.isNewVersion(version, requestersVersion)) {
+                    tags.add(tag);
+                }
+            });
+            if (!tags.isEmpty()) {
+                result.putAll(getHistoricalMap(historicalPayloadLog, tags));
+            }
+            log.info("We found {} entries since requesters version {}",
+                    result.size(), requestersVersion);
+            return result;
+        }
+
         // If we have a store with a newer version than the requesters version we will add those as well.
         storesByVersion.entrySet().stream()
                 .filter(entry -> {
@@ -95,12 +154,36 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return store.getMap();
     }
 
+    /**
+     * Returns the live and the historical data. If the historical data is kept in the MappedPayloadLog, lookups and
+     * iterating the keys do not decode the payloads, but iterating the entries or values decodes all historical
+     * payloads. Clients which keep all payloads in memory anyway, like the trade statistics and account age witnesses,
+     * do that once at startup.
+     */
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
+        if (historicalPayloadLog != null) {
+            // Copying would decode all historical payloads, so we return a read-only view instead. Live and
+            // historical data are disjoint as we prune the live data and do not add historical keys to it.
+            return new UnionView(getMapOfLiveData(), allHistoricalPayloads);
+        }
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
         result.putAll(allHistoricalPayloads);
         return result;
     }
 
+    public void shutDown() {
+        if (historicalPayloadLog != null) {
+            try {
+                historicalPayloadLog.close();
+            } catch (IOException e) {
+                log.error("Could not close {}", historicalPayloadLog.getFile(), e);
+            }
+        }
+        synchronized (historicalMapsByTags) {
+            historicalMapsByTags.clear();
+        }
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // MapStoreService
@@ -140,6 +223,11 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
     @Override
     protected void readFromResources(String postFix, Runnable completeHandler) {
+        if (useMappedHistoricalStores && openHistoricalPayloadLog()) {
+            readFromResourcesIntoLog(postFix, completeHandler);
+            return;
+        }
+
         readStore(persisted -> {
             log.debug("We have created the {} store for the live data and filled it with {} entries from the persisted data.",
                     getFileName(), getMapOfLiveData().size());
@@ -168,6 +256,104 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private boolean openHistoricalPayloadLog() {
+        if (historicalPayloadLog != null) {
+            return true;
+        }
+        File file = new File(absolutePathOfStorageDir, getFileName() + "_historical.log");
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            log.warn("make dir failed.\ndbDir=" + file.getParentFile().getAbsolutePath());
+        }
+        try {
+            historicalPayloadLog = new MappedPayloadLog(file, protoResolver);
+            return true;
+        } catch (IOException e) {
+            log.error("Could not open {}. We fall back to the in-memory historical stores.", file, e);
+            return false;
+        }
+    }
+
+    private void readFromResourcesIntoLog(String postFix, Runnable completeHandler) {
+        MappedPayloadLog payloadLog = historicalPayloadLog;
+        readStore(persisted -> {
+            Map<String, Integer> tagsByVersion = new HashMap<>();
+            for (String version : Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS) {
+                try {
+                    tagsByVersion.put(version, payloadLog.getOrAddTag(version));
+                } catch (IOException e) {
+                    log.error("Could not add version {} to the mapped log", version, e);
+                }
+            }
+            this.tagsByVersion = ImmutableMap.copyOf(tagsByVersion);
+
+            // Only versions which have not been completely written to the log in a previous session need to be read
+            // from the resource files.
+            Set<Integer> completedTags = payloadLog.getCompletedTags();
+            Map<String, Integer> missingTagsByVersion = new HashMap<>();
+            tagsByVersion.forEach((version, tag) -> {
+                if (!completedTags.contains(tag)) {
+                    missingTagsByVersion.put(version, tag);
+                }
+            });
+            log.info("{} of {} historical versions of {} are in the mapped log already.",
+                    tagsByVersion.size() - missingTagsByVersion.size(), tagsByVersion.size(), getFileName());
+
+            Runnable onAllRead = () -> {
+                Set<Integer> tags = new HashSet<>(this.tagsByVersion.values());
+                allHistoricalPayloads = new MappedPayloadMap(payloadLog, tags::contains);
+                storesByVersion = ImmutableMap.of();
+                // Requests during startup might have cached incomplete data
+                synchronized (historicalMapsByTags) {
+                    historicalMapsByTags.clear();
+                }
+                pruneLiveData(allHistoricalPayloads);
+                completeHandler.run();
+            };
+            if (missingTagsByVersion.isEmpty()) {
+                onAllRead.run();
+                return;
+            }
+
+            AtomicInteger numFiles = new AtomicInteger(missingTagsByVersion.size());
+            missingTagsByVersion.forEach((version, tag) -> {
+                Runnable onFileRead = () -> {
+                    if (numFiles.decrementAndGet() == 0) {
+                        onAllRead.run();
+                    }
+                };
+                String fileName = getFileName() + "_" + version;
+                makeFileFromResourceFile(fileName, postFix);
+                persistenceManager.readPersisted(fileName, historicalStore -> {
+                            try {
+                                payloadLog.appendAll(historicalStore.getMap(), tag);
+                                log.debug("We have added {} historical items from {} to the mapped log.",
+                                        historicalStore.getMap().size(), fileName);
+                            } catch (IOException e) {
+                                log.error("Could not add {} to the mapped log", fileName, e);
+                            }
+                            onFileRead.run();
+                        },
+                        onFileRead);
+            });
+        });
+    }
+
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getHistoricalMap(MappedPayloadLog payloadLog,
+                                                                                   Set<Integer> tags) {
+        synchronized (historicalMapsByTags) {
+            return historicalMapsByTags.computeIfAbsent(tags, key -> {
+                // Payloads which could not be decoded are skipped
+                Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap = new HashMap<>();
+                new MappedPayloadMap(payloadLog, key::contains).forEach((hash, payload) -> {
+                    if (payload != null) {
+                        historicalMap.put(hash, payload);
+                    }
+                });
+                return Collections.unmodifiableMap(historicalMap);
+            });
+        }
+    }
+
     private void readHistoricalStoreFromResources(String version,
                                                   String postFix,
                                                   Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads,
@@ -188,6 +374,17 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                 completeHandler::run);
     }
 
+    private void pruneLiveData(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalPayloads) {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfLiveData = getMapOfLiveData();
+        int preLive = mapOfLiveData.size();
+        mapOfLiveData.keySet().removeIf(historicalPayloads::containsKey);
+        if (preLive > mapOfLiveData.size()) {
+            log.debug("We pruned {} entries from our live data store which are already contained in the mapped historical log.",
+                    preLive - mapOfLiveData.size());
+            requestPersistence();
+        }
+    }
+
     private void pruneStore(PersistableNetworkPayloadStore<? extends PersistableNetworkPayload> historicalStore,
                             String version) {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfLiveData = getMapOfLiveData();
@@ -207,4 +404,70 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     private boolean anyMapContainsKey(P2PDataStorage.ByteArray hash) {
         return getMapOfLiveData().containsKey(hash) || allHistoricalPayloads.containsKey(hash);
     }
+
+
+    /**
+     * Read-only view on two disjoint maps.
+     */
+    private static class UnionView extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+        private final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> first;
+        private final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> second;
+
+        UnionView(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> first,
+                  Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return first.containsKey(key) || second.containsKey(key);
+        }
+
+        @Override
+        public PersistableNetworkPayload get(Object key) {
+            PersistableNetworkPayload payload = first.get(key);
+            return payload != null ? payload : second.get(key);
+        }
+
+        @Override
+        public int size() {
+            return first.size() + second.size();
+        }
+
+        @Override
+        public Set<P2PDataStorage.ByteArray> keySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<P2PDataStorage.ByteArray> iterator() {
+                    return Stream.concat(first.keySet().stream(), second.keySet().stream()).iterator();
+                }
+
+                @Override
+                public boolean contains(Object key) {
+                    return containsKey(key);
+                }
+
+                @Override
+                public int size() {
+                    return UnionView.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                    return Stream.concat(first.entrySet().stream(), second.entrySet().stream()).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return UnionView.this.size();
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,474 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.persistence;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import haveno.common.proto.ProtoResolver;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Append-only log of PersistableNetworkPayloads in a memory-mapped file.
+ * <p>
+ * The payloads are kept in their serialized protobuf form and only decoded when they are read. The hash index is
+ * kept in a direct buffer outside the heap and maps the payload hash to the offset of the record in the log. Each
+ * record carries a tag so views on a subset of the data can be created without copying. Tags are bound to names (e.g.
+ * the historical version the payloads belong to) in the log itself, so they stay valid if the set of names changes.
+ * <p>
+ * Record layout: int size of the remaining record | short tag | byte key length | key | serialized payload.
+ * A record with a key length of 0 binds the tag to the name in its payload, or marks that all payloads of its tag have
+ * been written if the payload is empty.
+ */
+@Slf4j
+public class MappedPayloadLog implements Closeable {
+    private static final int MAGIC = 0x48504c32;
+    private static final int FILE_HEADER_SIZE = 4;
+    private static final int RECORD_HEADER_SIZE = 7;
+
+    private final File file;
+    private final ProtoResolver protoResolver;
+    private final FileChannel channel;
+    private final OffHeapIndex index = new OffHeapIndex();
+    private final Map<Integer, Integer> numPayloadsByTag = new HashMap<>();
+    @Getter
+    private final Set<Integer> completedTags = new HashSet<>();
+    private final Map<String, Integer> tagsByName = new HashMap<>();
+    private MappedByteBuffer mapped;
+    private long endPosition;
+    // Lookups and iterations after close behave like an empty log, as network threads might still read while we shut
+    // down
+    private boolean closed;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public MappedPayloadLog(File file, ProtoResolver protoResolver) throws IOException {
+        this.file = file;
+        this.protoResolver = protoResolver;
+        channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            open();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Appends all payloads with the given tag and marks the tag as completed. Payloads which are already in the log
+     * are skipped.
+     */
+    public synchronized void appendAll(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads, int tag)
+            throws IOException {
+        checkNotClosed();
+        for (Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> entry : payloads.entrySet()) {
+            byte[] key = entry.getKey().bytes;
+            if (findOffset(key) >= 0) {
+                continue;
+            }
+            long offset = append(tag, key, entry.getValue().toProtoMessage().toByteArray());
+            index.put(getKeyHash(key), offset);
+            numPayloadsByTag.merge(tag, 1, Integer::sum);
+        }
+        append(tag, new byte[0], new byte[0]);
+        completedTags.add(tag);
+        channel.force(false);
+        ensureMapped();
+    }
+
+    /**
+     * Returns the tag bound to the given name. If the name is not known yet the next free tag gets bound to it.
+     */
+    public synchronized int getOrAddTag(String name) throws IOException {
+        checkNotClosed();
+        Integer tag = tagsByName.get(name);
+        if (tag != null) {
+            return tag;
+        }
+        int newTag = tagsByName.size();
+        append(newTag, new byte[0], name.getBytes(StandardCharsets.UTF_8));
+        tagsByName.put(name, newTag);
+        return newTag;
+    }
+
+    public synchronized boolean containsKey(P2PDataStorage.ByteArray key, IntPredicate tagFilter) {
+        if (closed) {
+            return false;
+        }
+        ensureMapped();
+        long offset = findOffset(key.bytes);
+        return offset >= 0 && tagFilter.test(mapped.getShort((int) offset + 4));
+    }
+
+    @Nullable
+    public synchronized PersistableNetworkPayload get(P2PDataStorage.ByteArray key, IntPredicate tagFilter) {
+        if (closed) {
+            return null;
+        }
+        ensureMapped();
+        long offset = findOffset(key.bytes);
+        if (offset < 0 || !tagFilter.test(mapped.getShort((int) offset + 4))) {
+            return null;
+        }
+        return decode((int) offset);
+    }
+
+    public synchronized int size(IntPredicate tagFilter) {
+        if (closed) {
+            return 0;
+        }
+        return numPayloadsByTag.entrySet().stream()
+                .filter(entry -> tagFilter.test(entry.getKey()))
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+    }
+
+    /**
+     * Iterates over all records of the given tags. The payload is only decoded if the consumer requests it.
+     */
+    public void forEach(IntPredicate tagFilter, BiConsumer<P2PDataStorage.ByteArray, LazyPayload> consumer) {
+        iterator(tagFilter).forEachRemaining(entry -> consumer.accept(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Returns an iterator over all records of the given tags. The records are read while iterating and the payload is
+     * only decoded if the caller requests it.
+     */
+    public Iterator<Map.Entry<P2PDataStorage.ByteArray, LazyPayload>> iterator(IntPredicate tagFilter) {
+        return new Iterator<>() {
+            private long position = FILE_HEADER_SIZE;
+            @Nullable
+            private Map.Entry<P2PDataStorage.ByteArray, LazyPayload> next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = readNext();
+                }
+                return next != null;
+            }
+
+            @Override
+            public Map.Entry<P2PDataStorage.ByteArray, LazyPayload> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<P2PDataStorage.ByteArray, LazyPayload> result = next;
+                next = null;
+                return result;
+            }
+
+            @Nullable
+            private Map.Entry<P2PDataStorage.ByteArray, LazyPayload> readNext() {
+                synchronized (MappedPayloadLog.this) {
+                    while (!closed && position < endPosition) {
+                        ensureMapped();
+                        int offset = (int) position;
+                        position += 4 + mapped.getInt(offset);
+                        int keyLength = mapped.get(offset + 6) & 0xff;
+                        if (keyLength == 0 || !tagFilter.test(mapped.getShort(offset + 4))) {
+                            continue;
+                        }
+                        byte[] keyBytes = new byte[keyLength];
+                        mapped.get(offset + RECORD_HEADER_SIZE, keyBytes);
+                        LazyPayload lazyPayload = () -> {
+                            synchronized (MappedPayloadLog.this) {
+                                return closed ? null : decode(offset);
+                            }
+                        };
+                        return new AbstractMap.SimpleImmutableEntry<>(new P2PDataStorage.ByteArray(keyBytes), lazyPayload);
+                    }
+                    return null;
+                }
+            }
+        };
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        index.release();
+        channel.close();
+    }
+
+    public interface LazyPayload {
+        /**
+         * Returns the decoded payload, or null if it could not be decoded or the log was closed.
+         */
+        @Nullable
+        PersistableNetworkPayload get();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void checkNotClosed() throws IOException {
+        if (closed) {
+            throw new IOException("File " + file + " is closed");
+        }
+    }
+
+    private void open() throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("File " + file + " exceeds the max. size of a mapped log");
+        }
+        if (size < FILE_HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(0, MAGIC);
+            channel.truncate(0);
+            channel.write(header, 0);
+            size = FILE_HEADER_SIZE;
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (mapped.getInt(0) != MAGIC) {
+            // The log is derived from the resource files, so we rebuild a log written in another format
+            log.warn("{} has an unknown format. We rebuild it.", file);
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(0, MAGIC), 0);
+            size = FILE_HEADER_SIZE;
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        // We rebuild the index from the record headers. Payloads are not decoded.
+        int position = FILE_HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= size) {
+            int recordSize = mapped.getInt(position);
+            int keyLength = mapped.get(position + 6) & 0xff;
+            if (recordSize < RECORD_HEADER_SIZE - 4 + keyLength || position + 4L + recordSize > size) {
+                break;
+            }
+            int tag = mapped.getShort(position + 4);
+            int payloadLength = recordSize - (RECORD_HEADER_SIZE - 4) - keyLength;
+            if (keyLength == 0 && payloadLength > 0) {
+                byte[] name = new byte[payloadLength];
+                mapped.get(position + RECORD_HEADER_SIZE, name);
+                tagsByName.put(new String(name, StandardCharsets.UTF_8), tag);
+            } else if (keyLength == 0) {
+                completedTags.add(tag);
+            } else {
+                byte[] key = new byte[keyLength];
+                mapped.get(position + RECORD_HEADER_SIZE, key);
+                index.put(getKeyHash(key), position);
+                numPayloadsByTag.merge(tag, 1, Integer::sum);
+            }
+            position += 4 + recordSize;
+        }
+        if (position < size) {
+            log.warn("We found an incomplete record at the end of {}. We truncate the file from {} to {} bytes.",
+                    file, size, position);
+            channel.truncate(position);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+        }
+        endPosition = position;
+        log.info("Opened {} with {} payloads", file.getName(), index.size());
+    }
+
+    // The mapping is only updated on demand so appending a batch does not remap the file for each record.
+    private void ensureMapped() {
+        if (mapped.limit() < endPosition) {
+            try {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, endPosition);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not map " + file, e);
+            }
+        }
+    }
+
+    private long append(int tag, byte[] key, byte[] payload) throws IOException {
+        if (key.length > 255) {
+            throw new IllegalArgumentException("Key exceeds the max. length of 255 bytes");
+        }
+        long offset = endPosition;
+        int recordSize = RECORD_HEADER_SIZE - 4 + key.length + payload.length;
+        if (offset + 4 + recordSize > Integer.MAX_VALUE) {
+            throw new IOException("File " + file + " exceeds the max. size of a mapped log");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 + recordSize)
+                .putInt(recordSize)
+                .putShort((short) tag)
+                .put((byte) key.length)
+                .put(key)
+                .put(payload);
+        buffer.flip();
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        endPosition = position;
+        return offset;
+    }
+
+    // Records appended after the last mapping are not considered. Keys of a batch are unique, so a batch only needs
+    // to be checked against the records written before.
+    private long findOffset(byte[] key) {
+        return index.find(getKeyHash(key), offset -> {
+            if (offset + RECORD_HEADER_SIZE + key.length > mapped.limit()) {
+                return false;
+            }
+            int keyLength = mapped.get((int) offset + 6) & 0xff;
+            if (keyLength != key.length) {
+                return false;
+            }
+            byte[] stored = new byte[keyLength];
+            mapped.get((int) offset + RECORD_HEADER_SIZE, stored);
+            return Arrays.equals(stored, key);
+        });
+    }
+
+    @Nullable
+    private PersistableNetworkPayload decode(int offset) {
+        ensureMapped();
+        int recordSize = mapped.getInt(offset);
+        int keyLength = mapped.get(offset + 6) & 0xff;
+        byte[] bytes = new byte[recordSize - (RECORD_HEADER_SIZE - 4) - keyLength];
+        mapped.get(offset + RECORD_HEADER_SIZE + keyLength, bytes);
+        try {
+            return PersistableNetworkPayload.fromProto(protobuf.PersistableNetworkPayload.parseFrom(bytes), protoResolver);
+        } catch (InvalidProtocolBufferException e) {
+            log.error("Could not decode payload at offset {} of {}", offset, file, e);
+            return null;
+        }
+    }
+
+    private static long getKeyHash(byte[] key) {
+        long value = 0;
+        for (int i = 0; i < Math.min(8, key.length); i++) {
+            value = (value << 8) | (key[i] & 0xff);
+        }
+        return value;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // OffHeapIndex
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Open addressing hash table in a direct buffer. Each slot holds the key hash and the record offset + 1, so an
+     * offset value of 0 marks an empty slot. Keys are compared against the log by the caller.
+     */
+    private static final class OffHeapIndex {
+        private static final int SLOT_SIZE = 16;
+        private static final int INITIAL_CAPACITY = 1 << 12;
+
+        private ByteBuffer slots = ByteBuffer.allocateDirect(INITIAL_CAPACITY * SLOT_SIZE);
+        private int capacity = INITIAL_CAPACITY;
+        private int size;
+
+        interface OffsetPredicate {
+            boolean test(long offset);
+        }
+
+        int size() {
+            return size;
+        }
+
+        long find(long keyHash, OffsetPredicate keyMatches) {
+            int mask = capacity - 1;
+            for (int slot = spread(keyHash) & mask; ; slot = (slot + 1) & mask) {
+                long storedOffset = slots.getLong(slot * SLOT_SIZE + 8);
+                if (storedOffset == 0) {
+                    return -1;
+                }
+                if (slots.getLong(slot * SLOT_SIZE) == keyHash && keyMatches.test(storedOffset - 1)) {
+                    return storedOffset - 1;
+                }
+            }
+        }
+
+        void put(long keyHash, long offset) {
+            if ((size + 1) * 2L > capacity) {
+                grow();
+            }
+            insert(slots, capacity, keyHash, offset + 1);
+            size++;
+        }
+
+        void release() {
+            slots = ByteBuffer.allocateDirect(0);
+            capacity = 0;
+            size = 0;
+        }
+
+        private void grow() {
+            int newCapacity = capacity * 2;
+            ByteBuffer newSlots = ByteBuffer.allocateDirect(newCapacity * SLOT_SIZE);
+            for (int slot = 0; slot < capacity; slot++) {
+                long storedOffset = slots.getLong(slot * SLOT_SIZE + 8);
+                if (storedOffset != 0) {
+                    insert(newSlots, newCapacity, slots.getLong(slot * SLOT_SIZE), storedOffset);
+                }
+            }
+            slots = newSlots;
+            capacity = newCapacity;
+        }
+
+        private static void insert(ByteBuffer slots, int capacity, long keyHash, long storedOffset) {
+            int mask = capacity - 1;
+            int slot = spread(keyHash) & mask;
+            while (slots.getLong(slot * SLOT_SIZE + 8) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots.putLong(slot * SLOT_SIZE, keyHash);
+            slots.putLong(slot * SLOT_SIZE + 8, storedOffset);
+        }
+
+        private static int spread(long keyHash) {
+            return (int) (keyHash ^ (keyHash >>> 32));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.persistence;
+
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Read-only map view on the records of a MappedPayloadLog with a matching tag.
+ * Lookups use the index of the log and payloads are decoded when they are accessed. The payloads of recent lookups are
+ * kept so repeated lookups of the same keys do not decode them again. Iterating the keys does not decode any payload,
+ * iterating the entries or values decodes all of them.
+ */
+class MappedPayloadMap extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    private static final int MAX_DECODED_PAYLOADS = 1000;
+
+    private final MappedPayloadLog payloadLog;
+    private final IntPredicate tagFilter;
+    private final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> decodedPayloads =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> eldest) {
+                    return size() > MAX_DECODED_PAYLOADS;
+                }
+            };
+
+    MappedPayloadMap(MappedPayloadLog payloadLog, IntPredicate tagFilter) {
+        this.payloadLog = payloadLog;
+        this.tagFilter = tagFilter;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof P2PDataStorage.ByteArray && payloadLog.containsKey((P2PDataStorage.ByteArray) key, tagFilter);
+    }
+
+    @Override
+    public PersistableNetworkPayload get(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray)) {
+            return null;
+        }
+        synchronized (decodedPayloads) {
+            PersistableNetworkPayload payload = decodedPayloads.get(key);
+            if (payload == null) {
+                payload = payloadLog.get((P2PDataStorage.ByteArray) key, tagFilter);
+                if (payload != null) {
+                    decodedPayloads.put((P2PDataStorage.ByteArray) key, payload);
+                }
+            }
+            return payload;
+        }
+    }
+
+    @Override
+    public int size() {
+        return payloadLog.size(tagFilter);
+    }
+
+    @Override
+    public Set<P2PDataStorage.ByteArray> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<P2PDataStorage.ByteArray> iterator() {
+                // The keys are read from the record headers, no payload gets decoded
+                Iterator<Entry<P2PDataStorage.ByteArray, MappedPayloadLog.LazyPayload>> records =
+                        payloadLog.iterator(tagFilter);
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return records.hasNext();
+                    }
+
+                    @Override
+                    public P2PDataStorage.ByteArray next() {
+                        return records.next().getKey();
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object key) {
+                return containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return MappedPayloadMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                // The records are read and decoded while iterating. Records which cannot be decoded are skipped, so
+                // the map never contains null values.
+                Iterator<Entry<P2PDataStorage.ByteArray, MappedPayloadLog.LazyPayload>> records =
+                        payloadLog.iterator(tagFilter);
+                return new Iterator<>() {
+                    private Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (next == null && records.hasNext()) {
+                            Entry<P2PDataStorage.ByteArray, MappedPayloadLog.LazyPayload> record = records.next();
+                            PersistableNetworkPayload payload = record.getValue().get();
+                            if (payload != null) {
+                                next = new SimpleImmutableEntry<>(record.getKey(), payload);
+                            }
+                        }
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = next;
+                        next = null;
+                        return result;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return MappedPayloadMap.this.size();
+            }
+        };
+    }
+}
@@ -17,6 +17,7 @@
 
 package haveno.network.p2p.storage.persistence;
 
+import haveno.common.proto.persistable.JournaledPersistableEnvelope;
 import haveno.common.proto.persistable.PersistableEnvelope;
 import haveno.network.p2p.storage.P2PDataStorage;
 
@@ -30,23 +31,27 @@ import java.util.stream.Collectors;
  * in protobuffer the map construct can't be anything, so the straightforward mapping was not possible.
  * Hence this Persistable class.
  */
-public class SequenceNumberMap implements PersistableEnvelope {
+public class SequenceNumberMap implements JournaledPersistableEnvelope {
     private Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map = new ConcurrentHashMap<>();
 
     public SequenceNumberMap() {
     }
 
+    public SequenceNumberMap(P2PDataStorage.ByteArray key, P2PDataStorage.MapValue value) {
+        map.put(key, value);
+    }
 
-    ///////////////////////////////////////////////////////////////////////////////////////////
-    // PROTO BUFFER
-    ///////////////////////////////////////////////////////////////////////////////////////////
-
-    private SequenceNumberMap(Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map) {
+    public SequenceNumberMap(Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map) {
         synchronized (this.map) {
             this.map.putAll(map);
         }
     }
 
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
     @Override
     public protobuf.PersistableEnvelope toProtoMessage() {
         synchronized (map) {
@@ -86,6 +91,13 @@ public class SequenceNumberMap implements PersistableEnvelope {
         }
     }
 
+    @Override
+    public void applyJournalEntry(PersistableEnvelope change) {
+        synchronized (map) {
+            map.putAll(((SequenceNumberMap) change).getMap());
+        }
+    }
+
     // Delegates
     public int size() {
         synchronized (map) {
@@ -0,0 +1,88 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionDispatchLaneTest {
+
+    @Test
+    public void tasksAreExecutedInOrder() throws InterruptedException {
+        ConnectionDispatchLane lane = new ConnectionDispatchLane("test");
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1000);
+        IntStream.range(0, 1000).forEach(i -> lane.execute(() -> {
+            executed.add(i);
+            done.countDown();
+        }));
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        List<Integer> expected = new ArrayList<>();
+        IntStream.range(0, 1000).forEach(expected::add);
+        assertEquals(expected, executed);
+        assertEquals(1000, lane.getNumExecutedTasks());
+        assertEquals(0, lane.getQueueDepth());
+    }
+
+    @Test
+    public void blockedLaneDoesNotBlockOtherLanes() throws InterruptedException {
+        ConnectionDispatchLane slowLane = new ConnectionDispatchLane("slow");
+        ConnectionDispatchLane lane = new ConnectionDispatchLane("other");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherExecuted = new CountDownLatch(1);
+
+        slowLane.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignore) {
+            }
+        });
+        slowLane.execute(() -> {
+        });
+        lane.execute(otherExecuted::countDown);
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(otherExecuted.await(10, TimeUnit.SECONDS));
+        assertEquals(1, slowLane.getQueueDepth());
+        release.countDown();
+    }
+
+    @Test
+    public void failingTaskDoesNotStopLane() throws InterruptedException {
+        ConnectionDispatchLane lane = new ConnectionDispatchLane("test");
+        CountDownLatch executed = new CountDownLatch(1);
+        lane.execute(() -> {
+            throw new RuntimeException("expected");
+        });
+        lane.execute(executed::countDown);
+
+        assertTrue(executed.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.common.proto.network.NetworkProtoResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConnectionTest {
+    private final List<Connection> connections = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        connections.forEach(connection -> connection.shutDown(CloseConnectionReason.SOCKET_CLOSED));
+    }
+
+    @Test
+    public void blockedListenerDoesNotDelayOtherConnections() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        Connection slowConnection = createConnection((networkEnvelope, connection) -> {
+            blocked.countDown();
+            awaitRelease();
+        });
+        Connection connection = createConnection((networkEnvelope, c) -> delivered.countDown());
+
+        slowConnection.onMessage(mock(NetworkEnvelope.class), slowConnection);
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+        connection.onMessage(mock(NetworkEnvelope.class), connection);
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Connection createConnection(MessageListener messageListener) throws IOException {
+        Socket socket = mock(Socket.class);
+        when(socket.getInputStream()).thenReturn(new BlockingInputStream());
+        when(socket.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        Connection connection = new Connection(socket,
+                messageListener,
+                mock(ConnectionListener.class),
+                null,
+                mock(NetworkProtoResolver.class),
+                null);
+        connections.add(connection);
+        return connection;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException ignore) {
+        }
+    }
+
+    // Blocks the input handler of the connection like a socket without incoming data
+    private class BlockingInputStream extends InputStream {
+        @Override
+        public int read() {
+            awaitRelease();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.network;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import haveno.common.proto.network.NetworkEnvelope;
+import haveno.network.p2p.BundleOfEnvelopes;
+import haveno.network.p2p.CloseConnectionMessage;
+import haveno.network.p2p.peers.keepalive.messages.Ping;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EncodedEnvelopeTest {
+
+    private static byte[] writeDelimited(EncodedEnvelope encodedEnvelope) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        encodedEnvelope.writeDelimitedTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] writeDelimited(NetworkEnvelope envelope) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        envelope.toProtoNetworkEnvelope().writeDelimitedTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void encodedEnvelopeMatchesProto() throws IOException {
+        CloseConnectionMessage message = new CloseConnectionMessage("reason");
+        EncodedEnvelope encodedEnvelope = EncodedEnvelope.of(message);
+
+        assertEquals(message.toProtoNetworkEnvelope().getSerializedSize(), encodedEnvelope.getSize());
+        assertArrayEquals(writeDelimited(message), writeDelimited(encodedEnvelope));
+    }
+
+    @Test
+    public void encodedBundleMatchesProto() throws IOException {
+        List<EncodedEnvelope> encodedEnvelopes = new ArrayList<>();
+        encodedEnvelopes.add(EncodedEnvelope.of(new CloseConnectionMessage("reason")));
+        encodedEnvelopes.add(EncodedEnvelope.of(new Ping(1, 2)));
+        // large enough for a multi byte length prefix
+        encodedEnvelopes.add(EncodedEnvelope.of(new CloseConnectionMessage("x".repeat(1000))));
+
+        EncodedEnvelope encodedBundle = EncodedEnvelope.bundle(encodedEnvelopes);
+        BundleOfEnvelopes bundle = (BundleOfEnvelopes) encodedBundle.getEnvelope();
+
+        assertEquals(3, bundle.getEnvelopes().size());
+        assertEquals(bundle.toProtoNetworkEnvelope().getSerializedSize(), encodedBundle.getSize());
+        assertArrayEquals(writeDelimited(bundle), writeDelimited(encodedBundle));
+    }
+
+    @Test
+    public void largeEnvelopeIsCompressed() throws IOException {
+        CloseConnectionMessage message = new CloseConnectionMessage("x".repeat(10000));
+        EncodedEnvelope encodedEnvelope = EncodedEnvelope.of(message);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        int wireSize = encodedEnvelope.writeDelimitedTo(outputStream, true);
+        assertTrue(wireSize < encodedEnvelope.getSize());
+
+        protobuf.NetworkEnvelope proto = protobuf.NetworkEnvelope.parseDelimitedFrom(
+                new ByteArrayInputStream(outputStream.toByteArray()));
+        assertEquals(wireSize, proto.getSerializedSize());
+        assertTrue(proto.hasCompressedEnvelope());
+        assertEquals(message.toProtoNetworkEnvelope(), EnvelopeCompression.decompress(proto.getCompressedEnvelope()));
+    }
+
+    @Test
+    public void smallEnvelopeIsNotCompressed() throws IOException {
+        Ping ping = new Ping(1, 2);
+        EncodedEnvelope encodedEnvelope = EncodedEnvelope.of(ping);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertEquals(encodedEnvelope.getSize(), encodedEnvelope.writeDelimitedTo(outputStream, true));
+        assertArrayEquals(writeDelimited(ping), outputStream.toByteArray());
+    }
+
+    @Test
+    public void decompressRejectsInvalidEnvelopes() throws IOException {
+        byte[] bytes = new CloseConnectionMessage("x".repeat(10000)).toProtoNetworkEnvelope().toByteArray();
+        protobuf.CompressedEnvelope compressedEnvelope = protobuf.NetworkEnvelope.parseFrom(
+                EnvelopeCompression.compress(bytes)).getCompressedEnvelope();
+        assertThrows(InvalidProtocolBufferException.class, () -> EnvelopeCompression.decompress(
+                compressedEnvelope.toBuilder().setUncompressedSize(bytes.length - 1).build()));
+        // The uncompressed size is only a limit
+        assertArrayEquals(bytes, EnvelopeCompression.decompress(
+                compressedEnvelope.toBuilder().setUncompressedSize(bytes.length + 1).build()).toByteArray());
+        assertThrows(InvalidProtocolBufferException.class, () -> EnvelopeCompression.decompress(
+                compressedEnvelope.toBuilder().setUncompressedSize(Connection.getMaxPermittedMessageSize() + 1).build()));
+        assertThrows(InvalidProtocolBufferException.class, () -> EnvelopeCompression.decompress(
+                compressedEnvelope.toBuilder().setData(ByteString.copyFrom(new byte[]{1, 2, 3})).build()));
+    }
+
+    @Test
+    public void bundleIsStaleAfterEnvelopesAreRemoved() {
+        EncodedEnvelope encodedBundle = EncodedEnvelope.bundle(List.of(
+                EncodedEnvelope.of(new CloseConnectionMessage("reason")),
+                EncodedEnvelope.of(new Ping(1, 2))));
+        assertFalse(encodedBundle.isStale());
+
+        ((BundleOfEnvelopes) encodedBundle.getEnvelope()).getEnvelopes().remove(0);
+        assertTrue(encodedBundle.isStale());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.peers.getdata.messages;
+
+import haveno.common.crypto.Hash;
+import haveno.network.p2p.storage.P2PDataStorage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PayloadHashDigestTest {
+
+    private static List<P2PDataStorage.ByteArray> getKeys(int from, int to) {
+        List<P2PDataStorage.ByteArray> keys = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            keys.add(new P2PDataStorage.ByteArray(Hash.getSha256Hash(ByteBuffer.allocate(4).putInt(i).array())));
+        }
+        return keys;
+    }
+
+    @Test
+    public void numBucketsIsBounded() {
+        assertEquals(PayloadHashDigest.MIN_BUCKETS, PayloadHashDigest.getNumBucketsForSize(0));
+        assertEquals(1024, PayloadHashDigest.getNumBucketsForSize(10_000));
+        assertEquals(PayloadHashDigest.MAX_BUCKETS, PayloadHashDigest.getNumBucketsForSize(10_000_000));
+    }
+
+    @Test
+    public void equalKeysMatchAllBuckets() {
+        List<P2PDataStorage.ByteArray> keys = getKeys(0, 1000);
+        PayloadHashDigest digest = PayloadHashDigest.fromKeys(keys);
+        PayloadHashDigest other = PayloadHashDigest.fromKeys(keys, digest.getNumBuckets());
+
+        assertEquals(digest.getNumBuckets(), digest.getNumMatchingBuckets(other));
+        keys.forEach(key -> assertTrue(digest.isInMatchingBucket(key, other)));
+    }
+
+    @Test
+    public void missingKeyIsInNonMatchingBucket() {
+        List<P2PDataStorage.ByteArray> keys = getKeys(0, 1000);
+        PayloadHashDigest requestersDigest = PayloadHashDigest.fromKeys(keys);
+
+        List<P2PDataStorage.ByteArray> responderKeys = getKeys(0, 1001);
+        P2PDataStorage.ByteArray missing = responderKeys.get(1000);
+        PayloadHashDigest respondersDigest = PayloadHashDigest.fromKeys(responderKeys, requestersDigest.getNumBuckets());
+
+        assertFalse(respondersDigest.isInMatchingBucket(missing, requestersDigest));
+        assertEquals(requestersDigest.getNumBuckets() - 1, respondersDigest.getNumMatchingBuckets(requestersDigest));
+    }
+
+    @Test
+    public void protoRoundTrip() {
+        PayloadHashDigest digest = PayloadHashDigest.fromKeys(getKeys(0, 100));
+        assertEquals(digest, PayloadHashDigest.fromProto(digest.toProtoMessage()));
+    }
+
+    @Test
+    public void exactBucketsProtoRoundTrip() {
+        List<P2PDataStorage.ByteArray> keys = getKeys(0, 1000);
+        PayloadHashDigest requestersDigest = PayloadHashDigest.fromKeys(keys.subList(0, 990));
+        PayloadHashDigest respondersDigest = PayloadHashDigest.fromKeys(keys, requestersDigest.getNumBuckets());
+        List<Integer> mismatchedBuckets = respondersDigest.getMismatchedBuckets(requestersDigest);
+        PayloadHashDigest digest = PayloadHashDigest.forExactBuckets(requestersDigest.getNumBuckets(), mismatchedBuckets);
+
+        PayloadHashDigest fromProto = PayloadHashDigest.fromProto(digest.toProtoMessage());
+        assertEquals(digest, fromProto);
+        assertTrue(fromProto.hasExactBuckets());
+        assertEquals(mismatchedBuckets.size(), fromProto.getNumExactBuckets());
+        keys.subList(990, 1000).forEach(key -> assertTrue(fromProto.isInExactBucket(key)));
+    }
+
+    @Test
+    public void invalidExactBucketIsRejected() {
+        protobuf.PayloadHashDigest proto = protobuf.PayloadHashDigest.newBuilder()
+                .setNumBuckets(PayloadHashDigest.MIN_BUCKETS)
+                .addExactBuckets(PayloadHashDigest.MIN_BUCKETS)
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> PayloadHashDigest.fromProto(proto));
+    }
+
+    @Test
+    public void invalidProtoIsRejected() {
+        protobuf.PayloadHashDigest proto = protobuf.PayloadHashDigest.newBuilder()
+                .addCounts(1)
+                .addFingerprints(1)
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> PayloadHashDigest.fromProto(proto));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage;
+
+import haveno.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import haveno.network.p2p.storage.payload.DateSortedTruncatablePayload;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MapForDataResponseCacheTest {
+
+    private static DateSortedTruncatablePayload dateSortedPayload(long date) {
+        DateSortedTruncatablePayload payload = mock(DateSortedTruncatablePayload.class);
+        when(payload.getDate()).thenReturn(new Date(date));
+        when(payload.maxItems()).thenReturn(2);
+        return payload;
+    }
+
+    private static P2PDataStorage.ByteArray key(int i) {
+        return new P2PDataStorage.ByteArray(new byte[]{(byte) i});
+    }
+
+    @Test
+    public void mapsAreCachedPerRequestersVersionUntilStoreChanges() {
+        MapForDataResponseCache cache = new MapForDataResponseCache();
+        AtomicInteger numBuilds = new AtomicInteger();
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        map.put(key(1), new PersistableNetworkPayloadStub(new byte[]{1}));
+
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> first = cache.get("1.0.0", 1, version -> {
+            numBuilds.incrementAndGet();
+            return map;
+        });
+        assertSame(first, cache.get("1.0.0", 1, version -> {
+            numBuilds.incrementAndGet();
+            return map;
+        }));
+        assertEquals(1, numBuilds.get());
+
+        // other versions, also a missing version, get their own map
+        cache.get(null, 1, version -> {
+            numBuilds.incrementAndGet();
+            return map;
+        });
+        assertEquals(2, numBuilds.get());
+
+        // a change of the stores invalidates all maps
+        cache.get("1.0.0", 2, version -> {
+            numBuilds.incrementAndGet();
+            return map;
+        });
+        assertEquals(3, numBuilds.get());
+    }
+
+    @Test
+    public void addedPayloadsAreMergedIntoCachedMaps() {
+        MapForDataResponseCache cache = new MapForDataResponseCache();
+        AtomicInteger numBuilds = new AtomicInteger();
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        map.put(key(1), dateSortedPayload(1000));
+        map.put(key(2), new PersistableNetworkPayloadStub(new byte[]{2}));
+        cache.get("1.0.0", 1, version -> {
+            numBuilds.incrementAndGet();
+            return map;
+        });
+
+        cache.onAdded(key(3), dateSortedPayload(2000), 2);
+        cache.onAdded(key(4), new PersistableNetworkPayloadStub(new byte[]{4}), 3);
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> merged = cache.get("1.0.0", 3, version -> {
+            numBuilds.incrementAndGet();
+            return map;
+        });
+        assertEquals(1, numBuilds.get());
+        assertEquals(List.of(key(2), key(4), key(3), key(1)), new ArrayList<>(merged.keySet()));
+
+        // a missed change of the stores invalidates all maps
+        cache.onAdded(key(5), new PersistableNetworkPayloadStub(new byte[]{5}), 5);
+        cache.get("1.0.0", 5, version -> {
+            numBuilds.incrementAndGet();
+            return map;
+        });
+        assertEquals(2, numBuilds.get());
+    }
+
+    @Test
+    public void dateSortedPayloadsAreLastWithMostRecentFirst() {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        map.put(key(1), dateSortedPayload(2000));
+        map.put(key(2), new PersistableNetworkPayloadStub(new byte[]{2}));
+        map.put(key(3), dateSortedPayload(3000));
+        map.put(key(4), dateSortedPayload(1000));
+
+        List<P2PDataStorage.ByteArray> keys = new ArrayList<>(MapForDataResponseCache.sortForDataResponse(map).keySet());
+
+        assertEquals(List.of(key(2), key(3), key(1), key(4)), keys);
+    }
+
+    @Test
+    public void mapForChunksIsSortedByKeyWithMostRecentDateSortedPayloads() {
+        MapForDataResponseCache cache = new MapForDataResponseCache();
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        map.put(key(4), dateSortedPayload(2000));
+        map.put(key(2), new PersistableNetworkPayloadStub(new byte[]{2}));
+        map.put(key(1), dateSortedPayload(3000));
+        map.put(key(3), dateSortedPayload(1000));
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> cached = cache.get("1.0.0", 1, version -> map);
+
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapForChunks = cache.getForChunks("1.0.0", cached);
+
+        // the oldest of the 3 date sorted payloads exceeds maxItems
+        assertEquals(List.of(key(1), key(2), key(4)), new ArrayList<>(mapForChunks.keySet()));
+        assertSame(mapForChunks, cache.getForChunks("1.0.0", cached));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage;
+
+import haveno.common.crypto.CryptoException;
+import haveno.network.p2p.TestUtils;
+import haveno.network.p2p.network.Connection;
+import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
+import haveno.network.p2p.storage.messages.AddDataMessage;
+import haveno.network.p2p.storage.messages.RemoveDataMessage;
+import haveno.network.p2p.storage.mocks.ExpirableProtectedStoragePayloadStub;
+import haveno.network.p2p.storage.payload.ProtectedStorageEntry;
+import haveno.network.p2p.storage.payload.ProtectedStoragePayload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that listeners get notified once per batch of added entries.
+ */
+public class P2PDataStorageBatchTest {
+    private TestState testState;
+    private HashMapChangedListener listener;
+    private Connection mockedConnection;
+
+    @BeforeEach
+    public void setUp() {
+        testState = new TestState();
+        listener = mock(HashMapChangedListener.class);
+        testState.mockedStorage.addHashMapChangedListener(listener);
+
+        mockedConnection = mock(Connection.class);
+        when(mockedConnection.getPeersNodeAddressOptional()).thenReturn(Optional.of(TestState.getTestNodeAddress()));
+    }
+
+    private ProtectedStorageEntry buildEntry(KeyPair ownerKeys) throws CryptoException {
+        ProtectedStoragePayload protectedStoragePayload = new ExpirableProtectedStoragePayloadStub(ownerKeys.getPublic());
+        return testState.mockedStorage.getProtectedStorageEntry(protectedStoragePayload, ownerKeys);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<ProtectedStorageEntry> captureAdded() {
+        ArgumentCaptor<Collection<ProtectedStorageEntry>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(listener).onAdded(captor.capture());
+        return captor.getValue();
+    }
+
+    // TESTCASE: The entries of a GetDataResponse are signaled to listeners at once
+    @Test
+    public void getDataResponseNotifiesListenersOnce() throws NoSuchAlgorithmException, CryptoException {
+        Set<ProtectedStorageEntry> entries = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            entries.add(buildEntry(TestUtils.generateKeyPair()));
+        }
+
+        testState.mockedStorage.processGetDataResponse(
+                new GetDataResponse(entries, new HashSet<>(), 1, false, false), TestState.getTestNodeAddress());
+
+        assertEquals(entries, new HashSet<>(captureAdded()));
+        entries.forEach(entry -> assertTrue(testState.mockedStorage.getMap().containsValue(entry)));
+    }
+
+    // TESTCASE: AddDataMessages within the batch window are applied immediately and signaled to listeners at once
+    @Test
+    public void addDataMessagesAreBatched() throws NoSuchAlgorithmException, CryptoException {
+        testState.mockedStorage.setAddDataMessageBatchWindowMs(60_000);
+        ProtectedStorageEntry entry1 = buildEntry(TestUtils.generateKeyPair());
+        ProtectedStorageEntry entry2 = buildEntry(TestUtils.generateKeyPair());
+
+        testState.mockedStorage.onMessage(new AddDataMessage(entry1), mockedConnection);
+        testState.mockedStorage.onMessage(new AddDataMessage(entry2), mockedConnection);
+
+        assertTrue(testState.mockedStorage.getMap().containsValue(entry1));
+        assertTrue(testState.mockedStorage.getMap().containsValue(entry2));
+        verify(listener, never()).onAdded(any());
+
+        testState.mockedStorage.shutDown();
+
+        assertEquals(List.of(entry1, entry2), captureAdded());
+    }
+
+    // TESTCASE: A listener throwing at the end of a batch does not leave the batch open
+    @Test
+    public void batchIsClosedIfListenerThrows() throws NoSuchAlgorithmException, CryptoException {
+        ProtectedStorageEntry entry1 = buildEntry(TestUtils.generateKeyPair());
+        ProtectedStorageEntry entry2 = buildEntry(TestUtils.generateKeyPair());
+        doThrow(new IllegalStateException()).doNothing().when(listener).onAdded(any());
+
+        Set<ProtectedStorageEntry> entries = new HashSet<>(List.of(entry1));
+        assertThrows(IllegalStateException.class, () -> testState.mockedStorage.processGetDataResponse(
+                new GetDataResponse(entries, new HashSet<>(), 1, false, false), TestState.getTestNodeAddress()));
+
+        // Without an open batch the add is signaled immediately
+        testState.mockedStorage.addProtectedStorageEntry(entry2, TestState.getTestNodeAddress(), null);
+        verify(listener).onAdded(List.of(entry2));
+    }
+
+    // TESTCASE: Batched adds are signaled before a following remove
+    @Test
+    public void batchedAddsAreSignaledBeforeRemove() throws NoSuchAlgorithmException, CryptoException {
+        testState.mockedStorage.setAddDataMessageBatchWindowMs(60_000);
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+        ProtectedStorageEntry entry = buildEntry(ownerKeys);
+
+        testState.mockedStorage.onMessage(new AddDataMessage(entry), mockedConnection);
+        ProtectedStorageEntry removeEntry = testState.mockedStorage.getProtectedStorageEntry(entry.getProtectedStoragePayload(), ownerKeys);
+        testState.mockedStorage.onMessage(new RemoveDataMessage(removeEntry), mockedConnection);
+
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onAdded(List.of(entry));
+        inOrder.verify(listener).onRemoved(any());
+
+        testState.mockedStorage.shutDown();
+        verify(listener, times(1)).onAdded(any());
+    }
+}
@@ -27,6 +27,7 @@ import haveno.network.p2p.network.NetworkNode;
 import haveno.network.p2p.peers.getdata.messages.GetDataRequest;
 import haveno.network.p2p.peers.getdata.messages.GetDataResponse;
 import haveno.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
+import haveno.network.p2p.peers.getdata.messages.PayloadHashDigest;
 import haveno.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
 import haveno.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
 import haveno.network.p2p.storage.payload.CapabilityRequiringPayload;
@@ -49,8 +50,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -66,6 +70,15 @@ public class P2PDataStorageBuildGetDataResponseTest {
 
         abstract GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys);
 
+        abstract GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, PayloadHashDigest payloadHashDigest);
+
+        abstract GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, byte[] dataResponseCursor);
+
+        abstract GetDataRequest buildGetDataRequest(int nonce,
+                                                    Set<byte[]> knownKeys,
+                                                    PayloadHashDigest payloadHashDigest,
+                                                    byte[] dataResponseCursor);
+
         @Mock
         NetworkNode networkNode;
 
@@ -133,6 +146,7 @@ public class P2PDataStorageBuildGetDataResponseTest {
             when(stub.matchesRelevantPubKey(any(ProtectedStorageEntry.class))).thenReturn(true);
             when(stub.getSequenceNumber()).thenReturn(1);
             when(stub.getProtectedStoragePayload()).thenReturn(protectedStoragePayload);
+            when(stub.getHashOfPayload()).thenReturn(P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload));
 
             return stub;
         }
@@ -188,6 +202,72 @@ public class P2PDataStorageBuildGetDataResponseTest {
             assertTrue(getDataResponse.getDataSet().isEmpty());
         }
 
+        // TESTCASE: Given a GetDataRequest w/ PayloadHashDigest, only PNPs from non matching buckets are sent back
+        @Test
+        public void buildGetDataResponse_payloadHashDigestSendBackMissing() {
+            PersistableNetworkPayload fromPeerAndLocal = new PersistableNetworkPayloadStub(new byte[]{1});
+            PersistableNetworkPayload onlyLocal = new PersistableNetworkPayloadStub(new byte[]{2});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    fromPeerAndLocal, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal, this.localNodeAddress, false);
+
+            PayloadHashDigest payloadHashDigest = PayloadHashDigest.fromKeys(
+                    Collections.singletonList(new P2PDataStorage.ByteArray(fromPeerAndLocal.getHash())));
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(1, new HashSet<>(), payloadHashDigest);
+
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities();
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    getDataRequest, 2, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            assertFalse(outPNPTruncated.get());
+            assertFalse(outPSETruncated.get());
+            assertEquals(1, getDataResponse.getPersistableNetworkPayloadSet().size());
+            assertTrue(getDataResponse.getPersistableNetworkPayloadSet().contains(onlyLocal));
+            assertTrue(getDataResponse.getDataSet().isEmpty());
+        }
+
+        // TESTCASE: Given a GetDataRequest w/ PayloadHashDigest where the requester knows some keys of a non matching
+        // bucket, the requester has to repeat the request with the exact keys of that bucket
+        @Test
+        public void buildGetDataResponse_payloadHashDigestExactBuckets() {
+            PersistableNetworkPayload fromPeerAndLocal = new PersistableNetworkPayloadStub(new byte[]{1});
+            // Same bucket as fromPeerAndLocal
+            PersistableNetworkPayload onlyLocal = new PersistableNetworkPayloadStub(new byte[]{1, 1});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    fromPeerAndLocal, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal, this.localNodeAddress, false);
+
+            PayloadHashDigest payloadHashDigest = PayloadHashDigest.fromKeys(
+                    Collections.singletonList(new P2PDataStorage.ByteArray(fromPeerAndLocal.getHash())));
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities();
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    this.buildGetDataRequest(1, new HashSet<>(), payloadHashDigest), 2,
+                    outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            assertTrue(getDataResponse.getPersistableNetworkPayloadSet().isEmpty());
+            PayloadHashDigest exactBucketsDigest = getDataResponse.getPayloadHashDigest();
+            assertNotNull(exactBucketsDigest);
+            assertEquals(1, exactBucketsDigest.getNumExactBuckets());
+            assertTrue(exactBucketsDigest.isInExactBucket(new P2PDataStorage.ByteArray(onlyLocal.getHash())));
+
+            Set<byte[]> knownKeys = new HashSet<>(Collections.singletonList(fromPeerAndLocal.getHash()));
+            getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    this.buildGetDataRequest(1, knownKeys, exactBucketsDigest), 2,
+                    outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            assertNull(getDataResponse.getPayloadHashDigest());
+            assertEquals(Collections.singleton(onlyLocal), getDataResponse.getPersistableNetworkPayloadSet());
+        }
+
         // TESTCASE: Given a GetDataRequest w/o known PNP, send it back
         @Test
         public void buildGetDataResponse_unknownPNPSendBack() {
@@ -247,6 +327,76 @@ public class P2PDataStorageBuildGetDataResponseTest {
             assertTrue(getDataResponse.getDataSet().isEmpty());
         }
 
+        // TESTCASE: Given a peer supporting DATA_RESPONSE_CURSOR, the PNPs are sent in chunks in the order of their keys
+        @Test
+        public void buildGetDataResponse_unknownPNPSendBackInChunks() {
+            PersistableNetworkPayload onlyLocal1 = new PersistableNetworkPayloadStub(new byte[]{1});
+            PersistableNetworkPayload onlyLocal2 = new PersistableNetworkPayloadStub(new byte[]{(byte) 0x80});
+            PersistableNetworkPayload fromPeerAndLocal = new PersistableNetworkPayloadStub(new byte[]{2});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal1, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal2, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    fromPeerAndLocal, this.localNodeAddress, false);
+
+            Capabilities peerCapabilities = new Capabilities(Collections.singletonList(Capability.DATA_RESPONSE_CURSOR));
+            Set<byte[]> knownKeys = new HashSet<>(Collections.singletonList(fromPeerAndLocal.getHash()));
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    this.buildGetDataRequest(1, knownKeys), 1, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            assertTrue(outPNPTruncated.get());
+            assertTrue(getDataResponse.isWasTruncated());
+            assertEquals(Collections.singleton(onlyLocal1), getDataResponse.getPersistableNetworkPayloadSet());
+            assertArrayEquals(onlyLocal1.getHash(), getDataResponse.getDataResponseCursor());
+
+            // The keys are compared unsigned, so 0x80 is after 2 and the known key is skipped
+            outPNPTruncated = new AtomicBoolean(false);
+            getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    this.buildGetDataRequest(2, knownKeys, getDataResponse.getDataResponseCursor()), 1,
+                    outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            assertFalse(outPNPTruncated.get());
+            assertFalse(getDataResponse.isWasTruncated());
+            assertEquals(Collections.singleton(onlyLocal2), getDataResponse.getPersistableNetworkPayloadSet());
+            assertNull(getDataResponse.getDataResponseCursor());
+        }
+
+        // TESTCASE: Given a GetDataRequest w/ PayloadHashDigest and cursor, the digests are compared only for the PNPs
+        // after the cursor
+        @Test
+        public void buildGetDataResponse_payloadHashDigestAfterCursor() {
+            PersistableNetworkPayload beforeCursor = new PersistableNetworkPayloadStub(new byte[]{1});
+            // Same bucket as beforeCursor
+            PersistableNetworkPayload fromPeerAndLocal = new PersistableNetworkPayloadStub(new byte[]{1, 1});
+            PersistableNetworkPayload onlyLocal = new PersistableNetworkPayloadStub(new byte[]{3});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    beforeCursor, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    fromPeerAndLocal, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal, this.localNodeAddress, false);
+
+            PayloadHashDigest payloadHashDigest = PayloadHashDigest.fromKeys(
+                    Collections.singletonList(new P2PDataStorage.ByteArray(fromPeerAndLocal.getHash())));
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(1, new HashSet<>(), payloadHashDigest, beforeCursor.getHash());
+
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities(Collections.singletonList(Capability.DATA_RESPONSE_CURSOR));
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    getDataRequest, 2, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            assertNull(getDataResponse.getPayloadHashDigest());
+            assertNull(getDataResponse.getDataResponseCursor());
+            assertEquals(Collections.singleton(onlyLocal), getDataResponse.getPersistableNetworkPayloadSet());
+        }
+
         // TESTCASE: Given a GetDataRequest w/o known PNP, but missing required capabilities, nothing is sent back
         @Test
         public void buildGetDataResponse_unknownPNPCapabilitiesMismatchDontSendBack() {
@@ -472,6 +622,24 @@ public class P2PDataStorageBuildGetDataResponseTest {
         GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys) {
             return new PreliminaryGetDataRequest(nonce, knownKeys);
         }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, PayloadHashDigest payloadHashDigest) {
+            return new PreliminaryGetDataRequest(nonce, knownKeys, payloadHashDigest);
+        }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, byte[] dataResponseCursor) {
+            return new PreliminaryGetDataRequest(nonce, knownKeys, null, dataResponseCursor);
+        }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce,
+                                           Set<byte[]> knownKeys,
+                                           PayloadHashDigest payloadHashDigest,
+                                           byte[] dataResponseCursor) {
+            return new PreliminaryGetDataRequest(nonce, knownKeys, payloadHashDigest, dataResponseCursor);
+        }
     }
 
     public static class P2PDataStorageBuildGetDataResponseTestUpdated extends P2PDataStorageBuildGetDataResponseTestBase {
@@ -480,5 +648,24 @@ public class P2PDataStorageBuildGetDataResponseTest {
         GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys) {
             return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeys);
         }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, PayloadHashDigest payloadHashDigest) {
+            return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeys, payloadHashDigest);
+        }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, byte[] dataResponseCursor) {
+            return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeys, null, dataResponseCursor);
+        }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce,
+                                           Set<byte[]> knownKeys,
+                                           PayloadHashDigest payloadHashDigest,
+                                           byte[] dataResponseCursor) {
+            return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeys, payloadHashDigest,
+                    dataResponseCursor);
+        }
     }
 }
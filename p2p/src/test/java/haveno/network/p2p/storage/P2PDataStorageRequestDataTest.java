@@ -84,6 +84,7 @@ public class P2PDataStorageRequestDataTest {
         when(stub.matchesRelevantPubKey(any(ProtectedStorageEntry.class))).thenReturn(true);
         when(stub.getSequenceNumber()).thenReturn(1);
         when(stub.getProtectedStoragePayload()).thenReturn(protectedStoragePayload);
+        when(stub.getHashOfPayload()).thenReturn(P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload));
 
         return stub;
     }
@@ -95,7 +95,8 @@ public class TestState {
                 mockSeqNrPersistenceManager,
                 removedPayloadsService,
                 clockFake,
-                MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE);
+                MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE,
+                false);
 
         appendOnlyDataStoreListener = mock(AppendOnlyDataStoreListener.class);
         hashMapChangedListener = mock(HashMapChangedListener.class);
@@ -152,7 +153,8 @@ public class TestState {
                 sequenceNrMapPersistenceManager,
                 removedPayloadsService,
                 clock,
-                MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE);
+                MAX_SEQUENCE_NUMBER_MAP_SIZE_BEFORE_PURGE,
+                false);
 
         // Currently TestState only supports reading ProtectedStorageEntries off disk.
         p2PDataStorage.readFromResourcesSync("unused");
@@ -161,6 +163,9 @@ public class TestState {
         p2PDataStorage.addHashMapChangedListener(hashMapChangedListener);
         p2PDataStorage.addAppendOnlyDataStoreListener(appendOnlyDataStoreListener);
 
+        // Listeners get notified of AddDataMessages immediately, so the tests can verify them
+        p2PDataStorage.setAddDataMessageBatchWindowMs(0);
+
         return p2PDataStorage;
     }
 
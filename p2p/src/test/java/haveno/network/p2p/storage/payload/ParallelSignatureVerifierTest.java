@@ -0,0 +1,128 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.payload;
+
+import haveno.common.crypto.CryptoException;
+import haveno.common.crypto.Sig;
+import haveno.network.p2p.TestUtils;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.mocks.ProtectedStoragePayloadStub;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class ParallelSignatureVerifierTest {
+    private KeyPair ownerKeys;
+
+    private static ProtectedStorageEntry buildProtectedStorageEntry(KeyPair payloadOwner,
+                                                                    KeyPair signer,
+                                                                    int sequenceNumber) throws CryptoException {
+        ProtectedStoragePayload payload = new ProtectedStoragePayloadStub(payloadOwner.getPublic());
+        byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(new P2PDataStorage.DataAndSeqNrPair(payload, sequenceNumber));
+        byte[] signature = Sig.sign(signer.getPrivate(), hashOfDataAndSeqNr);
+        return new ProtectedStorageEntry(payload, payloadOwner.getPublic(), sequenceNumber, signature,
+                Clock.systemDefaultZone());
+    }
+
+    private static boolean isCached(ProtectedStorageEntry entry) {
+        byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(
+                new P2PDataStorage.DataAndSeqNrPair(entry.getProtectedStoragePayload(), entry.getSequenceNumber()));
+        return ParallelSignatureVerifier.isVerified(ParallelSignatureVerifier.getCacheKey(entry.getOwnerPubKeyBytes(),
+                hashOfDataAndSeqNr, entry.getSignature()));
+    }
+
+    private List<ProtectedStorageEntry> buildEntries(int numEntries) throws CryptoException {
+        List<ProtectedStorageEntry> entries = new ArrayList<>();
+        for (int i = 0; i < numEntries; i++) {
+            entries.add(buildProtectedStorageEntry(ownerKeys, ownerKeys, i + 1));
+        }
+        return entries;
+    }
+
+    @BeforeEach
+    public void setUp() throws NoSuchAlgorithmException {
+        ParallelSignatureVerifier.clearCache();
+        ownerKeys = TestUtils.generateKeyPair();
+    }
+
+    @Test
+    public void verifiedSignaturesAreCached() throws CryptoException {
+        List<ProtectedStorageEntry> entries = buildEntries(20);
+
+        ParallelSignatureVerifier.verify(entries);
+
+        if (Runtime.getRuntime().availableProcessors() > 2) {
+            entries.forEach(entry -> assertTrue(isCached(entry)));
+        }
+        entries.forEach(entry -> assertTrue(entry.isSignatureValid()));
+        entries.forEach(entry -> assertTrue(isCached(entry)));
+    }
+
+    @Test
+    public void invalidSignaturesAreNotCached() throws CryptoException, NoSuchAlgorithmException {
+        KeyPair otherKeys = TestUtils.generateKeyPair();
+        List<ProtectedStorageEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            entries.add(buildProtectedStorageEntry(ownerKeys, otherKeys, i + 1));
+        }
+
+        ParallelSignatureVerifier.verify(entries);
+
+        entries.forEach(entry -> {
+            assertFalse(isCached(entry));
+            assertFalse(entry.isSignatureValid());
+        });
+    }
+
+    // Run with 'gradle benchmark'. Compares the sequential verification with the parallel pre-verification for
+    // typical sizes of the protectedStorageEntries in a GetDataResponse.
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "haveno.benchmark", matches = "true")
+    public void benchmark() throws CryptoException {
+        for (int numEntries : new int[]{100, 500, 2000}) {
+            List<ProtectedStorageEntry> entries = buildEntries(numEntries);
+
+            ParallelSignatureVerifier.clearCache();
+            long ts = System.nanoTime();
+            entries.forEach(ProtectedStorageEntry::isSignatureValid);
+            long sequential = System.nanoTime() - ts;
+
+            ParallelSignatureVerifier.clearCache();
+            ts = System.nanoTime();
+            ParallelSignatureVerifier.verify(entries);
+            entries.forEach(ProtectedStorageEntry::isSignatureValid);
+            long parallel = System.nanoTime() - ts;
+
+            log.info("Verifying {} entries: sequential {} ms, parallel {} ms",
+                    numEntries, sequential / 1_000_000, parallel / 1_000_000);
+        }
+    }
+}
@@ -71,6 +71,18 @@ public class ProtectedMailboxStorageEntryTest {
         Version.setBaseCryptoNetworkId(1);
     }
 
+    // TESTCASE: isReceiver() should only return true for the signature pub key of the receiver
+    @Test
+    public void isReceiver() throws NoSuchAlgorithmException {
+        KeyPair senderKeys = TestUtils.generateKeyPair();
+        KeyPair receiverKeys = TestUtils.generateKeyPair();
+
+        MailboxStoragePayload mailboxStoragePayload = buildMailboxStoragePayload(senderKeys.getPublic(), receiverKeys.getPublic());
+
+        assertTrue(mailboxStoragePayload.isReceiver(Sig.getPublicKeyBytes(receiverKeys.getPublic())));
+        assertFalse(mailboxStoragePayload.isReceiver(Sig.getPublicKeyBytes(senderKeys.getPublic())));
+    }
+
     // TESTCASE: validForAddOperation() should return true if the Entry owner and sender key specified in payload match
     @Test
     public void isValidForAddOperation() throws NoSuchAlgorithmException, CryptoException {
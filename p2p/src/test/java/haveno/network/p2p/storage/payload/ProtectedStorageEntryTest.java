@@ -24,21 +24,33 @@ import haveno.network.p2p.PrefixedSealedAndSignedMessage;
 import haveno.network.p2p.TestUtils;
 import haveno.network.p2p.storage.P2PDataStorage;
 import haveno.network.p2p.storage.mocks.ProtectedStoragePayloadStub;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.time.Clock;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+@Slf4j
 public class ProtectedStorageEntryTest {
     private static ProtectedStorageEntry buildProtectedStorageEntry(KeyPair payloadOwner, KeyPair entryOwner, int sequenceNumber) throws CryptoException {
         return buildProtectedStorageEntry(new ProtectedStoragePayloadStub(payloadOwner.getPublic()), entryOwner, sequenceNumber);
@@ -274,4 +286,64 @@ public class ProtectedStorageEntryTest {
 
         assertTrue(protectedStorageEntry.getCreationTimeStamp() <= baseClock.millis());
     }
+
+    // TESTCASE: The memoized hashes match the hashes computed from the payload and are computed only once
+    @Test
+    public void hashesAreMemoized() throws NoSuchAlgorithmException, CryptoException {
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+        ProtectedStorageEntry protectedStorageEntry = buildProtectedStorageEntry(ownerKeys, ownerKeys, 1);
+        ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
+
+        assertEquals(P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload), protectedStorageEntry.getHashOfPayload());
+        assertSame(protectedStorageEntry.getHashOfPayload(), protectedStorageEntry.getHashOfPayload());
+        assertArrayEquals(P2PDataStorage.get32ByteHash(new P2PDataStorage.DataAndSeqNrPair(protectedStoragePayload, 1)),
+                protectedStorageEntry.getHashOfDataAndSeqNr());
+        assertSame(protectedStorageEntry.getHashOfDataAndSeqNr(), protectedStorageEntry.getHashOfDataAndSeqNr());
+
+        // entries of the same payload map to the same key
+        ProtectedStorageEntry other = new ProtectedStorageEntry(protectedStoragePayload, ownerKeys.getPublic(), 1,
+                protectedStorageEntry.getSignature(), Clock.systemDefaultZone());
+        assertEquals(protectedStorageEntry.getHashOfPayload(), other.getHashOfPayload());
+    }
+
+    // TESTCASE: ByteArray keys with equal bytes are equal and have the same hashCode
+    @Test
+    public void byteArrayEqualsAndHashCode() {
+        P2PDataStorage.ByteArray byteArray = new P2PDataStorage.ByteArray(new byte[]{1, 2, 3});
+
+        assertEquals(byteArray, new P2PDataStorage.ByteArray(new byte[]{1, 2, 3}));
+        assertEquals(byteArray.hashCode(), new P2PDataStorage.ByteArray(new byte[]{1, 2, 3}).hashCode());
+        assertNotEquals(byteArray, new P2PDataStorage.ByteArray(new byte[]{1, 2, 4}));
+        assertNotEquals(byteArray, new P2PDataStorage.ByteArray(new byte[]{1, 2}));
+        assertEquals(byteArray, P2PDataStorage.ByteArray.fromProto(byteArray.toProtoMessage()));
+    }
+
+    // Run with 'gradle benchmark'. Compares looking up stored entries by recomputing the payload hashes with
+    // looking them up by the memoized hashes.
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "haveno.benchmark", matches = "true")
+    public void benchmark() throws NoSuchAlgorithmException, CryptoException {
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+        for (int numEntries : new int[]{1_000, 10_000}) {
+            List<ProtectedStorageEntry> entries = new ArrayList<>(numEntries);
+            Map<P2PDataStorage.ByteArray, ProtectedStorageEntry> map = new HashMap<>();
+            for (int i = 0; i < numEntries; i++) {
+                ProtectedStorageEntry entry = buildProtectedStorageEntry(TestUtils.generateKeyPair(), ownerKeys, 1);
+                entries.add(entry);
+                map.put(entry.getHashOfPayload(), entry);
+            }
+
+            long ts = System.nanoTime();
+            entries.forEach(entry -> map.get(P2PDataStorage.get32ByteHashAsByteArray(entry.getProtectedStoragePayload())));
+            long recomputed = System.nanoTime() - ts;
+
+            ts = System.nanoTime();
+            entries.forEach(entry -> map.get(entry.getHashOfPayload()));
+            long memoized = System.nanoTime() - ts;
+
+            log.info("{} lookups: recomputed hash {} ns, memoized hash {} ns per lookup",
+                    numEntries, recomputed / numEntries, memoized / numEntries);
+        }
+    }
 }
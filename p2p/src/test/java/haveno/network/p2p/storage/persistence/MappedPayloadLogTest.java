@@ -0,0 +1,207 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package haveno.network.p2p.storage.persistence;
+
+import com.google.protobuf.ByteString;
+import haveno.common.Payload;
+import haveno.common.crypto.Hash;
+import haveno.common.proto.ProtoResolver;
+import haveno.common.proto.persistable.PersistablePayload;
+import haveno.network.p2p.storage.P2PDataStorage;
+import haveno.network.p2p.storage.payload.PersistableNetworkPayload;
+import lombok.EqualsAndHashCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedPayloadLogTest {
+    private static final ProtoResolver RESOLVER = new ProtoResolver() {
+        @Override
+        public Payload fromProto(protobuf.PaymentAccountPayload proto) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PersistablePayload fromProto(protobuf.PersistableNetworkPayload proto) {
+            return new TestPayload(proto.getAccountAgeWitness().getHash().toByteArray(),
+                    proto.getAccountAgeWitness().getDate());
+        }
+    };
+
+    @TempDir
+    File tempDir;
+
+    @EqualsAndHashCode
+    private static class TestPayload implements PersistableNetworkPayload {
+        private final byte[] hash;
+        private final long date;
+
+        TestPayload(byte[] hash, long date) {
+            this.hash = hash;
+            this.date = date;
+        }
+
+        @Override
+        public protobuf.PersistableNetworkPayload toProtoMessage() {
+            return protobuf.PersistableNetworkPayload.newBuilder()
+                    .setAccountAgeWitness(protobuf.AccountAgeWitness.newBuilder()
+                            .setHash(ByteString.copyFrom(hash))
+                            .setDate(date))
+                    .build();
+        }
+
+        @Override
+        public byte[] getHash() {
+            return hash;
+        }
+
+        @Override
+        public boolean verifyHashSize() {
+            return true;
+        }
+    }
+
+    private static Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getPayloads(int from, int to) {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            byte[] hash = Hash.getRipemd160hash(ByteBuffer.allocate(4).putInt(i).array());
+            payloads.put(new P2PDataStorage.ByteArray(hash), new TestPayload(hash, i));
+        }
+        return payloads;
+    }
+
+    @Test
+    public void appendedPayloadsAreReadable() throws Exception {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads = getPayloads(0, 10_000);
+        try (MappedPayloadLog payloadLog = new MappedPayloadLog(new File(tempDir, "test.log"), RESOLVER)) {
+            payloadLog.appendAll(payloads, 0);
+
+            assertEquals(payloads.size(), payloadLog.size(tag -> true));
+            payloads.forEach((key, payload) -> {
+                assertTrue(payloadLog.containsKey(key, tag -> true));
+                assertEquals(payload, payloadLog.get(key, tag -> true));
+            });
+            assertEquals(payloads, new HashMap<>(new MappedPayloadMap(payloadLog, tag -> true)));
+        }
+    }
+
+    @Test
+    public void lookupsAfterCloseAreEmpty() throws Exception {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads = getPayloads(0, 100);
+        P2PDataStorage.ByteArray key = payloads.keySet().iterator().next();
+        MappedPayloadLog payloadLog = new MappedPayloadLog(new File(tempDir, "test.log"), RESOLVER);
+        payloadLog.appendAll(payloads, 0);
+        MappedPayloadLog.LazyPayload lazyPayload = payloadLog.iterator(tag -> true).next().getValue();
+
+        payloadLog.close();
+
+        assertFalse(payloadLog.containsKey(key, tag -> true));
+        assertNull(payloadLog.get(key, tag -> true));
+        assertEquals(0, payloadLog.size(tag -> true));
+        assertNull(lazyPayload.get());
+        assertTrue(new MappedPayloadMap(payloadLog, tag -> true).entrySet().isEmpty());
+        assertFalse(payloadLog.iterator(tag -> true).hasNext());
+    }
+
+    @Test
+    public void tagsFilterPayloads() throws Exception {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> first = getPayloads(0, 100);
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> second = getPayloads(50, 200);
+        try (MappedPayloadLog payloadLog = new MappedPayloadLog(new File(tempDir, "test.log"), RESOLVER)) {
+            payloadLog.appendAll(first, 0);
+            payloadLog.appendAll(second, 1);
+
+            // Payloads contained in the first batch are not added again
+            assertEquals(100, payloadLog.size(tag -> tag == 0));
+            assertEquals(100, payloadLog.size(tag -> tag == 1));
+            MappedPayloadMap secondView = new MappedPayloadMap(payloadLog, tag -> tag == 1);
+            assertFalse(secondView.containsKey(first.keySet().iterator().next()));
+            assertNull(secondView.get(getPayloads(0, 1).keySet().iterator().next()));
+            assertEquals(getPayloads(100, 200).keySet(), secondView.keySet());
+        }
+    }
+
+    @Test
+    public void logIsRestoredAfterReopen() throws Exception {
+        File file = new File(tempDir, "test.log");
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads = getPayloads(0, 1000);
+        try (MappedPayloadLog payloadLog = new MappedPayloadLog(file, RESOLVER)) {
+            payloadLog.appendAll(payloads, 3);
+        }
+
+        try (MappedPayloadLog payloadLog = new MappedPayloadLog(file, RESOLVER)) {
+            assertTrue(payloadLog.getCompletedTags().contains(3));
+            assertEquals(payloads, new HashMap<>(new MappedPayloadMap(payloadLog, tag -> tag == 3)));
+        }
+    }
+
+    @Test
+    public void tagsAreBoundToNames() throws Exception {
+        File file = new File(tempDir, "test.log");
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads = getPayloads(0, 100);
+        int tag;
+        try (MappedPayloadLog payloadLog = new MappedPayloadLog(file, RESOLVER)) {
+            payloadLog.getOrAddTag("1.0.0");
+            tag = payloadLog.getOrAddTag("1.0.1");
+            assertEquals(tag, payloadLog.getOrAddTag("1.0.1"));
+            payloadLog.appendAll(payloads, tag);
+        }
+
+        try (MappedPayloadLog payloadLog = new MappedPayloadLog(file, RESOLVER)) {
+            // The names keep their tags, new names get a new tag
+            assertEquals(tag, payloadLog.getOrAddTag("1.0.1"));
+            assertNotEquals(tag, payloadLog.getOrAddTag("1.0.2"));
+            assertTrue(payloadLog.getCompletedTags().contains(tag));
+            assertEquals(payloads, new HashMap<>(new MappedPayloadMap(payloadLog, t -> t == tag)));
+        }
+    }
+
+    @Test
+    public void incompleteRecordIsTruncated() throws Exception {
+        File file = new File(tempDir, "test.log");
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> payloads = getPayloads(0, 10);
+        try (MappedPayloadLog payloadLog = new MappedPayloadLog(file, RESOLVER)) {
+            payloadLog.appendAll(payloads, 0);
+        }
+        long validLength = file.length();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // Header of a record which claims more bytes than were written
+            raf.seek(validLength);
+            raf.writeInt(1000);
+            raf.writeShort(1);
+            raf.writeByte(20);
+        }
+
+        try (MappedPayloadLog payloadLog = new MappedPayloadLog(file, RESOLVER)) {
+            assertEquals(validLength, file.length());
+            assertEquals(payloads.size(), payloadLog.size(tag -> true));
+            assertFalse(payloadLog.getCompletedTags().contains(1));
+        }
+    }
+}